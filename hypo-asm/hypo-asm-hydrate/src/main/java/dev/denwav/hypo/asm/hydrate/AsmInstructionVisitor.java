@@ -0,0 +1,119 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.asm.hydrate;
+
+import dev.denwav.hypo.asm.AsmMethodData;
+import dev.denwav.hypo.core.HypoContext;
+import dev.denwav.hypo.hydrate.HydrationProvider;
+import java.io.IOException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.tree.AbstractInsnNode;
+
+/**
+ * {@link HydrationProvider} which hydrates methods by visiting their instructions one at a time, rather than walking
+ * the {@link org.objectweb.asm.tree.InsnList InsnList} itself. This allows {@link FusedMethodHydrator} to feed several
+ * visitors from a single pass over the instructions of each method.
+ *
+ * <p>Visitors are still normal hydration providers, and can be registered on their own. The default implementation of
+ * {@link #hydrate(AsmMethodData, HypoContext)} visits the instructions of the method with only this visitor.
+ *
+ * @param <T> The type of the methods this visitor targets.
+ */
+public interface AsmInstructionVisitor<T extends AsmMethodData> extends HydrationProvider<T> {
+
+    /**
+     * Returns the {@link org.objectweb.asm.Opcodes opcodes} of the instructions this visitor is interested in, or
+     * {@code null} if it should be given every instruction, including labels, line numbers and frames. Instructions
+     * with any other opcode are not passed to {@link Visit#visitInsn(AbstractInsnNode)}.
+     *
+     * <p>This is only called once, when the visitor is registered, so it must always return the same opcodes.
+     *
+     * @return The opcodes of the instructions this visitor is interested in, or {@code null} for every instruction.
+     */
+    int @Nullable [] opcodes();
+
+    /**
+     * Start visiting the given method, returning the {@link Visit} which will be given its instructions, or
+     * {@code null} if the method should be skipped. This is only called if {@link #isApplicable(Object)
+     * isApplicable()} returned {@code true} for the method.
+     *
+     * @param method The method whose instructions are about to be visited.
+     * @param context The {@link HypoContext context} of this Hypo execution.
+     * @return The {@link Visit} to give the instructions of the method, or {@code null} to skip the method.
+     * @throws IOException If an IO error occurs while hydrating the method.
+     */
+    @Nullable Visit visitMethod(final @NotNull T method, final @NotNull HypoContext context) throws IOException;
+
+    @Override
+    default void hydrate(final @NotNull T data, final @NotNull HypoContext context) throws IOException {
+        if (!this.isApplicable(data)) {
+            return;
+        }
+        final Visit visit = this.visitMethod(data, context);
+        if (visit == null) {
+            return;
+        }
+
+        final int[] opcodes = this.opcodes();
+        for (AbstractInsnNode insn = data.getNode().instructions.getFirst(); insn != null; insn = insn.getNext()) {
+            if (opcodes != null && !contains(opcodes, insn.getOpcode())) {
+                continue;
+            }
+            if (!visit.visitInsn(insn)) {
+                break;
+            }
+        }
+        visit.visitEnd();
+    }
+
+    private static boolean contains(final int @NotNull [] opcodes, final int opcode) {
+        for (final int o : opcodes) {
+            if (o == opcode) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A visit of the instructions of a single method, created by {@link #visitMethod(AsmMethodData, HypoContext)}. A
+     * visit is only used by a single thread, so it can keep any state it needs for the method.
+     */
+    @FunctionalInterface
+    interface Visit {
+
+        /**
+         * Visit the next instruction of the method which has one of the {@link #opcodes() opcodes} of the visitor.
+         *
+         * @param insn The instruction to visit.
+         * @return {@code false} if this visit doesn't need any more instructions of the method.
+         * @throws IOException If an IO error occurs while hydrating the method.
+         */
+        boolean visitInsn(final @NotNull AbstractInsnNode insn) throws IOException;
+
+        /**
+         * Called once after the last instruction of the method, or after {@link #visitInsn(AbstractInsnNode)} returned
+         * {@code false}.
+         *
+         * @throws IOException If an IO error occurs while hydrating the method.
+         */
+        default void visitEnd() throws IOException {}
+    }
+}
@@ -20,6 +20,7 @@ package dev.denwav.hypo.asm.hydrate;
 
 import dev.denwav.hypo.asm.AsmClassData;
 import dev.denwav.hypo.asm.AsmMethodData;
+import dev.denwav.hypo.asm.AsmMethodSummary;
 import dev.denwav.hypo.core.HypoContext;
 import dev.denwav.hypo.hydrate.HydrationProvider;
 import dev.denwav.hypo.hydrate.generic.HypoHydration;
@@ -49,7 +50,7 @@ import org.objectweb.asm.tree.VarInsnNode;
  * <p>This class fills in {@link HypoHydration#SYNTHETIC_SOURCES} and {@link HypoHydration#SYNTHETIC_TARGET} keys on
  * {@link AsmMethodData} objects.
  */
-public class BridgeMethodHydrator implements HydrationProvider<AsmMethodData> {
+public class BridgeMethodHydrator implements AsmInstructionVisitor<AsmMethodData> {
 
     private BridgeMethodHydrator() {}
 
@@ -73,100 +74,138 @@ public class BridgeMethodHydrator implements HydrationProvider<AsmMethodData> {
     }
 
     @Override
-    public void hydrate(@NotNull AsmMethodData data, @NotNull HypoContext context) throws IOException {
+    public boolean isApplicable(final @NotNull AsmMethodData data) {
         if (!data.isSynthetic() || data.name().indexOf('$') != -1) {
-            return;
+            return false;
         }
+        // Bridge methods only delegate to the bridged method
+        final AsmMethodSummary summary = data.summary();
+        return summary.hasOpcode(Opcodes.INVOKEVIRTUAL)
+            || summary.hasOpcode(Opcodes.INVOKEINTERFACE)
+            || summary.hasOpcode(Opcodes.INVOKESPECIAL);
+    }
 
-        State state = State.IN_PARAMS;
-        int nextLvt = 0;
+    @Override
+    public int @Nullable [] opcodes() {
+        // Every instruction is needed to make sure the method does nothing but call the bridged method
+        return null;
+    }
 
-        @Nullable MethodInsnNode invokeInsn = null;
+    @Override
+    public @NotNull Visit visitMethod(final @NotNull AsmMethodData method, final @NotNull HypoContext context) {
+        return new BridgeVisit(method);
+    }
 
-        for (final AbstractInsnNode insn : data.getNode().instructions) {
+    /**
+     * Parser for the instructions of a single potential bridge method.
+     */
+    private static final class BridgeVisit implements Visit {
+
+        private final @NotNull AsmMethodData data;
+
+        private @NotNull State state = State.IN_PARAMS;
+        private int nextLvt = 0;
+        private @Nullable MethodInsnNode invokeInsn = null;
+
+        private BridgeVisit(final @NotNull AsmMethodData data) {
+            this.data = data;
+        }
+
+        @Override
+        public boolean visitInsn(final @NotNull AbstractInsnNode insn) {
             if (insn instanceof LabelNode || insn instanceof LineNumberNode || insn instanceof TypeInsnNode) {
-                continue;
+                return true;
             }
 
-            if (state == State.IN_PARAMS) {
-                if (!(insn instanceof VarInsnNode) || ((VarInsnNode) insn).var != nextLvt) {
-                    state = State.INVOKE;
+            if (this.state == State.IN_PARAMS) {
+                if (!(insn instanceof VarInsnNode) || ((VarInsnNode) insn).var != this.nextLvt) {
+                    this.state = State.INVOKE;
                 }
             }
 
             final int opcode = insn.getOpcode();
-            switch (state) {
+            switch (this.state) {
                 case IN_PARAMS:
-                    nextLvt++;
+                    this.nextLvt++;
                     if (opcode == Opcodes.LLOAD || opcode == Opcodes.DLOAD) {
-                        nextLvt++;
+                        this.nextLvt++;
                     }
-                    break;
+                    return true;
                 case INVOKE:
                     // Must be a virtual or interface or special invoke instruction
                     if (opcode != Opcodes.INVOKEVIRTUAL && opcode != Opcodes.INVOKEINTERFACE && opcode != Opcodes.INVOKESPECIAL) {
-                        return;
+                        return this.fail();
                     }
 
-                    //noinspection DataFlowIssue
-                    invokeInsn = (MethodInsnNode) insn;
-                    state = State.RETURN;
-                    break;
+                    this.invokeInsn = (MethodInsnNode) insn;
+                    this.state = State.RETURN;
+                    return true;
                 case RETURN:
                     // The next instruction must be a return
                     if (opcode < Opcodes.IRETURN || opcode > Opcodes.RETURN) {
-                        return;
+                        return this.fail();
                     }
 
-                    state = State.OTHER_INSN;
-                    break;
+                    this.state = State.OTHER_INSN;
+                    return true;
                 case OTHER_INSN:
+                default:
                     // We shouldn't see any other instructions
-                    return;
+                    return this.fail();
             }
         }
 
-        if (invokeInsn == null) {
-            return;
+        private boolean fail() {
+            this.invokeInsn = null;
+            return false;
         }
-        final @NotNull MethodInsnNode invoke = invokeInsn;
 
-        if (invoke.name.indexOf('$') != -1) {
-            // not a bridge method
-            return;
-        }
+        @Override
+        public void visitEnd() throws IOException {
+            final MethodInsnNode invoke = this.invokeInsn;
+            if (invoke == null) {
+                return;
+            }
 
-        // Must be a method in the same class or a super class with a different signature
-        final AsmClassData parent = data.parentClass();
-        final ClassData grandParent = parent.superClass();
-        final ClassData owner;
-        if (parent.name().equals(invoke.owner)) {
-            owner = parent;
-        } else if (grandParent != null && grandParent.name().equals(invoke.owner)) {
-            owner = grandParent;
-        } else {
-            return;
-        }
-        if (data.name().equals(invoke.name) && data.getNode().desc.equals(invoke.desc)) {
-            return;
-        }
+            if (invoke.name.indexOf('$') != -1) {
+                // not a bridge method
+                return;
+            }
 
-        // The descriptors need to be the same size
-        final MethodDescriptor invokeDesc = MethodDescriptor.parseDescriptor(invoke.desc);
-        if (data.params().size() != invokeDesc.getParams().size()) {
-            return;
-        }
+            final AsmMethodData data = this.data;
+
+            // Must be a method in the same class or a super class with a different signature
+            final AsmClassData parent = data.parentClass();
+            final ClassData grandParent = parent.superClass();
+            final ClassData owner;
+            if (parent.name().equals(invoke.owner)) {
+                owner = parent;
+            } else if (grandParent != null && grandParent.name().equals(invoke.owner)) {
+                owner = grandParent;
+            } else {
+                return;
+            }
+            if (data.name().equals(invoke.name) && data.getNode().desc.equals(invoke.desc)) {
+                return;
+            }
 
-        final MethodData targetMethod = owner.method(invoke.name, invokeDesc);
-        if (targetMethod == null) {
-            return;
-        }
+            // The descriptors need to be the same size
+            final MethodDescriptor invokeDesc = MethodDescriptor.parseDescriptor(invoke.desc);
+            if (data.params().size() != invokeDesc.getParams().size()) {
+                return;
+            }
 
-        data.store(HypoHydration.SYNTHETIC_TARGET, targetMethod);
-        setSynthSource(targetMethod, data);
-        final Set<MethodData> sources = targetMethod.compute(HypoHydration.SYNTHETIC_SOURCES, HashSet::new);
-        synchronized (sources) {
-            sources.add(data);
+            final MethodData targetMethod = owner.method(invoke.name, invoke.desc);
+            if (targetMethod == null) {
+                return;
+            }
+
+            data.store(HypoHydration.SYNTHETIC_TARGET, targetMethod);
+            setSynthSource(targetMethod, data);
+            final Set<MethodData> sources = targetMethod.compute(HypoHydration.SYNTHETIC_SOURCES, HashSet::new);
+            synchronized (sources) {
+                sources.add(data);
+            }
         }
     }
 
@@ -176,7 +215,7 @@ public class BridgeMethodHydrator implements HydrationProvider<AsmMethodData> {
     }
 
     /**
-     * State for the parser in {@link #hydrate(AsmMethodData, HypoContext)}, used internally.
+     * State for the parser of the instructions of a potential bridge method, used internally.
      */
     enum State {
         /**
@@ -0,0 +1,302 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.asm.hydrate;
+
+import dev.denwav.hypo.asm.AsmClassData;
+import dev.denwav.hypo.asm.AsmMethodData;
+import dev.denwav.hypo.core.HypoContext;
+import dev.denwav.hypo.hydrate.HierarchyGraph;
+import dev.denwav.hypo.hydrate.HydrationProvider;
+import dev.denwav.hypo.model.HypoModelUtil;
+import dev.denwav.hypo.model.data.HypoKey;
+import dev.denwav.hypo.model.data.MethodData;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.tree.AbstractInsnNode;
+
+/**
+ * {@link HydrationProvider} which runs several method {@link HydrationProvider providers} together, one class at a
+ * time. Registering this provider in place of its members has two benefits:
+ *
+ * <ul>
+ *     <li>{@link AsmInstructionVisitor Instruction visitors} which run in the same stage are fed from a single pass
+ *     over the instructions of each method, rather than each walking the instructions on their own.</li>
+ *     <li>Members which {@link HydrationProvider#dependsOn() depend on} other members run right after them for the
+ *     same class, rather than waiting for them to finish for every class in the context.</li>
+ * </ul>
+ *
+ * <p>Members are split into stages by their {@link HydrationProvider#provides() provided} and depended on keys, the
+ * same way {@link dev.denwav.hypo.hydrate.DefaultHydrationManager DefaultHydrationManager} does. Each stage runs over
+ * every method of the class before the next stage starts. Members which aren't instruction visitors are run as usual
+ * for each method of their stage. Members can't depend on each other in a cycle, creating a fused provider from such
+ * members throws an {@link IllegalArgumentException}.
+ *
+ * <p>Members which depend on keys set on other classes are not guaranteed to see them, since other classes may not have
+ * been hydrated yet. This is not an issue for the providers in this module, which only depend on data their own class
+ * provides.
+ */
+public final class FusedMethodHydrator implements HydrationProvider<AsmClassData> {
+
+    private final @NotNull List<HypoKey<?>> provides;
+    private final @NotNull List<HypoKey<?>> dependsOn;
+    private final @NotNull Stage @NotNull [] stages;
+
+    private FusedMethodHydrator(final @NotNull List<HydrationProvider<? extends AsmMethodData>> members) {
+        final LinkedHashSet<HypoKey<?>> provides = new LinkedHashSet<>();
+        final LinkedHashSet<HypoKey<?>> dependsOn = new LinkedHashSet<>();
+        for (final HydrationProvider<? extends AsmMethodData> member : members) {
+            if (!AsmMethodData.class.isAssignableFrom(member.target())) {
+                throw new IllegalArgumentException("Given HydrationProvider (" + member +
+                    ") targets an invalid type: " + member.target());
+            }
+            provides.addAll(member.provides());
+            dependsOn.addAll(member.dependsOn());
+        }
+        // Keys provided by members are handled by the stages
+        dependsOn.removeAll(provides);
+        this.provides = List.copyOf(provides);
+        this.dependsOn = List.copyOf(dependsOn);
+
+        final List<List<HydrationProvider<? extends AsmMethodData>>> levels;
+        try {
+            levels = createMemberGraph(members).vertexLevels();
+        } catch (final IllegalStateException e) {
+            throw new IllegalArgumentException("Given HydrationProviders have cyclic dependencies", e);
+        }
+        this.stages = new Stage[levels.size()];
+        for (int i = 0; i < levels.size(); i++) {
+            this.stages[i] = new Stage(levels.get(i));
+        }
+    }
+
+    /**
+     * Create a new instance of {@link FusedMethodHydrator} which runs the given providers.
+     *
+     * @param members The method providers to run.
+     * @return A new instance of {@link FusedMethodHydrator}.
+     * @throws IllegalArgumentException If any of the given providers doesn't target {@link AsmMethodData}, if more
+     *                                  than 64 {@link AsmInstructionVisitor instruction visitors} run in the same stage,
+     *                                  or if the given providers have cyclic dependencies.
+     */
+    @SafeVarargs
+    @Contract(value = "_ -> new", pure = true)
+    public static @NotNull FusedMethodHydrator create(
+        final @NotNull HydrationProvider<? extends AsmMethodData> @NotNull ... members
+    ) {
+        final ArrayList<HydrationProvider<? extends AsmMethodData>> list = new ArrayList<>(members.length);
+        for (final HydrationProvider<? extends AsmMethodData> member : members) {
+            list.add(member);
+        }
+        return new FusedMethodHydrator(list);
+    }
+
+    /**
+     * Create a new instance of {@link FusedMethodHydrator} which runs the given providers.
+     *
+     * @param members The method providers to run.
+     * @return A new instance of {@link FusedMethodHydrator}.
+     * @throws IllegalArgumentException If any of the given providers doesn't target {@link AsmMethodData}, if more
+     *                                  than 64 {@link AsmInstructionVisitor instruction visitors} run in the same stage,
+     *                                  or if the given providers have cyclic dependencies.
+     */
+    @Contract(value = "_ -> new", pure = true)
+    public static @NotNull FusedMethodHydrator create(
+        final @NotNull List<? extends HydrationProvider<? extends AsmMethodData>> members
+    ) {
+        return new FusedMethodHydrator(new ArrayList<>(members));
+    }
+
+    @Override
+    public @NotNull Class<? extends AsmClassData> target() {
+        return AsmClassData.class;
+    }
+
+    @Override
+    public List<HypoKey<?>> provides() {
+        return this.provides;
+    }
+
+    @Override
+    public List<HypoKey<?>> dependsOn() {
+        return this.dependsOn;
+    }
+
+    @Override
+    public void hydrate(final @NotNull AsmClassData data, final @NotNull HypoContext context) throws IOException {
+        final List<MethodData> methods = data.methods();
+        for (final Stage stage : this.stages) {
+            for (final MethodData method : methods) {
+                if (method instanceof AsmMethodData) {
+                    stage.hydrate((AsmMethodData) method, context);
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("ReferenceEquality")
+    private static @NotNull HierarchyGraph<HydrationProvider<? extends AsmMethodData>> createMemberGraph(
+        final @NotNull List<HydrationProvider<? extends AsmMethodData>> members
+    ) {
+        // The ID of each member is its index in members
+        final HierarchyGraph<HydrationProvider<? extends AsmMethodData>> g = new HierarchyGraph<>();
+        for (final HydrationProvider<? extends AsmMethodData> member : members) {
+            g.addVertex(member);
+        }
+
+        for (int current = 0; current < members.size(); current++) {
+            for (final HypoKey<?> dependentKey : members.get(current).dependsOn()) {
+                for (int providing = 0; providing < members.size(); providing++) {
+                    for (final HypoKey<?> providedKey : members.get(providing).provides()) {
+                        if (dependentKey == providedKey) {
+                            g.addEdge(providing, current);
+                        }
+                    }
+                }
+            }
+        }
+        return g;
+    }
+
+    /**
+     * Members which run in the same stage, split into instruction visitors and other providers.
+     */
+    private static final class Stage {
+
+        private final @NotNull List<HydrationProvider<? extends AsmMethodData>> providers;
+        private final @NotNull AsmInstructionVisitor<?> @NotNull [] visitors;
+        /**
+         * Bit {@code i} of the element at {@code opcode + 1} is set if visitor {@code i} is interested in instructions
+         * with that opcode. Labels, line numbers and frames have the opcode {@code -1}.
+         */
+        private final long @NotNull [] interest = new long[257];
+
+        private Stage(final @NotNull List<HydrationProvider<? extends AsmMethodData>> members) {
+            final ArrayList<HydrationProvider<? extends AsmMethodData>> providers = new ArrayList<>();
+            final ArrayList<AsmInstructionVisitor<?>> visitors = new ArrayList<>();
+            for (final HydrationProvider<? extends AsmMethodData> member : members) {
+                if (member instanceof AsmInstructionVisitor) {
+                    visitors.add((AsmInstructionVisitor<?>) member);
+                } else {
+                    providers.add(member);
+                }
+            }
+            if (visitors.size() > Long.SIZE) {
+                throw new IllegalArgumentException("Too many instruction visitors in a single stage: " + visitors.size());
+            }
+            this.providers = List.copyOf(providers);
+            this.visitors = visitors.toArray(new AsmInstructionVisitor<?>[0]);
+
+            for (int i = 0; i < this.visitors.length; i++) {
+                final long bit = 1L << i;
+                final int[] opcodes = this.visitors[i].opcodes();
+                if (opcodes == null) {
+                    for (int j = 0; j < this.interest.length; j++) {
+                        this.interest[j] |= bit;
+                    }
+                    continue;
+                }
+                for (final int opcode : opcodes) {
+                    if (opcode < 0 || opcode >= this.interest.length - 1) {
+                        throw new IllegalArgumentException("Invalid opcode " + opcode + " from " + this.visitors[i]);
+                    }
+                    this.interest[opcode + 1] |= bit;
+                }
+            }
+        }
+
+        private void hydrate(final @NotNull AsmMethodData method, final @NotNull HypoContext context) throws IOException {
+            for (int i = 0; i < this.providers.size(); i++) {
+                runProvider(this.providers.get(i), method, context);
+            }
+
+            @NotNull AsmInstructionVisitor.Visit @Nullable [] visits = null;
+            long active = 0L;
+            for (int i = 0; i < this.visitors.length; i++) {
+                final AsmInstructionVisitor.Visit visit = startVisit(this.visitors[i], method, context);
+                if (visit == null) {
+                    continue;
+                }
+                if (visits == null) {
+                    visits = new AsmInstructionVisitor.Visit[this.visitors.length];
+                }
+                visits[i] = visit;
+                active |= 1L << i;
+            }
+            if (visits == null) {
+                return;
+            }
+
+            final long started = active;
+            for (AbstractInsnNode insn = method.getNode().instructions.getFirst(); insn != null; insn = insn.getNext()) {
+                long bits = this.interest[insn.getOpcode() + 1] & active;
+                while (bits != 0L) {
+                    final int i = Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    if (!visits[i].visitInsn(insn)) {
+                        active &= ~(1L << i);
+                    }
+                }
+                if (active == 0L) {
+                    break;
+                }
+            }
+
+            long ended = started;
+            while (ended != 0L) {
+                final int i = Long.numberOfTrailingZeros(ended);
+                ended &= ended - 1;
+                visits[i].visitEnd();
+            }
+        }
+
+        private static <T extends AsmMethodData> void runProvider(
+            final @NotNull HydrationProvider<T> provider,
+            final @NotNull AsmMethodData method,
+            final @NotNull HypoContext context
+        ) throws IOException {
+            if (!provider.target().isInstance(method)) {
+                return;
+            }
+            final T target = HypoModelUtil.cast(method);
+            if (provider.isApplicable(target)) {
+                provider.hydrate(target, context);
+            }
+        }
+
+        private static <T extends AsmMethodData> AsmInstructionVisitor.@Nullable Visit startVisit(
+            final @NotNull AsmInstructionVisitor<T> visitor,
+            final @NotNull AsmMethodData method,
+            final @NotNull HypoContext context
+        ) throws IOException {
+            if (!visitor.target().isInstance(method)) {
+                return null;
+            }
+            final T target = HypoModelUtil.cast(method);
+            if (!visitor.isApplicable(target)) {
+                return null;
+            }
+            return visitor.visitMethod(target, context);
+        }
+    }
+}
@@ -40,7 +40,6 @@ import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.InvokeDynamicInsnNode;
-import org.objectweb.asm.tree.MethodNode;
 import org.objectweb.asm.tree.VarInsnNode;
 
 import static dev.denwav.hypo.asm.HypoAsmUtil.toDescriptor;
@@ -51,7 +50,7 @@ import static dev.denwav.hypo.model.data.MethodDescriptor.parseDescriptor;
  * local variables which they capture. It sets {@link HypoHydration#LAMBDA_CALLS} on both the methods which contain
  * the lambda expressions, and the lambda methods themselves.
  */
-public final class LambdaCallHydrator implements HydrationProvider<AsmMethodData> {
+public final class LambdaCallHydrator implements AsmInstructionVisitor<AsmMethodData> {
 
     private static final Handle lambdaMetafactoryHandle = new Handle(
         Opcodes.H_INVOKESTATIC,
@@ -91,111 +90,124 @@ public final class LambdaCallHydrator implements HydrationProvider<AsmMethodData
     }
 
     @Override
-    public void hydrate(final @NotNull AsmMethodData data, final @NotNull HypoContext context) throws IOException {
-        final MethodNode node = data.getNode();
-
-        for (final AbstractInsnNode insn : node.instructions) {
-            if (insn.getOpcode() != Opcodes.INVOKEDYNAMIC) {
-                continue;
-            }
+    public boolean isApplicable(final @NotNull AsmMethodData data) {
+        // Lambdas are always created with invokedynamic
+        return data.summary().invokeDynamicCount() > 0;
+    }
 
-            final InvokeDynamicInsnNode dyn = (InvokeDynamicInsnNode) insn;
-            if (!lambdaMetafactoryHandle.equals(dyn.bsm)) {
-                continue;
-            }
+    @Override
+    public int @NotNull [] opcodes() {
+        return new int[] { Opcodes.INVOKEDYNAMIC };
+    }
 
-            // This is a lambda CallSite
-            if (dyn.bsmArgs.length != 3) {
-                // This is invalid bytecode
-                continue;
-            }
+    @Override
+    public @NotNull Visit visitMethod(final @NotNull AsmMethodData data, final @NotNull HypoContext context) {
+        return insn -> {
+            this.visitInvokeDynamic(data, (InvokeDynamicInsnNode) insn, context);
+            return true;
+        };
+    }
 
-            final Object bsmArgHandle = dyn.bsmArgs[1];
-            if (!(bsmArgHandle instanceof Handle)) {
-                // This is also invalid bytecode
-                continue;
-            }
-            final Handle handle = (Handle) bsmArgHandle;
+    private void visitInvokeDynamic(
+        final @NotNull AsmMethodData data,
+        final @NotNull InvokeDynamicInsnNode dyn,
+        final @NotNull HypoContext context
+    ) throws IOException {
+        if (!lambdaMetafactoryHandle.equals(dyn.bsm)) {
+            return;
+        }
 
-            final Object bsmDesc = dyn.bsmArgs[0];
-            if (!(bsmDesc instanceof Type)) {
-                // This is also invalid bytecode
-                continue;
-            }
-            final Type interfaceDesc = (Type) bsmDesc;
+        // This is a lambda CallSite
+        if (dyn.bsmArgs.length != 3) {
+            // This is invalid bytecode
+            return;
+        }
 
-            final ClassData owner;
-            if (data.parentClass().name().equals(handle.getOwner())) {
-                owner = data.parentClass();
-            } else {
-                owner = context.getContextProvider().findClass(handle.getOwner());
-            }
+        final Object bsmArgHandle = dyn.bsmArgs[1];
+        if (!(bsmArgHandle instanceof Handle)) {
+            // This is also invalid bytecode
+            return;
+        }
+        final Handle handle = (Handle) bsmArgHandle;
 
-            if (owner == null) {
-                continue;
-            }
+        final Object bsmDesc = dyn.bsmArgs[0];
+        if (!(bsmDesc instanceof Type)) {
+            // This is also invalid bytecode
+            return;
+        }
+        final Type interfaceDesc = (Type) bsmDesc;
 
-            final MethodDescriptor desc = parseDescriptor(dyn.desc);
-            final List<@NotNull JvmType> params = desc.getParams();
-            final int paramsSize = params.size();
-            final int[] closureIndices = new int[paramsSize];
+        final ClassData owner;
+        if (data.parentClass().name().equals(handle.getOwner())) {
+            owner = data.parentClass();
+        } else {
+            owner = context.getContextProvider().findClass(handle.getOwner());
+        }
 
-            boolean finished = false;
-            AbstractInsnNode prevInsn = insn;
-            for (int i = paramsSize - 1; i >= 0; i--) {
-                prevInsn = prevInsn.getPrevious();
+        if (owner == null) {
+            return;
+        }
 
-                if (prevInsn.getType() != AbstractInsnNode.VAR_INSN) {
-                    break;
-                }
+        final MethodDescriptor desc = parseDescriptor(dyn.desc);
+        final List<@NotNull JvmType> params = desc.getParams();
+        final int paramsSize = params.size();
+        final int[] closureIndices = new int[paramsSize];
 
-                final VarInsnNode var = (VarInsnNode) prevInsn;
-                closureIndices[i] = var.var;
+        boolean finished = false;
+        AbstractInsnNode prevInsn = dyn;
+        for (int i = paramsSize - 1; i >= 0; i--) {
+            prevInsn = prevInsn.getPrevious();
 
-                if (i == 0) {
-                    finished = true;
-                }
+            if (prevInsn.getType() != AbstractInsnNode.VAR_INSN) {
+                break;
             }
 
-            final MethodData targetMethod = owner.method(handle.getName(), parseDescriptor(handle.getDesc()));
-            if (targetMethod == null) {
-                continue;
-            }
+            final VarInsnNode var = (VarInsnNode) prevInsn;
+            closureIndices[i] = var.var;
 
-            @Nullable MethodData interfaceMethod = null;
-            final ClassData interfaceType = context.getContextProvider().findClass(desc.getReturnType());
-            if (interfaceType != null) {
-                interfaceMethod = interfaceType.method(dyn.name, toDescriptor(interfaceDesc));
+            if (i == 0) {
+                finished = true;
             }
+        }
 
-            final LambdaClosure call = new LambdaClosure(
-                data,
-                interfaceMethod,
-                targetMethod,
-                finished ? closureIndices : HypoAsmUtil.EMPTY_INT_ARRAY
-            );
+        final MethodData targetMethod = owner.method(handle.getName(), handle.getDesc());
+        if (targetMethod == null) {
+            return;
+        }
 
-            final List<LambdaClosure> methodClosures = data.compute(HypoHydration.LAMBDA_CALLS, ArrayList::new);
-            synchronized (methodClosures) {
-                methodClosures.add(call);
-            }
+        @Nullable MethodData interfaceMethod = null;
+        final ClassData interfaceType = context.getContextProvider().findClass(desc.getReturnType());
+        if (interfaceType != null) {
+            interfaceMethod = interfaceType.method(dyn.name, toDescriptor(interfaceDesc));
+        }
 
-            final List<LambdaClosure> targetCalls = targetMethod.compute(HypoHydration.LAMBDA_CALLS, ArrayList::new);
-            synchronized (targetCalls) {
-                targetCalls.add(call);
-            }
+        final LambdaClosure call = new LambdaClosure(
+            data,
+            interfaceMethod,
+            targetMethod,
+            finished ? closureIndices : HypoAsmUtil.EMPTY_INT_ARRAY
+        );
+
+        final List<LambdaClosure> methodClosures = data.compute(HypoHydration.LAMBDA_CALLS, ArrayList::new);
+        synchronized (methodClosures) {
+            methodClosures.add(call);
+        }
+
+        final List<LambdaClosure> targetCalls = targetMethod.compute(HypoHydration.LAMBDA_CALLS, ArrayList::new);
+        synchronized (targetCalls) {
+            targetCalls.add(call);
+        }
 
-            if (interfaceMethod != null) {
-                final List<LambdaClosure> interfaceMethodLambdas = interfaceMethod.compute(HypoHydration.LAMBDA_CALLS, ArrayList::new);
-                outer: synchronized (interfaceMethodLambdas) {
-                    for (final LambdaClosure lambdaClosure : interfaceMethodLambdas) {
-                        if (lambdaClosure.getLambda().equals(targetMethod)) {
-                            break outer;
-                        }
+        if (interfaceMethod != null) {
+            final List<LambdaClosure> interfaceMethodLambdas = interfaceMethod.compute(HypoHydration.LAMBDA_CALLS, ArrayList::new);
+            outer: synchronized (interfaceMethodLambdas) {
+                for (final LambdaClosure lambdaClosure : interfaceMethodLambdas) {
+                    if (lambdaClosure.getLambda().equals(targetMethod)) {
+                        break outer;
                     }
-                    // only add if the target method isn't already included in a lambda to avoid duplicates
-                    interfaceMethodLambdas.add(call);
                 }
+                // only add if the target method isn't already included in a lambda to avoid duplicates
+                interfaceMethodLambdas.add(call);
             }
         }
     }
@@ -79,6 +79,13 @@ public final class LocalClassHydrator implements HydrationProvider<AsmMethodData
         return AsmMethodData.class;
     }
 
+    @Override
+    public boolean isApplicable(final @NotNull AsmMethodData data) {
+        // Local and anonymous classes are always inner classes of the class declaring the method. Methods without any
+        // constructor calls can't be skipped, the local classes they declare are still recorded without captures.
+        return !data.parentClass().innerClasses().isEmpty();
+    }
+
     @Override
     public void hydrate(final @NotNull AsmMethodData data, final @NotNull HypoContext context) throws IOException {
         @Nullable ArrayList<AsmClassData> nestedClasses = null;
@@ -170,8 +177,13 @@ public final class LocalClassHydrator implements HydrationProvider<AsmMethodData
         if (lambdaCalls == null) {
             return;
         }
+        // Other classes may still be adding lambdas which target this method when run by FusedMethodHydrator
+        final List<LambdaClosure> lambdaCallsCopy;
+        synchronized (lambdaCalls) {
+            lambdaCallsCopy = new ArrayList<>(lambdaCalls);
+        }
 
-        for (final LambdaClosure lambdaCall : lambdaCalls) {
+        for (final LambdaClosure lambdaCall : lambdaCallsCopy) {
             if (nestedClasses.isEmpty()) {
                 return;
             }
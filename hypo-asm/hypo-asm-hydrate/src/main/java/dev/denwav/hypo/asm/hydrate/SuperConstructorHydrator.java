@@ -28,7 +28,6 @@ import dev.denwav.hypo.model.data.ClassData;
 import dev.denwav.hypo.model.data.ConstructorData;
 import dev.denwav.hypo.model.data.HypoKey;
 import dev.denwav.hypo.model.data.MethodData;
-import dev.denwav.hypo.model.data.MethodDescriptor;
 import dev.denwav.hypo.model.data.types.JvmType;
 import dev.denwav.hypo.model.data.types.PrimitiveType;
 import java.io.IOException;
@@ -87,6 +86,12 @@ public class SuperConstructorHydrator implements HydrationProvider<AsmConstructo
         return AsmConstructorData.class;
     }
 
+    @Override
+    public boolean isApplicable(final @NotNull AsmConstructorData data) {
+        // Both this() and super() calls are invokespecial
+        return data.summary().invokeSpecialCount() > 0;
+    }
+
     @Override
     public void hydrate(@NotNull AsmConstructorData data, @NotNull HypoContext context) throws IOException {
         try {
@@ -125,7 +130,7 @@ public class SuperConstructorHydrator implements HydrationProvider<AsmConstructo
             throw new IllegalStateException("Could not determine owner of super method");
         }
 
-        final MethodData targetMethod = targetClass.method("<init>", MethodDescriptor.parseDescriptor(desc));
+        final MethodData targetMethod = targetClass.method("<init>", desc);
         if (!(targetMethod instanceof ConstructorData)) {
             throw new IllegalStateException("Target constructor is not an instance of " + ConstructorData.class.getName());
         }
@@ -32,6 +32,7 @@ import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Callable;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -44,7 +45,6 @@ import org.objectweb.asm.tree.MethodNode;
 import org.objectweb.asm.tree.RecordComponentNode;
 
 import static dev.denwav.hypo.asm.HypoAsmUtil.toJvmType;
-import static dev.denwav.hypo.model.data.MethodDescriptor.parseDescriptor;
 import static org.objectweb.asm.Type.getType;
 
 /**
@@ -54,6 +54,13 @@ import static org.objectweb.asm.Type.getType;
 public class AsmClassData extends LazyClassData {
 
     private final @NotNull ClassNode node;
+    /**
+     * Source of the class file {@link #node} was created from, only retained if method bodies were skipped while
+     * parsing. This is set to {@code null} once the method bodies are loaded.
+     *
+     * @see #loadMethodBodies()
+     */
+    private volatile @Nullable Callable<byte @Nullable []> skippedClassFile;
 
     /**
      * Construct a new instance of {@link AsmClassData} using the given {@link ClassNode}.
@@ -61,18 +68,121 @@ public class AsmClassData extends LazyClassData {
      * @param node The {@link ClassNode} to use for this {@link AsmClassData}.
      */
     public AsmClassData(final @NotNull ClassNode node) {
+        this(node, null);
+    }
+
+    /**
+     * Construct a new instance of {@link AsmClassData} using the given {@link ClassNode}, which may have been created
+     * without method bodies.
+     *
+     * @param node The {@link ClassNode} to use for this {@link AsmClassData}.
+     * @param skippedClassFile Source of the class file {@code node} was created from if method bodies were skipped,
+     *                         otherwise {@code null}.
+     */
+    AsmClassData(final @NotNull ClassNode node, final @Nullable Callable<byte @Nullable []> skippedClassFile) {
         this.node = node;
+        this.skippedClassFile = skippedClassFile;
     }
 
     /**
      * Returns the {@link ClassNode} which backs this {@link AsmClassData}.
      *
+     * <p>If this class was parsed without method bodies, they are loaded before the node is returned.
+     *
      * @return The {@link ClassNode} which backs this {@link AsmClassData}.
+     * @see #readFileHeader(byte[])
      */
     public @NotNull ClassNode getNode() {
+        this.loadMethodBodies();
         return this.node;
     }
 
+    /**
+     * If this class was parsed without method bodies, read and parse the class file in full and move the method bodies
+     * and debug info into the existing {@link MethodNode MethodNodes} of {@link #node}. Existing nodes are kept, so any
+     * references to them (such as from {@link AsmMethodData}) remain valid.
+     *
+     * <p>This method is thread safe, the class file is only re-parsed once.
+     */
+    void loadMethodBodies() {
+        if (this.skippedClassFile == null) {
+            return;
+        }
+
+        synchronized (this.node) {
+            final Callable<byte @Nullable []> classFileSource = this.skippedClassFile;
+            if (classFileSource == null) {
+                return;
+            }
+
+            final byte[] classFile;
+            try {
+                classFile = classFileSource.call();
+            } catch (final Exception e) {
+                throw HypoModelUtil.rethrow(e);
+            }
+            if (classFile == null) {
+                throw new IllegalStateException("Class file for " + this.name() + " is no longer available");
+            }
+
+            final AsmClassNode full = new AsmClassNode(true);
+            new ClassReader(classFile).accept(full, 0);
+
+            this.node.sourceFile = full.sourceFile;
+            this.node.sourceDebug = full.sourceDebug;
+            for (int i = 0; i < this.node.methods.size(); i++) {
+                final MethodNode target = this.node.methods.get(i);
+                final MethodNode source = findMethodNode(full, target, i);
+                target.parameters = source.parameters;
+                target.instructions = source.instructions;
+                target.tryCatchBlocks = source.tryCatchBlocks;
+                target.maxStack = source.maxStack;
+                target.maxLocals = source.maxLocals;
+                target.localVariables = source.localVariables;
+                target.visibleLocalVariableAnnotations = source.visibleLocalVariableAnnotations;
+                target.invisibleLocalVariableAnnotations = source.invisibleLocalVariableAnnotations;
+                if (target instanceof AsmMethodNode) {
+                    ((AsmMethodNode) target).summary = ((AsmMethodNode) source).summary;
+                }
+            }
+
+            this.skippedClassFile = null;
+        }
+    }
+
+    /**
+     * Find the method of the given fully parsed class node which matches the given method node without its body.
+     * Methods are usually listed in the same order by both nodes, so the method at the same index is checked first,
+     * but that isn't relied on, as {@code target} may come from somewhere other than the same class file, such as a
+     * summary.
+     *
+     * @param full The fully parsed class node to search.
+     * @param target The method node without its body.
+     * @param index The index of {@code target} in its own class node.
+     * @return The method of {@code full} with the same name and descriptor as {@code target}.
+     * @throws IllegalStateException If {@code full} doesn't contain a matching method.
+     */
+    private static @NotNull MethodNode findMethodNode(
+        final @NotNull ClassNode full,
+        final @NotNull MethodNode target,
+        final int index
+    ) {
+        if (index < full.methods.size()) {
+            final MethodNode source = full.methods.get(index);
+            if (source.name.equals(target.name) && source.desc.equals(target.desc)) {
+                return source;
+            }
+        }
+        for (final MethodNode source : full.methods) {
+            if (source.name.equals(target.name) && source.desc.equals(target.desc)) {
+                return source;
+            }
+        }
+        throw new IllegalStateException(
+            "Class file for " + full.name + " no longer contains method " + target.name + target.desc
+        );
+    }
+
     @Override
     public @NotNull String computeName() {
         return this.name();
@@ -114,7 +224,7 @@ public class AsmClassData extends LazyClassData {
                     throw HypoModelUtil.rethrow(e);
                 }
                 if (outerClass != null) {
-                    final MethodData outerMethod = outerClass.method(this.node.outerMethod, parseDescriptor(this.node.outerMethodDesc));
+                    final MethodData outerMethod = outerClass.method(this.node.outerMethod, this.node.outerMethodDesc);
                     if (outerMethod != null) {
                         return outerMethod.isStatic();
                     }
@@ -216,11 +326,6 @@ public class AsmClassData extends LazyClassData {
         return kinds;
     }
 
-    @Override
-    public @NotNull EnumSet<ClassKind> kinds() {
-        return EnumSet.copyOf(super.kinds());
-    }
-
     @Override
     public @NotNull Visibility computeVisibility() {
         return this.visibility();
@@ -292,9 +397,27 @@ public class AsmClassData extends LazyClassData {
      */
     @Contract("_ -> new")
     public static @NotNull AsmClassData readFile(final byte @NotNull [] classData) {
-        final ClassNode node = new ClassNode(Opcodes.ASM9);
+        final ClassNode node = new AsmClassNode(true);
         new ClassReader(classData).accept(node, 0);
 
         return new AsmClassData(node);
     }
+
+    /**
+     * Create a new {@link ClassData} by parsing only the header of the given binary data of a Java class file. Method
+     * bodies, debug info and stack map frames are skipped, leaving only what is needed for the model itself. The given
+     * class file is retained and is fully parsed again the first time the code of any of the class's methods is
+     * requested, through either {@link #getNode()} or {@link AsmMethodData#getNode()}.
+     *
+     * @param classData The Java class file data to parse into a {@link AsmClassData} object.
+     * @return The new {@link AsmClassData} object representing the given Java class.
+     * @see #readFile(byte[])
+     */
+    @Contract("_ -> new")
+    public static @NotNull AsmClassData readFileHeader(final byte @NotNull [] classData) {
+        final ClassNode node = new AsmClassNode(false);
+        new ClassReader(classData).accept(node, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+
+        return new AsmClassData(node, () -> classData);
+    }
 }
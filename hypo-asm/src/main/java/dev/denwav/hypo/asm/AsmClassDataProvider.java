@@ -22,15 +22,26 @@ import dev.denwav.hypo.model.AbstractClassDataProvider;
 import dev.denwav.hypo.model.ClassDataProvider;
 import dev.denwav.hypo.model.ClassProviderRoot;
 import dev.denwav.hypo.model.data.ClassData;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.tree.ClassNode;
 
 /**
  * Implementation of {@link ClassDataProvider} based on the {@code asm} library. {@link AsmClassData} is the
  * implementation of {@link ClassData} this provider produces.
+ *
+ * <p>This provider supports {@link #setSkipMethodBodies(boolean) skipping method bodies}, in which case classes are
+ * parsed with {@link AsmClassData#readFileHeader(byte[])} rather than {@link AsmClassData#readFile(byte[])}.
+ *
+ * <p>Providers created with {@link #ofCached(Path, List)} read classes from compact summaries stored in a persistent
+ * cache directory instead of from class files, skipping class file parsing entirely. Method bodies are always skipped
+ * for these classes, they are read from the original class files if they are needed.
  */
 public class AsmClassDataProvider extends AbstractClassDataProvider implements ClassDataProvider {
 
@@ -60,8 +71,98 @@ public class AsmClassDataProvider extends AbstractClassDataProvider implements C
         return new AsmClassDataProvider(roots);
     }
 
+    /**
+     * Create a new instance of {@link AsmClassDataProvider} using the given {@link ClassProviderRoot root}, backed by
+     * a persistent cache of class summaries in the given directory. See {@link #ofCached(Path, List)}.
+     *
+     * @param cacheDir The directory to store class summary cache files in.
+     * @param root The root to use to resolve Java class files.
+     * @return The new {@link AsmClassDataProvider}.
+     * @throws IOException If an IO error occurs while reading or creating the cache.
+     */
+    @Contract(value = "_, _ -> new")
+    public static @NotNull AsmClassDataProvider ofCached(
+        final @NotNull Path cacheDir,
+        final @NotNull ClassProviderRoot root
+    ) throws IOException {
+        return ofCached(cacheDir, Collections.singletonList(root));
+    }
+
+    /**
+     * Create a new instance of {@link AsmClassDataProvider} using the given {@link ClassProviderRoot roots}, backed by
+     * a persistent cache of class summaries in the given directory.
+     *
+     * <p>For each root which has a {@link ClassProviderRoot#contentKey() content key}, a compact summary of every class
+     * in the root is stored in a cache file in {@code cacheDir} named after the key. The summary contains the names,
+     * access flags, super types, inner and outer class links, and member names and descriptors of each class. If the
+     * cache file already exists it is memory-mapped, and classes are created directly from it without reading or
+     * parsing the root's class files. Otherwise the root is read in full up front to create the cache file. Roots
+     * without a content key, such as directory roots, are used directly.
+     *
+     * <p>Classes created from summaries do not have annotations or other class file attributes outside of what is
+     * needed by the model itself. Their method bodies are read from the original class file the first time they are
+     * needed. This is intended for context providers, whose roots rarely change between runs.
+     *
+     * @param cacheDir The directory to store class summary cache files in.
+     * @param roots The list of roots to use to resolve Java class files.
+     * @return The new {@link AsmClassDataProvider}.
+     * @throws IOException If an IO error occurs while reading or creating the cache.
+     */
+    @Contract(value = "_, _ -> new")
+    public static @NotNull AsmClassDataProvider ofCached(
+        final @NotNull Path cacheDir,
+        final @NotNull List<@NotNull ClassProviderRoot> roots
+    ) throws IOException {
+        final ArrayList<ClassProviderRoot> cachedRoots = new ArrayList<>(roots.size());
+        for (final ClassProviderRoot root : roots) {
+            final String contentKey = root.contentKey();
+            cachedRoots.add(contentKey != null ? new AsmClassSummaryRoot(root, contentKey, cacheDir) : root);
+        }
+        return new AsmClassDataProvider(cachedRoots);
+    }
+
     @Override
-    protected @Nullable ClassData parseClassData(final byte @NotNull [] file) {
+    protected @Nullable ClassData parseClassData(
+        final @NotNull String className,
+        final byte @NotNull [] file
+    ) throws IOException {
+        if (!AsmClassSummary.isSummary(file)) {
+            return this.parseClassData(file);
+        }
+
+        final ClassNode node;
+        try {
+            node = AsmClassSummary.read(file);
+        } catch (final IOException e) {
+            // The summary cache is only an optimization, a damaged entry just means parsing the class file itself
+            final byte[] classFile = this.readClassFile(className);
+            return classFile != null ? this.parseClassData(classFile) : null;
+        }
+        return this.fromSummary(node);
+    }
+
+    @Override
+    protected @Nullable ClassData parseClassData(final byte @NotNull [] file) throws IOException {
+        if (AsmClassSummary.isSummary(file)) {
+            return this.fromSummary(AsmClassSummary.read(file));
+        }
+        if (this.isSkipMethodBodies()) {
+            return AsmClassData.readFileHeader(file);
+        }
         return AsmClassData.readFile(file);
     }
+
+    private @NotNull ClassData fromSummary(final @NotNull ClassNode node) {
+        final String name = node.name;
+        return new AsmClassData(node, () -> this.readClassFile(name));
+    }
+
+    private byte @Nullable [] readClassFile(final @NotNull String className) throws IOException {
+        for (final ClassProviderRoot root : this.roots()) {
+            if (root instanceof AsmClassSummaryRoot && ((AsmClassSummaryRoot) root).contains(className)) {
+                return ((AsmClassSummaryRoot) root).readClassFile(className);
+            }
+        }
+        return null;
+    }
 }
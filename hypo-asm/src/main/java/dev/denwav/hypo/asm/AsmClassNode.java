@@ -0,0 +1,59 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.asm;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+
+/**
+ * {@link ClassNode} which creates {@link AsmMethodNode AsmMethodNodes} for its methods, so the
+ * {@link AsmMethodSummary summary} of each method is recorded while the class file is parsed.
+ */
+final class AsmClassNode extends ClassNode {
+
+    private final boolean summarize;
+
+    /**
+     * Create a new class node.
+     *
+     * @param summarize {@code true} if the code of the methods will be visited, and their summaries should be
+     *                  recorded. This must be {@code false} if the class file is read with
+     *                  {@link org.objectweb.asm.ClassReader#SKIP_CODE SKIP_CODE}.
+     */
+    AsmClassNode(final boolean summarize) {
+        super(Opcodes.ASM9);
+        this.summarize = summarize;
+    }
+
+    @Override
+    public @NotNull MethodVisitor visitMethod(
+        final int access,
+        final @NotNull String name,
+        final @NotNull String descriptor,
+        final @Nullable String signature,
+        final @NotNull String @Nullable [] exceptions
+    ) {
+        final AsmMethodNode method = new AsmMethodNode(this.summarize, access, name, descriptor, signature, exceptions);
+        this.methods.add(method);
+        return method;
+    }
+}
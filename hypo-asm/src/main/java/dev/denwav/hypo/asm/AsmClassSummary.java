@@ -0,0 +1,335 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.asm;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.InnerClassNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.RecordComponentNode;
+
+/**
+ * Compact binary summary of a single class file, containing only the parts of the class used by {@link AsmClassData}
+ * for the model itself: names, access flags, super types, inner and outer class attributes, permitted subclasses,
+ * record components, and member names, descriptors and signatures. Method bodies, annotations and all other attributes
+ * are not included.
+ *
+ * <p>Summaries are turned back into a {@link ClassNode} without running a {@link ClassReader}, which makes them much
+ * cheaper to load than the class file itself.
+ *
+ * @see AsmClassSummaryRoot
+ */
+final class AsmClassSummary {
+
+    /**
+     * Magic number every summary starts with. Class files always start with {@code 0xCAFEBABE}, so this allows
+     * summaries and class files to be told apart.
+     */
+    private static final int MAGIC = 0x48595043;
+
+    private AsmClassSummary() {}
+
+    /**
+     * Returns {@code true} if the given data is a summary created by {@link #write(byte[])}, rather than a class file.
+     *
+     * @param data The data to check.
+     * @return {@code true} if the given data is a class summary.
+     */
+    static boolean isSummary(final byte @NotNull [] data) {
+        return data.length >= 4
+            && (((data[0] & 0xFF) << 24) | ((data[1] & 0xFF) << 16) | ((data[2] & 0xFF) << 8) | (data[3] & 0xFF)) == MAGIC;
+    }
+
+    /**
+     * Create a summary of the given class file.
+     *
+     * @param classFile The class file to summarize.
+     * @return The summary of the given class file.
+     * @throws IOException If an IO error occurs while writing the summary.
+     */
+    static byte @NotNull [] write(final byte @NotNull [] classFile) throws IOException {
+        final ClassNode node = new ClassNode(Opcodes.ASM9);
+        new ClassReader(classFile).accept(node, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(classFile.length / 4);
+        try (final DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(node.version);
+            out.writeInt(node.access);
+            writeString(out, node.name);
+            writeNullable(out, node.signature);
+            writeNullable(out, node.superName);
+            writeList(out, node.interfaces);
+
+            writeNullable(out, node.outerClass);
+            writeNullable(out, node.outerMethod);
+            writeNullable(out, node.outerMethodDesc);
+            out.writeInt(node.innerClasses.size());
+            for (final InnerClassNode innerClass : node.innerClasses) {
+                writeString(out, innerClass.name);
+                writeNullable(out, innerClass.outerName);
+                writeNullable(out, innerClass.innerName);
+                out.writeInt(innerClass.access);
+            }
+
+            writeList(out, node.permittedSubclasses);
+            final List<RecordComponentNode> recordComponents = node.recordComponents;
+            out.writeInt(recordComponents == null ? -1 : recordComponents.size());
+            if (recordComponents != null) {
+                for (final RecordComponentNode component : recordComponents) {
+                    writeString(out, component.name);
+                    writeString(out, component.descriptor);
+                    writeNullable(out, component.signature);
+                }
+            }
+
+            out.writeInt(node.fields.size());
+            for (final FieldNode field : node.fields) {
+                out.writeInt(field.access);
+                writeString(out, field.name);
+                writeString(out, field.desc);
+                writeNullable(out, field.signature);
+            }
+
+            out.writeInt(node.methods.size());
+            for (final MethodNode method : node.methods) {
+                out.writeInt(method.access);
+                writeString(out, method.name);
+                writeString(out, method.desc);
+                writeNullable(out, method.signature);
+                writeList(out, method.exceptions);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Create a new {@link ClassNode} from the given summary created by {@link #write(byte[])}. The returned node is
+     * equivalent to a node read with {@link ClassReader#SKIP_CODE}, except that it does not contain any annotations or
+     * attributes which aren't part of the summary.
+     *
+     * @param summary The summary to read.
+     * @return The new {@link ClassNode}.
+     * @throws IOException If the summary is truncated or otherwise not valid.
+     */
+    static @NotNull ClassNode read(final byte @NotNull [] summary) throws IOException {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(summary));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Data is not a class summary");
+        }
+
+        final ClassNode node = new ClassNode(Opcodes.ASM9);
+        node.version = in.readInt();
+        node.access = in.readInt();
+        node.name = readString(in);
+        node.signature = readNullable(in);
+        node.superName = readNullable(in);
+        final List<String> interfaces = readList(in);
+        if (interfaces != null) {
+            node.interfaces = interfaces;
+        }
+
+        node.outerClass = readNullable(in);
+        node.outerMethod = readNullable(in);
+        node.outerMethodDesc = readNullable(in);
+        final int innerClassCount = readCount(in);
+        for (int i = 0; i < innerClassCount; i++) {
+            final String name = readString(in);
+            final String outerName = readNullable(in);
+            final String innerName = readNullable(in);
+            node.innerClasses.add(new InnerClassNode(name, outerName, innerName, in.readInt()));
+        }
+
+        node.permittedSubclasses = readList(in);
+        final int recordComponentCount = readCount(in);
+        if (recordComponentCount >= 0) {
+            node.recordComponents = new ArrayList<>(recordComponentCount);
+            for (int i = 0; i < recordComponentCount; i++) {
+                final String name = readString(in);
+                final String descriptor = readString(in);
+                node.recordComponents.add(new RecordComponentNode(Opcodes.ASM9, name, descriptor, readNullable(in)));
+            }
+        }
+
+        final int fieldCount = readCount(in);
+        for (int i = 0; i < fieldCount; i++) {
+            final int access = in.readInt();
+            final String name = readString(in);
+            final String desc = readString(in);
+            node.fields.add(new FieldNode(Opcodes.ASM9, access, name, desc, readNullable(in), null));
+        }
+
+        final int methodCount = readCount(in);
+        for (int i = 0; i < methodCount; i++) {
+            final int access = in.readInt();
+            final String name = readString(in);
+            final String desc = readString(in);
+            final String signature = readNullable(in);
+            final List<String> exceptions = readList(in);
+            final String[] exceptionsArray = exceptions == null ? null : exceptions.toArray(new String[0]);
+            node.methods.add(new AsmMethodNode(false, access, name, desc, signature, exceptionsArray));
+        }
+
+        return node;
+    }
+
+    private static void writeNullable(final @NotNull DataOutputStream out, final @Nullable String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            writeString(out, value);
+        }
+    }
+
+    private static @Nullable String readNullable(final @NotNull DataInputStream in) throws IOException {
+        final int length = readCount(in);
+        return length < 0 ? null : readString(in, length);
+    }
+
+    /**
+     * Write the given string as its length in bytes followed by its bytes in the modified UTF-8 encoding used by class
+     * files. Unlike {@link DataOutputStream#writeUTF(String)} this has no length limit, and unlike standard UTF-8 it
+     * preserves unpaired surrogates, which obfuscated class files may contain.
+     *
+     * @param out The stream to write to.
+     * @param value The string to write.
+     * @throws IOException If an IO error occurs while writing the string.
+     */
+    static void writeString(final @NotNull DataOutputStream out, final @NotNull String value) throws IOException {
+        final int length = value.length();
+        int byteLength = length;
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c == 0 || c > 0x7F) {
+                byteLength += c > 0x7FF ? 2 : 1;
+            }
+        }
+
+        final byte[] bytes = new byte[byteLength];
+        int pos = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c != 0 && c <= 0x7F) {
+                bytes[pos++] = (byte) c;
+            } else if (c <= 0x7FF) {
+                bytes[pos++] = (byte) (0xC0 | (c >> 6));
+                bytes[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else {
+                bytes[pos++] = (byte) (0xE0 | (c >> 12));
+                bytes[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        out.writeInt(byteLength);
+        out.write(bytes);
+    }
+
+    /**
+     * Read a string written by {@link #writeString(DataOutputStream, String)}.
+     *
+     * @param in The stream to read from.
+     * @return The string which was read.
+     * @throws IOException If the data is truncated or is not a valid string.
+     */
+    static @NotNull String readString(final @NotNull DataInputStream in) throws IOException {
+        final int length = readCount(in);
+        if (length < 0) {
+            throw new IOException("Corrupt class summary: unexpected null string");
+        }
+        return readString(in, length);
+    }
+
+    private static @NotNull String readString(final @NotNull DataInputStream in, final int length) throws IOException {
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+
+        final char[] chars = new char[length];
+        int count = 0;
+        int pos = 0;
+        while (pos < length) {
+            final int b = bytes[pos++] & 0xFF;
+            if (b < 0x80) {
+                chars[count++] = (char) b;
+            } else if ((b & 0xE0) == 0xC0 && pos < length) {
+                chars[count++] = (char) (((b & 0x1F) << 6) | continuation(bytes[pos++]));
+            } else if ((b & 0xF0) == 0xE0 && pos + 1 < length) {
+                final int second = continuation(bytes[pos++]);
+                chars[count++] = (char) (((b & 0x0F) << 12) | (second << 6) | continuation(bytes[pos++]));
+            } else {
+                throw new IOException("Corrupt class summary: malformed string");
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    private static int continuation(final byte b) throws IOException {
+        if ((b & 0xC0) != 0x80) {
+            throw new IOException("Corrupt class summary: malformed string");
+        }
+        return b & 0x3F;
+    }
+
+    /**
+     * Read a length or element count, which is either {@code -1} for {@code null} or no larger than the remaining
+     * data. This keeps corrupt summaries from causing huge allocations.
+     *
+     * @param in The stream to read from.
+     * @return The count which was read, {@code -1} for {@code null}.
+     * @throws IOException If the count is not valid for the remaining data.
+     */
+    private static int readCount(final @NotNull DataInputStream in) throws IOException {
+        final int count = in.readInt();
+        if (count < -1 || count > in.available()) {
+            throw new IOException("Corrupt class summary: invalid length " + count);
+        }
+        return count;
+    }
+
+    private static void writeList(final @NotNull DataOutputStream out, final @Nullable List<String> values) throws IOException {
+        out.writeInt(values == null ? -1 : values.size());
+        if (values != null) {
+            for (final String value : values) {
+                writeString(out, value);
+            }
+        }
+    }
+
+    private static @Nullable List<String> readList(final @NotNull DataInputStream in) throws IOException {
+        final int size = readCount(in);
+        if (size < 0) {
+            return null;
+        }
+        final ArrayList<String> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(readString(in));
+        }
+        return result;
+    }
+}
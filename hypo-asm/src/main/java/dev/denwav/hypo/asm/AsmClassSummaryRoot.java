@@ -0,0 +1,371 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.asm;
+
+import dev.denwav.hypo.model.ClassProviderRoot;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * {@link ClassProviderRoot} implementation which serves {@link AsmClassSummary class summaries} of the classes in
+ * another root from a persistent cache file, rather than the class files themselves. The cache file is keyed by the
+ * {@link ClassProviderRoot#contentKey() content key} of the wrapped root, and is created the first time a root with a
+ * given key is used. Later uses of a root with the same key memory-map the existing cache file and never read or parse
+ * the wrapped root's class files at all, unless the full class file of a specific class is
+ * {@link #readClassFile(String) requested}.
+ *
+ * <p>The data returned by {@link #getClassData(String)} is a summary, not a class file, so this root is only usable by
+ * {@link AsmClassDataProvider}. Create instances with {@link AsmClassDataProvider#ofCached(Path, List)}.
+ *
+ * <p>The cache file consists of a header, followed by an index of class names to the location and checksum of their
+ * summaries within the file, followed by the summaries themselves. Cache files which are truncated or have a corrupt
+ * index are created again, and classes whose summary doesn't match its checksum are read from their class file.
+ */
+final class AsmClassSummaryRoot implements ClassProviderRoot {
+
+    private static final int MAGIC = 0x48595053;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 16;
+
+    private final @NotNull ClassProviderRoot delegate;
+    private final @NotNull String contentKey;
+
+    private final @NotNull ByteBuffer data;
+    private final @NotNull HashMap<String, Integer> index;
+    private final @NotNull String @NotNull [] names;
+    private final int @NotNull [] offsets;
+    private final int @NotNull [] lengths;
+    private final int @NotNull [] checksums;
+
+    /**
+     * Create a new {@link AsmClassSummaryRoot} for the given root, creating the cache file in {@code cacheDir} if it
+     * doesn't exist yet.
+     *
+     * @param delegate The root to summarize.
+     * @param contentKey The {@link ClassProviderRoot#contentKey() content key} of {@code delegate}.
+     * @param cacheDir The directory to store cache files in.
+     * @throws IOException If an IO error occurs while reading or creating the cache file.
+     */
+    AsmClassSummaryRoot(
+        final @NotNull ClassProviderRoot delegate,
+        final @NotNull String contentKey,
+        final @NotNull Path cacheDir
+    ) throws IOException {
+        this.delegate = delegate;
+        this.contentKey = contentKey;
+
+        final Path cacheFile = cacheDir.resolve(contentKey + ".hsum");
+        final ByteBuffer existing = Files.isRegularFile(cacheFile) ? map(cacheFile) : null;
+        Index idx = isValid(existing) ? Index.read(existing) : null;
+        if (idx == null) {
+            // Missing, outdated, truncated or otherwise corrupt cache files are simply created again
+            writeCacheFile(delegate, cacheDir, cacheFile);
+            final ByteBuffer created = map(cacheFile);
+            idx = isValid(created) ? Index.read(created) : null;
+            if (idx == null) {
+                throw new IOException("Failed to create class summary cache file " + cacheFile);
+            }
+        }
+
+        this.data = idx.data;
+        this.index = idx.index;
+        this.names = idx.names;
+        this.offsets = idx.offsets;
+        this.lengths = idx.lengths;
+        this.checksums = idx.checksums;
+    }
+
+    private static @Nullable ByteBuffer map(final @NotNull Path file) throws IOException {
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                return null;
+            }
+            // The mapping remains valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    @Contract("null -> false")
+    private static boolean isValid(final @Nullable ByteBuffer mapped) {
+        return mapped != null
+            && mapped.getInt(0) == MAGIC
+            && mapped.getInt(4) == VERSION
+            && mapped.getInt(8) >= 0
+            && mapped.getInt(12) >= 0
+            && HEADER_SIZE + (long) mapped.getInt(12) <= mapped.capacity();
+    }
+
+    private static void writeCacheFile(
+        final @NotNull ClassProviderRoot delegate,
+        final @NotNull Path cacheDir,
+        final @NotNull Path cacheFile
+    ) throws IOException {
+        final ArrayList<String> names = new ArrayList<>();
+        final ArrayList<byte[]> summaries = new ArrayList<>();
+        final HashSet<String> seen = new HashSet<>();
+        for (final ClassProviderRoot.FileDataReference ref : delegate.getAllClasses()) {
+            final String name = className(ref.name());
+            if (seen.contains(name)) {
+                continue;
+            }
+            final byte[] classFile = ref.readData();
+            if (classFile == null) {
+                continue;
+            }
+            seen.add(name);
+            names.add(name);
+            summaries.add(AsmClassSummary.write(classFile));
+        }
+
+        final ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+        try (final DataOutputStream index = new DataOutputStream(indexBytes)) {
+            int offset = 0;
+            for (int i = 0; i < names.size(); i++) {
+                final byte[] summary = summaries.get(i);
+                AsmClassSummary.writeString(index, names.get(i));
+                index.writeInt(offset);
+                index.writeInt(summary.length);
+                index.writeInt(checksum(summary));
+                offset += summary.length;
+            }
+        }
+
+        Files.createDirectories(cacheDir);
+        final Path tempFile = Files.createTempFile(cacheDir, cacheFile.getFileName().toString(), ".tmp");
+        try {
+            try (
+                final OutputStream output = Files.newOutputStream(tempFile);
+                final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output))
+            ) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(names.size());
+                out.writeInt(indexBytes.size());
+                indexBytes.writeTo(out);
+                for (final byte[] summary : summaries) {
+                    out.write(summary);
+                }
+            }
+
+            // Multiple processes may race to create the same file, the result is identical either way
+            try {
+                Files.move(tempFile, cacheFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private static @NotNull String className(final @NotNull String fileName) {
+        String name = fileName.endsWith(".class") ? fileName.substring(0, fileName.length() - 6) : fileName;
+        if (name.startsWith("/")) {
+            name = name.substring(1);
+        }
+        return name;
+    }
+
+    /**
+     * Returns {@code true} if this root contains a summary for the given class.
+     *
+     * @param className The class name, in the internal JVM format.
+     * @return {@code true} if this root contains a summary for the given class.
+     */
+    boolean contains(final @NotNull String className) {
+        return this.index.containsKey(className);
+    }
+
+    /**
+     * Read the full class file for the given class from the wrapped root.
+     *
+     * @param className The class name, in the internal JVM format.
+     * @return The class file, or {@code null} if it could not be found.
+     * @throws IOException If an IO error occurs while reading the class file.
+     */
+    byte @Nullable [] readClassFile(final @NotNull String className) throws IOException {
+        return this.delegate.getClassData(className + ".class");
+    }
+
+    /**
+     * Read the summary of the given entry. If the summary doesn't match the checksum recorded for it, the cache file
+     * has been damaged since it was written, so the class file is read from the wrapped root instead.
+     */
+    private byte @Nullable [] readSummary(final int entry) throws IOException {
+        final byte[] result = new byte[this.lengths[entry]];
+        final ByteBuffer buffer = this.data.duplicate();
+        buffer.position(this.offsets[entry]);
+        buffer.get(result);
+        if (checksum(result) != this.checksums[entry]) {
+            return this.readClassFile(this.names[entry]);
+        }
+        return result;
+    }
+
+    private static int checksum(final byte @NotNull [] summary) {
+        final CRC32 crc = new CRC32();
+        crc.update(summary, 0, summary.length);
+        return (int) crc.getValue();
+    }
+
+    @Override
+    public byte @Nullable [] getClassData(final @NotNull String fileName) throws IOException {
+        final Integer entry = this.index.get(className(fileName));
+        return entry != null ? this.readSummary(entry) : null;
+    }
+
+    @Override
+    public @NotNull List<? extends FileDataReference> getAllClasses() {
+        final ArrayList<SummaryFileDataReference> result = new ArrayList<>(this.names.length);
+        for (int i = 0; i < this.names.length; i++) {
+            result.add(new SummaryFileDataReference(i));
+        }
+        return result;
+    }
+
+    @Override
+    public @NotNull Stream<? extends FileDataReference> walkAllFiles() throws IOException {
+        return this.delegate.walkAllFiles();
+    }
+
+    @Override
+    public @NotNull String contentKey() {
+        return this.contentKey;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The classes of this root are fixed by the content key of the wrapped root when it is created.
+     */
+    @Override
+    public boolean isImmutable() {
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.delegate.close();
+    }
+
+    /**
+     * The index of a cache file, along with the summary data it refers to.
+     */
+    private static final class Index {
+
+        final @NotNull ByteBuffer data;
+        final @NotNull HashMap<String, Integer> index;
+        final @NotNull String @NotNull [] names;
+        final int @NotNull [] offsets;
+        final int @NotNull [] lengths;
+        final int @NotNull [] checksums;
+
+        private Index(final @NotNull ByteBuffer data, final int count) {
+            this.data = data;
+            this.index = new HashMap<>(count * 2);
+            this.names = new String[count];
+            this.offsets = new int[count];
+            this.lengths = new int[count];
+            this.checksums = new int[count];
+        }
+
+        /**
+         * Read the index of the given cache file, which must have a {@link #isValid(ByteBuffer) valid} header.
+         *
+         * @param mapped The mapped cache file.
+         * @return The index, or {@code null} if the file is truncated or the index is corrupt.
+         */
+        static @Nullable Index read(final @NotNull ByteBuffer mapped) {
+            final int count = mapped.getInt(8);
+            final int indexLength = mapped.getInt(12);
+            final byte[] indexData = new byte[indexLength];
+            final ByteBuffer indexBuffer = mapped.duplicate();
+            indexBuffer.position(HEADER_SIZE);
+            indexBuffer.get(indexData);
+
+            // Every index entry takes at least 16 bytes
+            if (count > indexLength / 16) {
+                return null;
+            }
+
+            mapped.position(HEADER_SIZE + indexLength);
+            final Index idx = new Index(mapped.slice(), count);
+            final DataInputStream in = new DataInputStream(new ByteArrayInputStream(indexData));
+            try {
+                for (int i = 0; i < count; i++) {
+                    idx.names[i] = AsmClassSummary.readString(in);
+                    idx.offsets[i] = in.readInt();
+                    idx.lengths[i] = in.readInt();
+                    idx.checksums[i] = in.readInt();
+                    if (idx.offsets[i] < 0 || idx.lengths[i] < 0
+                        || (long) idx.offsets[i] + idx.lengths[i] > idx.data.capacity()) {
+                        return null;
+                    }
+                    idx.index.put(idx.names[i], i);
+                }
+            } catch (final IOException e) {
+                return null;
+            }
+            return idx;
+        }
+    }
+
+    /**
+     * {@link FileDataReference} implementation for {@link AsmClassSummaryRoot}.
+     */
+    private final class SummaryFileDataReference implements FileDataReference {
+
+        private final int entry;
+
+        SummaryFileDataReference(final int entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public @NotNull String name() {
+            return AsmClassSummaryRoot.this.names[this.entry];
+        }
+
+        @Override
+        public byte @Nullable [] readData() throws IOException {
+            return AsmClassSummaryRoot.this.readSummary(this.entry);
+        }
+    }
+}
@@ -18,12 +18,14 @@
 
 package dev.denwav.hypo.asm;
 
+import com.google.errorprone.annotations.concurrent.LazyInit;
 import dev.denwav.hypo.model.data.ClassData;
 import dev.denwav.hypo.model.data.LazyMethodData;
 import dev.denwav.hypo.model.data.MethodData;
 import dev.denwav.hypo.model.data.MethodDescriptor;
 import dev.denwav.hypo.model.data.Visibility;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.tree.MethodNode;
 
@@ -36,6 +38,7 @@ public class AsmMethodData extends LazyMethodData implements MethodData {
 
     private final @NotNull AsmClassData parentClass;
     private final @NotNull MethodNode node;
+    @LazyInit private @Nullable AsmMethodSummary summary = null;
 
     /**
      * Construct a new instance of {@link AsmMethodData} using the given {@link MethodNode}. The given {@code node}
@@ -52,12 +55,40 @@ public class AsmMethodData extends LazyMethodData implements MethodData {
 
     /**
      * Returns the {@link MethodNode} which backs this {@link AsmMethodData}.
+     *
+     * <p>If the parent class was parsed without method bodies, they are loaded before the node is returned.
+     *
      * @return The {@link MethodNode} which backs this {@link AsmMethodData}.
      */
     public @NotNull MethodNode getNode() {
+        this.parentClass.loadMethodBodies();
         return this.node;
     }
 
+    /**
+     * Returns the {@link AsmMethodSummary summary} of the instructions of this method. Hydration providers can use the
+     * summary to skip methods which can't contain what they look for without walking the instructions.
+     *
+     * <p>If the parent class was parsed without method bodies, they are loaded before the summary is returned.
+     *
+     * @return The summary of the instructions of this method.
+     */
+    public @NotNull AsmMethodSummary summary() {
+        AsmMethodSummary summary = this.summary;
+        if (summary == null) {
+            final MethodNode node = this.getNode();
+            if (node instanceof AsmMethodNode) {
+                summary = ((AsmMethodNode) node).summary;
+            }
+            if (summary == null) {
+                // Nodes which weren't parsed by AsmClassData don't record their summary
+                summary = AsmMethodSummary.of(node.instructions);
+            }
+            this.summary = summary;
+        }
+        return summary;
+    }
+
     @Override
     public @NotNull Visibility visibility() {
         return HypoAsmUtil.accessToVisibility(this.node.access);
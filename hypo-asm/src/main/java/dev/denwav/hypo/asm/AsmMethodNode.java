@@ -0,0 +1,168 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.asm;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.MethodNode;
+
+/**
+ * {@link MethodNode} which records the {@link AsmMethodSummary summary} of its instructions as they are visited, so
+ * building the summary doesn't need another pass over the instructions once the method is parsed.
+ *
+ * @see AsmClassNode
+ */
+final class AsmMethodNode extends MethodNode {
+
+    private @Nullable AsmMethodSummary.Builder builder;
+    /**
+     * The summary of this method, or {@code null} if it is not known because the code of the method was not parsed.
+     */
+    @Nullable AsmMethodSummary summary = null;
+
+    /**
+     * Create a new method node.
+     *
+     * @param summarize {@code true} if the code of this method will be visited, and its summary should be recorded.
+     * @param access The access flags of the method.
+     * @param name The name of the method.
+     * @param descriptor The descriptor of the method.
+     * @param signature The signature of the method, may be {@code null}.
+     * @param exceptions The internal names of the exception classes of the method, may be {@code null}.
+     */
+    AsmMethodNode(
+        final boolean summarize,
+        final int access,
+        final @NotNull String name,
+        final @NotNull String descriptor,
+        final @Nullable String signature,
+        final @NotNull String @Nullable [] exceptions
+    ) {
+        super(Opcodes.ASM9, access, name, descriptor, signature, exceptions);
+        this.builder = summarize ? new AsmMethodSummary.Builder() : null;
+    }
+
+    private void record(final int opcode) {
+        if (this.builder != null) {
+            this.builder.add(opcode);
+        }
+    }
+
+    @Override
+    public void visitInsn(final int opcode) {
+        super.visitInsn(opcode);
+        this.record(opcode);
+    }
+
+    @Override
+    public void visitIntInsn(final int opcode, final int operand) {
+        super.visitIntInsn(opcode, operand);
+        this.record(opcode);
+    }
+
+    @Override
+    public void visitVarInsn(final int opcode, final int varIndex) {
+        super.visitVarInsn(opcode, varIndex);
+        this.record(opcode);
+    }
+
+    @Override
+    public void visitTypeInsn(final int opcode, final String type) {
+        super.visitTypeInsn(opcode, type);
+        this.record(opcode);
+    }
+
+    @Override
+    public void visitFieldInsn(final int opcode, final String owner, final String name, final String descriptor) {
+        super.visitFieldInsn(opcode, owner, name, descriptor);
+        this.record(opcode);
+    }
+
+    @Override
+    public void visitMethodInsn(
+        final int opcodeAndSource,
+        final String owner,
+        final String name,
+        final String descriptor,
+        final boolean isInterface
+    ) {
+        super.visitMethodInsn(opcodeAndSource, owner, name, descriptor, isInterface);
+        // Strip the source flag asm may add to the opcode, the same as MethodNode itself
+        this.record(opcodeAndSource & ~Opcodes.SOURCE_MASK);
+    }
+
+    @Override
+    public void visitInvokeDynamicInsn(
+        final String name,
+        final String descriptor,
+        final Handle bootstrapMethodHandle,
+        final Object... bootstrapMethodArguments
+    ) {
+        super.visitInvokeDynamicInsn(name, descriptor, bootstrapMethodHandle, bootstrapMethodArguments);
+        this.record(Opcodes.INVOKEDYNAMIC);
+    }
+
+    @Override
+    public void visitJumpInsn(final int opcode, final Label label) {
+        super.visitJumpInsn(opcode, label);
+        this.record(opcode);
+    }
+
+    @Override
+    public void visitLdcInsn(final Object value) {
+        super.visitLdcInsn(value);
+        this.record(Opcodes.LDC);
+    }
+
+    @Override
+    public void visitIincInsn(final int varIndex, final int increment) {
+        super.visitIincInsn(varIndex, increment);
+        this.record(Opcodes.IINC);
+    }
+
+    @Override
+    public void visitTableSwitchInsn(final int min, final int max, final Label dflt, final Label... labels) {
+        super.visitTableSwitchInsn(min, max, dflt, labels);
+        this.record(Opcodes.TABLESWITCH);
+    }
+
+    @Override
+    public void visitLookupSwitchInsn(final Label dflt, final int[] keys, final Label[] labels) {
+        super.visitLookupSwitchInsn(dflt, keys, labels);
+        this.record(Opcodes.LOOKUPSWITCH);
+    }
+
+    @Override
+    public void visitMultiANewArrayInsn(final String descriptor, final int numDimensions) {
+        super.visitMultiANewArrayInsn(descriptor, numDimensions);
+        this.record(Opcodes.MULTIANEWARRAY);
+    }
+
+    @Override
+    public void visitEnd() {
+        super.visitEnd();
+        if (this.builder != null) {
+            this.summary = this.builder.build();
+            this.builder = null;
+        }
+    }
+}
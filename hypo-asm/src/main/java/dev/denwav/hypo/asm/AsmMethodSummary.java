@@ -0,0 +1,240 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.asm;
+
+import org.jetbrains.annotations.NotNull;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.InsnList;
+
+/**
+ * Compact summary of the instructions of a method, used to cheaply rule out methods before walking their
+ * {@link InsnList}. Records which opcodes appear in the method at least once, and how many {@code INVOKEDYNAMIC},
+ * {@code NEW} and {@code INVOKESPECIAL} instructions it contains.
+ *
+ * <p>Summaries are recorded while the class file is parsed by {@link AsmClassData#readFile(byte[])} and when method
+ * bodies are loaded for classes read with {@link AsmClassData#readFileHeader(byte[])}. Otherwise they are computed from
+ * the instructions of the method the first time they are requested.
+ *
+ * @see AsmMethodData#summary()
+ */
+public final class AsmMethodSummary {
+
+    /**
+     * Summary of a method with no instructions, such as an abstract or native method.
+     */
+    public static final @NotNull AsmMethodSummary EMPTY = new AsmMethodSummary(0L, 0L, 0L, 0L, 0, 0, 0);
+
+    // Presence bits of opcodes 0-63, 64-127, 128-191 and 192-255
+    private final long opcodes0;
+    private final long opcodes1;
+    private final long opcodes2;
+    private final long opcodes3;
+
+    private final int invokeDynamicCount;
+    private final int newCount;
+    private final int invokeSpecialCount;
+
+    private AsmMethodSummary(
+        final long opcodes0,
+        final long opcodes1,
+        final long opcodes2,
+        final long opcodes3,
+        final int invokeDynamicCount,
+        final int newCount,
+        final int invokeSpecialCount
+    ) {
+        this.opcodes0 = opcodes0;
+        this.opcodes1 = opcodes1;
+        this.opcodes2 = opcodes2;
+        this.opcodes3 = opcodes3;
+        this.invokeDynamicCount = invokeDynamicCount;
+        this.newCount = newCount;
+        this.invokeSpecialCount = invokeSpecialCount;
+    }
+
+    /**
+     * Compute the summary of the given instructions.
+     *
+     * @param instructions The instructions of the method to summarize.
+     * @return The summary of the given instructions.
+     */
+    public static @NotNull AsmMethodSummary of(final @NotNull InsnList instructions) {
+        final Builder builder = new Builder();
+        for (AbstractInsnNode insn = instructions.getFirst(); insn != null; insn = insn.getNext()) {
+            builder.add(insn.getOpcode());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns {@code true} if the method contains at least one instruction with the given opcode.
+     *
+     * @param opcode The {@link Opcodes opcode} to check for.
+     * @return {@code true} if the method contains the given opcode.
+     */
+    public boolean hasOpcode(final int opcode) {
+        if (opcode < 0 || opcode > 255) {
+            return false;
+        }
+        final long bits;
+        switch (opcode >>> 6) {
+            case 0:
+                bits = this.opcodes0;
+                break;
+            case 1:
+                bits = this.opcodes1;
+                break;
+            case 2:
+                bits = this.opcodes2;
+                break;
+            default:
+                bits = this.opcodes3;
+                break;
+        }
+        return (bits & (1L << opcode)) != 0;
+    }
+
+    /**
+     * Returns {@code true} if the method contains at least one instruction with any of the given opcodes.
+     *
+     * @param opcodes The {@link Opcodes opcodes} to check for.
+     * @return {@code true} if the method contains any of the given opcodes.
+     */
+    public boolean hasAnyOpcode(final int @NotNull ... opcodes) {
+        for (final int opcode : opcodes) {
+            if (this.hasOpcode(opcode)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of {@code INVOKEDYNAMIC} instructions in the method.
+     *
+     * @return The number of {@code INVOKEDYNAMIC} instructions in the method.
+     */
+    public int invokeDynamicCount() {
+        return this.invokeDynamicCount;
+    }
+
+    /**
+     * Returns the number of {@code NEW} instructions in the method.
+     *
+     * @return The number of {@code NEW} instructions in the method.
+     */
+    public int newCount() {
+        return this.newCount;
+    }
+
+    /**
+     * Returns the number of {@code INVOKESPECIAL} instructions in the method.
+     *
+     * @return The number of {@code INVOKESPECIAL} instructions in the method.
+     */
+    public int invokeSpecialCount() {
+        return this.invokeSpecialCount;
+    }
+
+    @Override
+    public String toString() {
+        return "AsmMethodSummary{" +
+            "invokeDynamicCount=" + this.invokeDynamicCount +
+            ", newCount=" + this.newCount +
+            ", invokeSpecialCount=" + this.invokeSpecialCount +
+            '}';
+    }
+
+    /**
+     * Mutable builder of an {@link AsmMethodSummary}, which is given the opcode of each instruction of a method.
+     */
+    static final class Builder {
+
+        private long opcodes0 = 0L;
+        private long opcodes1 = 0L;
+        private long opcodes2 = 0L;
+        private long opcodes3 = 0L;
+
+        private int invokeDynamicCount = 0;
+        private int newCount = 0;
+        private int invokeSpecialCount = 0;
+
+        /**
+         * Record a single instruction with the given opcode. Negative opcodes, used by {@code asm} for labels, line
+         * numbers and frames, are ignored.
+         *
+         * @param opcode The opcode of the instruction.
+         */
+        void add(final int opcode) {
+            if (opcode < 0 || opcode > 255) {
+                return;
+            }
+            final long bit = 1L << opcode;
+            switch (opcode >>> 6) {
+                case 0:
+                    this.opcodes0 |= bit;
+                    break;
+                case 1:
+                    this.opcodes1 |= bit;
+                    break;
+                case 2:
+                    this.opcodes2 |= bit;
+                    break;
+                default:
+                    this.opcodes3 |= bit;
+                    break;
+            }
+
+            switch (opcode) {
+                case Opcodes.INVOKEDYNAMIC:
+                    this.invokeDynamicCount++;
+                    break;
+                case Opcodes.NEW:
+                    this.newCount++;
+                    break;
+                case Opcodes.INVOKESPECIAL:
+                    this.invokeSpecialCount++;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        /**
+         * Create the summary of every instruction recorded so far.
+         *
+         * @return The summary of the recorded instructions.
+         */
+        @NotNull AsmMethodSummary build() {
+            if ((this.opcodes0 | this.opcodes1 | this.opcodes2 | this.opcodes3) == 0L) {
+                return EMPTY;
+            }
+            return new AsmMethodSummary(
+                this.opcodes0,
+                this.opcodes1,
+                this.opcodes2,
+                this.opcodes3,
+                this.invokeDynamicCount,
+                this.newCount,
+                this.invokeSpecialCount
+            );
+        }
+    }
+}
@@ -21,6 +21,7 @@ package dev.denwav.hypo.asm;
 import dev.denwav.hypo.core.HypoContext;
 import dev.denwav.hypo.core.HypoOutputWriter;
 import dev.denwav.hypo.model.ClassProviderRoot;
+import dev.denwav.hypo.model.IndexedJarClassProviderRoot;
 import dev.denwav.hypo.model.JarClassProviderRoot;
 import dev.denwav.hypo.model.data.ClassData;
 import java.io.BufferedInputStream;
@@ -71,23 +72,27 @@ public final class AsmOutputWriter implements HypoOutputWriter {
             final ZipOutputStream zos = new ZipOutputStream(bos)
         ) {
             for (final ClassProviderRoot root : context.getProvider().roots()) {
+                final Path jarFile;
                 if (root instanceof JarClassProviderRoot) {
-                    final JarClassProviderRoot jarRoot = (JarClassProviderRoot) root;
-                    final Path jarFile = jarRoot.getJarFile();
-                    try (
-                        final InputStream in = Files.newInputStream(jarFile);
-                        final BufferedInputStream bis = new BufferedInputStream(in);
-                        final ZipInputStream zis = new ZipInputStream(bis)
-                    ) {
-                        ZipEntry entry;
-                        while ((entry = zis.getNextEntry()) != null) {
-                            final ZipEntry outEntry = new ZipEntry(entry);
-                            zos.putNextEntry(outEntry);
-                            try {
-                                this.writeFile(context, outEntry, zis, zos);
-                            } finally {
-                                zos.closeEntry();
-                            }
+                    jarFile = ((JarClassProviderRoot) root).getJarFile();
+                } else if (root instanceof IndexedJarClassProviderRoot) {
+                    jarFile = ((IndexedJarClassProviderRoot) root).getJarFile();
+                } else {
+                    continue;
+                }
+                try (
+                    final InputStream in = Files.newInputStream(jarFile);
+                    final BufferedInputStream bis = new BufferedInputStream(in);
+                    final ZipInputStream zis = new ZipInputStream(bis)
+                ) {
+                    ZipEntry entry;
+                    while ((entry = zis.getNextEntry()) != null) {
+                        final ZipEntry outEntry = new ZipEntry(entry);
+                        zos.putNextEntry(outEntry);
+                        try {
+                            this.writeFile(context, outEntry, zis, zos);
+                        } finally {
+                            zos.closeEntry();
                         }
                     }
                 }
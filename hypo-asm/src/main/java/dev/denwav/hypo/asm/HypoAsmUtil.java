@@ -90,11 +90,10 @@ public final class HypoAsmUtil {
             return PrimitiveType.VOID;
         }
 
-        final String desc = type.getDescriptor();
-        if (desc.startsWith("[")) {
-            return new ArrayType(toJvmType(type.getElementType()), type.getDimensions());
+        if (type.getSort() == Type.ARRAY) {
+            return ArrayType.of(toJvmType(type.getElementType()), type.getDimensions());
         } else {
-            return new ClassType(desc);
+            return ClassType.of(type.getInternalName());
         }
     }
 
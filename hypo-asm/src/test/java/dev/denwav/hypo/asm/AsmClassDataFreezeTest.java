@@ -0,0 +1,140 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.asm;
+
+import dev.denwav.hypo.core.HypoContext;
+import dev.denwav.hypo.model.ClassProviderRoot;
+import dev.denwav.hypo.model.data.ClassData;
+import dev.denwav.hypo.model.data.FieldData;
+import dev.denwav.hypo.model.data.MethodData;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.ClassNode;
+
+import static dev.denwav.hypo.asm.AsmTestData.CLASS_NAME;
+import static dev.denwav.hypo.asm.AsmTestData.TEST_KEY;
+import static dev.denwav.hypo.asm.AsmTestData.createContext;
+import static dev.denwav.hypo.asm.AsmTestData.scenarioJar;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("[asm] Frozen class data tests")
+public class AsmClassDataFreezeTest {
+
+    @Test
+    @DisplayName("Test freezing computes every lazy value, which other threads read without computing again")
+    public void testLazyValuesComputed() throws Exception {
+        try (
+            final HypoContext context = createContext();
+            final ClassProviderRoot root = ClassProviderRoot.fromJar(scenarioJar("scenario-01"))
+        ) {
+            final byte[] classFile = root.getClassData(CLASS_NAME + ".class");
+            assertNotNull(classFile);
+            final ClassNode node = new ClassNode();
+            new ClassReader(classFile).accept(node, 0);
+
+            final CountingClassData classData = new CountingClassData(node);
+            classData.setProvider(context.getProvider());
+            classData.freeze();
+            assertTrue(classData.isFrozen());
+            assertEquals(4, classData.count.get());
+
+            final String name = CompletableFuture.supplyAsync(() -> {
+                try {
+                    classData.superClass();
+                    classData.interfaces();
+                } catch (final IOException e) {
+                    throw new RuntimeException(e);
+                }
+                classData.fields();
+                classData.methods().forEach(MethodData::descriptor);
+                return classData.name();
+            }).get();
+            assertEquals(CLASS_NAME, name);
+            assertEquals(4, classData.count.get());
+        }
+    }
+
+    @Test
+    @DisplayName("Test frozen classes and members reject writes")
+    public void testStoreRejected() throws IOException {
+        try (final HypoContext context = createContext()) {
+            final ClassData classData = context.getProvider().findClass(CLASS_NAME);
+            assertNotNull(classData);
+            final MethodData method = classData.methods().get(0);
+            classData.store(TEST_KEY, "before");
+
+            context.freeze();
+            assertTrue(context.isFrozen());
+            assertTrue(classData.isFrozen());
+            assertTrue(method.isFrozen());
+
+            assertThrows(IllegalStateException.class, () -> classData.store(TEST_KEY, "after"));
+            assertThrows(IllegalStateException.class, () -> method.store(TEST_KEY, "after"));
+            assertThrows(IllegalStateException.class, () -> method.compute(TEST_KEY, () -> "after"));
+            assertEquals("before", classData.compute(TEST_KEY, () -> "after"));
+            assertEquals("before", classData.get(TEST_KEY));
+        }
+    }
+
+    /**
+     * {@link AsmClassData} which counts how often its super types and members are computed.
+     */
+    private static final class CountingClassData extends AsmClassData {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        private CountingClassData(final @NotNull ClassNode node) {
+            super(node);
+        }
+
+        @Override
+        public @Nullable ClassData computeSuperClass() throws IOException {
+            this.count.incrementAndGet();
+            return super.computeSuperClass();
+        }
+
+        @Override
+        public @NotNull List<ClassData> computeInterfaces() throws IOException {
+            this.count.incrementAndGet();
+            return super.computeInterfaces();
+        }
+
+        @Override
+        public @NotNull List<FieldData> computeFields() {
+            this.count.incrementAndGet();
+            return super.computeFields();
+        }
+
+        @Override
+        public @NotNull List<MethodData> computeMethods() {
+            this.count.incrementAndGet();
+            return super.computeMethods();
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.asm;
+
+import dev.denwav.hypo.model.AbstractClassDataProvider;
+import dev.denwav.hypo.model.ClassProviderRoot;
+import dev.denwav.hypo.model.data.ClassData;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static dev.denwav.hypo.asm.AsmTestData.CLASS_NAME;
+import static dev.denwav.hypo.asm.AsmTestData.INNER_CLASS_NAME;
+import static dev.denwav.hypo.asm.AsmTestData.scenarioJar;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("[asm] Concurrent and re-entrant class loading tests")
+public class AsmClassDataProviderLoadTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @Test
+    @DisplayName("Test concurrent loads of one class parse it once and share the result")
+    public void testConcurrentLoad() throws Exception {
+        final int threads = 8;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (final HookedProvider provider = createProvider()) {
+            final CountDownLatch started = new CountDownLatch(threads);
+            final CountDownLatch release = new CountDownLatch(1);
+            provider.hook = name -> await(release);
+
+            final ArrayList<Future<ClassData>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    started.countDown();
+                    return provider.findClass(CLASS_NAME);
+                }));
+            }
+            await(started);
+            // Give the other threads time to start waiting on the class the first thread is parsing
+            Thread.sleep(50);
+            release.countDown();
+
+            final ClassData expected = futures.get(0).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            assertNotNull(expected);
+            for (final Future<ClassData> future : futures) {
+                assertSame(expected, future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            }
+            assertEquals(1, provider.parses.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Test loading a class while parsing it fails instead of waiting forever")
+    public void testRecursiveLoad() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (final HookedProvider provider = createProvider()) {
+            provider.hook = provider::findClass;
+
+            final Future<ClassData> future = executor.submit(() -> provider.findClass(CLASS_NAME));
+            assertFailsWithCycle(future);
+
+            // The failed load must not be cached
+            provider.hook = null;
+            assertEquals(CLASS_NAME, provider.findClass(CLASS_NAME).name());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Test threads loading each other's classes while parsing fail instead of waiting forever")
+    public void testCyclicLoad() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (final HookedProvider provider = createProvider()) {
+            final CyclicBarrier barrier = new CyclicBarrier(2);
+            provider.hook = name -> {
+                try {
+                    barrier.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                } catch (final Exception e) {
+                    throw new IOException(e);
+                }
+                provider.findClass(name.equals(CLASS_NAME) ? INNER_CLASS_NAME : CLASS_NAME);
+            };
+
+            final Future<ClassData> first = executor.submit(() -> provider.findClass(CLASS_NAME));
+            final Future<ClassData> second = executor.submit(() -> provider.findClass(INNER_CLASS_NAME));
+            assertFailsWithCycle(first);
+            assertFailsWithCycle(second);
+
+            provider.hook = null;
+            assertEquals(CLASS_NAME, provider.findClass(CLASS_NAME).name());
+            assertEquals(INNER_CLASS_NAME, provider.findClass(INNER_CLASS_NAME).name());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void assertFailsWithCycle(final @NotNull Future<ClassData> future) {
+        final ExecutionException e =
+            assertThrows(ExecutionException.class, () -> future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    private static void await(final @NotNull CountDownLatch latch) throws IOException {
+        try {
+            assertTrue(latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        } catch (final InterruptedException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static @NotNull HookedProvider createProvider() throws IOException {
+        final HookedProvider provider = new HookedProvider(ClassProviderRoot.fromJar(scenarioJar("scenario-01")));
+        provider.setDecorator(c -> c.setProvider(provider));
+        return provider;
+    }
+
+    /**
+     * Action run by {@link HookedProvider} on the name of each class before it is parsed.
+     */
+    @FunctionalInterface
+    private interface ParseHook {
+        void beforeParse(final @NotNull String className) throws IOException;
+    }
+
+    /**
+     * Provider which counts how many classes it parses and runs {@link #hook} before parsing each of them.
+     */
+    private static final class HookedProvider extends AbstractClassDataProvider {
+
+        private final AtomicInteger parses = new AtomicInteger();
+        private volatile @Nullable ParseHook hook = null;
+
+        private HookedProvider(final @NotNull ClassProviderRoot root) {
+            super(Collections.singletonList(root));
+        }
+
+        @Override
+        protected @Nullable ClassData parseClassData(
+            final @NotNull String className,
+            final byte @NotNull [] file
+        ) throws IOException {
+            this.parses.incrementAndGet();
+            final ParseHook hook = this.hook;
+            if (hook != null) {
+                hook.beforeParse(className);
+            }
+            return this.parseClassData(file);
+        }
+
+        @Override
+        protected @Nullable ClassData parseClassData(final byte @NotNull [] file) {
+            return AsmClassData.readFile(file);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.asm;
+
+import dev.denwav.hypo.model.ClassDataProviderSet;
+import dev.denwav.hypo.model.ClassProviderRoot;
+import dev.denwav.hypo.model.data.ClassData;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+
+import static dev.denwav.hypo.asm.AsmTestData.CLASS_NAME;
+import static dev.denwav.hypo.asm.AsmTestData.scenarioJar;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@DisplayName("[asm] Class data provider set lookup tests")
+public class AsmClassDataProviderSetTest {
+
+    private static final String OTHER_CLASS_NAME = "scenario02/TestClass";
+    private static final String ADDED_CLASS_NAME = "added/AddedClass";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Test providers with immutable roots are skipped for classes they don't contain")
+    public void testImmutableProviderSkipped() throws IOException {
+        final CountingRoot first = new CountingRoot(scenarioJar("scenario-01"), true);
+        final CountingRoot last = new CountingRoot(scenarioJar("scenario-02"), true);
+        try (final ClassDataProviderSet set = createSet(first, last)) {
+            final ClassData other = set.findClass(OTHER_CLASS_NAME);
+            assertNotNull(other);
+            assertEquals(OTHER_CLASS_NAME, other.name());
+            assertNull(set.findClass("missing/MissingClass"));
+            assertEquals(1, first.listings);
+            assertEquals(0, first.classReads);
+
+            final ClassData classData = set.findClass(CLASS_NAME);
+            assertNotNull(classData);
+            assertEquals(CLASS_NAME, classData.name());
+            assertEquals(1, first.listings);
+            assertEquals(1, first.classReads);
+
+            // The last provider is never indexed
+            assertEquals(0, last.listings);
+        }
+    }
+
+    @Test
+    @DisplayName("Test providers with mutable roots are asked for every class")
+    public void testMutableProviderProbed() throws IOException {
+        final CountingRoot first = new CountingRoot(scenarioJar("scenario-01"), false);
+        final CountingRoot last = new CountingRoot(scenarioJar("scenario-02"), true);
+        try (final ClassDataProviderSet set = createSet(first, last)) {
+            assertNotNull(set.findClass(OTHER_CLASS_NAME));
+            assertEquals(0, first.listings);
+            assertEquals(1, first.classReads);
+        }
+    }
+
+    @Test
+    @DisplayName("Test classes added to a directory root after the first lookup are found")
+    public void testDirectoryRootUpdated() throws IOException {
+        try (
+            final ClassDataProviderSet set = ClassDataProviderSet.wrap(List.of(
+                AsmClassDataProvider.of(ClassProviderRoot.fromDir(this.tempDir)),
+                AsmClassDataProvider.of(ClassProviderRoot.fromJar(scenarioJar("scenario-01")))
+            ))
+        ) {
+            set.setDecorator(c -> c.setProvider(set));
+            assertNotNull(set.findClass(CLASS_NAME));
+
+            final Path classFile = this.tempDir.resolve(ADDED_CLASS_NAME + ".class");
+            Files.createDirectories(classFile.getParent());
+            Files.write(classFile, generateClass(ADDED_CLASS_NAME));
+
+            final ClassData added = set.findClass(ADDED_CLASS_NAME);
+            assertNotNull(added);
+            assertEquals(ADDED_CLASS_NAME, added.name());
+        }
+    }
+
+    @Test
+    @DisplayName("Test the first provider containing a class wins")
+    public void testFirstProviderWins() throws IOException {
+        final AsmClassDataProvider first = AsmClassDataProvider.of(new CountingRoot(scenarioJar("scenario-01"), true));
+        final AsmClassDataProvider last = AsmClassDataProvider.of(new CountingRoot(scenarioJar("scenario-01"), true));
+        try (final ClassDataProviderSet set = ClassDataProviderSet.wrap(List.of(first, last))) {
+            set.setDecorator(c -> c.setProvider(set));
+            final ClassData classData = set.findClass(CLASS_NAME);
+            assertNotNull(classData);
+            assertSame(first.findClass(CLASS_NAME), classData);
+        }
+    }
+
+    private static @NotNull ClassDataProviderSet createSet(
+        final @NotNull CountingRoot first,
+        final @NotNull CountingRoot last
+    ) {
+        final ClassDataProviderSet set =
+            ClassDataProviderSet.wrap(List.of(AsmClassDataProvider.of(first), AsmClassDataProvider.of(last)));
+        set.setDecorator(c -> c.setProvider(set));
+        return set;
+    }
+
+    private static byte @NotNull [] generateClass(final @NotNull String name) {
+        final ClassWriter writer = new ClassWriter(0);
+        writer.visit(Opcodes.V11, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, name, null, "java/lang/Object", null);
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    /**
+     * Jar root which counts how often it is listed and read, and reports the given mutability.
+     */
+    private static final class CountingRoot implements ClassProviderRoot {
+
+        private final @NotNull ClassProviderRoot delegate;
+        private final boolean immutable;
+        int listings = 0;
+        int classReads = 0;
+
+        CountingRoot(final @NotNull Path jar, final boolean immutable) throws IOException {
+            this.delegate = ClassProviderRoot.fromJar(jar);
+            this.immutable = immutable;
+        }
+
+        @Override
+        public byte @Nullable [] getClassData(final @NotNull String fileName) throws IOException {
+            this.classReads++;
+            return this.delegate.getClassData(fileName);
+        }
+
+        @Override
+        public @NotNull List<? extends FileDataReference> getAllClasses() throws IOException {
+            this.listings++;
+            return this.delegate.getAllClasses();
+        }
+
+        @Override
+        public boolean isImmutable() {
+            return this.immutable;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.delegate.close();
+        }
+    }
+}
@@ -0,0 +1,417 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.asm;
+
+import dev.denwav.hypo.model.ClassProviderRoot;
+import dev.denwav.hypo.model.data.ClassData;
+import dev.denwav.hypo.model.data.ClassKind;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.InnerClassNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.RecordComponentNode;
+
+import static dev.denwav.hypo.asm.AsmTestData.scenarioJar;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("[asm] Class summary tests")
+public class AsmClassSummaryTest {
+
+    /**
+     * Scenarios covering inner, outer and local classes, sealed classes, and records.
+     */
+    private static final String[] SCENARIOS = { "scenario-01", "scenario-04", "scenario-08", "scenario-10" };
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Test summaries read back the same as class files parsed with SKIP_CODE")
+    public void testSummaryMatchesClassFile() throws IOException {
+        int count = 0;
+        for (final String scenario : SCENARIOS) {
+            for (final Map.Entry<String, byte[]> file : readClasses(scenarioJar(scenario)).entrySet()) {
+                final ClassNode expected = new ClassNode(Opcodes.ASM9);
+                new ClassReader(file.getValue()).accept(expected, ClassReader.SKIP_CODE);
+
+                final byte[] summary = AsmClassSummary.write(file.getValue());
+                assertTrue(AsmClassSummary.isSummary(summary));
+                assertFalse(AsmClassSummary.isSummary(file.getValue()));
+
+                assertEquals(describe(expected), describe(AsmClassSummary.read(summary)), file.getKey());
+                count++;
+            }
+        }
+        assertTrue(count > SCENARIOS.length);
+    }
+
+    @Test
+    @DisplayName("Test summary strings have no length limit and round-trip any string")
+    public void testStrings() throws IOException {
+        final StringBuilder builder = new StringBuilder("Ljava/util/Map<");
+        while (builder.length() < 100_000) {
+            builder.append("Ljava/util/List<Ljava/lang/String;>;");
+        }
+        final String[] values = {
+            "",
+            builder.append(">;").toString(),
+            "nul\u0000char",
+            "\u00e9\u4e2d\uffff",
+            "unpaired\ud800surrogate\udc00",
+        };
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final DataOutputStream out = new DataOutputStream(bytes)) {
+            for (final String value : values) {
+                AsmClassSummary.writeString(out, value);
+            }
+        }
+
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        for (final String value : values) {
+            assertEquals(value, AsmClassSummary.readString(in));
+        }
+        assertEquals(0, in.available());
+    }
+
+    @Test
+    @DisplayName("Test truncated or corrupt summaries fail with an IOException")
+    public void testCorruptSummary() throws IOException {
+        final byte[] classFile = readClasses(scenarioJar("scenario-08")).get("scenario08/TestClass.class");
+        assertNotNull(classFile);
+        final byte[] summary = AsmClassSummary.write(classFile);
+
+        for (int length = 0; length < summary.length; length++) {
+            final byte[] truncated = Arrays.copyOf(summary, length);
+            assertThrows(IOException.class, () -> AsmClassSummary.read(truncated));
+        }
+
+        // The length of the class name is right after the magic number, version and access flags
+        final byte[] corrupt = summary.clone();
+        ByteBuffer.wrap(corrupt).putInt(12, Integer.MAX_VALUE);
+        assertThrows(IOException.class, () -> AsmClassSummary.read(corrupt));
+    }
+
+    @Test
+    @DisplayName("Test the summary cache file is reused for unchanged roots")
+    public void testCacheHit() throws IOException {
+        final Path jar = this.copyJar("scenario-04");
+        final Path cacheDir = this.tempDir.resolve("cache");
+
+        final CountingRoot first = new CountingRoot(jar);
+        try (final AsmClassDataProvider provider = cachedProvider(cacheDir, first)) {
+            assertSummaryClass(provider, first, "scenario04/TestClass");
+        }
+        assertEquals(1, first.listings);
+        final Path cacheFile = singleCacheFile(cacheDir);
+
+        final CountingRoot second = new CountingRoot(jar);
+        try (final AsmClassDataProvider provider = cachedProvider(cacheDir, second)) {
+            final ClassData classData = assertSummaryClass(provider, second, "scenario04/TestClass");
+            assertTrue(classData.isSealed());
+            final List<ClassData> permitted = classData.permittedClasses();
+            assertNotNull(permitted);
+            assertEquals(2, permitted.size());
+        }
+        // The existing cache file was used as-is, without looking at the classes of the jar at all
+        assertEquals(0, second.listings);
+        assertEquals(cacheFile, singleCacheFile(cacheDir));
+    }
+
+    @Test
+    @DisplayName("Test the summary cache is not used for changed roots")
+    public void testCacheInvalidation() throws IOException {
+        final Path jar = this.copyJar("scenario-04");
+        final Path cacheDir = this.tempDir.resolve("cache");
+
+        final CountingRoot first = new CountingRoot(jar);
+        try (final AsmClassDataProvider provider = cachedProvider(cacheDir, first)) {
+            assertSummaryClass(provider, first, "scenario04/TestClass");
+        }
+        final Path firstCacheFile = singleCacheFile(cacheDir);
+
+        Files.copy(scenarioJar("scenario-08"), jar, StandardCopyOption.REPLACE_EXISTING);
+        final CountingRoot second = new CountingRoot(jar);
+        try (final AsmClassDataProvider provider = cachedProvider(cacheDir, second)) {
+            assertNull(provider.findClass("scenario04/TestClass"));
+            final ClassData classData = assertSummaryClass(provider, second, "scenario08/TestClass");
+            assertTrue(classData.is(ClassKind.RECORD));
+        }
+        assertEquals(1, second.listings);
+
+        try (final Stream<Path> files = Files.list(cacheDir)) {
+            final List<Path> cacheFiles = files.toList();
+            assertEquals(2, cacheFiles.size());
+            assertTrue(cacheFiles.contains(firstCacheFile));
+        }
+    }
+
+    @Test
+    @DisplayName("Test damaged summary cache files are created again")
+    public void testDamagedCacheFile() throws IOException {
+        final Path jar = this.copyJar("scenario-08");
+        final Path cacheDir = this.tempDir.resolve("cache");
+
+        final CountingRoot first = new CountingRoot(jar);
+        try (final AsmClassDataProvider provider = cachedProvider(cacheDir, first)) {
+            assertSummaryClass(provider, first, "scenario08/TestClass");
+        }
+        final Path cacheFile = singleCacheFile(cacheDir);
+        final byte[] original = Files.readAllBytes(cacheFile);
+
+        final byte[] truncated = Arrays.copyOf(original, original.length / 2);
+        final byte[] wrongVersion = original.clone();
+        ByteBuffer.wrap(wrongVersion).putInt(4, Integer.MAX_VALUE);
+        final byte[] hugeIndex = original.clone();
+        ByteBuffer.wrap(hugeIndex).putInt(8, Integer.MAX_VALUE);
+
+        for (final byte[] damaged : List.of(truncated, wrongVersion, hugeIndex)) {
+            Files.write(cacheFile, damaged);
+            final CountingRoot root = new CountingRoot(jar);
+            try (final AsmClassDataProvider provider = cachedProvider(cacheDir, root)) {
+                assertSummaryClass(provider, root, "scenario08/TestClass");
+            }
+            assertEquals(1, root.listings);
+            assertArrayEquals(original, Files.readAllBytes(cacheFile));
+        }
+    }
+
+    @Test
+    @DisplayName("Test classes with a damaged summary are read from their class file")
+    public void testDamagedSummary() throws IOException {
+        final Path jar = this.copyJar("scenario-08");
+        final Path cacheDir = this.tempDir.resolve("cache");
+
+        final CountingRoot first = new CountingRoot(jar);
+        try (final AsmClassDataProvider provider = cachedProvider(cacheDir, first)) {
+            assertSummaryClass(provider, first, "scenario08/TestClass");
+        }
+        final Path cacheFile = singleCacheFile(cacheDir);
+        final byte[] original = Files.readAllBytes(cacheFile);
+
+        // Damaged without updating the checksum
+        final byte[] damaged = original.clone();
+        final SummaryLocation location = locate(damaged, "scenario08/TestClass");
+        ByteBuffer.wrap(damaged).putInt(location.offset + 12, Integer.MAX_VALUE);
+        Files.write(cacheFile, damaged);
+        final CountingRoot second = new CountingRoot(jar);
+        try (final AsmClassDataProvider provider = cachedProvider(cacheDir, second)) {
+            assertClassFileClass(provider, second, "scenario08/TestClass");
+        }
+
+        // Damaged with a matching checksum, so reading the summary itself fails
+        final CRC32 crc = new CRC32();
+        crc.update(damaged, location.offset, location.length);
+        ByteBuffer.wrap(damaged).putInt(location.checksumOffset, (int) crc.getValue());
+        Files.write(cacheFile, damaged);
+        final CountingRoot third = new CountingRoot(jar);
+        try (final AsmClassDataProvider provider = cachedProvider(cacheDir, third)) {
+            assertClassFileClass(provider, third, "scenario08/TestClass");
+        }
+    }
+
+    private @NotNull Path copyJar(final @NotNull String scenario) throws IOException {
+        final Path jar = this.tempDir.resolve("test.jar");
+        Files.copy(scenarioJar(scenario), jar, StandardCopyOption.REPLACE_EXISTING);
+        return jar;
+    }
+
+    private static @NotNull AsmClassDataProvider cachedProvider(
+        final @NotNull Path cacheDir,
+        final @NotNull CountingRoot root
+    ) throws IOException {
+        final AsmClassDataProvider provider = AsmClassDataProvider.ofCached(cacheDir, root);
+        provider.setDecorator(c -> c.setProvider(provider));
+        return provider;
+    }
+
+    private static @NotNull Path singleCacheFile(final @NotNull Path cacheDir) throws IOException {
+        try (final Stream<Path> files = Files.list(cacheDir)) {
+            final List<Path> cacheFiles = files.toList();
+            assertEquals(1, cacheFiles.size());
+            return cacheFiles.get(0);
+        }
+    }
+
+    /**
+     * Find the given class, and check it was created from its summary without reading its class file.
+     */
+    private static @NotNull ClassData assertSummaryClass(
+        final @NotNull AsmClassDataProvider provider,
+        final @NotNull CountingRoot root,
+        final @NotNull String name
+    ) throws IOException {
+        final int reads = root.classReads;
+        final ClassData classData = provider.findClass(name);
+        assertNotNull(classData);
+        assertEquals(name, classData.name());
+        assertEquals(reads, root.classReads);
+        return classData;
+    }
+
+    /**
+     * Find the given class, and check it was created from its class file.
+     */
+    private static void assertClassFileClass(
+        final @NotNull AsmClassDataProvider provider,
+        final @NotNull CountingRoot root,
+        final @NotNull String name
+    ) throws IOException {
+        final int reads = root.classReads;
+        final ClassData classData = provider.findClass(name);
+        assertNotNull(classData);
+        assertEquals(name, classData.name());
+        assertEquals(reads + 1, root.classReads);
+        assertFalse(classData.methods().isEmpty());
+    }
+
+    private static @NotNull Map<String, byte[]> readClasses(final @NotNull Path jar) throws IOException {
+        final LinkedHashMap<String, byte[]> result = new LinkedHashMap<>();
+        try (final ClassProviderRoot root = ClassProviderRoot.fromJar(jar)) {
+            for (final ClassProviderRoot.FileDataReference ref : root.getAllClasses()) {
+                final byte[] data = ref.readData();
+                if (data != null) {
+                    result.put(ref.name(), data);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static @NotNull List<String> describe(final @NotNull ClassNode node) {
+        final ArrayList<String> result = new ArrayList<>();
+        result.add("class " + node.version + " " + node.access + " " + node.name + " " + node.signature);
+        result.add("super " + node.superName + " " + node.interfaces);
+        result.add("outer " + node.outerClass + " " + node.outerMethod + " " + node.outerMethodDesc);
+        for (final InnerClassNode inner : node.innerClasses) {
+            result.add("inner " + inner.name + " " + inner.outerName + " " + inner.innerName + " " + inner.access);
+        }
+        result.add("permits " + node.permittedSubclasses);
+        if (node.recordComponents == null) {
+            result.add("record null");
+        } else {
+            for (final RecordComponentNode component : node.recordComponents) {
+                result.add("record " + component.name + " " + component.descriptor + " " + component.signature);
+            }
+        }
+        for (final FieldNode field : node.fields) {
+            result.add("field " + field.access + " " + field.name + " " + field.desc + " " + field.signature);
+        }
+        for (final MethodNode method : node.methods) {
+            result.add(
+                "method " + method.access + " " + method.name + " " + method.desc + " " + method.signature + " "
+                    + method.exceptions
+            );
+        }
+        return result;
+    }
+
+    /**
+     * Find the location of the summary of the given class in the given cache file, by reading the cache file index.
+     */
+    private static @NotNull SummaryLocation locate(
+        final byte @NotNull [] cacheFile,
+        final @NotNull String name
+    ) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(cacheFile);
+        final int count = buffer.getInt(8);
+        final int indexLength = buffer.getInt(12);
+        final int dataStart = 16 + indexLength;
+
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(cacheFile, 16, indexLength));
+        for (int i = 0; i < count; i++) {
+            final String entryName = AsmClassSummary.readString(in);
+            final int offset = in.readInt();
+            final int length = in.readInt();
+            final int checksumOffset = dataStart - in.available();
+            in.readInt();
+            if (entryName.equals(name)) {
+                return new SummaryLocation(dataStart + offset, length, checksumOffset);
+            }
+        }
+        throw new AssertionError("No summary for " + name);
+    }
+
+    private record SummaryLocation(int offset, int length, int checksumOffset) {}
+
+    /**
+     * Jar root which counts how often the classes of the jar are listed, and how often class files are read.
+     */
+    private static final class CountingRoot implements ClassProviderRoot {
+
+        private final @NotNull ClassProviderRoot delegate;
+        int listings = 0;
+        int classReads = 0;
+
+        CountingRoot(final @NotNull Path jar) throws IOException {
+            this.delegate = ClassProviderRoot.fromJar(jar);
+        }
+
+        @Override
+        public byte @Nullable [] getClassData(final @NotNull String fileName) throws IOException {
+            this.classReads++;
+            return this.delegate.getClassData(fileName);
+        }
+
+        @Override
+        public @NotNull List<? extends FileDataReference> getAllClasses() throws IOException {
+            this.listings++;
+            return this.delegate.getAllClasses();
+        }
+
+        @Override
+        public @Nullable String contentKey() throws IOException {
+            return this.delegate.contentKey();
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.delegate.close();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.asm;
+
+import dev.denwav.hypo.model.ClassProviderRoot;
+import dev.denwav.hypo.model.data.ClassData;
+import dev.denwav.hypo.model.data.MethodData;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import static dev.denwav.hypo.asm.AsmTestData.CLASS_NAME;
+import static dev.denwav.hypo.asm.AsmTestData.scenarioJar;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("[asm] Skipped method body loading tests")
+public class AsmMethodBodyTest {
+
+    /**
+     * Scenarios covering inner, outer and local classes, sealed classes, and records.
+     */
+    private static final String[] SCENARIOS = { "scenario-01", "scenario-04", "scenario-08", "scenario-10" };
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Test method bodies loaded for header-only classes match fully parsed classes")
+    public void testHeaderMethodBodies() throws IOException {
+        int count = 0;
+        for (final String scenario : SCENARIOS) {
+            try (final ClassProviderRoot root = ClassProviderRoot.fromJar(scenarioJar(scenario))) {
+                for (final ClassProviderRoot.FileDataReference ref : root.getAllClasses()) {
+                    final byte[] classFile = ref.readData();
+                    assertNotNull(classFile);
+                    final AsmClassData expected = AsmClassData.readFile(classFile);
+                    assertMethodBodies(expected, AsmClassData.readFileHeader(classFile));
+                    count++;
+                }
+            }
+        }
+        assertTrue(count > SCENARIOS.length);
+    }
+
+    @Test
+    @DisplayName("Test method bodies loaded for classes created from summaries match fully parsed classes")
+    public void testSummaryMethodBodies() throws IOException {
+        int count = 0;
+        for (final String scenario : SCENARIOS) {
+            final Path cacheDir = this.tempDir.resolve(scenario);
+            try (
+                final ClassProviderRoot root = ClassProviderRoot.fromJar(scenarioJar(scenario));
+                final AsmClassDataProvider provider = AsmClassDataProvider.ofCached(cacheDir, root)
+            ) {
+                provider.setDecorator(c -> c.setProvider(provider));
+                for (final ClassProviderRoot.FileDataReference ref : root.getAllClasses()) {
+                    final byte[] classFile = ref.readData();
+                    assertNotNull(classFile);
+                    final ClassData classData = provider.findClass(ref.name());
+                    assertNotNull(classData);
+                    assertMethodBodies(AsmClassData.readFile(classFile), (AsmClassData) classData);
+                    count++;
+                }
+            }
+        }
+        assertTrue(count > SCENARIOS.length);
+    }
+
+    @Test
+    @DisplayName("Test method bodies are matched by signature, not by position")
+    public void testReorderedMethods() throws IOException {
+        final byte[] classFile = readClass("scenario-01", CLASS_NAME + ".class");
+        final AsmClassData expected = AsmClassData.readFile(classFile);
+
+        final ClassNode node = new ClassNode();
+        new ClassReader(classFile).accept(node, ClassReader.SKIP_CODE);
+        assertTrue(node.methods.size() > 1);
+        Collections.reverse(node.methods);
+
+        final AsmClassData classData = new AsmClassData(node, () -> classFile);
+        final List<MethodNode> nodes = new ArrayList<>(node.methods);
+        final ClassNode loaded = classData.getNode();
+        assertEquals(nodes, loaded.methods);
+        for (final MethodNode method : loaded.methods) {
+            final MethodData expectedMethod = expected.method(method.name, method.desc);
+            assertNotNull(expectedMethod);
+            assertEquals(describe(((AsmMethodData) expectedMethod).getNode()), describe(method));
+        }
+    }
+
+    @Test
+    @DisplayName("Test loading method bodies fails if the class file no longer contains a method")
+    public void testMissingMethod() throws IOException {
+        final byte[] classFile = readClass("scenario-01", CLASS_NAME + ".class");
+
+        final ClassNode node = new ClassNode();
+        new ClassReader(classFile).accept(node, ClassReader.SKIP_CODE);
+        node.methods.add(new MethodNode(0, "missingMethod", "()V", null, null));
+
+        final AsmClassData classData = new AsmClassData(node, () -> classFile);
+        assertThrows(IllegalStateException.class, classData::getNode);
+    }
+
+    /**
+     * Check the method bodies of {@code actual}, which was parsed without them, match the method bodies of
+     * {@code expected} once they are loaded, and that loading them kept the existing method nodes.
+     */
+    private static void assertMethodBodies(final @NotNull AsmClassData expected, final @NotNull AsmClassData actual) {
+        final List<MethodData> methods = actual.methods();
+        final ArrayList<MethodNode> nodes = new ArrayList<>();
+        for (final MethodData method : methods) {
+            final MethodNode node = ((AsmMethodData) method).getNode();
+            nodes.add(node);
+            final MethodData expectedMethod = expected.method(method.name(), method.descriptorText());
+            assertNotNull(expectedMethod, method.toString());
+            assertEquals(describe(((AsmMethodData) expectedMethod).getNode()), describe(node), method.toString());
+        }
+        for (int i = 0; i < methods.size(); i++) {
+            assertSame(nodes.get(i), ((AsmMethodData) methods.get(i)).getNode());
+        }
+    }
+
+    private static @NotNull List<String> describe(final @NotNull MethodNode node) {
+        final ArrayList<String> result = new ArrayList<>();
+        result.add(node.name + node.desc + " " + node.maxStack + " " + node.maxLocals);
+        result.add("try " + node.tryCatchBlocks.size());
+        result.add("locals " + (node.localVariables == null ? "null" : node.localVariables.size()));
+        for (final AbstractInsnNode insn : node.instructions) {
+            result.add(insn.getType() + " " + insn.getOpcode());
+        }
+        return result;
+    }
+
+    private static byte @NotNull [] readClass(
+        final @NotNull String scenario,
+        final @NotNull String fileName
+    ) throws IOException {
+        try (final ClassProviderRoot root = ClassProviderRoot.fromJar(scenarioJar(scenario))) {
+            final byte[] classFile = root.getClassData(fileName);
+            assertNotNull(classFile);
+            return classFile;
+        }
+    }
+}
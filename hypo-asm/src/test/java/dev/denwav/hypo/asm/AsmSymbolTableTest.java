@@ -0,0 +1,146 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.asm;
+
+import dev.denwav.hypo.core.HypoContext;
+import dev.denwav.hypo.model.ClassProviderRoot;
+import dev.denwav.hypo.model.data.ClassData;
+import dev.denwav.hypo.model.data.FieldData;
+import dev.denwav.hypo.model.data.MemberData;
+import dev.denwav.hypo.model.data.MethodData;
+import dev.denwav.hypo.model.data.SymbolTable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static dev.denwav.hypo.asm.AsmTestData.CLASS_NAME;
+import static dev.denwav.hypo.asm.AsmTestData.createContext;
+import static dev.denwav.hypo.asm.AsmTestData.scenarioJar;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("[asm] Symbol table tests")
+public class AsmSymbolTableTest {
+
+    @Test
+    @DisplayName("Test every class loaded through a context has a unique ID")
+    public void testClassIds() throws IOException {
+        try (final HypoContext context = createContext()) {
+            final SymbolTable table = context.getSymbolTable();
+            final List<ClassData> classes = allClasses(context);
+            final HashSet<Integer> ids = new HashSet<>();
+            for (final ClassData classData : classes) {
+                final int id = classData.id();
+                assertTrue(id >= 0 && id < table.classCount(), classData.name());
+                assertTrue(ids.add(id), classData.name());
+                assertSame(table, classData.symbolTable());
+                assertEquals(classData.name(), table.className(id));
+                assertEquals(id, table.classId(classData.name()));
+                assertSame(classData, context.findClass(id));
+            }
+
+            // Classes parsed again get the ID of the class with the same name
+            final ClassData first = classes.get(0);
+            final AsmClassData copy = AsmClassData.readFile(readClass(first.name()));
+            assertEquals(first.id(), table.register(copy));
+            assertEquals(first.id(), copy.id());
+
+            assertEquals(-1, table.classId("scenario01/Missing"));
+            assertNull(table.className(-1));
+            assertNull(table.className(table.classCount()));
+            assertNull(context.findClass(-1));
+        }
+    }
+
+    @Test
+    @DisplayName("Test members are found by their ID")
+    public void testFindMember() throws IOException {
+        try (final HypoContext context = createContext()) {
+            final SymbolTable table = context.getSymbolTable();
+            final HashSet<Integer> ids = new HashSet<>();
+            for (final ClassData classData : allClasses(context)) {
+                final ArrayList<MemberData> members = new ArrayList<>(classData.methods());
+                members.addAll(classData.fields());
+                for (final MemberData member : members) {
+                    final int id = member.id();
+                    assertTrue(id >= 0 && id < table.memberCount(), member.toString());
+                    assertTrue(ids.add(id), member.toString());
+                    assertSame(member, context.findMember(id));
+                    assertEquals(classData.id(), table.memberClassId(id));
+                }
+
+                // Methods come first, followed by fields, each in declaration order
+                final int base = table.memberBase(classData.id());
+                for (int i = 0; i < members.size(); i++) {
+                    assertEquals(base + i, members.get(i).id(), members.get(i).toString());
+                }
+            }
+            assertEquals(table.memberCount(), ids.size());
+
+            assertNull(context.findMember(-1));
+            assertNull(context.findMember(table.memberCount()));
+            assertEquals(-1, table.memberClassId(-1));
+            assertEquals(-1, table.memberClassId(table.memberCount()));
+        }
+    }
+
+    @Test
+    @DisplayName("Test classes which aren't part of a context don't have IDs")
+    public void testUnregistered() throws IOException {
+        final AsmClassData classData = AsmClassData.readFile(readClass(CLASS_NAME));
+        assertEquals(-1, classData.id());
+        assertNull(classData.symbolTable());
+        for (final MethodData method : classData.methods()) {
+            assertEquals(-1, method.id(), method.toString());
+        }
+        for (final FieldData field : classData.fields()) {
+            assertEquals(-1, field.id(), field.toString());
+        }
+
+        // A new table hasn't reserved any member IDs for the class
+        final SymbolTable table = new SymbolTable();
+        final int id = table.register(classData);
+        assertEquals(0, id);
+        assertEquals(-1, table.memberBase(id));
+        assertEquals(0, classData.methods().get(0).id());
+        assertEquals(0, table.memberBase(id));
+    }
+
+    private static @NotNull List<ClassData> allClasses(final @NotNull HypoContext context) throws IOException {
+        final ArrayList<ClassData> classes = new ArrayList<>();
+        context.getProvider().allClasses().forEach(classes::add);
+        assertTrue(classes.size() > 1);
+        return classes;
+    }
+
+    private static byte @NotNull [] readClass(final @NotNull String className) throws IOException {
+        try (final ClassProviderRoot root = ClassProviderRoot.fromJar(scenarioJar("scenario-01"))) {
+            final byte[] classFile = root.getClassData(className + ".class");
+            assertNotNull(classFile);
+            return classFile;
+        }
+    }
+}
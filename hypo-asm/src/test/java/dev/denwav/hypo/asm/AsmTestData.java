@@ -0,0 +1,75 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.asm;
+
+import dev.denwav.hypo.core.HypoContext;
+import dev.denwav.hypo.model.ClassProviderRoot;
+import dev.denwav.hypo.model.data.HypoKey;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.jetbrains.annotations.NotNull;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Shared test data for the {@code asm} tests which don't run as a scenario.
+ */
+public final class AsmTestData {
+
+    /**
+     * The name of the main class of {@code scenario-01}.
+     */
+    public static final String CLASS_NAME = "scenario01/TestClass";
+    /**
+     * The name of an inner class of {@link #CLASS_NAME}.
+     */
+    public static final String INNER_CLASS_NAME = "scenario01/TestClass$InnerClass";
+    /**
+     * Key for storing test data on classes and members.
+     */
+    public static final HypoKey<String> TEST_KEY = HypoKey.create("Asm Test Key");
+
+    private AsmTestData() {}
+
+    /**
+     * Returns the path of the jar file of the given scenario.
+     *
+     * @param scenario The name of the scenario, such as {@code scenario-01}.
+     * @return The path of the jar file of the given scenario.
+     */
+    public static @NotNull Path scenarioJar(final @NotNull String scenario) {
+        final String testData = System.getProperty(scenario);
+        assertNotNull(testData);
+        return Paths.get(testData);
+    }
+
+    /**
+     * Create a new context with {@code scenario-01} as its provider, and the JDK as its context provider.
+     *
+     * @return The new context.
+     * @throws IOException If an IO error occurs while opening the scenario jar or the JDK.
+     */
+    public static @NotNull HypoContext createContext() throws IOException {
+        return HypoContext.builder()
+            .withProvider(AsmClassDataProvider.of(ClassProviderRoot.fromJar(scenarioJar("scenario-01"))))
+            .withContextProvider(AsmClassDataProvider.of(ClassProviderRoot.ofJdk()))
+            .build();
+    }
+}
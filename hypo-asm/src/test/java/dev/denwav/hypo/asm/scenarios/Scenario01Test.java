@@ -18,8 +18,12 @@
 
 package dev.denwav.hypo.asm.scenarios;
 
+import dev.denwav.hypo.model.ClassDataProvider;
+import dev.denwav.hypo.model.HypoModelUtil;
 import dev.denwav.hypo.model.data.ClassData;
+import dev.denwav.hypo.model.data.types.ClassType;
 import dev.denwav.hypo.test.framework.TestScenarioBase;
+import java.io.IOException;
 import java.util.List;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Assertions;
@@ -104,4 +108,49 @@ public class Scenario01Test extends TestScenarioBase {
 
         Assertions.assertEquals(expectedNames, innerNames);
     }
+
+    @Test
+    @DisplayName("Test loading all classes in parallel")
+    void testLoadAll() throws IOException {
+        final ClassDataProvider provider = this.context().getContextProvider();
+        final List<ClassData> loaded = provider.loadAll(this.context().getExecutor());
+
+        final var loadedNames = loaded.stream().map(ClassData::name).sorted().toList();
+        final var streamedNames = provider.stream().map(ClassData::name).sorted().toList();
+        Assertions.assertEquals(streamedNames, loadedNames);
+        Assertions.assertEquals(loadedNames.size(), loadedNames.stream().distinct().count());
+        Assertions.assertTrue(loadedNames.contains("scenario01/TestClass$InnerClass$NestedInnerClass$1LocalClass"));
+
+        // Classes are shared with every other way of loading them
+        for (final ClassData classData : loaded) {
+            Assertions.assertSame(classData, provider.findClass(classData.name()));
+        }
+    }
+
+    @Test
+    @DisplayName("Test finding classes by names in different formats")
+    void testClassNameFormats() throws IOException {
+        final String name = "scenario01/TestClass$InnerClass$NestedInnerClass";
+        final ClassDataProvider provider = this.context().getContextProvider();
+        final ClassData classData = provider.findClass(name);
+        Assertions.assertNotNull(classData);
+        Assertions.assertEquals(name, classData.name());
+
+        for (final String format : List.of(
+            "scenario01.TestClass$InnerClass$NestedInnerClass",
+            "Lscenario01/TestClass$InnerClass$NestedInnerClass;",
+            "scenario01/TestClass$InnerClass$NestedInnerClass.class",
+            "/scenario01/TestClass$InnerClass$NestedInnerClass"
+        )) {
+            Assertions.assertSame(classData, provider.findClass(format), format);
+        }
+        Assertions.assertNull(provider.findClass("scenario01/TestClass$Missing"));
+
+        // Names which are already normalized are returned unchanged
+        Assertions.assertSame(name, HypoModelUtil.normalizedClassName(name));
+        Assertions.assertEquals(name, HypoModelUtil.normalizedClassName("L" + name + ";"));
+        Assertions.assertEquals(name, HypoModelUtil.normalizedClassName(name.replace('/', '.')));
+        Assertions.assertEquals("", HypoModelUtil.normalizedClassName(""));
+        Assertions.assertEquals(ClassType.of(name), ClassType.of("L" + name + ";"));
+    }
 }
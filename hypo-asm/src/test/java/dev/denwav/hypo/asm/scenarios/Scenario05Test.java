@@ -18,23 +18,31 @@
 
 package dev.denwav.hypo.asm.scenarios;
 
+import dev.denwav.hypo.asm.AsmMethodData;
+import dev.denwav.hypo.asm.AsmMethodSummary;
 import dev.denwav.hypo.asm.hydrate.LambdaCallHydrator;
 import dev.denwav.hypo.hydrate.HydrationProvider;
 import dev.denwav.hypo.hydrate.generic.HypoHydration;
 import dev.denwav.hypo.hydrate.generic.LambdaClosure;
+import dev.denwav.hypo.model.data.ClassData;
+import dev.denwav.hypo.model.data.FieldData;
 import dev.denwav.hypo.model.data.MethodData;
+import dev.denwav.hypo.model.data.types.PrimitiveType;
 import dev.denwav.hypo.test.framework.TestScenarioBase;
 import java.util.List;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Opcodes;
 
 import static dev.denwav.hypo.model.data.MethodDescriptor.parseDescriptor;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DisplayName("[asm] Scenario 05 - Lambda scopes (Java 21)")
@@ -173,4 +181,75 @@ public class Scenario05Test extends TestScenarioBase {
 
         assertEquals(this.functionApply, lambda.getInterfaceMethod());
     }
+
+    @Test
+    @DisplayName("Test member lookups match scanning the declared members")
+    public void testMemberLookups() {
+        // String has enough members to be indexed, the scenario class is small enough to be scanned
+        for (final String className : List.of("java/lang/String", "scenario05/TestClass")) {
+            final ClassData classData = this.findClass(className);
+            for (final MethodData method : classData.methods()) {
+                assertSame(method, classData.method(method.name(), method.descriptor()));
+                assertSame(method, classData.method(method.name(), method.descriptorText()));
+                final List<MethodData> expected = classData.methods().stream()
+                    .filter(m -> m.name().equals(method.name()))
+                    .toList();
+                assertEquals(expected, classData.methods(method.name()));
+            }
+            for (final FieldData field : classData.fields()) {
+                assertSame(field, classData.field(field.name(), field.fieldType()));
+                final List<FieldData> expected = classData.fields().stream()
+                    .filter(f -> f.name().equals(field.name()))
+                    .toList();
+                assertEquals(expected, classData.fields(field.name()));
+            }
+
+            assertNull(classData.method("missing", "()V"));
+            assertNull(classData.method("missing", parseDescriptor("()V")));
+            assertEquals(List.of(), classData.methods("missing"));
+            assertEquals(List.of(), classData.fields("missing"));
+        }
+
+        final ClassData string = this.findClass("java/lang/String");
+        assertTrue(string.methods("valueOf").size() > 1);
+        final MethodData valueOf = string.method("valueOf", "(I)Ljava/lang/String;");
+        assertNotNull(valueOf);
+        assertEquals("valueOf", valueOf.name());
+        assertEquals("(I)Ljava/lang/String;", valueOf.descriptorText());
+        assertNull(string.method("valueOf", "(I)V"));
+        assertNull(string.field("value", PrimitiveType.INT));
+    }
+
+    @Test
+    @DisplayName("Test method summaries and skipping methods without lambdas")
+    public void testMethodSummaries() {
+        final var testClass = this.findClass("scenario05/TestClass");
+        final LambdaCallHydrator hydrator = LambdaCallHydrator.create();
+
+        for (final MethodData method : testClass.methods()) {
+            final AsmMethodData asmMethod = (AsmMethodData) method;
+            final AsmMethodSummary summary = asmMethod.summary();
+            final AsmMethodSummary expected = AsmMethodSummary.of(asmMethod.getNode().instructions);
+            for (int opcode = 0; opcode <= 255; opcode++) {
+                assertEquals(expected.hasOpcode(opcode), summary.hasOpcode(opcode), method + " " + opcode);
+            }
+            assertEquals(expected.invokeDynamicCount(), summary.invokeDynamicCount(), method.toString());
+            assertEquals(expected.newCount(), summary.newCount(), method.toString());
+            assertEquals(expected.invokeSpecialCount(), summary.invokeSpecialCount(), method.toString());
+
+            assertEquals(summary.hasOpcode(Opcodes.INVOKEDYNAMIC), hydrator.isApplicable(asmMethod), method.toString());
+        }
+
+        final AsmMethodSummary test = ((AsmMethodData) findMethod(testClass, "test")).summary();
+        assertTrue(test.invokeDynamicCount() > 0);
+        assertTrue(hydrator.isApplicable((AsmMethodData) findMethod(testClass, "testFunction")));
+
+        final AsmMethodSummary constructor = ((AsmMethodData) findMethod(testClass, "<init>")).summary();
+        assertEquals(0, constructor.invokeDynamicCount());
+        assertTrue(constructor.invokeSpecialCount() > 0);
+        assertTrue(constructor.hasOpcode(Opcodes.INVOKESPECIAL));
+        assertFalse(constructor.hasAnyOpcode(Opcodes.INVOKEDYNAMIC, Opcodes.NEW));
+        assertFalse(constructor.hasOpcode(-1));
+        assertFalse(constructor.hasOpcode(256));
+    }
 }
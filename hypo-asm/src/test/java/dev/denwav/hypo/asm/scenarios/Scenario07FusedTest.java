@@ -0,0 +1,46 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.asm.scenarios;
+
+import dev.denwav.hypo.asm.hydrate.FusedMethodHydrator;
+import dev.denwav.hypo.asm.hydrate.LambdaCallHydrator;
+import dev.denwav.hypo.asm.hydrate.LocalClassHydrator;
+import dev.denwav.hypo.hydrate.HydrationProvider;
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.DisplayName;
+
+@DisplayName("[asm] Scenario 07 - Local class scopes inside lambda scopes, fused hydration (Java 21)")
+public class Scenario07FusedTest extends Scenario07Test {
+
+    @Override
+    public @NotNull Env env() {
+        return new Env() {
+            @Override
+            public @NotNull String forContext() {
+                return "scenario-07";
+            }
+
+            @Override
+            public @NotNull Iterable<HydrationProvider<?>> hydration() {
+                return List.of(FusedMethodHydrator.create(LambdaCallHydrator.create(), LocalClassHydrator.create()));
+            }
+        };
+    }
+}
@@ -22,8 +22,15 @@ import dev.denwav.hypo.asm.hydrate.LocalClassHydrator;
 import dev.denwav.hypo.hydrate.HydrationProvider;
 import dev.denwav.hypo.hydrate.generic.HypoHydration;
 import dev.denwav.hypo.hydrate.generic.LocalClassClosure;
+import dev.denwav.hypo.model.data.ClassKind;
+import dev.denwav.hypo.model.data.FieldData;
+import dev.denwav.hypo.model.data.types.ArrayType;
+import dev.denwav.hypo.model.data.types.ClassType;
+import dev.denwav.hypo.model.data.types.PrimitiveType;
 import dev.denwav.hypo.test.framework.TestScenarioBase;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -31,6 +38,8 @@ import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DisplayName("[asm] Scenario 10 - Local class static detection (Java 21)")
@@ -85,4 +94,49 @@ public class Scenario10Test extends TestScenarioBase {
 
         assertArrayEquals(new int[] { 2, 3 }, localClass.getParamLvtIndices());
     }
+
+    @Test
+    @DisplayName("Test equal types are shared between classes")
+    public void testSharedTypes() {
+        final var firstRecord = this.findClass("scenario10/TestClass$1LocalRecord");
+        final var secondRecord = this.findClass("scenario10/TestClass$2LocalRecord");
+
+        final FieldData firstName = firstRecord.fields("name").get(0);
+        final FieldData secondName = secondRecord.fields("name").get(0);
+        final ClassType string = ClassType.of("java.lang.String");
+        assertSame(string, firstName.fieldType());
+        assertSame(string, secondName.fieldType());
+        assertSame(string, ClassType.of("java/lang/String"));
+        assertSame(string, findMethod(firstRecord, "name").returnType());
+        assertSame(PrimitiveType.INT, findMethod(secondRecord, "num").returnType());
+
+        final var testEnum = this.findClass("scenario10/TestClass$1LocalEnum");
+        final ArrayType enumArray = ArrayType.of(ClassType.of("scenario10/TestClass$1LocalEnum"), 1);
+        assertSame(enumArray, findMethod(testEnum, "values").returnType());
+        assertSame(enumArray, findMethod(testEnum, "$values").returnType());
+        assertSame(enumArray, testEnum.fields("$VALUES").get(0).fieldType());
+        assertEquals(new ArrayType(new ClassType("scenario10/TestClass$1LocalEnum"), 1), enumArray);
+
+        assertEquals(PrimitiveType.INT, ClassType.of("java/lang/Integer").toPrimitiveType());
+        assertNull(string.toPrimitiveType());
+    }
+
+    @Test
+    @DisplayName("Test class kinds are computed once and match their mask")
+    public void testClassKinds() {
+        final var expected = Map.of(
+            "scenario10/TestClass", EnumSet.of(ClassKind.CLASS),
+            "scenario10/TestClass$1LocalClass", EnumSet.of(ClassKind.CLASS),
+            "scenario10/TestClass$1LocalRecord", EnumSet.of(ClassKind.RECORD),
+            "scenario10/TestClass$2LocalEnum", EnumSet.of(ClassKind.ENUM)
+        );
+        for (final var entry : expected.entrySet()) {
+            final var testClass = this.findClass(entry.getKey());
+            final EnumSet<ClassKind> kinds = testClass.kinds();
+            assertEquals(entry.getValue(), kinds, entry.getKey());
+            assertSame(kinds, testClass.kinds(), entry.getKey());
+            assertEquals(ClassKind.maskOf(kinds), testClass.kindsMask(), entry.getKey());
+            assertEquals(kinds, testClass.kindsView(), entry.getKey());
+        }
+    }
 }
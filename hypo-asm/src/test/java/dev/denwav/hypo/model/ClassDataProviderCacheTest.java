@@ -0,0 +1,121 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.model;
+
+import dev.denwav.hypo.asm.AsmClassDataProvider;
+import dev.denwav.hypo.core.HypoConfig;
+import dev.denwav.hypo.core.HypoContext;
+import dev.denwav.hypo.model.data.ClassData;
+import dev.denwav.hypo.model.data.MethodData;
+import java.io.IOException;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static dev.denwav.hypo.asm.AsmTestData.CLASS_NAME;
+import static dev.denwav.hypo.asm.AsmTestData.TEST_KEY;
+import static dev.denwav.hypo.asm.AsmTestData.scenarioJar;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the cache budget of {@link AbstractClassDataProvider}. Garbage collection of classes which are only weakly
+ * referenced is simulated with {@link AbstractClassDataProvider#collect(String)}, so these tests don't depend on when
+ * the garbage collector actually runs.
+ */
+@DisplayName("[asm] Class cache budget tests")
+public class ClassDataProviderCacheTest {
+
+    @Test
+    @DisplayName("Test unpinned classes are evicted and loaded again")
+    public void testEviction() throws IOException {
+        // With no budget every context class is only weakly held by the cache
+        final AbstractClassDataProvider provider = createProvider();
+        try (final HypoContext context = createContext(provider, 0)) {
+            final ClassData first = context.getContextProvider().findClass(CLASS_NAME);
+            assertNotNull(first);
+            assertTrue(provider.collect(CLASS_NAME));
+
+            final ClassData reloaded = context.getContextProvider().findClass(CLASS_NAME);
+            assertNotNull(reloaded);
+            assertNotSame(first, reloaded);
+            assertEquals(CLASS_NAME, reloaded.name());
+            assertSame(reloaded, context.getContextProvider().findClass(CLASS_NAME));
+        }
+    }
+
+    @Test
+    @DisplayName("Test classes within the budget are not evicted")
+    public void testBudget() throws IOException {
+        final AbstractClassDataProvider provider = createProvider();
+        try (final HypoContext context = createContext(provider, Long.MAX_VALUE)) {
+            final ClassData retained = context.getContextProvider().findClass(CLASS_NAME);
+            assertNotNull(retained);
+            assertFalse(provider.collect(CLASS_NAME));
+            assertSame(retained, context.getContextProvider().findClass(CLASS_NAME));
+        }
+    }
+
+    @Test
+    @DisplayName("Test classes with stored data are never evicted")
+    public void testPinnedClass() throws IOException {
+        final AbstractClassDataProvider provider = createProvider();
+        try (final HypoContext context = createContext(provider, 0)) {
+            final ClassData pinned = context.getContextProvider().findClass(CLASS_NAME);
+            assertNotNull(pinned);
+            pinned.store(TEST_KEY, "class");
+            assertFalse(provider.collect(CLASS_NAME));
+            assertSame(pinned, context.getContextProvider().findClass(CLASS_NAME));
+            assertEquals("class", pinned.get(TEST_KEY));
+        }
+    }
+
+    @Test
+    @DisplayName("Test classes with data stored on a member are never evicted")
+    public void testPinnedMember() throws IOException {
+        final AbstractClassDataProvider provider = createProvider();
+        try (final HypoContext context = createContext(provider, 0)) {
+            final ClassData pinned = context.getContextProvider().findClass(CLASS_NAME);
+            assertNotNull(pinned);
+            pinned.methods().get(0).store(TEST_KEY, "method");
+            assertFalse(provider.collect(CLASS_NAME));
+            assertSame(pinned, context.getContextProvider().findClass(CLASS_NAME));
+            final MethodData method = pinned.methods().get(0);
+            assertEquals("method", method.get(TEST_KEY));
+        }
+    }
+
+    private static @NotNull AbstractClassDataProvider createProvider() throws IOException {
+        return AsmClassDataProvider.of(ClassProviderRoot.fromJar(scenarioJar("scenario-01")));
+    }
+
+    private static @NotNull HypoContext createContext(
+        final @NotNull ClassDataProvider provider,
+        final long cacheBudget
+    ) {
+        return HypoContext.builder()
+            .withContextProvider(provider)
+            .withConfig(HypoConfig.builder().withContextCacheBudget(cacheBudget).build())
+            .build();
+    }
+}
@@ -38,6 +38,9 @@ public final class HypoConfig {
     @SuppressWarnings("Immutable")
     private final @NotNull Function<ClassDataProvider, ClassDataDecorator> decorator;
     private final boolean requireFullClasspath;
+    private final boolean skipMethodBodies;
+    private final boolean skipContextMethodBodies;
+    private final long contextCacheBudget;
 
     /**
      * Create a new instance of {@link HypoConfig}. Use {@link #builder()} instead.
@@ -45,15 +48,24 @@ public final class HypoConfig {
      * @param parallelism The parallelism level to use for Hypo executions.
      * @param decorator The decorator to use for {@link ClassDataProvider#setDecorator(ClassDataDecorator)}.
      * @param requireFullClasspath Set to {@code true} if a class lookup failure should result in an error.
+     * @param skipMethodBodies Set to {@code true} if target providers should skip parsing method bodies.
+     * @param skipContextMethodBodies Set to {@code true} if context providers should skip parsing method bodies.
+     * @param contextCacheBudget The approximate cache budget in bytes for each context provider, or {@code -1}.
      */
     HypoConfig(
         final int parallelism,
         final @NotNull Function<ClassDataProvider, ClassDataDecorator> decorator,
-        final boolean requireFullClasspath
+        final boolean requireFullClasspath,
+        final boolean skipMethodBodies,
+        final boolean skipContextMethodBodies,
+        final long contextCacheBudget
     ) {
         this.parallelism = parallelism;
         this.decorator = decorator;
         this.requireFullClasspath = requireFullClasspath;
+        this.skipMethodBodies = skipMethodBodies;
+        this.skipContextMethodBodies = skipContextMethodBodies;
+        this.contextCacheBudget = contextCacheBudget;
     }
 
     /**
@@ -84,6 +96,37 @@ public final class HypoConfig {
         return this.requireFullClasspath;
     }
 
+    /**
+     * Returns {@code true} if target providers should skip parsing method bodies until they are needed.
+     *
+     * @return {@code true} if target providers should skip parsing method bodies until they are needed.
+     * @see ClassDataProvider#setSkipMethodBodies(boolean)
+     */
+    public boolean isSkipMethodBodies() {
+        return this.skipMethodBodies;
+    }
+
+    /**
+     * Returns {@code true} if context providers should skip parsing method bodies until they are needed.
+     *
+     * @return {@code true} if context providers should skip parsing method bodies until they are needed.
+     * @see ClassDataProvider#setSkipMethodBodies(boolean)
+     */
+    public boolean isSkipContextMethodBodies() {
+        return this.skipContextMethodBodies;
+    }
+
+    /**
+     * Returns the approximate cache budget in bytes for each context provider, or a negative value if the caches of
+     * context providers are unbounded.
+     *
+     * @return The approximate cache budget in bytes for each context provider.
+     * @see ClassDataProvider#setCacheBudget(long)
+     */
+    public long getContextCacheBudget() {
+        return this.contextCacheBudget;
+    }
+
     /**
      * Create a new {@link Builder builder} for creating new instances of {@link HypoConfig}.
      *
@@ -105,6 +148,9 @@ public final class HypoConfig {
         private int parallelism = -1;
         private @NotNull Function<ClassDataProvider, ClassDataDecorator> decorator = DefaultClassDataDecorator::new;
         private boolean requireFullClasspath = true;
+        private boolean skipMethodBodies = false;
+        private boolean skipContextMethodBodies = false;
+        private long contextCacheBudget = -1;
 
         /**
          * Constructor for {@link Builder}. Use {@link HypoConfig#builder()} instead.
@@ -164,6 +210,65 @@ public final class HypoConfig {
             return this;
         }
 
+        /**
+         * Set whether target providers should skip parsing method bodies until they are needed. This is useful when
+         * most classes are expected to be restored from a {@code HydrationSnapshot}, as restored classes never need
+         * their method bodies, and the classes which are hydrated again load them on demand. This has no effect on
+         * providers which don't support {@link ClassDataProvider#setSkipMethodBodies(boolean) skipping method
+         * bodies}.
+         *
+         * <p>Defaults to {@code false}.
+         *
+         * @param skipMethodBodies {@code true} if target providers should skip parsing method bodies until they are
+         *                         needed, {@code false} if not.
+         * @return {@code this} for chaining.
+         */
+        @CanIgnoreReturnValue
+        @Contract(value = "_ -> this", mutates = "this")
+        public @NotNull Builder setSkipMethodBodies(final boolean skipMethodBodies) {
+            this.skipMethodBodies = skipMethodBodies;
+            return this;
+        }
+
+        /**
+         * Set whether context providers should skip parsing method bodies until they are needed. The code of context
+         * classes is rarely inspected, so skipping it can greatly reduce parse time and memory usage. This has no
+         * effect on providers which don't support {@link ClassDataProvider#setSkipMethodBodies(boolean) skipping
+         * method bodies}.
+         *
+         * <p>Defaults to {@code false}.
+         *
+         * @param skipContextMethodBodies {@code true} if context providers should skip parsing method bodies until
+         *                                they are needed, {@code false} if not.
+         * @return {@code this} for chaining.
+         */
+        @CanIgnoreReturnValue
+        @Contract(value = "_ -> this", mutates = "this")
+        public @NotNull Builder setSkipContextMethodBodies(final boolean skipContextMethodBodies) {
+            this.skipContextMethodBodies = skipContextMethodBodies;
+            return this;
+        }
+
+        /**
+         * Set the approximate amount of memory, in bytes, each context provider should use to retain parsed classes
+         * which nothing else references. Context classes beyond this budget may be evicted once nothing references
+         * them anymore, and will be parsed again if they are needed again. Classes with hydration data stored on them
+         * are never evicted, and classes from target providers are never subject to this budget. This has no effect on
+         * providers which don't support {@link ClassDataProvider#setCacheBudget(long) cache budgets}.
+         *
+         * <p>Defaults to {@code -1}, which means the caches of context providers are unbounded.
+         *
+         * @param contextCacheBudget The approximate cache budget in bytes for each context provider, or a negative
+         *                           value for unbounded caches.
+         * @return {@code this} for chaining.
+         */
+        @CanIgnoreReturnValue
+        @Contract(value = "_ -> this", mutates = "this")
+        public @NotNull Builder withContextCacheBudget(final long contextCacheBudget) {
+            this.contextCacheBudget = contextCacheBudget;
+            return this;
+        }
+
         /**
          * Use the current values of this builder to create a new instance of {@link HypoConfig} and return it.
          *
@@ -175,7 +280,10 @@ public final class HypoConfig {
             return new HypoConfig(
                 this.parallelism,
                 this.decorator,
-                this.requireFullClasspath
+                this.requireFullClasspath,
+                this.skipMethodBodies,
+                this.skipContextMethodBodies,
+                this.contextCacheBudget
             );
         }
     }
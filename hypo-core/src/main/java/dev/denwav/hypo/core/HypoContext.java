@@ -24,11 +24,19 @@ import dev.denwav.hypo.model.ClassDataDecorator;
 import dev.denwav.hypo.model.ClassDataProvider;
 import dev.denwav.hypo.model.ClassDataProviderSet;
 import dev.denwav.hypo.model.HypoModelUtil;
+import dev.denwav.hypo.model.data.ClassData;
+import dev.denwav.hypo.model.data.FieldData;
+import dev.denwav.hypo.model.data.MemberData;
+import dev.denwav.hypo.model.data.MethodData;
+import dev.denwav.hypo.model.data.SymbolTable;
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import org.jetbrains.annotations.Contract;
@@ -51,6 +59,12 @@ import org.jetbrains.annotations.Nullable;
  * still running. To put that another way, any operations which use the executor should wait for all submitted jobs to
  * complete before continuing.
  *
+ * <p>Every class loaded through the context is registered in the context's {@link #getSymbolTable() symbol table}
+ * when it's parsed, which gives each class and member a dense {@code int} ID.
+ *
+ * <p>Once all hydration and other modification of the model is complete, the context can be {@link #freeze() frozen}
+ * to make the model read-only for the rest of the run.
+ *
  * <p>Create new instances with {@link #builder()}.
  */
 public final class HypoContext implements AutoCloseable {
@@ -59,24 +73,31 @@ public final class HypoContext implements AutoCloseable {
 
     private final @NotNull ClassDataProvider provider;
     private final @NotNull ClassDataProvider contextProvider;
+    private final @NotNull SymbolTable symbolTable;
 
     @LazyInit private @Nullable ExecutorService executor = null;
 
+    private volatile @Nullable Set<String> affectedClasses = null;
+    private volatile boolean frozen = false;
+
     /**
      * Create a new instance of {@link HypoContext}. Use {@link #builder()} instead.
      *
      * @param config The {@link HypoConfig config} to use for this context.
      * @param provider The {@link ClassDataProvider provider} to use as the core provider to analyze.
      * @param contextProvider The {@link ClassDataProvider provider} to use as the context provider.
+     * @param symbolTable The {@link SymbolTable symbol table} the classes of both providers are registered in.
      */
     HypoContext(
         final @NotNull HypoConfig config,
         final @NotNull ClassDataProvider provider,
-        final @NotNull ClassDataProvider contextProvider
+        final @NotNull ClassDataProvider contextProvider,
+        final @NotNull SymbolTable symbolTable
     ) {
         this.config = config;
         this.provider = provider;
         this.contextProvider = contextProvider;
+        this.symbolTable = symbolTable;
     }
 
     /**
@@ -103,6 +124,50 @@ public final class HypoContext implements AutoCloseable {
         return this.contextProvider;
     }
 
+    /**
+     * Returns the {@link SymbolTable symbol table} every class loaded through this context is registered in.
+     * @return The {@link SymbolTable symbol table}.
+     */
+    public @NotNull SymbolTable getSymbolTable() {
+        return this.symbolTable;
+    }
+
+    /**
+     * Find the class with the given {@link ClassData#id() ID} using the {@link #getContextProvider() context provider}.
+     * Returns {@code null} if there is no class with the given ID.
+     *
+     * @param id The ID of the class.
+     * @return The class with the given ID, or {@code null} if there is none.
+     * @throws IOException If an IO error occurs while reading the class.
+     */
+    public @Nullable ClassData findClass(final int id) throws IOException {
+        final String name = this.symbolTable.className(id);
+        return name != null ? this.contextProvider.findClass(name) : null;
+    }
+
+    /**
+     * Find the method or field with the given {@link MemberData#id() ID} using the
+     * {@link #getContextProvider() context provider}. Returns {@code null} if there is no member with the given ID.
+     *
+     * @param id The ID of the member.
+     * @return The member with the given ID, or {@code null} if there is none.
+     * @throws IOException If an IO error occurs while reading the class of the member.
+     */
+    public @Nullable MemberData findMember(final int id) throws IOException {
+        final int classId = this.symbolTable.memberClassId(id);
+        final ClassData classData = this.findClass(classId);
+        if (classData == null) {
+            return null;
+        }
+        final int index = id - this.symbolTable.memberBase(classId);
+        final List<MethodData> methods = classData.methods();
+        if (index < methods.size()) {
+            return methods.get(index);
+        }
+        final List<FieldData> fields = classData.fields();
+        return index - methods.size() < fields.size() ? fields.get(index - methods.size()) : null;
+    }
+
     /**
      * Returns the current {@link ExecutorService executor}, if there is one. If there isn't one already created, a new
      * executor will be created according to the {@link #getConfig() configuration} and returned. This executor will be
@@ -137,6 +202,97 @@ public final class HypoContext implements AutoCloseable {
         }
     }
 
+    /**
+     * Returns the names of the classes in the {@link #getProvider() core provider} which were affected by changes since
+     * a previous run, if this context was processed incrementally. Classes which are not in this set have the same
+     * class files and the same hydrated data as in the previous run, so work which only depends on those can be reused
+     * from the previous run as well.
+     *
+     * <p>Returns {@code null} if this context was not processed incrementally, in which case every class must be
+     * considered affected.
+     *
+     * @return The names of the classes affected by changes since a previous run, or {@code null} if unknown.
+     * @see #setAffectedClasses(Set)
+     */
+    public @Nullable Set<String> getAffectedClasses() {
+        return this.affectedClasses;
+    }
+
+    /**
+     * Set the names of the classes in the {@link #getProvider() core provider} which were affected by changes since a
+     * previous run. This is set by incremental hydration, such as
+     * {@code HydrationManager.hydrateIncremental()} in {@code hypo-hydrate}.
+     *
+     * @param affectedClasses The names of the classes affected by changes since a previous run, or {@code null} if all
+     *                        classes must be considered affected.
+     * @see #getAffectedClasses()
+     */
+    public void setAffectedClasses(final @Nullable Set<String> affectedClasses) {
+        if (this.frozen) {
+            throw new IllegalStateException("Cannot set affected classes of a frozen context");
+        }
+        this.affectedClasses = affectedClasses == null ? null : Set.copyOf(affectedClasses);
+    }
+
+    /**
+     * Freeze every class in the {@link #getProvider() core provider}, along with every class they reference as a super
+     * class, interface, outer class, child class or inner class, transitively. Freezing computes all lazily computed
+     * values of the classes and their members, and converts the data filled in by hydration into immutable form, so
+     * later reads of the model don't need any synchronization. Any later attempt to store data on a frozen class or
+     * member will throw an {@link IllegalStateException}. See {@link ClassData#freeze()} for details.
+     *
+     * <p>This should be called once hydration and any other modification of the model is complete. Once frozen, the
+     * context can't be hydrated again and its {@link #setAffectedClasses(Set) affected classes} can't be changed.
+     * Freezing cannot be undone, calling this method again does nothing.
+     *
+     * <p>This method is not thread safe, no other thread may access the model while it runs. Once it returns, the
+     * frozen model is safe to read from any thread: each frozen object publishes its values with release semantics, so
+     * any thread which sees the object as frozen also sees all of its computed values.
+     *
+     * @throws IOException If an IO error occurs while reading the class data.
+     * @see #isFrozen()
+     */
+    public void freeze() throws IOException {
+        if (this.frozen) {
+            return;
+        }
+
+        final ArrayDeque<ClassData> queue = new ArrayDeque<>();
+        final HashSet<ClassData> seen = new HashSet<>();
+        for (final ClassData classData : this.provider.allClasses()) {
+            if (seen.add(classData)) {
+                queue.add(classData);
+            }
+        }
+
+        ClassData next;
+        while ((next = queue.poll()) != null) {
+            next.freeze();
+
+            final ArrayList<ClassData> referenced = new ArrayList<>(next.interfaces());
+            referenced.add(next.superClass());
+            referenced.add(next.outerClass());
+            referenced.addAll(next.childClasses());
+            referenced.addAll(next.innerClasses());
+            for (final ClassData classData : referenced) {
+                if (classData != null && seen.add(classData)) {
+                    queue.add(classData);
+                }
+            }
+        }
+
+        this.frozen = true;
+    }
+
+    /**
+     * Returns {@code true} if this context has been {@link #freeze() frozen}.
+     *
+     * @return {@code true} if this context has been frozen.
+     */
+    public boolean isFrozen() {
+        return this.frozen;
+    }
+
     @Override
     public void close() throws IOException {
         final ExecutorService exec = this.executor;
@@ -333,23 +489,37 @@ public final class HypoContext implements AutoCloseable {
             for (final ClassDataProvider provider : this.providers) {
                 provider.setContextClassProvider(false);
                 provider.setRequireFullClasspath(conf.isRequireFullClasspath());
+                if (conf.isSkipMethodBodies()) {
+                    provider.setSkipMethodBodies(true);
+                }
             }
             for (final ClassDataProvider provider : this.contextProviders) {
                 provider.setContextClassProvider(true);
                 provider.setRequireFullClasspath(conf.isRequireFullClasspath());
+                if (conf.isSkipContextMethodBodies()) {
+                    provider.setSkipMethodBodies(true);
+                }
+                if (conf.getContextCacheBudget() >= 0) {
+                    provider.setCacheBudget(conf.getContextCacheBudget());
+                }
             }
 
             final ArrayList<ClassDataProvider> provs = new ArrayList<>(this.providers);
             provs.addAll(this.contextProviders);
 
             final ClassDataProviderSet allProvider = ClassDataProviderSet.wrap(provs);
-            final ClassDataDecorator decorator = conf.getDecorator().apply(allProvider);
+            final ClassDataDecorator configDecorator = conf.getDecorator().apply(allProvider);
+            final SymbolTable symbolTable = new SymbolTable();
+            final ClassDataDecorator decorator = classData -> {
+                configDecorator.decorate(classData);
+                symbolTable.register(classData);
+            };
             allProvider.setDecorator(decorator);
 
             final ClassDataProviderSet targetProvider = ClassDataProviderSet.wrap(this.providers);
             targetProvider.setDecorator(decorator);
 
-            return new HypoContext(conf, targetProvider, allProvider);
+            return new HypoContext(conf, targetProvider, allProvider, symbolTable);
         }
     }
 }
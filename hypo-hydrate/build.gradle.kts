@@ -1,13 +1,14 @@
 plugins {
     `java-library`
     `hypo-java`
+    `hypo-test`
     `hypo-module`
     `hypo-publish`
 }
 
 dependencies {
     implementation(projects.hypoCore)
-    implementation(libs.jgrapht)
+    compileOnly(libs.jgrapht)
 }
 
 tasks.jar {
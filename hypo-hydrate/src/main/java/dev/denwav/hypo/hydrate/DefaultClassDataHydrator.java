@@ -23,20 +23,21 @@ import dev.denwav.hypo.core.HypoException;
 import dev.denwav.hypo.model.HypoModelUtil;
 import dev.denwav.hypo.model.data.ClassData;
 import dev.denwav.hypo.model.data.MethodData;
+import dev.denwav.hypo.model.data.MethodDescriptor;
+import dev.denwav.hypo.model.data.SubtypeIndex;
+import dev.denwav.hypo.model.data.Visibility;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Set;
-import java.util.concurrent.Callable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
-import org.jgrapht.Graph;
-import org.jgrapht.graph.DefaultDirectedGraph;
-import org.jgrapht.graph.DefaultEdge;
-import org.jgrapht.traverse.GraphIterator;
-import org.jgrapht.traverse.TopologicalOrderIterator;
 
 /**
  * Default implementation of {@link ClassDataHydrator}.
@@ -52,99 +53,350 @@ public class DefaultClassDataHydrator implements ClassDataHydrator {
     public void hydrate(final @NotNull HypoContext context) throws IOException {
         final ExecutorService executor = context.getExecutor();
 
-        // Build the class inheritance graph
-        final Graph<ClassData, DefaultEdge> g = new DefaultDirectedGraph<>(DefaultEdge.class);
+        // Build the class inheritance graph, classes are found by the ID in their symbol table, or by equality if they
+        // aren't registered in one
+        final HierarchyGraph<ClassData> g = new HierarchyGraph<>(ClassData::id);
 
-        for (final ClassData classData : context.getProvider().allClasses()) {
-            g.addVertex(classData);
-            final ClassData superClassData = classData.superClass();
-            if (superClassData != null) {
-                addEdge(superClassData, classData, g);
-                superClassData.childClasses().add(classData);
-            }
+        for (final ClassData classData : context.getProvider().loadAll(executor)) {
+            final int classId = g.addVertex(classData);
             // For simplicity, we'll re-use this same graph for outer classes too.
-            // This graph impl will ignore duplicate edges
             // Below when we hydrate the class data we need to remember to check which is which
-            final ClassData outerClassData = classData.outerClass();
-            if (outerClassData != null) {
-                addEdge(outerClassData, classData, g);
-                outerClassData.innerClasses().add(classData);
-            }
-            for (final ClassData interData : classData.interfaces()) {
-                addEdge(interData, classData, g);
-                interData.childClasses().add(classData);
+            for (final ClassData parent : link(classData)) {
+                g.addEdge(g.addVertex(parent), classId);
             }
         }
 
-        // Walk graph to build out downward relationships
-        final GraphIterator<ClassData, DefaultEdge> iter = new TopologicalOrderIterator<>(g);
-        iter.setReuseEvents(true);
+        // Walk graph to build out downward relationships, one level of the hierarchy at a time
+        final List<List<ClassData>> levels;
+        try {
+            levels = g.vertexLevels();
+        } catch (final IllegalStateException e) {
+            throw new HypoException("Class hierarchy contains a cycle, cannot hydrate", e);
+        }
+        fillMethods(executor, levels);
+    }
+
+    /**
+     * Fill in class hierarchy information for only the given classes, rather than for every class in the context. This
+     * is used to update a model which is already hydrated except for these classes, such as one restored from a
+     * {@link HydrationSnapshot}.
+     *
+     * @param context The {@link HypoContext context} being hydrated.
+     * @param linkClasses The classes to add to the {@link ClassData#childClasses() child classes} of their super types
+     *                    and the {@link ClassData#innerClasses() inner classes} of their outer class.
+     * @param methodClasses The classes whose methods should be linked to the methods they override.
+     * @throws IOException If an IO error occurs while reading the class data.
+     */
+    void hydrate(
+        final @NotNull HypoContext context,
+        final @NotNull Collection<ClassData> linkClasses,
+        final @NotNull Collection<ClassData> methodClasses
+    ) throws IOException {
+        for (final ClassData classData : linkClasses) {
+            link(classData);
+        }
+        // The methods of every other class are already linked, so these classes don't depend on each other
+        fillMethods(context.getExecutor(), List.of(methodClasses));
+    }
+
+    /**
+     * Add the given class to the child class sets of its super class and interfaces, and to the inner class set of its
+     * outer class.
+     *
+     * @param classData The class to link.
+     * @return The super class, outer class and interfaces of the given class, in that order.
+     * @throws IOException If an IO error occurs while reading the class data.
+     */
+    private static @NotNull List<ClassData> link(final @NotNull ClassData classData) throws IOException {
+        final ArrayList<ClassData> parents = new ArrayList<>();
+        final ClassData superClassData = classData.superClass();
+        if (superClassData != null) {
+            parents.add(superClassData);
+            superClassData.childClasses().add(classData);
+        }
+        final ClassData outerClassData = classData.outerClass();
+        if (outerClassData != null) {
+            parents.add(outerClassData);
+            outerClassData.innerClasses().add(classData);
+        }
+        for (final ClassData interData : classData.interfaces()) {
+            parents.add(interData);
+            interData.childClasses().add(classData);
+        }
+        return parents;
+    }
+
+    /**
+     * Link the methods of the given classes to the methods they override. Each level is linked in parallel, and must
+     * only contain classes which don't depend on each other. Levels are linked in order, so a class is only linked after
+     * all of its super types in earlier levels.
+     *
+     * <p>Linking a class only sets the {@link MethodData#superMethod() super methods} of its own methods, all additions
+     * to the {@link MethodData#childMethods() child methods} of the super methods are collected and applied on this
+     * thread once the level is done. This avoids contention on the child method sets of widely overridden methods, and
+     * keeps the order of the child method sets the same between runs.
+     */
+    private static void fillMethods(
+        final @NotNull ExecutorService executor,
+        final @NotNull List<? extends Collection<ClassData>> levels
+    ) throws IOException {
+        // Indexes and tables are built up front on this thread, the tasks below only read from them
+        final ArrayList<ClassData> classes = new ArrayList<>();
+        for (final Collection<ClassData> level : levels) {
+            classes.addAll(level);
+        }
+        SubtypeIndex.build(classes);
+        final MethodTables tables = new MethodTables();
+        for (final ClassData nextClass : classes) {
+            nextClass.forEachSuperClass(tables::table);
+        }
+
+        final ArrayList<Future<List<MethodOverride>>> futures = new ArrayList<>();
+        for (final Collection<ClassData> level : levels) {
+            futures.clear();
+            for (final ClassData nextClass : level) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        return fillMethods(nextClass, tables);
+                    } catch (final Exception e) {
+                        throw new HypoException("Unhandled error while hydrating " + nextClass.name(), e);
+                    }
+                }));
+            }
 
-        final ArrayList<Future<?>> futures = new ArrayList<>();
-        while (iter.hasNext()) {
-            final ClassData nextClass = iter.next();
-            futures.add(executor.submit((Callable<Void>) () -> {
+            for (final Future<List<MethodOverride>> future : futures) {
+                final List<MethodOverride> overrides;
                 try {
-                    fillMethods(nextClass);
-                } catch (final Exception e) {
-                    throw new HypoException("Unhandled error while hydrating " + nextClass.name(), e);
+                    overrides = future.get();
+                } catch (final InterruptedException | ExecutionException e) {
+                    throw HypoModelUtil.rethrow(e);
+                }
+                for (final MethodOverride override : overrides) {
+                    override.superMethod.childMethods().add(override.method);
                 }
-                return null;
-            }));
+            }
         }
+    }
 
-        for (final Future<?> future : futures) {
-            try {
-                future.get();
-            } catch (final InterruptedException | ExecutionException e) {
-                HypoModelUtil.rethrow(e);
+    /**
+     * Set the super methods of the methods of the given class, and return every method of the class which overrides
+     * another method paired with the method it overrides.
+     */
+    private static @NotNull List<MethodOverride> fillMethods(
+        final @NotNull ClassData classData,
+        final @NotNull MethodTables tables
+    ) throws IOException {
+        final ArrayList<MethodOverride> overrides = new ArrayList<>();
+        for (final MethodData method : classData.methods()) {
+            if (method.isConstructor() || method.isStatic()) {
+                continue;
             }
+
+            final Signature signature = new Signature(method);
+            classData.forEachSuperClass(p -> {
+                final MethodData[] candidates = tables.get(p).get(signature);
+                if (candidates == null) {
+                    return;
+                }
+                for (final MethodData candidate : candidates) {
+                    // sanity check
+                    if (method.equals(candidate)) {
+                        continue;
+                    }
+
+                    if (overridesInherited(method, candidate)) {
+                        method.setSuperMethod(candidate);
+                        overrides.add(new MethodOverride(method, candidate));
+                    }
+                }
+            });
         }
+        return overrides;
     }
 
-    private static <T> void addEdge(final @Nullable T source, final @NotNull T target, final @NotNull Graph<T, ?> g) {
-        if (source == null) {
-            return;
+    /**
+     * Equivalent to {@link MethodData#overrides(MethodData)} for a super method taken from {@link MethodTables}. The
+     * tables only contain overridable methods, and only return methods with the same name and descriptor declared in a
+     * super class, so only the checks which depend on both methods remain.
+     */
+    private static boolean overridesInherited(final @NotNull MethodData method, final @NotNull MethodData superMethod) {
+        if (!method.visibility().canOverride(superMethod.visibility())) {
+            return false;
         }
-        g.addVertex(source);
-        g.addEdge(source, target);
+
+        if (superMethod.visibility() == Visibility.PACKAGE) {
+            final String thisClassName = method.parentClass().name();
+            final String thatClassName = superMethod.parentClass().name();
+            final int thisLastIndex = thisClassName.lastIndexOf('/');
+            final int thatLastIndex = thatClassName.lastIndexOf('/');
+            return thisLastIndex == thatLastIndex && thisClassName.regionMatches(0, thatClassName, 0, thatLastIndex);
+        }
+
+        return true;
     }
 
-    private static void fillMethods(final @NotNull ClassData classData) throws IOException {
-        for (final MethodData method : classData.methods()) {
-            if (!method.isConstructor()) {
-                classData.forEachSuperClass(p -> checkMethods(method, p));
+    /**
+     * A method and a method it overrides, to be added to the {@link MethodData#childMethods() child methods} of the
+     * overridden method once its level is done.
+     */
+    private static final class MethodOverride {
+
+        private final @NotNull MethodData method;
+        private final @NotNull MethodData superMethod;
+
+        MethodOverride(final @NotNull MethodData method, final @NotNull MethodData superMethod) {
+            this.method = method;
+            this.superMethod = superMethod;
+        }
+    }
+
+    /**
+     * Name and descriptor of a method, the key of the {@link MethodTables} tables.
+     */
+    private static final class Signature {
+
+        private final @NotNull String name;
+        private final @NotNull MethodDescriptor descriptor;
+        private final int hash;
+
+        Signature(final @NotNull MethodData method) {
+            this.name = method.name();
+            this.descriptor = method.descriptor();
+            this.hash = 31 * this.name.hashCode() + this.descriptor.hashCode();
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
             }
+            if (!(o instanceof Signature)) {
+                return false;
+            }
+            final Signature that = (Signature) o;
+            return this.hash == that.hash && this.name.equals(that.name) && this.descriptor.equals(that.descriptor);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
         }
     }
 
-    private static void checkMethods(
-        final @NotNull MethodData baseMethod,
-        final @Nullable ClassData parentClass
-    ) throws IOException {
-        if (parentClass == null) {
-            return;
+    /**
+     * Per-class tables of every overridable method a class declares or inherits, keyed by {@link Signature}. This is
+     * similar to how a JVM builds vtables and itables: the table of a class is the tables of its super class and
+     * interfaces merged together, followed by the class's own methods, so each table is only built once and is shared
+     * with every class below it.
+     *
+     * <p>Within each signature, methods are in the same order a depth-first walk of the hierarchy would visit them,
+     * super classes before interfaces, with every super type visited before the methods of the type itself. This is the
+     * order the super methods were previously checked in, so the first matching method, which becomes the
+     * {@link MethodData#superMethod() super method}, doesn't change.
+     *
+     * <p>Tables are built with {@link #table(ClassData)}, which is not thread safe. Once built, tables can be read from
+     * multiple threads with {@link #get(ClassData)}.
+     */
+    private static final class MethodTables {
+
+        private final @NotNull IdentityHashMap<ClassData, Map<Signature, MethodData[]>> tables =
+            new IdentityHashMap<>();
+
+        @NotNull Map<Signature, MethodData[]> get(final @NotNull ClassData classData) {
+            final Map<Signature, MethodData[]> table = this.tables.get(classData);
+            if (table == null) {
+                throw new IllegalStateException("No method table built for " + classData.name());
+            }
+            return table;
         }
-        parentClass.forEachSuperClass(p -> checkMethods(baseMethod, p));
 
-        for (final MethodData method : parentClass.methods()) {
-            if (method.isConstructor()) {
-                continue;
+        @SuppressWarnings("ReferenceEquality") // tables are shared, identical tables don't need merging
+        @NotNull Map<Signature, MethodData[]> table(final @NotNull ClassData classData) throws IOException {
+            final Map<Signature, MethodData[]> existing = this.tables.get(classData);
+            if (existing != null) {
+                return existing;
             }
 
-            // sanity check
-            if (baseMethod.equals(method)) {
-                continue;
+            final ArrayList<ClassData> superClasses = new ArrayList<>();
+            classData.forEachSuperClass(superClasses::add);
+
+            // Tables are shared with sub classes when nothing needs to be added, and only copied when they change
+            Map<Signature, MethodData[]> table = null;
+            boolean shared = false;
+            for (final ClassData superClass : superClasses) {
+                final Map<Signature, MethodData[]> superTable = this.table(superClass);
+                if (table == null) {
+                    table = superTable;
+                    shared = true;
+                    continue;
+                }
+                if (superTable.isEmpty() || superTable == table) {
+                    continue;
+                }
+                if (shared) {
+                    table = new HashMap<>(table);
+                    shared = false;
+                }
+                for (final Map.Entry<Signature, MethodData[]> entry : superTable.entrySet()) {
+                    table.merge(entry.getKey(), entry.getValue(), MethodTables::mergeDistinct);
+                }
+            }
+
+            for (final MethodData method : classData.methods()) {
+                if (!isOverridable(method)) {
+                    continue;
+                }
+                if (table == null) {
+                    table = new HashMap<>();
+                } else if (shared) {
+                    table = new HashMap<>(table);
+                    shared = false;
+                }
+                table.merge(new Signature(method), new MethodData[] {method}, MethodTables::append);
+            }
+
+            if (table == null) {
+                table = Map.of();
             }
+            this.tables.put(classData, table);
+            return table;
+        }
 
-            if (baseMethod.overrides(method)) {
-                baseMethod.setSuperMethod(method);
+        private static boolean isOverridable(final @NotNull MethodData method) {
+            return !method.isConstructor()
+                && !method.isStatic()
+                && !method.isFinal()
+                && method.visibility() != Visibility.PRIVATE;
+        }
 
-                final Set<MethodData> chi = method.childMethods();
-                synchronized (chi) {
-                    chi.add(baseMethod);
+        private static MethodData @NotNull [] append(
+            final MethodData @NotNull [] methods,
+            final MethodData @NotNull [] added
+        ) {
+            final MethodData[] result = Arrays.copyOf(methods, methods.length + added.length);
+            System.arraycopy(added, 0, result, methods.length, added.length);
+            return result;
+        }
+
+        private static MethodData @NotNull [] mergeDistinct(
+            final MethodData @NotNull [] methods,
+            final MethodData @NotNull [] added
+        ) {
+            MethodData[] result = methods;
+            int size = methods.length;
+            outer:
+            for (final MethodData method : added) {
+                for (int i = 0; i < size; i++) {
+                    if (result[i] == method) {
+                        continue outer;
+                    }
+                }
+                if (result == methods) {
+                    result = Arrays.copyOf(methods, methods.length + added.length);
                 }
+                result[size++] = method;
             }
+            return size == result.length ? result : Arrays.copyOf(result, size);
         }
     }
 }
@@ -19,6 +19,8 @@
 package dev.denwav.hypo.hydrate;
 
 import dev.denwav.hypo.core.HypoContext;
+import dev.denwav.hypo.core.HypoException;
+import dev.denwav.hypo.model.ClassDataProvider;
 import dev.denwav.hypo.model.HypoModelUtil;
 import dev.denwav.hypo.model.data.ClassData;
 import dev.denwav.hypo.model.data.FieldData;
@@ -27,8 +29,8 @@ import dev.denwav.hypo.model.data.HypoKey;
 import dev.denwav.hypo.model.data.MethodData;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
@@ -37,9 +39,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
-import org.jgrapht.Graph;
-import org.jgrapht.graph.DefaultDirectedGraph;
-import org.jgrapht.graph.DefaultEdge;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Default implementation of {@link HydrationManager}.
@@ -92,28 +92,137 @@ public class DefaultHydrationManager implements HydrationManager {
 
     @Override
     public void hydrate(final @NotNull HypoContext context) throws IOException {
+        checkNotFrozen(context);
         try {
             this.baseHydrator.hydrate(context);
+            this.executeProviderStages(context, context.getProvider().allClasses());
+        } catch (final ExecutionException | InterruptedException e) {
+            HypoModelUtil.rethrow(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The snapshot is only used if the {@code baseHydrator} is a {@link DefaultClassDataHydrator}, and if every
+     * registered {@link HydrationProvider} only {@link HydrationProvider#provides() provides} keys from
+     * {@link dev.denwav.hypo.hydrate.generic.HypoHydration HypoHydration}. Otherwise the context is fully hydrated as
+     * if by {@link #hydrate(HypoContext)}.
+     *
+     * <p>When the snapshot is used, the {@link HypoContext#getAffectedClasses() affected classes} of the context are set
+     * to the classes which were hydrated again, and the classes whose data they changed. Otherwise they are cleared.
+     *
+     * <p>The settings of the providers of the context are never changed. Restored classes never need their method
+     * bodies, so to avoid parsing them, build the context with
+     * {@link dev.denwav.hypo.core.HypoConfig.Builder#setSkipMethodBodies(boolean) setSkipMethodBodies} set.
+     */
+    @Override
+    public void hydrate(
+        final @NotNull HypoContext context,
+        final @Nullable HydrationSnapshot snapshot
+    ) throws IOException {
+        checkNotFrozen(context);
+        if (snapshot == null || !(this.baseHydrator instanceof DefaultClassDataHydrator) || !this.supportsSnapshots()) {
+            context.setAffectedClasses(null);
+            this.hydrate(context);
+            return;
+        }
 
-            final Graph<HydrationProvider<?>, DefaultEdge> providersGraph = this.createProviderGraph();
+        final ClassDataProvider provider = context.getProvider();
+        final HydrationSnapshot.Restored restored = snapshot.restore(context, this.hydratorNames());
+        if (restored == null) {
+            context.setAffectedClasses(null);
+            this.hydrate(context);
+            return;
+        }
 
-            HashSet<HydrationProvider<?>> stage;
-            while (!(stage = this.getNextStage(providersGraph)).isEmpty()) {
-                this.executeProviderStage(context, stage);
+        final ArrayList<ClassData> dirtyTargets = new ArrayList<>();
+        for (final ClassData classData : restored.dirty) {
+            if (!classData.isContextClass()) {
+                dirtyTargets.add(classData);
             }
+        }
+
+        try {
+            ((DefaultClassDataHydrator) this.baseHydrator).hydrate(context, dirtyTargets, restored.dirty);
+            this.executeProviderStages(context, dirtyTargets);
         } catch (final ExecutionException | InterruptedException e) {
             HypoModelUtil.rethrow(e);
         }
+
+        final HashSet<String> affected = new HashSet<>(restored.affected);
+        affected.addAll(HydrationSnapshot.neighbourhood(restored.dirty));
+        final HashSet<String> targets = new HashSet<>();
+        for (final ClassData classData : provider.allClasses()) {
+            targets.add(classData.name());
+        }
+        affected.retainAll(targets);
+        context.setAffectedClasses(affected);
+    }
+
+    @Override
+    public @NotNull HydrationSnapshot snapshot(final @NotNull HypoContext context) throws IOException {
+        return HydrationSnapshot.capture(context, this.hydratorNames());
+    }
+
+    private static void checkNotFrozen(final @NotNull HypoContext context) {
+        if (context.isFrozen()) {
+            throw new IllegalStateException("Cannot hydrate a frozen context");
+        }
+    }
+
+    private boolean supportsSnapshots() {
+        for (final List<HydrationProvider<?>> providers : List.of(this.classProviders, this.methodProviders, this.fieldProviders)) {
+            for (final HydrationProvider<?> provider : providers) {
+                if (!HydrationSnapshot.SUPPORTED_KEYS.containsAll(provider.provides())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the class names of the base hydrator and all registered providers, which identify the data a snapshot
+     * contains.
+     */
+    private @NotNull List<String> hydratorNames() {
+        final ArrayList<String> names = new ArrayList<>();
+        for (final List<HydrationProvider<?>> providers : List.of(this.classProviders, this.methodProviders, this.fieldProviders)) {
+            for (final HydrationProvider<?> provider : providers) {
+                names.add(provider.getClass().getName());
+            }
+        }
+        Collections.sort(names);
+        names.add(0, this.baseHydrator.getClass().getName());
+        return names;
+    }
+
+    private void executeProviderStages(
+        final @NotNull HypoContext context,
+        final @NotNull Iterable<ClassData> classes
+    ) throws ExecutionException, InterruptedException {
+        // Each level of the graph is a stage
+        final List<List<HydrationProvider<?>>> levels;
+        try {
+            levels = this.createProviderGraph().vertexLevels();
+        } catch (final IllegalStateException e) {
+            throw new HypoException("Hydration providers have cyclic dependencies, cannot hydrate", e);
+        }
+        for (final List<HydrationProvider<?>> level : levels) {
+            this.executeProviderStage(context, new HashSet<>(level), classes);
+        }
     }
 
     private void executeProviderStage(
         final @NotNull HypoContext context,
-        final @NotNull HashSet<HydrationProvider<?>> stage
+        final @NotNull HashSet<HydrationProvider<?>> stage,
+        final @NotNull Iterable<ClassData> classes
     ) throws ExecutionException, InterruptedException {
         final ExecutorService executor = context.getExecutor();
         ArrayList<Future<?>> futures = new ArrayList<>();
 
-        for (final ClassData classData : context.getProvider().allClasses()) {
+        for (final ClassData classData : classes) {
             futures.add(executor.submit((Callable<?>) () -> {
                 if (containsAny(stage, this.classProviders)) {
                     for (final HydrationProvider<?> provider : this.classProviders) {
@@ -121,7 +230,7 @@ public class DefaultHydrationManager implements HydrationManager {
                             continue;
                         }
                         if (provider.target().isInstance(classData)) {
-                            provider.hydrate(HypoModelUtil.cast(classData), context);
+                            hydrate(provider, classData, context);
                         }
                     }
                 }
@@ -133,7 +242,7 @@ public class DefaultHydrationManager implements HydrationManager {
                                 continue;
                             }
                             if (provider.target().isInstance(method)) {
-                                provider.hydrate(HypoModelUtil.cast(method), context);
+                                hydrate(provider, method, context);
                             }
                         }
                     }
@@ -146,7 +255,7 @@ public class DefaultHydrationManager implements HydrationManager {
                                 continue;
                             }
                             if (provider.target().isInstance(field)) {
-                                provider.hydrate(HypoModelUtil.cast(field), context);
+                                hydrate(provider, field, context);
                             }
                         }
                     }
@@ -161,6 +270,17 @@ public class DefaultHydrationManager implements HydrationManager {
         }
     }
 
+    private static <T extends HypoData> void hydrate(
+        final @NotNull HydrationProvider<T> provider,
+        final @NotNull HypoData data,
+        final @NotNull HypoContext context
+    ) throws IOException {
+        final T target = HypoModelUtil.cast(data);
+        if (provider.isApplicable(target)) {
+            provider.hydrate(target, context);
+        }
+    }
+
     private static  <T> boolean containsAny(final Set<T> set, final List<T> list) {
         for (final T t : list) {
             if (set.contains(t)) {
@@ -171,24 +291,25 @@ public class DefaultHydrationManager implements HydrationManager {
     }
 
     @SuppressWarnings("ReferenceEquality")
-    private @NotNull Graph<HydrationProvider<?>, DefaultEdge> createProviderGraph() {
+    private @NotNull HierarchyGraph<HydrationProvider<?>> createProviderGraph() {
         final ArrayList<HydrationProvider<?>> allProviders =
             new ArrayList<>(this.classProviders.size() + this.methodProviders.size() + this.fieldProviders.size());
         allProviders.addAll(this.classProviders);
         allProviders.addAll(this.methodProviders);
         allProviders.addAll(this.fieldProviders);
 
-        final Graph<HydrationProvider<?>, DefaultEdge> g = new DefaultDirectedGraph<>(DefaultEdge.class);
-
-        for (final HydrationProvider<?> currentProvider : allProviders) {
-            g.addVertex(currentProvider);
+        // The ID of each provider is its index in allProviders
+        final HierarchyGraph<HydrationProvider<?>> g = new HierarchyGraph<>();
+        for (final HydrationProvider<?> provider : allProviders) {
+            g.addVertex(provider);
+        }
 
-            for (final HypoKey<?> dependentKey : currentProvider.dependsOn()) {
-                for (final HydrationProvider<?> providingProvider : allProviders) {
-                    for (final HypoKey<?> providedKey : providingProvider.provides()) {
+        for (int current = 0; current < allProviders.size(); current++) {
+            for (final HypoKey<?> dependentKey : allProviders.get(current).dependsOn()) {
+                for (int providing = 0; providing < allProviders.size(); providing++) {
+                    for (final HypoKey<?> providedKey : allProviders.get(providing).provides()) {
                         if (dependentKey == providedKey) {
-                            g.addVertex(providingProvider);
-                            g.addEdge(providingProvider, currentProvider);
+                            g.addEdge(providing, current);
                         }
                     }
                 }
@@ -197,15 +318,4 @@ public class DefaultHydrationManager implements HydrationManager {
 
         return g;
     }
-
-    private @NotNull HashSet<HydrationProvider<?>> getNextStage(final @NotNull Graph<HydrationProvider<?>, ?> graph) {
-        final LinkedHashSet<HydrationProvider<?>> stage = new LinkedHashSet<>();
-        for (final HydrationProvider<?> provider : graph.vertexSet()) {
-            if (graph.inDegreeOf(provider) == 0) {
-                stage.add(provider);
-            }
-        }
-        graph.removeAllVertices(stage);
-        return stage;
-    }
 }
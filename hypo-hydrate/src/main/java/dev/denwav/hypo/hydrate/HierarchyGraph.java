@@ -0,0 +1,325 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.hydrate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.ToIntFunction;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Directed graph over dense {@code int} vertex IDs, used for ordering hydration. Vertices are numbered in the order they
+ * are {@link #addVertex(Object) added}, and edges are stored as plain {@code int} arrays in compressed sparse row form,
+ * so large graphs such as the class hierarchy of a whole classpath don't need an object per edge.
+ *
+ * <p>A graph created with an ordinal function, such as the
+ * {@link dev.denwav.hypo.model.data.ClassData#id() symbol table ID} of a class, finds existing vertices by indexing an
+ * array with their ordinal, so they are never hashed. Vertices with a negative ordinal, such as classes which aren't
+ * registered in a symbol table, are found in a map by {@link Object#equals(Object) equality} instead. A graph created
+ * without an ordinal function adds a new vertex on every call to {@link #addVertex(Object)}, so the caller must add
+ * each vertex once and keep the returned IDs.
+ *
+ * <p>The graph is built by adding vertices and edges, and is frozen the first time it is queried with
+ * {@link #successors(int)}, {@link #topologicalOrder()} or {@link #levels()}. Once frozen no more vertices or edges can
+ * be added. Duplicate edges are allowed and have no effect on the results. Graphs which contain a cycle can't be
+ * ordered, so querying their order or levels throws an exception. This class is not thread safe.
+ *
+ * <p>{@link JGraphTAdapter} converts the graph to a JGraphT graph for users who want to run other graph algorithms on
+ * it.
+ *
+ * @param <T> The type of the vertices of this graph.
+ */
+public final class HierarchyGraph<T> {
+
+    private final @Nullable ToIntFunction<? super T> ordinal;
+    /**
+     * The ID of each vertex plus one, indexed by the ordinal of the vertex. {@code 0} means there is no such vertex.
+     */
+    private int @NotNull [] idsByOrdinal = new int[0];
+    /**
+     * The ID of each vertex with a negative ordinal, {@code null} until the first such vertex is added.
+     */
+    private @Nullable HashMap<T, Integer> idsByVertex = null;
+    private final @NotNull ArrayList<T> vertices = new ArrayList<>();
+
+    private int[] edgeSources = new int[16];
+    private int[] edgeTargets = new int[16];
+    private int edgeCount = 0;
+
+    private int[] offsets = null;
+    private int[] targets = null;
+    private int[] inDegrees = null;
+
+    /**
+     * Create a new empty graph which adds a new vertex on every call to {@link #addVertex(Object)}.
+     */
+    public HierarchyGraph() {
+        this.ordinal = null;
+    }
+
+    /**
+     * Create a new empty graph which identifies vertices by the given ordinal function. The function must return a
+     * unique, dense, non-negative {@code int} for each vertex, as the ordinals index an array, or a negative value for
+     * vertices which don't have an ordinal. Those vertices are identified by {@link Object#equals(Object) equality}.
+     *
+     * @param ordinal The function returning the ordinal of a vertex.
+     */
+    public HierarchyGraph(final @NotNull ToIntFunction<? super T> ordinal) {
+        this.ordinal = ordinal;
+    }
+
+    /**
+     * Add the given vertex to this graph and return its ID. If this graph has an ordinal function and a vertex with the
+     * same ordinal was already added, or the ordinal is negative and an equal vertex was already added, nothing is
+     * added and the ID of that vertex is returned instead.
+     *
+     * @param vertex The vertex to add.
+     * @return The ID of the vertex.
+     * @throws IllegalStateException If this graph is already frozen.
+     */
+    public int addVertex(final @NotNull T vertex) {
+        if (this.ordinal == null) {
+            this.checkNotFrozen();
+            this.vertices.add(vertex);
+            return this.vertices.size() - 1;
+        }
+
+        final int ordinal = this.ordinal.applyAsInt(vertex);
+        if (ordinal < 0) {
+            return this.addUnorderedVertex(vertex);
+        }
+        if (ordinal < this.idsByOrdinal.length && this.idsByOrdinal[ordinal] != 0) {
+            return this.idsByOrdinal[ordinal] - 1;
+        }
+        this.checkNotFrozen();
+        if (ordinal >= this.idsByOrdinal.length) {
+            this.idsByOrdinal = Arrays.copyOf(this.idsByOrdinal, Math.max(ordinal + 1, this.idsByOrdinal.length * 2));
+        }
+        this.vertices.add(vertex);
+        this.idsByOrdinal[ordinal] = this.vertices.size();
+        return this.vertices.size() - 1;
+    }
+
+    private int addUnorderedVertex(final @NotNull T vertex) {
+        HashMap<T, Integer> idsByVertex = this.idsByVertex;
+        if (idsByVertex != null) {
+            final Integer id = idsByVertex.get(vertex);
+            if (id != null) {
+                return id;
+            }
+        }
+        this.checkNotFrozen();
+        if (idsByVertex == null) {
+            idsByVertex = new HashMap<>();
+            this.idsByVertex = idsByVertex;
+        }
+        this.vertices.add(vertex);
+        final int id = this.vertices.size() - 1;
+        idsByVertex.put(vertex, id);
+        return id;
+    }
+
+    /**
+     * Add an edge from the vertex with the ID {@code source} to the vertex with the ID {@code target}.
+     *
+     * @param source The ID of the source vertex.
+     * @param target The ID of the target vertex.
+     * @throws IllegalStateException If this graph is already frozen.
+     */
+    public void addEdge(final int source, final int target) {
+        this.checkNotFrozen();
+        if (source < 0 || source >= this.vertices.size() || target < 0 || target >= this.vertices.size()) {
+            throw new IndexOutOfBoundsException("Unknown vertex in edge " + source + " -> " + target);
+        }
+        if (this.edgeCount == this.edgeSources.length) {
+            this.edgeSources = Arrays.copyOf(this.edgeSources, this.edgeCount * 2);
+            this.edgeTargets = Arrays.copyOf(this.edgeTargets, this.edgeCount * 2);
+        }
+        this.edgeSources[this.edgeCount] = source;
+        this.edgeTargets[this.edgeCount] = target;
+        this.edgeCount++;
+    }
+
+    /**
+     * Returns the number of vertices in this graph.
+     *
+     * @return The number of vertices in this graph.
+     */
+    public int vertexCount() {
+        return this.vertices.size();
+    }
+
+    /**
+     * Returns the vertex with the given ID.
+     *
+     * @param id The ID of the vertex.
+     * @return The vertex with the given ID.
+     */
+    public @NotNull T vertex(final int id) {
+        return this.vertices.get(id);
+    }
+
+    /**
+     * Returns a new array of the IDs of the direct successors of the given vertex, which may contain duplicates if
+     * duplicate edges were added.
+     *
+     * @param id The ID of the vertex.
+     * @return The IDs of the direct successors of the given vertex.
+     */
+    public int @NotNull [] successors(final int id) {
+        this.freeze();
+        return Arrays.copyOfRange(this.targets, this.offsets[id], this.offsets[id + 1]);
+    }
+
+    /**
+     * Returns the IDs of every vertex in this graph in topological order, so each vertex comes after all of its
+     * predecessors.
+     *
+     * @return The IDs of every vertex in this graph in topological order.
+     * @throws IllegalStateException If this graph contains a cycle.
+     */
+    public int @NotNull [] topologicalOrder() {
+        this.freeze();
+        final int count = this.vertices.size();
+        final int[] remaining = this.inDegrees.clone();
+
+        // Kahn's algorithm, the result array doubles as the queue
+        final int[] order = new int[count];
+        int tail = 0;
+        for (int i = 0; i < count; i++) {
+            if (remaining[i] == 0) {
+                order[tail++] = i;
+            }
+        }
+        for (int head = 0; head < tail; head++) {
+            final int vertex = order[head];
+            for (int e = this.offsets[vertex]; e < this.offsets[vertex + 1]; e++) {
+                final int target = this.targets[e];
+                if (--remaining[target] == 0) {
+                    order[tail++] = target;
+                }
+            }
+        }
+        if (tail != count) {
+            // Every vertex which was never emitted is part of or only reachable through a cycle
+            for (int i = 0; i < count; i++) {
+                if (remaining[i] != 0) {
+                    throw new IllegalStateException("Graph contains a cycle, " + (count - tail)
+                        + " vertices can't be ordered, including: " + this.vertices.get(i));
+                }
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Returns the vertices in this graph in topological order.
+     *
+     * @return The vertices in this graph in topological order.
+     * @throws IllegalStateException If this graph contains a cycle.
+     * @see #topologicalOrder()
+     */
+    public @NotNull List<T> topologicalVertices() {
+        final int[] order = this.topologicalOrder();
+        final ArrayList<T> result = new ArrayList<>(order.length);
+        for (final int id : order) {
+            result.add(this.vertices.get(id));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the level of every vertex in this graph, indexed by vertex ID. Vertices without predecessors are at level
+     * {@code 0}, and every other vertex is one level above its highest predecessor. All vertices on the same level are
+     * independent of each other.
+     *
+     * @return The level of every vertex in this graph.
+     * @throws IllegalStateException If this graph contains a cycle.
+     */
+    public int @NotNull [] levels() {
+        final int[] order = this.topologicalOrder();
+        // Every vertex's predecessors come before it in the order, so each level is final by the time it's read
+        final int[] depths = new int[this.vertices.size()];
+        for (final int vertex : order) {
+            final int next = depths[vertex] + 1;
+            for (int e = this.offsets[vertex]; e < this.offsets[vertex + 1]; e++) {
+                final int target = this.targets[e];
+                if (depths[target] < next) {
+                    depths[target] = next;
+                }
+            }
+        }
+
+        return depths;
+    }
+
+    /**
+     * Returns the vertices of this graph grouped by {@link #levels() level}, in order of level. Within each level
+     * vertices are in the order they were added.
+     *
+     * @return The vertices of this graph grouped by level.
+     * @throws IllegalStateException If this graph contains a cycle.
+     */
+    public @NotNull List<List<T>> vertexLevels() {
+        final int[] levels = this.levels();
+        final ArrayList<List<T>> result = new ArrayList<>();
+        for (int i = 0; i < levels.length; i++) {
+            final int level = levels[i];
+            while (result.size() <= level) {
+                result.add(new ArrayList<>());
+            }
+            result.get(level).add(this.vertices.get(i));
+        }
+        return result;
+    }
+
+    private void checkNotFrozen() {
+        if (this.offsets != null) {
+            throw new IllegalStateException("Cannot modify a graph after it has been queried");
+        }
+    }
+
+    private void freeze() {
+        if (this.offsets != null) {
+            return;
+        }
+        final int count = this.vertices.size();
+        final int[] offsets = new int[count + 1];
+        final int[] inDegrees = new int[count];
+        for (int i = 0; i < this.edgeCount; i++) {
+            offsets[this.edgeSources[i] + 1]++;
+            inDegrees[this.edgeTargets[i]]++;
+        }
+        for (int i = 0; i < count; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        final int[] next = Arrays.copyOf(offsets, count);
+        final int[] targets = new int[this.edgeCount];
+        for (int i = 0; i < this.edgeCount; i++) {
+            targets[next[this.edgeSources[i]]++] = this.edgeTargets[i];
+        }
+
+        this.offsets = offsets;
+        this.targets = targets;
+        this.inDegrees = inDegrees;
+    }
+}
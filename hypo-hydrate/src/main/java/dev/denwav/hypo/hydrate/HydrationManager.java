@@ -22,8 +22,11 @@ import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import dev.denwav.hypo.core.HypoContext;
 import dev.denwav.hypo.model.data.HypoData;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Manager for the process of data hydration.
@@ -62,10 +65,77 @@ public interface HydrationManager {
 
     /**
      * Walk over all classes found in {@link HypoContext#getProvider()}, running both phases of the hydration process
-     * on all classes.
+     * on all classes. The context must not be {@link HypoContext#freeze() frozen}.
      *
      * @param context The {@link HypoContext context} to hydrate.
      * @throws IOException If an IO error occurs while reading the class data.
      */
     void hydrate(final @NotNull HypoContext context) throws IOException;
+
+    /**
+     * Hydrate the given context, restoring as much data as possible from the given {@link HydrationSnapshot snapshot}
+     * of a previous run rather than computing it again. Only classes which changed since the snapshot was created, and
+     * the classes which depend on them, are hydrated again. If the snapshot can't be used for the given context, or is
+     * {@code null}, this is the same as {@link #hydrate(HypoContext)}.
+     *
+     * <p>The default implementation ignores the snapshot and calls {@link #hydrate(HypoContext)}.
+     *
+     * @param context The {@link HypoContext context} to hydrate.
+     * @param snapshot The snapshot to restore, created by {@link #snapshot(HypoContext)} in a previous run.
+     * @throws IOException If an IO error occurs while reading the class data.
+     */
+    default void hydrate(
+        final @NotNull HypoContext context,
+        final @Nullable HydrationSnapshot snapshot
+    ) throws IOException {
+        this.hydrate(context);
+    }
+
+    /**
+     * Create a {@link HydrationSnapshot snapshot} of the given context, which must already be hydrated by this manager.
+     * The snapshot can be {@link HydrationSnapshot#write(Path) saved} and passed to
+     * {@link #hydrate(HypoContext, HydrationSnapshot)} in a later run.
+     *
+     * <p>The default implementation does not support snapshots and returns {@code null}.
+     *
+     * @param context The hydrated {@link HypoContext context} to capture.
+     * @return The new snapshot, or {@code null} if this manager does not support snapshots.
+     * @throws IOException If an IO error occurs while reading the class data.
+     */
+    default @Nullable HydrationSnapshot snapshot(final @NotNull HypoContext context) throws IOException {
+        return null;
+    }
+
+    /**
+     * Hydrate the given context incrementally, using the state saved in {@code stateFile} by the previous run, then
+     * save the new state to {@code stateFile} for the next run. Only classes which changed since the previous run, and
+     * the classes which depend on them, are hydrated. The {@link HypoContext#getAffectedClasses() affected classes} of
+     * the context are set accordingly, so later steps such as mappings completion can also be limited to them.
+     *
+     * <p>If {@code stateFile} does not exist, can't be read, or is not a valid snapshot, the context is fully hydrated,
+     * and all classes are considered affected.
+     *
+     * @param context The {@link HypoContext context} to hydrate.
+     * @param stateFile The file the state of the previous run was saved to, and the state of this run will be saved to.
+     * @throws IOException If an IO error occurs while reading the class data or writing the state file.
+     * @see #hydrate(HypoContext, HydrationSnapshot)
+     */
+    default void hydrateIncremental(final @NotNull HypoContext context, final @NotNull Path stateFile) throws IOException {
+        HydrationSnapshot previous = null;
+        if (Files.isRegularFile(stateFile)) {
+            try {
+                previous = HydrationSnapshot.read(stateFile);
+            } catch (final IOException e) {
+                // An unreadable state file is the same as no state file, the next one will replace it
+                previous = null;
+            }
+        }
+
+        this.hydrate(context, previous);
+
+        final HydrationSnapshot next = this.snapshot(context);
+        if (next != null) {
+            next.write(stateFile);
+        }
+    }
 }
@@ -58,6 +58,22 @@ public interface HydrationProvider<T extends HypoData> {
      */
     void hydrate(final @NotNull T data, final @NotNull HypoContext context) throws IOException;
 
+    /**
+     * Returns {@code false} if {@link #hydrate(HypoData, HypoContext) hydrating} the given {@code data} object can't
+     * possibly have any effect, allowing it to be skipped. This is checked by {@link DefaultHydrationManager} before
+     * each call to {@link #hydrate(HypoData, HypoContext) hydrate()}, so it should be much cheaper than hydrating the
+     * object, for example by only checking flags or precomputed summaries. Returning {@code true} when in doubt is
+     * always correct.
+     *
+     * <p>The default implementation always returns {@code true}.
+     *
+     * @param data The {@link HypoData} object which is about to be hydrated.
+     * @return {@code false} if hydrating the given {@code data} object can be skipped.
+     */
+    default boolean isApplicable(final @NotNull T data) {
+        return true;
+    }
+
     /**
      * Optionally marks which {@link HypoKey HypoKeys} this hydration providers provides. This is only really applicable
      * for hydration provider dependency checking. An empty list does not imply this hydration provider does not produce
@@ -0,0 +1,1267 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.hydrate;
+
+import dev.denwav.hypo.core.HypoContext;
+import dev.denwav.hypo.hydrate.generic.HypoHydration;
+import dev.denwav.hypo.hydrate.generic.LambdaClosure;
+import dev.denwav.hypo.hydrate.generic.LocalClassClosure;
+import dev.denwav.hypo.hydrate.generic.SuperCall;
+import dev.denwav.hypo.model.ClassProviderRoot;
+import dev.denwav.hypo.model.HypoModelUtil;
+import dev.denwav.hypo.model.data.ClassData;
+import dev.denwav.hypo.model.data.ConstructorData;
+import dev.denwav.hypo.model.data.HypoKey;
+import dev.denwav.hypo.model.data.MethodData;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UTFDataFormatException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A snapshot of the results of {@link DefaultHydrationManager hydration}, which can be saved to disk and used to
+ * restore those results in a later run without running the {@link HydrationProvider hydration providers} again.
+ *
+ * <p>A snapshot contains the class hierarchy data set by {@link DefaultClassDataHydrator}
+ * ({@link ClassData#childClasses() child classes}, {@link ClassData#innerClasses() inner classes},
+ * {@link MethodData#superMethod() super methods} and {@link MethodData#childMethods() child methods}) as well as the
+ * values of the {@link HypoHydration} keys. Each piece of data is recorded along with the class whose hydration
+ * created it, and the {@link ClassProviderRoot.FileDataReference#fingerprint() fingerprint} of the class file of every
+ * class in the {@link HypoContext#getProvider() target provider}. For jar files the fingerprints come straight from
+ * the jar's central directory, so finding the classes which changed since the snapshot was created doesn't require
+ * reading any class files.
+ *
+ * <p>When a snapshot is {@link DefaultHydrationManager#hydrate(HypoContext, HydrationSnapshot) restored}, classes
+ * whose class file changed, classes which were added or removed, classes which extend or implement any of those
+ * classes, classes whose data refers to any of those classes, and classes whose data may not have been complete
+ * because an added class didn't exist yet are hydrated again. All other data is restored from the snapshot as-is. A
+ * snapshot is only used at all if the same hydration providers are registered and the
+ * {@link ClassProviderRoot#contentKey() content keys} of all context roots are unchanged, otherwise the context is
+ * fully hydrated.
+ *
+ * <p>Snapshots are created with {@link DefaultHydrationManager#snapshot(HypoContext)} after hydration has completed.
+ */
+public final class HydrationSnapshot {
+
+    private static final int MAGIC = 0x48595348;
+    private static final int VERSION = 2;
+
+    /**
+     * The {@link HypoKey keys} which can be stored in a snapshot. Snapshots can't be restored if any hydration provider
+     * provides any other key.
+     */
+    static final @NotNull Set<HypoKey<?>> SUPPORTED_KEYS = supportedKeys();
+
+    // Item kinds
+    private static final int CHILD_CLASS = 0;
+    private static final int INNER_CLASS = 1;
+    private static final int SUPER_METHOD = 2;
+    private static final int CHILD_METHOD = 3;
+    private static final int SYNTHETIC_TARGET = 4;
+    private static final int SYNTHETIC_SOURCE = 5;
+    private static final int SYNTHETIC_SOURCES = 6;
+    private static final int SUPER_CALL_TARGET = 7;
+    private static final int SUPER_CALLER_SOURCES = 8;
+    private static final int LAMBDA_CALLS = 9;
+    private static final int LOCAL_CLASSES = 10;
+    private static final int ITEM_KINDS = 11;
+
+    // Value kinds
+    private static final int SUPER_CALL = 0;
+    private static final int LAMBDA_CLOSURE = 1;
+    private static final int LOCAL_CLASS_CLOSURE = 2;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final int REF_SIZE = 3;
+    private static final int ITEM_SIZE = 4;
+
+    private final @NotNull List<String> providers;
+    private final @Nullable List<String> contextKeys;
+    private final @NotNull String @NotNull [] strings;
+    /** 3 ints per ref: class name, method name, method descriptor. Class refs use {@code -1} for the method parts. */
+    private final int @NotNull [] refs;
+    /** Value kind, followed by refs, followed by the value's int data. */
+    private final int @NotNull [] @NotNull [] values;
+    /** 4 ints per item: kind, owner ref, payload ref or value, source class name. */
+    private final int @NotNull [] items;
+    private final int @NotNull [] classNames;
+    private final long @NotNull [] classFingerprints;
+    private final int @NotNull [] vertices;
+
+    private HydrationSnapshot(
+        final @NotNull List<String> providers,
+        final @Nullable List<String> contextKeys,
+        final @NotNull String @NotNull [] strings,
+        final int @NotNull [] refs,
+        final int @NotNull [] @NotNull [] values,
+        final int @NotNull [] items,
+        final int @NotNull [] classNames,
+        final long @NotNull [] classFingerprints,
+        final int @NotNull [] vertices
+    ) {
+        this.providers = providers;
+        this.contextKeys = contextKeys;
+        this.strings = strings;
+        this.refs = refs;
+        this.values = values;
+        this.items = items;
+        this.classNames = classNames;
+        this.classFingerprints = classFingerprints;
+        this.vertices = vertices;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static @NotNull Set<HypoKey<?>> supportedKeys() {
+        return Set.of(
+            HypoHydration.SYNTHETIC_TARGET,
+            HypoHydration.SYNTHETIC_SOURCE,
+            HypoHydration.SYNTHETIC_SOURCES,
+            HypoHydration.SUPER_CALLER_SOURCES,
+            HypoHydration.SUPER_CALL_TARGET,
+            HypoHydration.LOCAL_CLASSES,
+            HypoHydration.LAMBDA_CALLS
+        );
+    }
+
+    /**
+     * Read a snapshot previously saved with {@link #write(Path)}. Files which are truncated, corrupt, or were written
+     * by a different version of Hypo are not valid snapshots, in which case {@code null} is returned. Passing
+     * {@code null} to {@link HydrationManager#hydrate(HypoContext, HydrationSnapshot)} fully hydrates the context.
+     *
+     * @param file The file to read.
+     * @return The snapshot read from the given file, or {@code null} if the file is not a valid snapshot.
+     * @throws IOException If an IO error occurs while reading the file.
+     */
+    public static @Nullable HydrationSnapshot read(final @NotNull Path file) throws IOException {
+        try (
+            final InputStream input = Files.newInputStream(file);
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(new InflaterInputStream(input)))
+        ) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+
+            final List<String> providers = readStrings(in);
+            final List<String> contextKeys = in.readBoolean() ? readStrings(in) : null;
+            final String[] strings = readStrings(in).toArray(new String[0]);
+            final int[] refs = readInts(in);
+            final int valueCount = readCount(in);
+            final ArrayList<int[]> values = new ArrayList<>(Math.min(valueCount, INITIAL_CAPACITY));
+            for (int i = 0; i < valueCount; i++) {
+                values.add(readInts(in));
+            }
+            final int[] items = readInts(in);
+            final int[] classNames = readInts(in);
+            final long[] classFingerprints = new long[classNames.length];
+            for (int i = 0; i < classFingerprints.length; i++) {
+                classFingerprints[i] = in.readLong();
+            }
+            final int[] vertices = readInts(in);
+            if (in.read() != -1) {
+                return null;
+            }
+
+            final HydrationSnapshot snapshot = new HydrationSnapshot(
+                providers, contextKeys, strings, refs, values.toArray(new int[0][]), items, classNames,
+                classFingerprints, vertices
+            );
+            return snapshot.isValid() ? snapshot : null;
+        } catch (final EOFException | ZipException | UTFDataFormatException | CorruptSnapshotException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Save this snapshot to the given file, replacing it if it already exists.
+     *
+     * @param file The file to write.
+     * @throws IOException If an IO error occurs while writing the file.
+     */
+    public void write(final @NotNull Path file) throws IOException {
+        final Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        final Path tempFile = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            try (
+                final OutputStream output = Files.newOutputStream(tempFile);
+                final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new DeflaterOutputStream(output)))
+            ) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                writeStrings(out, this.providers);
+                out.writeBoolean(this.contextKeys != null);
+                if (this.contextKeys != null) {
+                    writeStrings(out, this.contextKeys);
+                }
+                writeStrings(out, Arrays.asList(this.strings));
+                writeInts(out, this.refs);
+                out.writeInt(this.values.length);
+                for (final int[] value : this.values) {
+                    writeInts(out, value);
+                }
+                writeInts(out, this.items);
+                writeInts(out, this.classNames);
+                for (final long fingerprint : this.classFingerprints) {
+                    out.writeLong(fingerprint);
+                }
+                writeInts(out, this.vertices);
+            }
+
+            try {
+                Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Capture the hydrated state of the given context. The context must already be fully hydrated.
+     *
+     * @param context The {@link HypoContext context} to capture.
+     * @param providers The names of the hydrators which hydrated the context.
+     * @return The new snapshot.
+     * @throws IOException If an IO error occurs while reading the class data.
+     */
+    static @NotNull HydrationSnapshot capture(
+        final @NotNull HypoContext context,
+        final @NotNull List<String> providers
+    ) throws IOException {
+        final Capture capture = new Capture();
+
+        final HashMap<String, Long> fingerprints = classFingerprints(context);
+        final int[] classNames = new int[fingerprints.size()];
+        final long[] classFingerprints = new long[fingerprints.size()];
+        int index = 0;
+        for (final Map.Entry<String, Long> entry : fingerprints.entrySet()) {
+            classNames[index] = capture.string(entry.getKey());
+            classFingerprints[index] = entry.getValue();
+            index++;
+        }
+
+        final LinkedHashMap<String, ClassData> vertices = vertices(context);
+        final int[] vertexNames = new int[vertices.size()];
+        index = 0;
+        for (final ClassData vertex : vertices.values()) {
+            vertexNames[index++] = capture.string(vertex.name());
+            capture.enqueue(vertex);
+        }
+
+        ClassData next;
+        while ((next = capture.queue.poll()) != null) {
+            capture.visit(next);
+        }
+
+        return new HydrationSnapshot(
+            List.copyOf(providers),
+            contextKeys(context),
+            capture.strings.keySet().toArray(new String[0]),
+            capture.refs.toArray(),
+            capture.values.toArray(new int[0][]),
+            capture.items.toArray(),
+            classNames,
+            classFingerprints,
+            vertexNames
+        );
+    }
+
+    /**
+     * Restore the data in this snapshot into the given context, which must not be hydrated yet. Data created by the
+     * hydration of classes which are out of date is not restored, and those classes are returned so they can be
+     * hydrated again.
+     *
+     * <p>If this snapshot can't be used for the given context, nothing is restored and {@code null} is returned.
+     *
+     * @param context The {@link HypoContext context} to restore this snapshot into.
+     * @param providers The names of the hydrators which will hydrate the context.
+     * @return The result of the restore, or {@code null} if this snapshot can't be used.
+     * @throws IOException If an IO error occurs while reading the class data.
+     */
+    @Nullable Restored restore(
+        final @NotNull HypoContext context,
+        final @NotNull List<String> providers
+    ) throws IOException {
+        if (!this.providers.equals(providers)) {
+            return null;
+        }
+        final List<String> currentContextKeys = contextKeys(context);
+        if (this.contextKeys == null || !this.contextKeys.equals(currentContextKeys)) {
+            return null;
+        }
+
+        final HashMap<String, Long> fingerprints = classFingerprints(context);
+        final LinkedHashMap<String, ClassData> vertices = vertices(context);
+
+        // Find which classes changed since the snapshot was created, including added and removed classes
+        final HashSet<String> changed = new HashSet<>();
+        final HashSet<String> added = new HashSet<>();
+        final HashSet<String> oldClasses = new HashSet<>();
+        for (int i = 0; i < this.classNames.length; i++) {
+            final String name = this.strings[this.classNames[i]];
+            oldClasses.add(name);
+            final Long fingerprint = fingerprints.get(name);
+            if (fingerprint == null || fingerprint != this.classFingerprints[i]) {
+                changed.add(name);
+            }
+        }
+        for (final String name : fingerprints.keySet()) {
+            if (!oldClasses.contains(name)) {
+                added.add(name);
+            }
+        }
+        for (final ClassData vertex : vertices.values()) {
+            if (!vertex.isContextClass() && !fingerprints.containsKey(vertex.name())) {
+                // No class file to compare against, so it can't be trusted
+                changed.add(vertex.name());
+            }
+        }
+
+        changed.addAll(added);
+
+        // Classes which must be hydrated again
+        final HashSet<String> dirty = new HashSet<>(changed);
+        // A class which refers to a class which didn't exist before may have data which couldn't be resolved at the time
+        dirty.addAll(classesReferring(context, added));
+        final HashSet<String> oldVertices = new HashSet<>();
+        for (final int vertex : this.vertices) {
+            oldVertices.add(this.strings[vertex]);
+        }
+        final HashMap<String, Boolean> changedAncestors = new HashMap<>();
+        for (final ClassData vertex : vertices.values()) {
+            if (!oldVertices.contains(vertex.name()) || hasChangedAncestor(vertex, changed, changedAncestors)) {
+                dirty.add(vertex.name());
+            }
+        }
+
+        final int itemCount = this.items.length / ITEM_SIZE;
+        for (int i = 0; i < itemCount; i++) {
+            final String source = this.strings[this.items[i * ITEM_SIZE + 3]];
+            if (!dirty.contains(source) && this.referencesAny(i, changed)) {
+                dirty.add(source);
+            }
+        }
+
+        // Resolve everything before restoring anything, if any data from a class can't be resolved that class must be
+        // hydrated again
+        final Resolver resolver = new Resolver(context);
+        final Object[] owners = new Object[itemCount];
+        final Object[] payloads = new Object[itemCount];
+        for (int i = 0; i < itemCount; i++) {
+            final String source = this.strings[this.items[i * ITEM_SIZE + 3]];
+            if (dirty.contains(source) || !vertices.containsKey(source)) {
+                continue;
+            }
+            owners[i] = resolver.ref(this.items[i * ITEM_SIZE + 1]);
+            payloads[i] = hasValuePayload(this.items[i * ITEM_SIZE])
+                ? resolver.value(this.items[i * ITEM_SIZE + 2])
+                : resolver.ref(this.items[i * ITEM_SIZE + 2]);
+            if (owners[i] == null || payloads[i] == null) {
+                dirty.add(source);
+            }
+        }
+
+        for (int i = 0; i < itemCount; i++) {
+            final String source = this.strings[this.items[i * ITEM_SIZE + 3]];
+            if (dirty.contains(source) || !vertices.containsKey(source)) {
+                continue;
+            }
+            apply(this.items[i * ITEM_SIZE], owners[i], payloads[i]);
+        }
+
+        // Classes which held data created by the classes being hydrated again are affected as well
+        final HashSet<String> affected = new HashSet<>();
+        for (int i = 0; i < itemCount; i++) {
+            if (dirty.contains(this.strings[this.items[i * ITEM_SIZE + 3]])) {
+                affected.add(this.strings[this.refs[this.items[i * ITEM_SIZE + 1] * REF_SIZE]]);
+            }
+        }
+
+        final LinkedHashSet<ClassData> dirtyClasses = new LinkedHashSet<>();
+        for (final ClassData vertex : vertices.values()) {
+            if (dirty.contains(vertex.name())) {
+                dirtyClasses.add(vertex);
+                affected.add(vertex.name());
+            }
+        }
+        return new Restored(dirtyClasses, affected);
+    }
+
+    /**
+     * Returns the names of the classes whose hydrated data may refer to or be created by the given classes: the
+     * classes themselves, their outer classes, all classes they extend or implement, and all classes referenced by
+     * their hydrated data.
+     *
+     * @param classes The classes to find the neighbourhood of. These classes must already be hydrated.
+     * @return The names of all classes in the neighbourhood of the given classes.
+     * @throws IOException If an IO error occurs while reading the class data.
+     */
+    static @NotNull Set<String> neighbourhood(final @NotNull Collection<ClassData> classes) throws IOException {
+        final Capture capture = new Capture();
+        final ArrayDeque<ClassData> superClasses = new ArrayDeque<>();
+        final HashSet<String> seenSuperClasses = new HashSet<>();
+        for (final ClassData classData : classes) {
+            capture.visit(classData);
+            final ClassData outerClass = classData.outerClass();
+            if (outerClass != null) {
+                capture.enqueue(outerClass);
+            }
+            superClasses.add(classData);
+        }
+
+        // Child methods are set on every overridden method, so every super class is part of the neighbourhood
+        final HashSet<String> result = new HashSet<>(capture.seen);
+        ClassData next;
+        while ((next = superClasses.poll()) != null) {
+            next.forEachSuperClass(superClass -> {
+                if (seenSuperClasses.add(superClass.name())) {
+                    result.add(superClass.name());
+                    superClasses.add(superClass);
+                }
+            });
+        }
+        return result;
+    }
+
+    @SuppressWarnings({"deprecation", "unchecked"})
+    private static void apply(final int kind, final Object owner, final Object payload) {
+        switch (kind) {
+            case CHILD_CLASS:
+                ((ClassData) owner).childClasses().add((ClassData) payload);
+                break;
+            case INNER_CLASS:
+                ((ClassData) owner).innerClasses().add((ClassData) payload);
+                break;
+            case SUPER_METHOD:
+                ((MethodData) owner).setSuperMethod((MethodData) payload);
+                break;
+            case CHILD_METHOD:
+                final Set<MethodData> childMethods = ((MethodData) owner).childMethods();
+                synchronized (childMethods) {
+                    childMethods.add((MethodData) payload);
+                }
+                break;
+            case SYNTHETIC_TARGET:
+                ((MethodData) owner).store(HypoHydration.SYNTHETIC_TARGET, (MethodData) payload);
+                break;
+            case SYNTHETIC_SOURCE:
+                ((MethodData) owner).store(HypoHydration.SYNTHETIC_SOURCE, (MethodData) payload);
+                break;
+            case SYNTHETIC_SOURCES:
+                final Set<MethodData> sources = ((MethodData) owner).compute(HypoHydration.SYNTHETIC_SOURCES, HashSet::new);
+                synchronized (sources) {
+                    sources.add((MethodData) payload);
+                }
+                break;
+            case SUPER_CALL_TARGET:
+                ((MethodData) owner).store(HypoHydration.SUPER_CALL_TARGET, (SuperCall) payload);
+                break;
+            case SUPER_CALLER_SOURCES:
+                addTo(((MethodData) owner).compute(HypoHydration.SUPER_CALLER_SOURCES, ArrayList::new), (SuperCall) payload);
+                break;
+            case LAMBDA_CALLS:
+                addTo(((MethodData) owner).compute(HypoHydration.LAMBDA_CALLS, ArrayList::new), (LambdaClosure) payload);
+                break;
+            case LOCAL_CLASSES:
+                final List<LocalClassClosure> closures = owner instanceof ClassData
+                    ? ((ClassData) owner).compute(HypoHydration.LOCAL_CLASSES, ArrayList::new)
+                    : ((MethodData) owner).compute(HypoHydration.LOCAL_CLASSES, ArrayList::new);
+                addTo(closures, (LocalClassClosure) payload);
+                break;
+            default:
+                throw new IllegalStateException("Unknown hydration snapshot item kind: " + kind);
+        }
+    }
+
+    private static <T> void addTo(final @NotNull List<T> list, final @NotNull T value) {
+        synchronized (list) {
+            list.add(value);
+        }
+    }
+
+    private static boolean hasValuePayload(final int kind) {
+        return kind == SUPER_CALL_TARGET
+            || kind == SUPER_CALLER_SOURCES
+            || kind == LAMBDA_CALLS
+            || kind == LOCAL_CLASSES;
+    }
+
+    private boolean referencesAny(final int item, final @NotNull Set<String> classes) {
+        final int kind = this.items[item * ITEM_SIZE];
+        if (this.refersTo(this.items[item * ITEM_SIZE + 1], classes)) {
+            return true;
+        }
+        if (!hasValuePayload(kind)) {
+            return this.refersTo(this.items[item * ITEM_SIZE + 2], classes);
+        }
+        final int[] value = this.values[this.items[item * ITEM_SIZE + 2]];
+        final int refCount = valueRefCount(value[0]);
+        for (int i = 1; i <= refCount; i++) {
+            if (this.refersTo(value[i], classes)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean refersTo(final int ref, final @NotNull Set<String> classes) {
+        return ref >= 0 && classes.contains(this.strings[this.refs[ref * REF_SIZE]]);
+    }
+
+    private static int valueRefCount(final int valueKind) {
+        return valueKind == LAMBDA_CLOSURE ? 3 : 2;
+    }
+
+    private boolean isValid() {
+        if (this.refs.length % REF_SIZE != 0 || this.items.length % ITEM_SIZE != 0) {
+            return false;
+        }
+        if (this.classNames.length != this.classFingerprints.length) {
+            return false;
+        }
+        for (int i = 0; i < this.refs.length; i++) {
+            if (!this.isString(this.refs[i], i % REF_SIZE != 0)) {
+                return false;
+            }
+        }
+        final int refCount = this.refs.length / REF_SIZE;
+        for (final int[] value : this.values) {
+            if (value.length < 1 || value[0] < SUPER_CALL || value[0] > LOCAL_CLASS_CLOSURE) {
+                return false;
+            }
+            final int valueRefs = valueRefCount(value[0]);
+            if (value.length < valueRefs + 1 || (value[0] == SUPER_CALL && (value.length - valueRefs - 1) % 2 != 0)) {
+                return false;
+            }
+            for (int i = 1; i <= valueRefs; i++) {
+                // Only the interface method of a lambda closure is optional
+                final boolean nullable = value[0] == LAMBDA_CLOSURE && i == 2;
+                if (value[i] < (nullable ? -1 : 0) || value[i] >= refCount) {
+                    return false;
+                }
+            }
+        }
+        for (int i = 0; i < this.items.length; i += ITEM_SIZE) {
+            final int kind = this.items[i];
+            if (kind < 0 || kind >= ITEM_KINDS) {
+                return false;
+            }
+            final int payloadLimit = hasValuePayload(kind) ? this.values.length : refCount;
+            if (this.items[i + 1] < 0 || this.items[i + 1] >= refCount
+                || this.items[i + 2] < 0 || this.items[i + 2] >= payloadLimit
+                || !this.isString(this.items[i + 3], false)) {
+                return false;
+            }
+        }
+        for (final int name : this.classNames) {
+            if (!this.isString(name, false)) {
+                return false;
+            }
+        }
+        for (final int name : this.vertices) {
+            if (!this.isString(name, false)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isString(final int index, final boolean nullable) {
+        return (nullable && index == -1) || (index >= 0 && index < this.strings.length);
+    }
+
+    private static boolean hasChangedAncestor(
+        final @NotNull ClassData classData,
+        final @NotNull Set<String> changed,
+        final @NotNull HashMap<String, Boolean> cache
+    ) throws IOException {
+        final Boolean cached = cache.get(classData.name());
+        if (cached != null) {
+            return cached;
+        }
+
+        boolean result = false;
+        final ClassData superClass = classData.superClass();
+        if (superClass != null) {
+            result = changed.contains(superClass.name()) || hasChangedAncestor(superClass, changed, cache);
+        }
+        if (!result) {
+            for (final ClassData interfaceData : classData.interfaces()) {
+                if (changed.contains(interfaceData.name()) || hasChangedAncestor(interfaceData, changed, cache)) {
+                    result = true;
+                    break;
+                }
+            }
+        }
+
+        cache.put(classData.name(), result);
+        return result;
+    }
+
+    /**
+     * Returns the target classes of the given context, followed by their super classes, outer classes and interfaces.
+     * These are the classes {@link DefaultClassDataHydrator} links the methods of.
+     */
+    private static @NotNull LinkedHashMap<String, ClassData> vertices(final @NotNull HypoContext context) throws IOException {
+        final LinkedHashMap<String, ClassData> result = new LinkedHashMap<>();
+        final ArrayList<ClassData> targets = new ArrayList<>();
+        for (final ClassData classData : context.getProvider().allClasses()) {
+            targets.add(classData);
+            result.put(classData.name(), classData);
+        }
+        for (final ClassData classData : targets) {
+            final ClassData superClass = classData.superClass();
+            if (superClass != null) {
+                result.putIfAbsent(superClass.name(), superClass);
+            }
+            final ClassData outerClass = classData.outerClass();
+            if (outerClass != null) {
+                result.putIfAbsent(outerClass.name(), outerClass);
+            }
+            for (final ClassData interfaceData : classData.interfaces()) {
+                result.putIfAbsent(interfaceData.name(), interfaceData);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the sorted content keys of the context roots of the given context, or {@code null} if any of them can't
+     * identify their contents.
+     */
+    private static @Nullable List<String> contextKeys(final @NotNull HypoContext context) throws IOException {
+        final Set<ClassProviderRoot> targetRoots = Collections.newSetFromMap(new IdentityHashMap<>());
+        targetRoots.addAll(context.getProvider().roots());
+
+        final ArrayList<String> result = new ArrayList<>();
+        for (final ClassProviderRoot root : context.getContextProvider().roots()) {
+            if (targetRoots.contains(root)) {
+                continue;
+            }
+            final String key = root.contentKey();
+            if (key == null) {
+                return null;
+            }
+            result.add(key);
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    /**
+     * {@link ClassProviderRoot.FileDataReference#fingerprint() Fingerprint} every class file in the target roots of the
+     * given context. The first root containing a class wins. For jar roots this only reads the jar's central directory.
+     */
+    private static @NotNull HashMap<String, Long> classFingerprints(final @NotNull HypoContext context) throws IOException {
+        final ExecutorService executor = context.getExecutor();
+        final LinkedHashMap<String, Future<Long>> futures = new LinkedHashMap<>();
+        for (final ClassProviderRoot root : context.getProvider().roots()) {
+            for (final ClassProviderRoot.FileDataReference ref : root.getAllClasses()) {
+                final String name = className(ref.name());
+                if (futures.containsKey(name)) {
+                    continue;
+                }
+                futures.put(name, executor.submit(() -> {
+                    final long fingerprint = ref.fingerprint();
+                    return fingerprint == 0 ? null : fingerprint;
+                }));
+            }
+        }
+
+        final HashMap<String, Long> result = new HashMap<>(futures.size() * 2);
+        for (final Map.Entry<String, Future<Long>> entry : futures.entrySet()) {
+            try {
+                final Long fingerprint = entry.getValue().get();
+                if (fingerprint != null) {
+                    result.put(entry.getKey(), fingerprint);
+                }
+            } catch (final InterruptedException | ExecutionException e) {
+                throw HypoModelUtil.rethrow(e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Find the classes in the target roots of the given context whose hydrated data may have been incomplete because
+     * the given classes didn't exist yet. Outside of the class hierarchy, which is checked separately, hydrated data
+     * only refers to other classes in two ways:
+     *
+     * <ul>
+     *     <li>Local classes are recorded on their outer class. This is found from the given classes themselves.</li>
+     *     <li>
+     *         Lambdas refer to the owner of their implementation method and to their functional interface. These only
+     *         appear in the constant pool of class files which use {@code invokedynamic}, so only the constant pool of
+     *         each class file is parsed, and only its class and {@code invokedynamic} entries are looked up.
+     *     </li>
+     * </ul>
+     */
+    private static @NotNull Set<String> classesReferring(
+        final @NotNull HypoContext context,
+        final @NotNull Set<String> classNames
+    ) throws IOException {
+        if (classNames.isEmpty()) {
+            return Set.of();
+        }
+
+        final HashSet<String> result = new HashSet<>();
+        for (final String name : classNames) {
+            final ClassData classData = context.getProvider().findClass(name);
+            ClassData outerClass = classData == null ? null : classData.outerClass();
+            while (outerClass != null && result.add(outerClass.name())) {
+                outerClass = outerClass.outerClass();
+            }
+        }
+
+        final ExecutorService executor = context.getExecutor();
+        final ArrayList<Future<String>> futures = new ArrayList<>();
+        for (final ClassProviderRoot root : context.getProvider().roots()) {
+            for (final ClassProviderRoot.FileDataReference ref : root.getAllClasses()) {
+                futures.add(executor.submit(() -> {
+                    final byte[] data = ref.readData();
+                    if (data == null || !lambdasReferAny(data, classNames)) {
+                        return null;
+                    }
+                    return className(ref.name());
+                }));
+            }
+        }
+
+        for (final Future<String> future : futures) {
+            try {
+                final String name = future.get();
+                if (name != null) {
+                    result.add(name);
+                }
+            } catch (final InterruptedException | ExecutionException e) {
+                throw HypoModelUtil.rethrow(e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns {@code true} if the constant pool of the given class file contains an {@code invokedynamic} entry, and
+     * any of its class entries or the return type of any of its {@code invokedynamic} entries is one of the given
+     * classes. Class files which can't be parsed are assumed to refer to the given classes.
+     */
+    static boolean lambdasReferAny(final byte @NotNull [] classFile, final @NotNull Set<String> classNames) {
+        try {
+            final int count = readU2(classFile, 8);
+            final int[] offsets = new int[count];
+            boolean hasInvokeDynamic = false;
+            int offset = 10;
+            for (int i = 1; i < count; i++) {
+                offsets[i] = offset;
+                final int tag = classFile[offset];
+                switch (tag) {
+                    case 1: // Utf8
+                        offset += 3 + readU2(classFile, offset + 1);
+                        break;
+                    case 7: // Class
+                    case 8: // String
+                    case 16: // MethodType
+                    case 19: // Module
+                    case 20: // Package
+                        offset += 3;
+                        break;
+                    case 15: // MethodHandle
+                        offset += 4;
+                        break;
+                    case 18: // InvokeDynamic
+                        hasInvokeDynamic = true;
+                        offset += 5;
+                        break;
+                    case 3: // Integer
+                    case 4: // Float
+                    case 9: // Fieldref
+                    case 10: // Methodref
+                    case 11: // InterfaceMethodref
+                    case 12: // NameAndType
+                    case 17: // Dynamic
+                        offset += 5;
+                        break;
+                    case 5: // Long
+                    case 6: // Double
+                        offset += 9;
+                        i++;
+                        break;
+                    default:
+                        return true;
+                }
+            }
+            if (!hasInvokeDynamic) {
+                return false;
+            }
+
+            for (int i = 1; i < count; i++) {
+                final int entry = offsets[i];
+                if (entry == 0) {
+                    continue;
+                }
+                if (classFile[entry] == 7) {
+                    if (classNames.contains(readUtf8(classFile, offsets[readU2(classFile, entry + 1)]))) {
+                        return true;
+                    }
+                } else if (classFile[entry] == 18) {
+                    final int nameAndType = offsets[readU2(classFile, entry + 3)];
+                    final String desc = readUtf8(classFile, offsets[readU2(classFile, nameAndType + 3)]);
+                    final int returnType = desc.lastIndexOf(')') + 1;
+                    if (desc.startsWith("L", returnType) && desc.endsWith(";")
+                        && classNames.contains(desc.substring(returnType + 1, desc.length() - 1))) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        } catch (final IndexOutOfBoundsException e) {
+            return true;
+        }
+    }
+
+    private static int readU2(final byte @NotNull [] data, final int offset) {
+        return ((data[offset] & 0xFF) << 8) | (data[offset + 1] & 0xFF);
+    }
+
+    private static @NotNull String readUtf8(final byte @NotNull [] data, final int offset) {
+        if (data[offset] != 1) {
+            throw new IndexOutOfBoundsException("Not a Utf8 constant");
+        }
+        // Class names are stored as modified UTF-8, which matches standard UTF-8 for any reasonable class name
+        return new String(data, offset + 3, readU2(data, offset + 1), StandardCharsets.UTF_8);
+    }
+
+    private static @NotNull String className(final @NotNull String fileName) {
+        String name = fileName.endsWith(".class") ? fileName.substring(0, fileName.length() - 6) : fileName;
+        if (name.startsWith("/")) {
+            name = name.substring(1);
+        }
+        return HypoModelUtil.normalizedClassName(name);
+    }
+
+    private static void writeStrings(final @NotNull DataOutputStream out, final @NotNull List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (final String value : values) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static @NotNull List<String> readStrings(final @NotNull DataInputStream in) throws IOException {
+        final int count = readCount(in);
+        final ArrayList<String> result = new ArrayList<>(Math.min(count, INITIAL_CAPACITY));
+        for (int i = 0; i < count; i++) {
+            result.add(in.readUTF());
+        }
+        return result;
+    }
+
+    private static void writeInts(final @NotNull DataOutputStream out, final int @NotNull [] values) throws IOException {
+        out.writeInt(values.length);
+        for (final int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    private static int @NotNull [] readInts(final @NotNull DataInputStream in) throws IOException {
+        final int count = readCount(in);
+        // The count of a corrupt file can be anything, so only grow the array as the values are actually read
+        int[] result = new int[Math.min(count, INITIAL_CAPACITY)];
+        for (int i = 0; i < count; i++) {
+            if (i == result.length) {
+                result = Arrays.copyOf(result, (int) Math.min(count, result.length * 2L));
+            }
+            result[i] = in.readInt();
+        }
+        return result;
+    }
+
+    private static int readCount(final @NotNull DataInputStream in) throws IOException {
+        final int count = in.readInt();
+        if (count < 0) {
+            throw new CorruptSnapshotException();
+        }
+        return count;
+    }
+
+    /**
+     * Thrown while reading a snapshot file whose data is not valid.
+     */
+    private static final class CorruptSnapshotException extends IOException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * The result of {@link #restore(HypoContext, List) restoring} a snapshot.
+     */
+    static final class Restored {
+
+        /**
+         * The classes which must be hydrated again, as their data was not restored.
+         */
+        final @NotNull Set<ClassData> dirty;
+        /**
+         * The names of the classes which must be hydrated again, and of the classes which held data created by them.
+         */
+        final @NotNull Set<String> affected;
+
+        Restored(final @NotNull Set<ClassData> dirty, final @NotNull Set<String> affected) {
+            this.dirty = dirty;
+            this.affected = affected;
+        }
+    }
+
+    /**
+     * Resolves refs and values of a snapshot against a {@link HypoContext}, caching the results so values which are
+     * shared between multiple items are restored as a single shared object, as they were originally.
+     */
+    private final class Resolver {
+
+        private final @NotNull HypoContext context;
+        private final @Nullable Object @NotNull [] refCache;
+        private final boolean @NotNull [] refResolved;
+        private final @Nullable Object @NotNull [] valueCache;
+        private final boolean @NotNull [] valueResolved;
+
+        Resolver(final @NotNull HypoContext context) {
+            this.context = context;
+            this.refCache = new Object[HydrationSnapshot.this.refs.length / REF_SIZE];
+            this.refResolved = new boolean[this.refCache.length];
+            this.valueCache = new Object[HydrationSnapshot.this.values.length];
+            this.valueResolved = new boolean[this.valueCache.length];
+        }
+
+        @Nullable Object ref(final int ref) throws IOException {
+            if (!this.refResolved[ref]) {
+                this.refCache[ref] = this.resolveRef(ref);
+                this.refResolved[ref] = true;
+            }
+            return this.refCache[ref];
+        }
+
+        private @Nullable Object resolveRef(final int ref) throws IOException {
+            final int[] refs = HydrationSnapshot.this.refs;
+            final String[] strings = HydrationSnapshot.this.strings;
+            final ClassData classData = this.context.getContextProvider().findClass(strings[refs[ref * REF_SIZE]]);
+            final int name = refs[ref * REF_SIZE + 1];
+            final int desc = refs[ref * REF_SIZE + 2];
+            if (classData == null || name == -1 || desc == -1) {
+                return classData;
+            }
+            return classData.method(strings[name], strings[desc]);
+        }
+
+        @Nullable Object value(final int value) throws IOException {
+            if (!this.valueResolved[value]) {
+                this.valueCache[value] = this.resolveValue(HydrationSnapshot.this.values[value]);
+                this.valueResolved[value] = true;
+            }
+            return this.valueCache[value];
+        }
+
+        private @Nullable Object resolveValue(final int @NotNull [] value) throws IOException {
+            switch (value[0]) {
+                case SUPER_CALL: {
+                    final Object thisConstructor = this.ref(value[1]);
+                    final Object superConstructor = this.ref(value[2]);
+                    if (!(thisConstructor instanceof ConstructorData) || !(superConstructor instanceof ConstructorData)) {
+                        return null;
+                    }
+                    final ArrayList<SuperCall.SuperCallParameter> params = new ArrayList<>((value.length - 3) / 2);
+                    for (int i = 3; i < value.length; i += 2) {
+                        params.add(new SuperCall.SuperCallParameter(value[i], value[i + 1]));
+                    }
+                    return new SuperCall((ConstructorData) thisConstructor, (ConstructorData) superConstructor, params);
+                }
+                case LAMBDA_CLOSURE: {
+                    final Object containingMethod = this.ref(value[1]);
+                    final Object interfaceMethod = value[2] == -1 ? null : this.ref(value[2]);
+                    final Object lambda = this.ref(value[3]);
+                    if (!(containingMethod instanceof MethodData) || !(lambda instanceof MethodData)
+                        || (value[2] != -1 && !(interfaceMethod instanceof MethodData))) {
+                        return null;
+                    }
+                    return new LambdaClosure(
+                        (MethodData) containingMethod,
+                        (MethodData) interfaceMethod,
+                        (MethodData) lambda,
+                        Arrays.copyOfRange(value, 4, value.length)
+                    );
+                }
+                case LOCAL_CLASS_CLOSURE: {
+                    final Object containingMethod = this.ref(value[1]);
+                    final Object localClass = this.ref(value[2]);
+                    if (!(containingMethod instanceof MethodData) || !(localClass instanceof ClassData)) {
+                        return null;
+                    }
+                    return new LocalClassClosure(
+                        (MethodData) containingMethod,
+                        (ClassData) localClass,
+                        Arrays.copyOfRange(value, 3, value.length)
+                    );
+                }
+                default:
+                    return null;
+            }
+        }
+    }
+
+    /**
+     * Collects the data of a hydrated context into the tables of a new snapshot. Starting from the classes
+     * {@link DefaultClassDataHydrator} hydrates, every class which may contain hydrated data is visited: the super
+     * classes and interfaces of every visited class, and every class referenced by the data of a visited class.
+     */
+    private static final class Capture {
+
+        private final @NotNull LinkedHashMap<String, Integer> strings = new LinkedHashMap<>();
+        private final @NotNull HashMap<String, Integer> refIndex = new HashMap<>();
+        private final @NotNull IntList refs = new IntList();
+        private final @NotNull IdentityHashMap<Object, Integer> valueIndex = new IdentityHashMap<>();
+        private final @NotNull ArrayList<int[]> values = new ArrayList<>();
+        private final @NotNull IntList items = new IntList();
+
+        private final @NotNull ArrayDeque<ClassData> queue = new ArrayDeque<>();
+        private final @NotNull HashSet<String> seen = new HashSet<>();
+
+        int string(final @NotNull String value) {
+            return this.strings.computeIfAbsent(value, k -> this.strings.size());
+        }
+
+        void enqueue(final @NotNull ClassData classData) {
+            if (this.seen.add(classData.name())) {
+                this.queue.add(classData);
+            }
+        }
+
+        @SuppressWarnings("deprecation")
+        void visit(final @NotNull ClassData classData) throws IOException {
+            final ClassData superClass = classData.superClass();
+            if (superClass != null) {
+                this.enqueue(superClass);
+            }
+            for (final ClassData interfaceData : classData.interfaces()) {
+                this.enqueue(interfaceData);
+            }
+
+            final int owner = this.ref(classData);
+            for (final ClassData child : classData.childClasses()) {
+                this.item(CHILD_CLASS, owner, this.ref(child), child);
+            }
+            for (final ClassData inner : classData.innerClasses()) {
+                this.item(INNER_CLASS, owner, this.ref(inner), inner);
+            }
+            final List<LocalClassClosure> classLocalClasses = classData.get(HypoHydration.LOCAL_CLASSES);
+            if (classLocalClasses != null) {
+                for (final LocalClassClosure closure : classLocalClasses) {
+                    this.item(LOCAL_CLASSES, owner, this.value(closure), closure.getContainingMethod().parentClass());
+                }
+            }
+
+            for (final MethodData method : classData.methods()) {
+                final int methodRef = this.ref(method);
+
+                final MethodData superMethod = method.superMethod();
+                if (superMethod != null) {
+                    this.item(SUPER_METHOD, methodRef, this.ref(superMethod), classData);
+                }
+                for (final MethodData childMethod : method.childMethods()) {
+                    this.item(CHILD_METHOD, methodRef, this.ref(childMethod), childMethod.parentClass());
+                }
+
+                final MethodData syntheticTarget = method.get(HypoHydration.SYNTHETIC_TARGET);
+                if (syntheticTarget != null) {
+                    this.item(SYNTHETIC_TARGET, methodRef, this.ref(syntheticTarget), classData);
+                }
+                final MethodData syntheticSource = method.get(HypoHydration.SYNTHETIC_SOURCE);
+                if (syntheticSource != null) {
+                    this.item(SYNTHETIC_SOURCE, methodRef, this.ref(syntheticSource), syntheticSource.parentClass());
+                }
+                final Set<MethodData> syntheticSources = method.get(HypoHydration.SYNTHETIC_SOURCES);
+                if (syntheticSources != null) {
+                    for (final MethodData source : syntheticSources) {
+                        this.item(SYNTHETIC_SOURCES, methodRef, this.ref(source), source.parentClass());
+                    }
+                }
+
+                final SuperCall superCallTarget = method.get(HypoHydration.SUPER_CALL_TARGET);
+                if (superCallTarget != null) {
+                    this.item(
+                        SUPER_CALL_TARGET, methodRef, this.value(superCallTarget),
+                        superCallTarget.getThisConstructor().parentClass()
+                    );
+                }
+                final List<SuperCall> superCallerSources = method.get(HypoHydration.SUPER_CALLER_SOURCES);
+                if (superCallerSources != null) {
+                    for (final SuperCall superCall : superCallerSources) {
+                        this.item(
+                            SUPER_CALLER_SOURCES, methodRef, this.value(superCall),
+                            superCall.getThisConstructor().parentClass()
+                        );
+                    }
+                }
+
+                final List<LambdaClosure> lambdaCalls = method.get(HypoHydration.LAMBDA_CALLS);
+                if (lambdaCalls != null) {
+                    for (final LambdaClosure closure : lambdaCalls) {
+                        this.item(LAMBDA_CALLS, methodRef, this.value(closure), closure.getContainingMethod().parentClass());
+                    }
+                }
+                final List<LocalClassClosure> localClasses = method.get(HypoHydration.LOCAL_CLASSES);
+                if (localClasses != null) {
+                    for (final LocalClassClosure closure : localClasses) {
+                        this.item(LOCAL_CLASSES, methodRef, this.value(closure), closure.getContainingMethod().parentClass());
+                    }
+                }
+            }
+        }
+
+        private void item(final int kind, final int owner, final int payload, final @NotNull ClassData source) {
+            this.items.add(kind);
+            this.items.add(owner);
+            this.items.add(payload);
+            this.items.add(this.string(source.name()));
+        }
+
+        private int ref(final @NotNull ClassData classData) {
+            this.enqueue(classData);
+            return this.ref(classData.name(), null, null);
+        }
+
+        private int ref(final @NotNull MethodData method) {
+            final ClassData parentClass = method.parentClass();
+            this.enqueue(parentClass);
+            return this.ref(parentClass.name(), method.name(), method.descriptorText());
+        }
+
+        private int ref(final @NotNull String className, final @Nullable String name, final @Nullable String desc) {
+            final String key = name == null ? className : className + '\0' + name + '\0' + desc;
+            final Integer existing = this.refIndex.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            final int index = this.refs.size() / REF_SIZE;
+            this.refs.add(this.string(className));
+            this.refs.add(name == null ? -1 : this.string(name));
+            this.refs.add(desc == null ? -1 : this.string(desc));
+            this.refIndex.put(key, index);
+            return index;
+        }
+
+        private int value(final @NotNull Object value) {
+            final Integer existing = this.valueIndex.get(value);
+            if (existing != null) {
+                return existing;
+            }
+
+            final int[] result;
+            if (value instanceof SuperCall) {
+                final SuperCall superCall = (SuperCall) value;
+                final List<SuperCall.SuperCallParameter> params = superCall.getParams();
+                result = new int[3 + params.size() * 2];
+                result[0] = SUPER_CALL;
+                result[1] = this.ref(superCall.getThisConstructor());
+                result[2] = this.ref(superCall.getSuperConstructor());
+                for (int i = 0; i < params.size(); i++) {
+                    result[3 + i * 2] = params.get(i).getThisIndex();
+                    result[4 + i * 2] = params.get(i).getSuperIndex();
+                }
+            } else if (value instanceof LambdaClosure) {
+                final LambdaClosure closure = (LambdaClosure) value;
+                final int[] lvt = closure.getParamLvtIndices();
+                final MethodData interfaceMethod = closure.getInterfaceMethod();
+                result = new int[4 + lvt.length];
+                result[0] = LAMBDA_CLOSURE;
+                result[1] = this.ref(closure.getContainingMethod());
+                result[2] = interfaceMethod == null ? -1 : this.ref(interfaceMethod);
+                result[3] = this.ref(closure.getLambda());
+                System.arraycopy(lvt, 0, result, 4, lvt.length);
+            } else {
+                final LocalClassClosure closure = (LocalClassClosure) value;
+                final int[] lvt = closure.getParamLvtIndices();
+                result = new int[3 + lvt.length];
+                result[0] = LOCAL_CLASS_CLOSURE;
+                result[1] = this.ref(closure.getContainingMethod());
+                result[2] = this.ref(closure.getLocalClass());
+                System.arraycopy(lvt, 0, result, 3, lvt.length);
+            }
+
+            final int index = this.values.size();
+            this.values.add(result);
+            this.valueIndex.put(value, index);
+            return index;
+        }
+    }
+
+    /**
+     * Minimal growable {@code int} array.
+     */
+    private static final class IntList {
+        private int @NotNull [] data = new int[64];
+        private int size;
+
+        void add(final int value) {
+            if (this.size == this.data.length) {
+                this.data = Arrays.copyOf(this.data, this.size * 2);
+            }
+            this.data[this.size++] = value;
+        }
+
+        int size() {
+            return this.size;
+        }
+
+        int @NotNull [] toArray() {
+            return Arrays.copyOf(this.data, this.size);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.hydrate;
+
+import org.jetbrains.annotations.NotNull;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultDirectedGraph;
+import org.jgrapht.graph.DefaultEdge;
+
+/**
+ * Conversion from {@link HierarchyGraph} to JGraphT {@link Graph graphs}. JGraphT is an optional dependency of Hypo,
+ * it isn't used for hydration itself, and must be on the classpath to use this class.
+ */
+public final class JGraphTAdapter {
+
+    private JGraphTAdapter() {}
+
+    /**
+     * Create a JGraphT {@link Graph} with the same vertices and edges as the given graph. Duplicate edges are only added
+     * once.
+     *
+     * @param graph The graph to convert.
+     * @param <T> The type of the vertices of the graph.
+     * @return A new JGraphT {@link Graph} with the same vertices and edges as the given graph.
+     */
+    public static <T> @NotNull Graph<T, DefaultEdge> toGraph(final @NotNull HierarchyGraph<T> graph) {
+        final Graph<T, DefaultEdge> g = new DefaultDirectedGraph<>(DefaultEdge.class);
+        final int count = graph.vertexCount();
+        for (int i = 0; i < count; i++) {
+            g.addVertex(graph.vertex(i));
+        }
+        for (int i = 0; i < count; i++) {
+            final T source = graph.vertex(i);
+            for (final int target : graph.successors(i)) {
+                g.addEdge(source, graph.vertex(target));
+            }
+        }
+        return g;
+    }
+}
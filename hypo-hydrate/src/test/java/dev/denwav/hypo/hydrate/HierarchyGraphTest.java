@@ -0,0 +1,157 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.hydrate;
+
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("HierarchyGraph Tests")
+public class HierarchyGraphTest {
+
+    @Test
+    @DisplayName("Test successors are stored per source vertex in the order the edges were added")
+    public void testSuccessors() {
+        final HierarchyGraph<String> graph = graph("a", "b", "c", "d");
+        graph.addEdge(2, 3);
+        graph.addEdge(0, 1);
+        graph.addEdge(0, 2);
+        graph.addEdge(3, 1);
+        graph.addEdge(0, 1);
+
+        Assertions.assertEquals(4, graph.vertexCount());
+        Assertions.assertEquals("c", graph.vertex(2));
+        Assertions.assertArrayEquals(new int[] { 1, 2, 1 }, graph.successors(0));
+        Assertions.assertArrayEquals(new int[0], graph.successors(1));
+        Assertions.assertArrayEquals(new int[] { 3 }, graph.successors(2));
+        Assertions.assertArrayEquals(new int[] { 1 }, graph.successors(3));
+
+        // The returned arrays are copies
+        graph.successors(0)[0] = 3;
+        Assertions.assertArrayEquals(new int[] { 1, 2, 1 }, graph.successors(0));
+    }
+
+    @Test
+    @DisplayName("Test vertices are found by their ordinal")
+    public void testOrdinal() {
+        final HierarchyGraph<Integer> graph = new HierarchyGraph<>(i -> i);
+        Assertions.assertEquals(0, graph.addVertex(40));
+        Assertions.assertEquals(1, graph.addVertex(2));
+        Assertions.assertEquals(0, graph.addVertex(40));
+        Assertions.assertEquals(2, graph.addVertex(0));
+        Assertions.assertEquals(3, graph.vertexCount());
+
+        // Graphs without an ordinal function add a new vertex every time
+        final HierarchyGraph<Integer> plain = new HierarchyGraph<>();
+        Assertions.assertEquals(0, plain.addVertex(40));
+        Assertions.assertEquals(1, plain.addVertex(40));
+    }
+
+    @Test
+    @DisplayName("Test vertices without an ordinal are found by equality")
+    public void testNegativeOrdinal() {
+        final HierarchyGraph<String> graph = new HierarchyGraph<>(s -> s.startsWith("-") ? -1 : s.length());
+        Assertions.assertEquals(0, graph.addVertex("a"));
+        Assertions.assertEquals(1, graph.addVertex("-a"));
+        Assertions.assertEquals(2, graph.addVertex("-b"));
+        Assertions.assertEquals(1, graph.addVertex(new String("-a")));
+        Assertions.assertEquals(3, graph.vertexCount());
+
+        graph.addEdge(1, 0);
+        graph.addEdge(2, 1);
+        Assertions.assertEquals(List.of("-b", "-a", "a"), graph.topologicalVertices());
+        Assertions.assertEquals(1, graph.addVertex("-a"));
+        Assertions.assertThrows(IllegalStateException.class, () -> graph.addVertex("-c"));
+    }
+
+    @Test
+    @DisplayName("Test graphs can't be changed once they are queried")
+    public void testFrozen() {
+        final HierarchyGraph<String> graph = graph("a", "b");
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> graph.addEdge(0, 2));
+        graph.addEdge(0, 1);
+        Assertions.assertArrayEquals(new int[] { 1 }, graph.successors(0));
+
+        Assertions.assertThrows(IllegalStateException.class, () -> graph.addVertex("c"));
+        Assertions.assertThrows(IllegalStateException.class, () -> graph.addEdge(1, 0));
+        Assertions.assertEquals(2, graph.vertexCount());
+    }
+
+    @Test
+    @DisplayName("Test levels and topological order")
+    public void testLevels() {
+        final HierarchyGraph<String> graph = graph("a", "b", "c", "d", "e", "f");
+        graph.addEdge(3, 5);
+        graph.addEdge(0, 1);
+        graph.addEdge(0, 2);
+        graph.addEdge(1, 3);
+        graph.addEdge(2, 3);
+        graph.addEdge(0, 3);
+
+        Assertions.assertArrayEquals(new int[] { 0, 1, 1, 2, 0, 3 }, graph.levels());
+        Assertions.assertEquals(
+            List.of(List.of("a", "e"), List.of("b", "c"), List.of("d"), List.of("f")),
+            graph.vertexLevels()
+        );
+
+        final int[] order = graph.topologicalOrder();
+        Assertions.assertEquals(6, order.length);
+        final int[] positions = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            positions[order[i]] = i + 1;
+        }
+        for (int source = 0; source < graph.vertexCount(); source++) {
+            Assertions.assertTrue(positions[source] > 0, "Missing vertex " + source);
+            for (final int target : graph.successors(source)) {
+                Assertions.assertTrue(positions[source] < positions[target], source + " -> " + target);
+            }
+        }
+        Assertions.assertEquals("d", graph.topologicalVertices().get(positions[3] - 1));
+    }
+
+    @Test
+    @DisplayName("Test graphs with a cycle can't be ordered")
+    public void testCycle() {
+        final HierarchyGraph<String> graph = graph("a", "b", "c", "d");
+        graph.addEdge(0, 1);
+        graph.addEdge(1, 2);
+        graph.addEdge(2, 1);
+        graph.addEdge(2, 3);
+
+        Assertions.assertThrows(IllegalStateException.class, graph::topologicalOrder);
+        Assertions.assertThrows(IllegalStateException.class, graph::topologicalVertices);
+        Assertions.assertThrows(IllegalStateException.class, graph::levels);
+        Assertions.assertThrows(IllegalStateException.class, graph::vertexLevels);
+
+        // A self loop is a cycle as well
+        final HierarchyGraph<String> loop = graph("a");
+        loop.addEdge(0, 0);
+        Assertions.assertThrows(IllegalStateException.class, loop::topologicalOrder);
+    }
+
+    private static @NotNull HierarchyGraph<String> graph(final @NotNull String @NotNull ... vertices) {
+        final HierarchyGraph<String> graph = new HierarchyGraph<>();
+        for (final String vertex : vertices) {
+            graph.addVertex(vertex);
+        }
+        return graph;
+    }
+}
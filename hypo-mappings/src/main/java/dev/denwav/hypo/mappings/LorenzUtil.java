@@ -28,7 +28,6 @@ import dev.denwav.hypo.model.data.types.JvmType;
 import dev.denwav.hypo.model.data.types.PrimitiveType;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.VarHandle;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -122,7 +121,7 @@ public final class LorenzUtil {
         final @NotNull ClassData classData,
         final @NotNull MethodMapping mapping
     ) {
-        return classData.method(mapping.getObfuscatedName(), convertDesc(mapping.getDescriptor()));
+        return classData.method(mapping.getObfuscatedName(), mapping.getDescriptor().toString());
     }
 
     /**
@@ -160,11 +159,8 @@ public final class LorenzUtil {
      * @return The same descriptor, but in the Hypo model.
      */
     public static @NotNull MethodDescriptor convertDesc(final @NotNull org.cadixdev.bombe.type.MethodDescriptor desc) {
-        final ArrayList<JvmType> params = new ArrayList<>(desc.getParamTypes().size());
-        for (final org.cadixdev.bombe.type.FieldType paramType : desc.getParamTypes()) {
-            params.add(convertType(paramType));
-        }
-        return new MethodDescriptor(params, convertType(desc.getReturnType()));
+        // Bombe descriptors are in the internal JVM format, so going through the string shares the parsed descriptor
+        return MethodDescriptor.parseDescriptor(desc.toString());
     }
 
     /**
@@ -177,14 +173,14 @@ public final class LorenzUtil {
         // ArrayType
         if (type instanceof org.cadixdev.bombe.type.ArrayType) {
             final org.cadixdev.bombe.type.ArrayType array = (org.cadixdev.bombe.type.ArrayType) type;
-            return new ArrayType(convertType(array.getComponent()), array.getDimCount());
+            return ArrayType.of(convertType(array.getComponent()), array.getDimCount());
             // Primitive (BaseType and VoidType)
         } else if (type instanceof org.cadixdev.bombe.type.PrimitiveType) {
             return PrimitiveType.fromChar(((org.cadixdev.bombe.type.PrimitiveType) type).getKey());
             // ObjectType is the only possibility left
         } else if (type instanceof org.cadixdev.bombe.type.ObjectType) {
             final org.cadixdev.bombe.type.ObjectType obj = (org.cadixdev.bombe.type.ObjectType) type;
-            return new ClassType(obj.getClassName());
+            return ClassType.of(obj.getClassName());
         } else {
             throw new IllegalStateException("Unknown type: " + type);
         }
@@ -27,6 +27,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -37,6 +38,7 @@ import org.cadixdev.lorenz.model.InnerClassMapping;
 import org.cadixdev.lorenz.model.TopLevelClassMapping;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Manager for the mappings completion process. Mappings completion is the combination of bytecode analysis with
@@ -93,6 +95,47 @@ public class MappingsCompletionManager {
     public @NotNull ChangeRegistry completeMappings(
         final @NotNull MappingSet mappings,
         final @NotNull List<@NotNull ChangeContributor> contributors
+    ) throws HypoException {
+        return this.completeMappings(mappings, contributors, null);
+    }
+
+    /**
+     * Run completion over the given {@link MappingSet} using the given list of
+     * {@link ChangeContributor change contributors}, but only for the classes which were
+     * {@link HypoContext#getAffectedClasses() affected} by changes since a previous run. This is intended for mappings
+     * which were already completed in the previous run, so only the affected classes can have new changes. If the
+     * context was not processed incrementally, this is the same as {@link #completeMappings(MappingSet, List)}.
+     *
+     * @param mappings The {@link MappingSet} to complete.
+     * @param contributors The {@link ChangeContributor change contributors} to run against the mappings.
+     * @return A {@link ChangeRegistry} filled in with the changes submitted by the given contributors.
+     * @throws HypoException If one of the {@link ChangeContributor change contributors} fails.
+     * @see HypoContext#getAffectedClasses()
+     */
+    public @NotNull ChangeRegistry completeAffectedMappings(
+        final @NotNull MappingSet mappings,
+        final @NotNull List<@NotNull ChangeContributor> contributors
+    ) throws HypoException {
+        return this.completeMappings(mappings, contributors, this.context.getAffectedClasses());
+    }
+
+    /**
+     * Run completion over the given {@link MappingSet} using the given list of
+     * {@link ChangeContributor change contributors}, only running the contributors for the given classes. This will
+     * return a {@link ChangeRegistry} which has all of the changes submitted from the given
+     * {@link ChangeContributor change contributors} ready to apply with {@link ChangeRegistry#applyChanges(MappingSet)}.
+     *
+     * @param mappings The {@link MappingSet} to complete.
+     * @param contributors The {@link ChangeContributor change contributors} to run against the mappings.
+     * @param classNames The names of the classes to run the contributors for, or {@code null} to run them for all
+     *                   classes.
+     * @return A {@link ChangeRegistry} filled in with the changes submitted by the given contributors.
+     * @throws HypoException If one of the {@link ChangeContributor change contributors} fails.
+     */
+    public @NotNull ChangeRegistry completeMappings(
+        final @NotNull MappingSet mappings,
+        final @NotNull List<@NotNull ChangeContributor> contributors,
+        final @Nullable Set<String> classNames
     ) throws HypoException {
         final ChangeContributor contrib = ChangeContributorSet.wrap(contributors);
         final ChangeRegistry registry = new ChangeRegistry(mappings);
@@ -105,10 +148,27 @@ public class MappingsCompletionManager {
         final ArrayList<Future<?>> futures = new ArrayList<>();
 
         for (final TopLevelClassMapping mapping : mappings.getTopLevelClassMappings()) {
-            this.complete(mapping, contrib, visitedClasses, executor, futures, registry);
+            this.complete(mapping, contrib, classNames, visitedClasses, executor, futures, registry);
         }
 
-        for (final ClassData classData : this.context.getProvider().allClasses()) {
+        final List<ClassData> allClasses;
+        try {
+            if (classNames == null) {
+                allClasses = this.context.getProvider().loadAll(executor);
+            } else {
+                allClasses = new ArrayList<>(classNames.size());
+                for (final String className : classNames) {
+                    final ClassData classData = this.context.getProvider().findClass(className);
+                    if (classData != null) {
+                        allClasses.add(classData);
+                    }
+                }
+            }
+        } catch (final IOException e) {
+            throw new HypoException("Error while loading classes", e);
+        }
+
+        for (final ClassData classData : allClasses) {
             if (visitedClasses.contains(classData.name())) {
                 continue;
             }
@@ -139,6 +199,7 @@ public class MappingsCompletionManager {
     private void complete(
         final @NotNull ClassMapping<?, ?> mappings,
         final @NotNull ChangeContributor contributor,
+        final @Nullable Set<String> classNames,
         final @NotNull HashSet<String> visitedClasses,
         final @NotNull ExecutorService executor,
         final @NotNull ArrayList<Future<?>> futures,
@@ -147,6 +208,13 @@ public class MappingsCompletionManager {
         final String className = mappings.getFullObfuscatedName();
         visitedClasses.add(className);
 
+        if (classNames != null && !classNames.contains(className)) {
+            for (final InnerClassMapping innerMapping : mappings.getInnerClassMappings()) {
+                this.complete(innerMapping, contributor, classNames, visitedClasses, executor, futures, registry);
+            }
+            return;
+        }
+
         futures.add(executor.submit((Callable<?>) () -> {
             final ClassData classData;
             try {
@@ -166,7 +234,7 @@ public class MappingsCompletionManager {
         }));
 
         for (final InnerClassMapping innerMapping : mappings.getInnerClassMappings()) {
-            this.complete(innerMapping, contributor, visitedClasses, executor, futures, registry);
+            this.complete(innerMapping, contributor, classNames, visitedClasses, executor, futures, registry);
         }
     }
 }
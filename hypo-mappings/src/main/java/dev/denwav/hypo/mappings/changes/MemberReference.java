@@ -55,6 +55,7 @@ public final class MemberReference {
     private final @NotNull String memberName;
     private final @Nullable String memberDesc;
     private final int index;
+    private final int hash;
 
     /**
      * Construct a new {@link MemberReference}.
@@ -72,6 +73,7 @@ public final class MemberReference {
         this.memberName = memberName;
         this.memberDesc = memberDesc;
         this.index = -1;
+        this.hash = Objects.hash(className, memberName, memberDesc, this.index);
     }
 
     /**
@@ -92,6 +94,7 @@ public final class MemberReference {
         this.memberName = memberName;
         this.memberDesc = memberDesc;
         this.index = index;
+        this.hash = Objects.hash(className, memberName, memberDesc, index);
     }
 
     /**
@@ -209,7 +212,8 @@ public final class MemberReference {
         if (this == o) return true;
         if (o == null || this.getClass() != o.getClass()) return false;
         final MemberReference that = (MemberReference) o;
-        return this.className.equals(that.className)
+        return this.hash == that.hash
+            && this.className.equals(that.className)
             && this.memberName.equals(that.memberName)
             && Objects.equals(this.memberDesc, that.memberDesc)
             && this.index == that.index;
@@ -217,7 +221,7 @@ public final class MemberReference {
 
     @Override
     public int hashCode() {
-        return Objects.hash(this.className, this.memberName, this.memberDesc, this.index);
+        return this.hash;
     }
 
     @Override
@@ -19,18 +19,32 @@
 package dev.denwav.hypo.model;
 
 import com.google.errorprone.annotations.ForOverride;
+import dev.denwav.hypo.model.data.AbstractClassData;
 import dev.denwav.hypo.model.data.ClassData;
 import dev.denwav.hypo.model.data.ClassKind;
 import dev.denwav.hypo.model.data.FieldData;
 import dev.denwav.hypo.model.data.HypoKey;
 import dev.denwav.hypo.model.data.MethodData;
+import dev.denwav.hypo.model.data.SubtypeIndex;
+import dev.denwav.hypo.model.data.SymbolTable;
 import dev.denwav.hypo.model.data.Visibility;
 import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 import org.jetbrains.annotations.Contract;
@@ -43,6 +57,10 @@ import org.jetbrains.annotations.Nullable;
  * {@link #parseClassData(byte[])}, this class implements all other requirements of {@link ClassDataProvider}, including
  * caching {@link ClassData} objects.
  *
+ * <p>By default every parsed class is cached until the provider is closed. If a {@link #setCacheBudget(long) cache
+ * budget} is set, only the most recently loaded classes are retained up to that budget, and all other classes are only
+ * retained for as long as something else references them.
+ *
  * <p>This is the standard method of implementing {@link ClassDataProvider} and automatically makes any implementations
  * based on this class compatible with any {@link ClassProviderRoot} implementations as well. It is, however, <i>not</i>
  * a requirement for classes which implement {@link ClassDataProvider} to extend this class.
@@ -58,14 +76,45 @@ public abstract class AbstractClassDataProvider implements ClassDataProvider {
      */
     private static final @NotNull ClassData NULL_DATA = createNullData();
 
+    /**
+     * The maximum number of classes from a single root which will be loaded in a single task in
+     * {@link #loadAll(ExecutorService)}.
+     */
+    private static final int LOAD_ALL_BATCH_SIZE = 128;
+
     /**
      * Cache which stores mappings between class names and their subsequent {@link ClassData}. {@link #NULL_DATA} is
      * used as a marker value for classes which cannot be found.
      *
+     * <p>Values are placeholder {@link LoadTask tasks} which are installed before the class is read and parsed, the
+     * actual work happens outside the map's lock. See {@link #load(String, HypoModelUtil.ThrowingFunction)}. When a
+     * {@link #setCacheBudget(long) cache budget} is set, the tasks are replaced with {@link CachedClass} entries once
+     * the class has been parsed.
+     *
      * <p>All class names should be normalized with {@link HypoModelUtil#normalizedClassName(String)} before being
      * passed to this map.
      */
-    private final @NotNull ConcurrentHashMap<String, ClassData> cache = new ConcurrentHashMap<>();
+    private final @NotNull ConcurrentHashMap<String, Future<ClassData>> cache = new ConcurrentHashMap<>();
+    /**
+     * The unfinished {@link LoadTask} each thread is currently waiting on, used to detect cycles of threads waiting on
+     * each other's classes. See {@link #checkWaitCycle(String, LoadTask)}.
+     */
+    private final @NotNull ConcurrentHashMap<Thread, LoadTask> waiting = new ConcurrentHashMap<>();
+    /**
+     * Classes which are strongly retained while a {@link #setCacheBudget(long) cache budget} is set, oldest first. All
+     * access must be synchronized on this object.
+     */
+    private final @NotNull ArrayDeque<CachedClass> retained = new ArrayDeque<>();
+    /**
+     * The sum of the {@link CachedClass#size sizes} of all classes in {@link #retained}. All access must be
+     * synchronized on {@link #retained}.
+     */
+    private long retainedSize = 0;
+    /**
+     * Queue of {@link CachedClass} entries whose class has been garbage collected, so the entries can be removed from
+     * {@link #cache}.
+     */
+    private final @NotNull ReferenceQueue<ClassData> evicted = new ReferenceQueue<>();
     /**
      * {@link ClassProviderRoot Roots} to use for discovering class file data.
      */
@@ -87,6 +136,14 @@ public abstract class AbstractClassDataProvider implements ClassDataProvider {
      * @see #isRequireFullClasspath()
      */
     private boolean isRequireFullClasspath = false;
+    /**
+     * @see #isSkipMethodBodies()
+     */
+    private boolean isSkipMethodBodies = false;
+    /**
+     * @see #getCacheBudget()
+     */
+    private long cacheBudget = -1;
 
     /**
      * Create a new {@link AbstractClassDataProvider} using the given {@link ClassProviderRoot root providers}.
@@ -122,6 +179,34 @@ public abstract class AbstractClassDataProvider implements ClassDataProvider {
         this.isRequireFullClasspath = requireFullClasspath;
     }
 
+    @Override
+    public boolean isSkipMethodBodies() {
+        return this.isSkipMethodBodies;
+    }
+
+    @Override
+    public void setSkipMethodBodies(boolean skipMethodBodies) {
+        this.isSkipMethodBodies = skipMethodBodies;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This implementation measures the size of each class by the size of its class file, which is proportional to,
+     * but smaller than, the amount of memory used by the parsed class. Classes which have hydration data stored on
+     * them or any of their members are always retained and do not count towards the budget. Only classes which extend
+     * {@link AbstractClassData} can be evicted, all other classes are always retained.
+     */
+    @Override
+    public void setCacheBudget(final long cacheBudget) {
+        this.cacheBudget = cacheBudget;
+    }
+
+    @Override
+    public long getCacheBudget() {
+        return this.cacheBudget;
+    }
+
     @Override
     @Contract("null -> null")
     public @Nullable ClassData findClass(final @Nullable String className) {
@@ -129,22 +214,108 @@ public abstract class AbstractClassDataProvider implements ClassDataProvider {
             return null;
         }
 
-        final ClassData result = this.cache.computeIfAbsent(this.normalize(className), k -> {
-            try {
-                final byte[] fileData = this.findFile(k + ".class");
-                if (fileData == null) {
-                    return NULL_DATA;
-                }
-
-                final ClassData res = this.parseClassData(fileData);
-                return res != null ? this.decorate(res) : NULL_DATA;
-            } catch (final IOException e) {
-                throw HypoModelUtil.rethrow(e);
+        final ClassData result = this.load(normalize(className), k -> {
+            final byte[] fileData = this.findFile(k + ".class");
+            if (fileData == null) {
+                return NULL_DATA;
             }
+            return this.parse(k, fileData);
         });
         return result != NULL_DATA ? result : null;
     }
 
+    /**
+     * Retrieve the cached {@link ClassData} for the given normalized class name, using {@code loader} to create it if
+     * it isn't present in the cache yet.
+     *
+     * <p>{@code loader} is never run while holding the lock of {@link #cache}. Instead, a placeholder task is installed
+     * for the class name first, and the thread which successfully installs it runs the loader. Any other threads which
+     * request the same class name in the meantime wait for that single task to complete, while requests for any other
+     * class names are not blocked at all. If the loader fails, the placeholder is removed so a later request may try
+     * again. Similarly, if the class has been evicted from the cache it is simply loaded again.
+     *
+     * <p>If the loader requests the class it is loading itself, or threads end up waiting on each other's unfinished
+     * classes, waiting would never end. Instead, an {@link IllegalStateException} is thrown in the thread which would
+     * complete the cycle.
+     *
+     * @param name The normalized class name.
+     * @param loader The function to read, parse and decorate the class if it isn't cached.
+     * @return The cached {@link ClassData}, or {@link #NULL_DATA} if the class could not be found.
+     * @throws IllegalStateException If waiting for the class would never end.
+     */
+    private @NotNull ClassData load(
+        final @NotNull String name,
+        final @NotNull HypoModelUtil.ThrowingFunction<String, ClassData, IOException> loader
+    ) {
+        while (true) {
+            Future<ClassData> entry = this.cache.get(name);
+            if (entry == null) {
+                final LoadTask task = new LoadTask(() -> loader.applyThrowing(name));
+                entry = this.cache.putIfAbsent(name, task);
+                if (entry == null) {
+                    entry = task;
+                    task.run();
+                }
+            } else if (entry instanceof LoadTask && !entry.isDone()) {
+                this.checkWaitCycle(name, (LoadTask) entry);
+            }
+
+            final ClassData result = this.await(name, entry);
+            if (result != null) {
+                return result;
+            }
+            // The class was evicted, drop the stale entry and load it again
+            this.cache.remove(name, entry);
+        }
+    }
+
+    /**
+     * Register the current thread as waiting on the given unfinished task, and throw if that would complete a cycle of
+     * threads waiting on each other. Each thread registers itself before checking, so of all the threads in a cycle at
+     * least the last one to register sees the whole cycle. The registration is removed again by
+     * {@link #await(String, Future)}.
+     */
+    private void checkWaitCycle(final @NotNull String name, final @NotNull LoadTask task) {
+        final Thread current = Thread.currentThread();
+        if (task.runner == current) {
+            throw new IllegalStateException("Recursive load of class " + name + " while it is being parsed");
+        }
+
+        this.waiting.put(current, task);
+        LoadTask next = task;
+        // Any cycle has at most one task per waiting thread, so this bounds the walk even if threads keep moving
+        for (int i = this.waiting.size(); i >= 0 && next != null && !next.isDone(); i--) {
+            if (next.runner == current) {
+                this.waiting.remove(current);
+                throw new IllegalStateException(
+                    "Cyclic load of class " + name + ", it is being parsed by a thread which waits on this thread"
+                );
+            }
+            next = this.waiting.get(next.runner);
+        }
+    }
+
+    private @Nullable ClassData await(final @NotNull String name, final @NotNull Future<ClassData> entry) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return entry.get();
+                } catch (final InterruptedException e) {
+                    interrupted = true;
+                } catch (final ExecutionException e) {
+                    this.cache.remove(name, entry);
+                    throw HypoModelUtil.rethrow(e.getCause());
+                }
+            }
+        } finally {
+            this.waiting.remove(Thread.currentThread(), entry);
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     private byte @Nullable [] findFile(final @NotNull String fileName) throws IOException {
         for (final ClassProviderRoot rootProvider : this.rootProviders) {
             final byte[] data = rootProvider.getClassData(fileName);
@@ -155,7 +326,26 @@ public abstract class AbstractClassDataProvider implements ClassDataProvider {
         return null;
     }
 
-    private @NotNull String normalize(final @NotNull String className) {
+    /**
+     * Normalize the given class or class file name into the format used as the key for cached classes. This strips any
+     * {@code .class} suffix and leading {@code /}, and runs the name through
+     * {@link HypoModelUtil#normalizedClassName(String)}. Names which are already normalized are returned as-is.
+     *
+     * @param className The class or class file name to normalize.
+     * @return The normalized class name.
+     */
+    static @NotNull String normalize(final @NotNull String className) {
+        final int length = className.length();
+        if (
+            length > 0
+                && className.charAt(0) != '/'
+                && className.charAt(length - 1) != ';'
+                && className.indexOf('.') == -1
+        ) {
+            // Internal names, by far the most common input, need none of the steps below. A .class suffix contains a '.'
+            return className;
+        }
+
         String fullClassName = className.endsWith(".class") ? className.substring(0, className.length() - 6) : className;
         fullClassName = HypoModelUtil.normalizedClassName(fullClassName);
         if (fullClassName.startsWith("/")) {
@@ -169,17 +359,126 @@ public abstract class AbstractClassDataProvider implements ClassDataProvider {
     public @NotNull Stream<ClassData> stream() throws IOException {
         return this.rootProviders.stream()
             .flatMap(HypoModelUtil.wrapFunction(r -> r.getAllClasses().stream()))
-            .map(ref -> this.cache.computeIfAbsent(
-                this.normalize(ref.name()),
-                HypoModelUtil.wrapFunction(k -> {
-                    final byte[] rawData = ref.readData();
-                    if (rawData == null) {
-                        return NULL_DATA;
+            .map(this::load)
+            .filter(c -> c != NULL_DATA);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This implementation splits the classes of each {@link ClassProviderRoot root} into batches of consecutive
+     * entries and loads each batch as a separate task on the given {@link ExecutorService}. Classes are cached exactly
+     * as they are with {@link #findClass(String)} and {@link #stream()}.
+     */
+    @Override
+    public @NotNull List<ClassData> loadAll(final @NotNull ExecutorService executor) throws IOException {
+        final ArrayList<Future<List<ClassData>>> futures = new ArrayList<>();
+        for (final ClassProviderRoot root : this.rootProviders) {
+            final List<? extends ClassProviderRoot.FileDataReference> refs = root.getAllClasses();
+            for (int start = 0; start < refs.size(); start += LOAD_ALL_BATCH_SIZE) {
+                final List<? extends ClassProviderRoot.FileDataReference> batch =
+                    refs.subList(start, Math.min(refs.size(), start + LOAD_ALL_BATCH_SIZE));
+                futures.add(executor.submit((Callable<List<ClassData>>) () -> {
+                    final ArrayList<ClassData> loaded = new ArrayList<>(batch.size());
+                    for (final ClassProviderRoot.FileDataReference ref : batch) {
+                        final ClassData classData = this.load(ref);
+                        if (classData != NULL_DATA) {
+                            loaded.add(classData);
+                        }
                     }
-                    final ClassData result = this.parseClassData(rawData);
-                    return result != null ? this.decorate(result) : NULL_DATA;
-                })
-            ));
+                    return loaded;
+                }));
+            }
+        }
+
+        final ArrayList<ClassData> result = new ArrayList<>();
+        for (final Future<List<ClassData>> future : futures) {
+            try {
+                result.addAll(future.get());
+            } catch (final ExecutionException e) {
+                throw HypoModelUtil.rethrow(e.getCause());
+            } catch (final InterruptedException e) {
+                throw HypoModelUtil.rethrow(e);
+            }
+        }
+        return result;
+    }
+
+    private @NotNull ClassData load(final @NotNull ClassProviderRoot.FileDataReference ref) {
+        return this.load(normalize(ref.name()), k -> {
+            final byte[] rawData = ref.readData();
+            if (rawData == null) {
+                return NULL_DATA;
+            }
+            return this.parse(k, rawData);
+        });
+    }
+
+    private @NotNull ClassData parse(final @NotNull String name, final byte @NotNull [] file) throws IOException {
+        final ClassData classData = this.parseClassData(name, file);
+        if (classData == null) {
+            return NULL_DATA;
+        }
+
+        this.decorate(classData);
+        if (this.cacheBudget >= 0 && classData instanceof AbstractClassData) {
+            this.retain(name, (AbstractClassData) classData, file.length);
+        }
+        return classData;
+    }
+
+    /**
+     * Replace the placeholder task for the given newly parsed class with an evictable {@link CachedClass} entry, and
+     * retain it until more recently loaded classes exceed the {@link #setCacheBudget(long) cache budget}. Threads
+     * already waiting on the placeholder task will still receive the class from the task itself.
+     *
+     * @param name The normalized class name.
+     * @param classData The newly parsed and decorated class.
+     * @param size The size of the class file the class was parsed from.
+     */
+    private void retain(final @NotNull String name, final @NotNull AbstractClassData classData, final int size) {
+        this.removeEvicted();
+
+        final CachedClass cached = new CachedClass(name, classData, size, this.evicted);
+        classData.setDataStoredListener(cached::pin);
+        this.cache.put(name, cached);
+
+        synchronized (this.retained) {
+            this.retained.addLast(cached);
+            this.retainedSize += size;
+            while (this.retainedSize > this.cacheBudget && !this.retained.isEmpty()) {
+                final CachedClass oldest = this.retained.removeFirst();
+                this.retainedSize -= oldest.size;
+                oldest.release();
+            }
+        }
+    }
+
+    /**
+     * Remove the {@link #cache} entries of all classes which have been garbage collected.
+     */
+    private void removeEvicted() {
+        Reference<? extends ClassData> ref;
+        while ((ref = this.evicted.poll()) != null) {
+            final CachedClass stale = (CachedClass) ref;
+            this.cache.remove(stale.name, stale);
+        }
+    }
+
+    /**
+     * Drop the given class from the cache as if it had been garbage collected, if the cache only weakly references it.
+     * This allows tests to check eviction without depending on when the garbage collector runs.
+     *
+     * @param className The name of the class to collect.
+     * @return {@code true} if the class was dropped from the cache.
+     */
+    boolean collect(final @NotNull String className) {
+        final Future<ClassData> entry = this.cache.get(normalize(className));
+        if (!(entry instanceof CachedClass) || !((CachedClass) entry).collect()) {
+            return false;
+        }
+        this.removeEvicted();
+        return true;
     }
 
     /**
@@ -191,6 +490,9 @@ public abstract class AbstractClassDataProvider implements ClassDataProvider {
      * </p><p>
      * This method should also not be concerned with decorating the parsed class data using {@link #decorator}, the base
      * implementation will also handle that.
+     * </p><p>
+     * Implementations which support {@link #setSkipMethodBodies(boolean) skipping method bodies} should check
+     * {@link #isSkipMethodBodies()} to determine how to parse the class.
      * </p>
      *
      * @param file The raw binary data of the file to parse.
@@ -200,6 +502,26 @@ public abstract class AbstractClassDataProvider implements ClassDataProvider {
     @ForOverride
     protected abstract @Nullable ClassData parseClassData(final byte @NotNull [] file) throws IOException;
 
+    /**
+     * Given the name of a class and the data of its file, parse it into a new {@link ClassData} object. This is what
+     * this class calls to parse classes. The default implementation simply calls {@link #parseClassData(byte[])},
+     * implementations only need to override it if they need the class name, for example to read the file again from a
+     * different source if the given data turns out not to be usable.
+     *
+     * @param className The normalized name of the class.
+     * @param file The raw binary data of the file to parse.
+     * @return A new instance of {@link ClassData} corresponding to the given class file data.
+     * @throws IOException If an IO error occurs while parsing the class file.
+     * @see #parseClassData(byte[])
+     */
+    @ForOverride
+    protected @Nullable ClassData parseClassData(
+        final @NotNull String className,
+        final byte @NotNull [] file
+    ) throws IOException {
+        return this.parseClassData(file);
+    }
+
     @Contract("_ -> param1")
     private @NotNull ClassData decorate(final @NotNull ClassData classData) {
         if (this.decorator == null) {
@@ -236,6 +558,103 @@ public abstract class AbstractClassDataProvider implements ClassDataProvider {
         return this.rootProviders;
     }
 
+    /**
+     * Placeholder {@link #cache} entry for a class which is being loaded. The thread which creates the task is the only
+     * one to run it, so it is remembered to detect cycles of threads waiting on classes they are loading themselves.
+     */
+    private static final class LoadTask extends FutureTask<ClassData> {
+
+        private final @NotNull Thread runner = Thread.currentThread();
+
+        LoadTask(final @NotNull Callable<ClassData> callable) {
+            super(callable);
+        }
+    }
+
+    /**
+     * Evictable {@link #cache} entry for a class parsed while a {@link #setCacheBudget(long) cache budget} is set. The
+     * class is strongly referenced while it is in {@link #retained}, or once it has been {@link #pin() pinned}.
+     * Otherwise it is only weakly referenced, and {@link #get()} will return {@code null} once it has been garbage
+     * collected.
+     */
+    private static final class CachedClass extends WeakReference<ClassData> implements Future<ClassData> {
+
+        private final @NotNull String name;
+        private final int size;
+
+        private volatile boolean pinned = false;
+        /**
+         * Strong reference to the class, or {@code null} if it is only weakly referenced. All access must be
+         * synchronized on {@code this}.
+         */
+        private @Nullable ClassData strongRef;
+
+        CachedClass(
+            final @NotNull String name,
+            final @NotNull ClassData classData,
+            final int size,
+            final @NotNull ReferenceQueue<ClassData> queue
+        ) {
+            super(classData, queue);
+            this.name = name;
+            this.size = size;
+            this.strongRef = classData;
+        }
+
+        /**
+         * Permanently retain the class, as hydration data has been stored on it.
+         */
+        void pin() {
+            if (this.pinned) {
+                return;
+            }
+            synchronized (this) {
+                this.pinned = true;
+                if (this.strongRef == null) {
+                    this.strongRef = this.get();
+                }
+            }
+        }
+
+        /**
+         * Drop the strong reference to the class, unless it has been {@link #pin() pinned}.
+         */
+        synchronized void release() {
+            if (!this.pinned) {
+                this.strongRef = null;
+            }
+        }
+
+        /**
+         * Clear and enqueue this reference like the garbage collector would, unless the class is strongly referenced.
+         *
+         * @return {@code true} if this reference was cleared.
+         */
+        synchronized boolean collect() {
+            return this.strongRef == null && this.enqueue();
+        }
+
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            return false;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public boolean isDone() {
+            return true;
+        }
+
+        @Override
+        public @Nullable ClassData get(final long timeout, final @NotNull TimeUnit unit) {
+            return this.get();
+        }
+    }
+
     private static @NotNull ClassData createNullData() {
         return new ClassData() {
             @Override
@@ -343,6 +762,16 @@ public abstract class AbstractClassDataProvider implements ClassDataProvider {
                 throw new IllegalStateException();
             }
 
+            @Override
+            public @Nullable SubtypeIndex.Node subtypeNode() {
+                throw new IllegalStateException();
+            }
+
+            @Override
+            public void setSubtypeNode(final @Nullable SubtypeIndex.Node node) {
+                throw new IllegalStateException();
+            }
+
             @Override
             public <T> @Nullable T store(@NotNull HypoKey<T> key, @Nullable T t) {
                 throw new IllegalStateException();
@@ -362,6 +791,31 @@ public abstract class AbstractClassDataProvider implements ClassDataProvider {
             public boolean contains(@NotNull HypoKey<?> key) {
                 throw new IllegalStateException();
             }
+
+            @Override
+            public int id() {
+                throw new IllegalStateException();
+            }
+
+            @Override
+            public @Nullable SymbolTable symbolTable() {
+                throw new IllegalStateException();
+            }
+
+            @Override
+            public void setSymbolTable(final @NotNull SymbolTable table, final int id) {
+                throw new IllegalStateException();
+            }
+
+            @Override
+            public void freeze() {
+                throw new IllegalStateException();
+            }
+
+            @Override
+            public boolean isFrozen() {
+                throw new IllegalStateException();
+            }
         };
     }
 }
@@ -23,6 +23,9 @@ import dev.denwav.hypo.model.data.types.ClassType;
 import dev.denwav.hypo.model.data.types.JvmType;
 import java.io.IOException;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
@@ -101,6 +104,55 @@ public interface ClassDataProvider extends AutoCloseable {
      */
     boolean isRequireFullClasspath();
 
+    /**
+     * Set {@code true} if this provider should skip parsing method bodies when it first parses classes, retaining only
+     * the parts of the class file needed for the model itself: names, flags, super types, member signatures and inner
+     * class attributes. This can greatly reduce both parse time and memory usage for classes whose code is never
+     * inspected, such as classes from context providers. Implementations which support this must load method bodies
+     * automatically when they are requested, so skipping them is never visible to consumers of the model.
+     *
+     * <p>This must be set before any classes are retrieved from this provider. The default implementation ignores
+     * this setting.
+     *
+     * @param skipMethodBodies {@code true} if method bodies should not be parsed until they are needed.
+     */
+    default void setSkipMethodBodies(final boolean skipMethodBodies) {}
+
+    /**
+     * Get whether this provider skips parsing method bodies until they are needed.
+     *
+     * @return {@code true} if this provider skips parsing method bodies until they are needed.
+     * @see #setSkipMethodBodies(boolean)
+     */
+    default boolean isSkipMethodBodies() {
+        return false;
+    }
+
+    /**
+     * Set the approximate amount of memory, in bytes, this provider should use to retain parsed classes which nothing
+     * else references. Classes beyond this budget which are no longer referenced anywhere else may be evicted from
+     * this provider's cache, and will be parsed again if they are requested again. Classes which have hydration data
+     * stored on them are never evicted. A negative value means the cache is unbounded, which is the default.
+     *
+     * <p>This is only suitable for providers whose classes are not expected to be modified outside of hydration, such
+     * as context providers. It must be set before any classes are retrieved from this provider. The default
+     * implementation ignores this setting.
+     *
+     * @param cacheBudget The approximate cache budget in bytes, or a negative value for an unbounded cache.
+     */
+    default void setCacheBudget(final long cacheBudget) {}
+
+    /**
+     * Get the approximate amount of memory, in bytes, this provider uses to retain parsed classes which nothing else
+     * references.
+     *
+     * @return The approximate cache budget in bytes, or a negative value if the cache is unbounded.
+     * @see #setCacheBudget(long)
+     */
+    default long getCacheBudget() {
+        return -1;
+    }
+
     /**
      * Return the {@link ClassData} object corresponding with the given class name, if it can be found. This method
      * will always return the same instance of {@link ClassData} for a given name such that the following returns
@@ -204,6 +256,31 @@ public interface ClassDataProvider extends AutoCloseable {
      */
     @NotNull Stream<ClassData> stream() throws IOException;
 
+    /**
+     * Load all classes available in this provider, using the given {@link ExecutorService} to read and parse classes
+     * concurrently, and return them. This is the eager, parallel counterpart to {@link #stream()}, and is preferable
+     * when every class is going to be loaded anyway, such as before hydration.
+     *
+     * <p>Classes loaded by this method will also satisfy the identity requirement of this provider. That means classes
+     * returned by this method will be the same instances as classes requested by the {@link #findClass(String)} method
+     * when requesting the same class name.
+     *
+     * <p>This method blocks until all classes have been loaded, so it must not be called from a task running on the
+     * given {@link ExecutorService}.
+     *
+     * <p>The default implementation simply collects {@link #stream()} on the calling thread and ignores the given
+     * {@link ExecutorService}.
+     *
+     * @param executor The {@link ExecutorService} to use for loading classes.
+     * @return A list of all classes available in this provider.
+     * @throws IOException If an IO error occurs while reading the classes.
+     */
+    default @NotNull List<ClassData> loadAll(final @NotNull ExecutorService executor) throws IOException {
+        try (final Stream<ClassData> stream = this.stream()) {
+            return stream.collect(Collectors.toList());
+        }
+    }
+
     /**
      * Returns the collection of {@link ClassProviderRoot roots} used by this provider.
      *
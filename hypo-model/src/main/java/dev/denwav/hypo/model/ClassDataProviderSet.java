@@ -20,8 +20,12 @@ package dev.denwav.hypo.model;
 
 import dev.denwav.hypo.model.data.ClassData;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.jetbrains.annotations.Contract;
@@ -32,13 +36,37 @@ import org.jetbrains.annotations.Nullable;
  * A {@link ClassDataProvider} which wraps multiple providers. This class simple delegates all work to the collection
  * of providers passed to {@link #wrap(Collection)}. This provider closes all wrapped providers when its
  * {@link #close()} method is subsequently called.
+ *
+ * <p>Wrapped providers are asked for classes in order. To avoid asking providers for classes they don't contain, each
+ * provider which extends {@link AbstractClassDataProvider} and only has {@link ClassProviderRoot#isImmutable()
+ * immutable} roots gets an index of the class names it contains, built the first time it could be skipped. Lookups of
+ * classes which are not in the index skip that provider. Providers with roots whose files can change, such as
+ * directories, are always asked directly, so classes added to them later are still found. The last provider is never
+ * indexed, as it is only asked once every other provider failed to find the class, and it already remembers which
+ * classes it doesn't contain.
  */
 public class ClassDataProviderSet implements ClassDataProvider {
 
     private final @NotNull List<? extends @NotNull ClassDataProvider> delegateProviders;
 
+    /**
+     * Index of the class names each wrapped provider contains, in the same order as {@link #delegateProviders}, or
+     * {@code null} for providers which can't be indexed.
+     */
+    private final @Nullable ProviderIndex @NotNull [] indexes;
+
     private ClassDataProviderSet(final @NotNull List<? extends @NotNull ClassDataProvider> delegateProviders) {
         this.delegateProviders = delegateProviders;
+        this.indexes = new ProviderIndex[delegateProviders.size()];
+        for (int i = 0; i < this.indexes.length - 1; i++) {
+            final ClassDataProvider prov = delegateProviders.get(i);
+            if (
+                prov instanceof AbstractClassDataProvider
+                    && prov.roots().stream().allMatch(ClassProviderRoot::isImmutable)
+            ) {
+                this.indexes[i] = new ProviderIndex(prov);
+            }
+        }
     }
 
     /**
@@ -55,6 +83,15 @@ public class ClassDataProviderSet implements ClassDataProvider {
         return new ClassDataProviderSet(List.copyOf(providers));
     }
 
+    /**
+     * Returns the providers wrapped by this set, in the order they were given to {@link #wrap(Collection)}.
+     *
+     * @return The unmodifiable list of providers wrapped by this set.
+     */
+    public @NotNull List<? extends @NotNull ClassDataProvider> getDelegateProviders() {
+        return this.delegateProviders;
+    }
+
     @Override
     public void setDecorator(final @NotNull ClassDataDecorator decorator) {
         for (final ClassDataProvider prov : this.delegateProviders) {
@@ -94,11 +131,61 @@ public class ClassDataProviderSet implements ClassDataProvider {
         return isRequireFullClasspath;
     }
 
+    @Override
+    public void setSkipMethodBodies(boolean skipMethodBodies) {
+        for (final ClassDataProvider delegateProvider : this.delegateProviders) {
+            delegateProvider.setSkipMethodBodies(skipMethodBodies);
+        }
+    }
+
+    @Override
+    public boolean isSkipMethodBodies() {
+        boolean isSkipMethodBodies = false;
+        for (final ClassDataProvider delegateProvider : this.delegateProviders) {
+            isSkipMethodBodies |= delegateProvider.isSkipMethodBodies();
+        }
+        return isSkipMethodBodies;
+    }
+
+    @Override
+    public void setCacheBudget(final long cacheBudget) {
+        for (final ClassDataProvider delegateProvider : this.delegateProviders) {
+            delegateProvider.setCacheBudget(cacheBudget);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This returns the sum of the budgets of all delegate providers, or {@code -1} if any of them are unbounded.
+     */
+    @Override
+    public long getCacheBudget() {
+        long cacheBudget = 0;
+        for (final ClassDataProvider delegateProvider : this.delegateProviders) {
+            final long delegateBudget = delegateProvider.getCacheBudget();
+            if (delegateBudget < 0) {
+                return -1;
+            }
+            cacheBudget += delegateBudget;
+        }
+        return cacheBudget;
+    }
+
     @Override
     @Contract("null -> null")
     public @Nullable ClassData findClass(final @Nullable String className) throws IOException {
-        for (final ClassDataProvider prov : this.delegateProviders) {
-            final ClassData data = prov.findClass(className);
+        if (className == null) {
+            return null;
+        }
+
+        final String normalized = AbstractClassDataProvider.normalize(className);
+        for (int i = 0; i < this.delegateProviders.size(); i++) {
+            final ProviderIndex index = this.indexes[i];
+            if (index != null && !index.contains(normalized)) {
+                continue;
+            }
+            final ClassData data = this.delegateProviders.get(i).findClass(className);
             if (data != null) {
                 return data;
             }
@@ -111,6 +198,15 @@ public class ClassDataProviderSet implements ClassDataProvider {
         return this.delegateProviders.stream().flatMap(HypoModelUtil.wrapFunction(ClassDataProvider::stream));
     }
 
+    @Override
+    public @NotNull List<ClassData> loadAll(final @NotNull ExecutorService executor) throws IOException {
+        final ArrayList<ClassData> result = new ArrayList<>();
+        for (final ClassDataProvider prov : this.delegateProviders) {
+            result.addAll(prov.loadAll(executor));
+        }
+        return result;
+    }
+
     @Override
     public void close() throws IOException {
         IOException thrown = null;
@@ -133,4 +229,52 @@ public class ClassDataProviderSet implements ClassDataProvider {
             .flatMap(p -> p.roots().stream())
             .collect(Collectors.toList());
     }
+
+    /**
+     * Index of the class names a single wrapped provider contains, built from the provider's roots on first use.
+     */
+    private static final class ProviderIndex {
+
+        private final @NotNull ClassDataProvider provider;
+        private volatile @Nullable Set<String> classNames = null;
+
+        /**
+         * Constructor for {@link ProviderIndex}.
+         *
+         * @param provider The provider to index, all of its roots must be immutable.
+         */
+        ProviderIndex(final @NotNull ClassDataProvider provider) {
+            this.provider = provider;
+        }
+
+        /**
+         * Returns {@code true} if the indexed provider contains the given class.
+         *
+         * @param className The normalized class name.
+         * @return {@code true} if the indexed provider contains the given class.
+         * @throws IOException If an IO error occurs while building the index.
+         */
+        boolean contains(final @NotNull String className) throws IOException {
+            Set<String> names = this.classNames;
+            if (names == null) {
+                names = this.build();
+            }
+            return names.contains(className);
+        }
+
+        private synchronized @NotNull Set<String> build() throws IOException {
+            Set<String> names = this.classNames;
+            if (names != null) {
+                return names;
+            }
+            names = new HashSet<>();
+            for (final ClassProviderRoot root : this.provider.roots()) {
+                for (final ClassProviderRoot.FileDataReference ref : root.getAllClasses()) {
+                    names.add(AbstractClassDataProvider.normalize(ref.name()));
+                }
+            }
+            this.classNames = names;
+            return names;
+        }
+    }
 }
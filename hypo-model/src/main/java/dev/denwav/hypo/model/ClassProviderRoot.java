@@ -53,7 +53,7 @@ import org.jetbrains.annotations.Nullable;
  *
  * <ol>
  *     <li>{@link #fromDir(Path) Directory-based roots}</li>
- *     <li>{@link #fromJar(Path) Jar-based roots}</li>
+ *     <li>{@link #fromJar(Path) Jar-based roots}, optionally {@link #fromJarIndexed(Path) indexed}</li>
  *     <li>{@link #ofJdk() The system JDK root}</li>
  * </ol>
  *
@@ -101,6 +101,34 @@ public interface ClassProviderRoot extends AutoCloseable {
         return Stream.of();
     }
 
+    /**
+     * Returns a key which identifies the exact contents of this root, suitable for keying persistent caches of data
+     * derived from the class files in this root. Any two roots which return the same key must provide identical class
+     * files. The key only contains characters which are safe to use in a file name.
+     *
+     * <p>Returns {@code null} if this root cannot identify its contents, in which case data from this root should not
+     * be cached. The default implementation returns {@code null}.
+     *
+     * @return A key which identifies the exact contents of this root, or {@code null} if it cannot be identified.
+     * @throws IOException If an IO error occurs while computing the key.
+     */
+    default @Nullable String contentKey() throws IOException {
+        return null;
+    }
+
+    /**
+     * Returns {@code true} if the set of files in this root can't change while it is open, so the result of
+     * {@link #getAllClasses()} stays accurate and may be indexed. Jar files and the system image are immutable, while
+     * files may be added to or removed from a directory at any time.
+     *
+     * <p>The default implementation returns {@code false}, which is always safe.
+     *
+     * @return {@code true} if the set of files in this root never changes.
+     */
+    default boolean isImmutable() {
+        return false;
+    }
+
     @Override
     void close() throws IOException;
 
@@ -171,6 +199,40 @@ public interface ClassProviderRoot extends AutoCloseable {
         return Arrays.asList(roots);
     }
 
+    /**
+     * Create a new root from the given jar file which reads the jar's central directory once up front and serves all
+     * class data from positional reads of a single shared file handle, rather than opening a zip file system like
+     * {@link #fromJar(Path)} does. This is generally much faster for large jar files, particularly when classes are
+     * read concurrently from multiple threads.
+     *
+     * <p>The jar file must not be modified while the returned root is open.
+     *
+     * @param path The {@link Path path} to use as the jar file.
+     * @return A new indexed root for the given jar file.
+     * @throws IOException If an IO error occurs while trying to open the jar file or read its central directory.
+     * @see IndexedJarClassProviderRoot
+     */
+    static @NotNull ClassProviderRoot fromJarIndexed(final @NotNull Path path) throws IOException {
+        return new IndexedJarClassProviderRoot(path);
+    }
+
+    /**
+     * Create multiple indexed roots from multiple jars. This method is simply a convenience method for creating
+     * multiple roots individually with {@link #fromJarIndexed(Path)}.
+     *
+     * @param paths An array of {@link Path paths} to use as jars for multiple roots.
+     * @return A new list of indexed roots corresponding to the array of jars.
+     * @throws IOException If an IO error occurs while trying to read one of the jar files.
+     */
+    @SuppressWarnings("resource")
+    static @NotNull List<@NotNull ClassProviderRoot> fromJarsIndexed(final @NotNull Path @NotNull ... paths) throws IOException {
+        final ClassProviderRoot[] roots = new ClassProviderRoot[paths.length];
+        for (int i = 0; i < paths.length; i++) {
+            roots[i] = new IndexedJarClassProviderRoot(paths[i]);
+        }
+        return Arrays.asList(roots);
+    }
+
     /**
      * A reference to a class file, with the ability to later load the data for the referenced class via the
      * {@link #readData()} method.
@@ -196,5 +258,23 @@ public interface ClassProviderRoot extends AutoCloseable {
          * @throws IOException If an IO error occurs while reading the file.
          */
         byte @Nullable [] readData() throws IOException;
+
+        /**
+         * Returns a fingerprint of the referenced file's contents, which can be compared with the fingerprint of the
+         * same file from a previous run to cheaply detect whether the file changed. The fingerprint contains the size of
+         * the file and its CRC-32 checksum, as defined by {@link HypoModelUtil#fingerprint(byte[])}. Different files
+         * are extremely unlikely, but not guaranteed, to have different fingerprints.
+         *
+         * <p>The default implementation reads the file with {@link #readData()} and computes the fingerprint from it.
+         * Implementations which already know the size and checksum of the file, such as from the central directory of
+         * a jar file, should return those instead. Returns {@code 0} if the file no longer exists.
+         *
+         * @return The fingerprint of the referenced file.
+         * @throws IOException If an IO error occurs while reading the file.
+         */
+        default long fingerprint() throws IOException {
+            final byte[] data = this.readData();
+            return data == null ? 0 : HypoModelUtil.fingerprint(data);
+        }
     }
 }
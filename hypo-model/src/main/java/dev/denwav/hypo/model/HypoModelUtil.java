@@ -18,8 +18,15 @@
 
 package dev.denwav.hypo.model;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.zip.CRC32;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -39,12 +46,17 @@ public final class HypoModelUtil {
      *
      * <p>This method does not validate the format of the class name provided, it simply runs a couple standard String
      * functions on it to help increase cache-hit rate and reduce the likelihood of a class name in a slightly different
-     * format causing issues.
+     * format causing issues. Names which are already in the internal format are returned as-is without allocating.
      *
      * @param className The class name to normalize.
      * @return The normalized class name.
      */
     public static @NotNull String normalizedClassName(final @NotNull String className) {
+        final int length = className.length();
+        if (length == 0 || (className.charAt(length - 1) != ';' && className.indexOf('.') == -1)) {
+            // Already in the internal format, which is the case for nearly every call
+            return className;
+        }
         final int index = className.endsWith(";") ? 1 : 0;
         return className.substring(index, className.length() - index).replace('.', '/');
     }
@@ -193,6 +205,84 @@ public final class HypoModelUtil {
         return base;
     }
 
+    /**
+     * Compute the SHA-256 hash of the given data and return it as a lowercase hex string.
+     *
+     * @param data The data to hash.
+     * @return The SHA-256 hash of the given data as a lowercase hex string.
+     */
+    public static @NotNull String sha256(final byte @NotNull [] data) {
+        final MessageDigest digest = sha256Digest();
+        digest.update(data);
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Compute the SHA-256 hash of the contents of the given file and return it as a lowercase hex string.
+     *
+     * @param file The file to hash.
+     * @return The SHA-256 hash of the file's contents as a lowercase hex string.
+     * @throws IOException If an IO error occurs while reading the file.
+     */
+    public static @NotNull String sha256(final @NotNull Path file) throws IOException {
+        final MessageDigest digest = sha256Digest();
+        final byte[] buffer = new byte[8192];
+        try (final InputStream input = Files.newInputStream(file)) {
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Compute the fingerprint of the given file data, as returned by
+     * {@link ClassProviderRoot.FileDataReference#fingerprint()}. The fingerprint is the size of the data in the upper
+     * 32 bits and the CRC-32 checksum of the data in the lower 32 bits, which matches the values stored for each entry
+     * in a zip file's central directory.
+     *
+     * @param data The data to fingerprint.
+     * @return The fingerprint of the given data.
+     */
+    public static long fingerprint(final byte @NotNull [] data) {
+        final CRC32 crc = new CRC32();
+        crc.update(data);
+        return fingerprint(data.length, crc.getValue());
+    }
+
+    /**
+     * Combine the given size and CRC-32 checksum into a fingerprint, as returned by
+     * {@link ClassProviderRoot.FileDataReference#fingerprint()}.
+     *
+     * @param size The size of the data.
+     * @param crc The CRC-32 checksum of the data.
+     * @return The fingerprint for the given size and checksum.
+     * @see #fingerprint(byte[])
+     */
+    public static long fingerprint(final long size, final long crc) {
+        return (size << 32) | (crc & 0xFFFFFFFFL);
+    }
+
+    private static @NotNull MessageDigest sha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static @NotNull String toHex(final byte @NotNull [] bytes) {
+        final char[] digits = "0123456789abcdef".toCharArray();
+        final char[] result = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            result[i * 2] = digits[(bytes[i] >> 4) & 0xF];
+            result[i * 2 + 1] = digits[bytes[i] & 0xF];
+        }
+        return new String(result);
+    }
+
     /**
      * Version of {@link Function} which allows throwing checked exception inside the method implementation. When the
      * {@link Function#apply(Object)} method is invoked it will call {@link #applyThrowing(Object)}, rethrowing any
@@ -0,0 +1,405 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.model;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * {@link ClassProviderRoot} implementation for jar files which reads the zip central directory once into an index and
+ * serves all lookups with positional reads from a single shared {@link FileChannel}. Create instances of this class
+ * with {@link ClassProviderRoot#fromJarIndexed(Path)} or {@link ClassProviderRoot#fromJarsIndexed(Path...)}.
+ *
+ * <p>Unlike {@link JarClassProviderRoot} this root does not open a zip {@link java.nio.file.FileSystem FileSystem}, so
+ * lookups don't pay for path resolution or the locking done by the zip file system. Positional reads on a
+ * {@link FileChannel} don't modify the channel's position, so this root is safe to be accessed by multiple threads
+ * concurrently without any additional synchronization.
+ *
+ * <p>Only {@code STORED} and {@code DEFLATED} entries are supported, which covers any jar file written by standard
+ * tooling. The jar file is assumed to not change while this root is open.
+ */
+public final class IndexedJarClassProviderRoot implements ClassProviderRoot {
+
+    private static final int LOCAL_HEADER_SIG = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIG = 0x02014b50;
+    private static final int END_HEADER_SIG = 0x06054b50;
+    private static final int ZIP64_END_HEADER_SIG = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIG = 0x07064b50;
+
+    private static final int LOCAL_HEADER_SIZE = 30;
+    private static final int CENTRAL_HEADER_SIZE = 46;
+    private static final int END_HEADER_SIZE = 22;
+    private static final int ZIP64_LOCATOR_SIZE = 20;
+    private static final int ZIP64_END_HEADER_SIZE = 56;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+
+    private static final int METHOD_STORED = 0;
+    private static final int METHOD_DEFLATED = 8;
+
+    private final @NotNull Path jarFile;
+    private final @NotNull FileChannel channel;
+
+    /**
+     * Index of entry names to their position in the entry arrays below.
+     */
+    private final @NotNull HashMap<String, Integer> index;
+    private final @NotNull String @NotNull [] names;
+    private final long @NotNull [] headerOffsets;
+    private final int @NotNull [] compressedSizes;
+    private final int @NotNull [] sizes;
+    private final int @NotNull [] crcs;
+    private final byte @NotNull [] methods;
+
+    /**
+     * Constructor for {@link IndexedJarClassProviderRoot}. Use {@link ClassProviderRoot#fromJarIndexed(Path)} instead.
+     *
+     * @param jarFile The jar file for this root.
+     * @throws IOException If an IO error occurs while opening the jar file or reading its central directory.
+     */
+    IndexedJarClassProviderRoot(final @NotNull Path jarFile) throws IOException {
+        this.jarFile = jarFile;
+        this.channel = FileChannel.open(jarFile, StandardOpenOption.READ);
+
+        try {
+            final ByteBuffer centralDir = this.readCentralDirectory();
+            final ArrayList<String> entryNames = new ArrayList<>();
+            final ArrayList<long[]> entryData = new ArrayList<>();
+
+            while (centralDir.remaining() >= CENTRAL_HEADER_SIZE) {
+                final int pos = centralDir.position();
+                if (centralDir.getInt(pos) != CENTRAL_HEADER_SIG) {
+                    throw new ZipException("Invalid central directory header in " + jarFile);
+                }
+                final int method = Short.toUnsignedInt(centralDir.getShort(pos + 10));
+                final int crc = centralDir.getInt(pos + 16);
+                long compressedSize = Integer.toUnsignedLong(centralDir.getInt(pos + 20));
+                long size = Integer.toUnsignedLong(centralDir.getInt(pos + 24));
+                final int nameLen = Short.toUnsignedInt(centralDir.getShort(pos + 28));
+                final int extraLen = Short.toUnsignedInt(centralDir.getShort(pos + 30));
+                final int commentLen = Short.toUnsignedInt(centralDir.getShort(pos + 32));
+                long headerOffset = Integer.toUnsignedLong(centralDir.getInt(pos + 42));
+
+                final byte[] nameBytes = new byte[nameLen];
+                centralDir.position(pos + CENTRAL_HEADER_SIZE);
+                centralDir.get(nameBytes);
+                final String name = new String(nameBytes, StandardCharsets.UTF_8);
+
+                if (size == ZIP64_MAGIC || compressedSize == ZIP64_MAGIC || headerOffset == ZIP64_MAGIC) {
+                    // Zip64 extra fields are only present for values which overflowed, in this fixed order
+                    int extraPos = pos + CENTRAL_HEADER_SIZE + nameLen;
+                    final int extraEnd = extraPos + extraLen;
+                    while (extraPos + 4 <= extraEnd) {
+                        final int id = Short.toUnsignedInt(centralDir.getShort(extraPos));
+                        final int len = Short.toUnsignedInt(centralDir.getShort(extraPos + 2));
+                        if (id == ZIP64_EXTRA_ID) {
+                            int valuePos = extraPos + 4;
+                            if (size == ZIP64_MAGIC) {
+                                size = centralDir.getLong(valuePos);
+                                valuePos += 8;
+                            }
+                            if (compressedSize == ZIP64_MAGIC) {
+                                compressedSize = centralDir.getLong(valuePos);
+                                valuePos += 8;
+                            }
+                            if (headerOffset == ZIP64_MAGIC) {
+                                headerOffset = centralDir.getLong(valuePos);
+                            }
+                            break;
+                        }
+                        extraPos += 4 + len;
+                    }
+                }
+
+                centralDir.position(pos + CENTRAL_HEADER_SIZE + nameLen + extraLen + commentLen);
+
+                if (name.endsWith("/")) {
+                    // directory entry
+                    continue;
+                }
+                if (size > Integer.MAX_VALUE || compressedSize > Integer.MAX_VALUE) {
+                    throw new ZipException("Entry too large: " + name + " in " + jarFile);
+                }
+
+                entryNames.add(name);
+                entryData.add(new long[]{headerOffset, compressedSize, size, method, crc});
+            }
+
+            final int count = entryNames.size();
+            this.index = new HashMap<>(count * 4 / 3 + 1);
+            this.names = entryNames.toArray(new String[0]);
+            this.headerOffsets = new long[count];
+            this.compressedSizes = new int[count];
+            this.sizes = new int[count];
+            this.crcs = new int[count];
+            this.methods = new byte[count];
+            for (int i = 0; i < count; i++) {
+                final long[] data = entryData.get(i);
+                this.headerOffsets[i] = data[0];
+                this.compressedSizes[i] = (int) data[1];
+                this.sizes[i] = (int) data[2];
+                this.methods[i] = (byte) data[3];
+                this.crcs[i] = (int) data[4];
+                // Match ZipFile and zip file system semantics, the last entry with a name wins
+                this.index.put(this.names[i], i);
+            }
+        } catch (final IOException | RuntimeException e) {
+            try {
+                this.channel.close();
+            } catch (final IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the jar file used by this class provider root.
+     * @return The jar file used by this class provider root.
+     */
+    public @NotNull Path getJarFile() {
+        return this.jarFile;
+    }
+
+    @Override
+    public byte @Nullable [] getClassData(final @NotNull String fileName) throws IOException {
+        final String name = fileName.startsWith("/") ? fileName.substring(1) : fileName;
+        final Integer entry = this.index.get(name);
+        if (entry == null) {
+            return null;
+        }
+        return this.readEntry(entry);
+    }
+
+    @Override
+    public @NotNull List<? extends FileDataReference> getAllClasses() {
+        final ArrayList<IndexedFileDataReference> result = new ArrayList<>();
+        for (int i = 0; i < this.names.length; i++) {
+            if (this.names[i].endsWith(".class") && this.isVisible(i)) {
+                result.add(new IndexedFileDataReference(this, i));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public @NotNull Stream<? extends FileDataReference> walkAllFiles() {
+        return IntStream.range(0, this.names.length)
+            .filter(this::isVisible)
+            .mapToObj(i -> new IndexedFileDataReference(this, i));
+    }
+
+    /**
+     * Returns {@code true} if the given entry is the one returned for its name, rather than an earlier entry with the
+     * same name which is hidden by a later one.
+     */
+    private boolean isVisible(final int entry) {
+        return this.index.get(this.names[entry]) == entry;
+    }
+
+    private byte @NotNull [] readEntry(final int entry) throws IOException {
+        final long headerOffset = this.headerOffsets[entry];
+        final ByteBuffer header = ByteBuffer.allocate(LOCAL_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        this.readFully(header, headerOffset);
+        if (header.getInt(0) != LOCAL_HEADER_SIG) {
+            throw new ZipException("Invalid local header for " + this.names[entry] + " in " + this.jarFile);
+        }
+        final int nameLen = Short.toUnsignedInt(header.getShort(26));
+        final int extraLen = Short.toUnsignedInt(header.getShort(28));
+        final long dataOffset = headerOffset + LOCAL_HEADER_SIZE + nameLen + extraLen;
+
+        final int compressedSize = this.compressedSizes[entry];
+        final int size = this.sizes[entry];
+        switch (this.methods[entry]) {
+            case METHOD_STORED: {
+                final byte[] result = new byte[size];
+                this.readFully(ByteBuffer.wrap(result), dataOffset);
+                return result;
+            }
+            case METHOD_DEFLATED: {
+                // Raw inflate may require an extra trailing byte of input, so leave room for it
+                final byte[] compressed = new byte[compressedSize + 1];
+                this.readFully(ByteBuffer.wrap(compressed, 0, compressedSize), dataOffset);
+
+                final byte[] result = new byte[size];
+                final Inflater inflater = new Inflater(true);
+                try {
+                    inflater.setInput(compressed);
+                    int read = 0;
+                    while (read < size) {
+                        final int n = inflater.inflate(result, read, size - read);
+                        if (n == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                            break;
+                        }
+                        read += n;
+                    }
+                    if (read != size) {
+                        throw new ZipException("Invalid compressed data for " + this.names[entry] + " in " + this.jarFile);
+                    }
+                } catch (final DataFormatException e) {
+                    final ZipException ex =
+                        new ZipException("Invalid compressed data for " + this.names[entry] + " in " + this.jarFile);
+                    ex.initCause(e);
+                    throw ex;
+                } finally {
+                    inflater.end();
+                }
+                return result;
+            }
+            default:
+                throw new ZipException(
+                    "Unsupported compression method " + this.methods[entry] + " for " + this.names[entry] + " in " +
+                        this.jarFile
+                );
+        }
+    }
+
+    private @NotNull ByteBuffer readCentralDirectory() throws IOException {
+        final long fileSize = this.channel.size();
+        final int tailSize = (int) Math.min(fileSize, END_HEADER_SIZE + MAX_COMMENT_SIZE);
+        final long tailStart = fileSize - tailSize;
+        final ByteBuffer tail = ByteBuffer.allocate(tailSize).order(ByteOrder.LITTLE_ENDIAN);
+        this.readFully(tail, tailStart);
+
+        int endPos = -1;
+        for (int i = tailSize - END_HEADER_SIZE; i >= 0; i--) {
+            if (tail.getInt(i) == END_HEADER_SIG) {
+                endPos = i;
+                break;
+            }
+        }
+        if (endPos == -1) {
+            throw new ZipException("Could not find end of central directory in " + this.jarFile);
+        }
+
+        long centralDirSize = Integer.toUnsignedLong(tail.getInt(endPos + 12));
+        long centralDirOffset = Integer.toUnsignedLong(tail.getInt(endPos + 16));
+
+        final int locatorPos = endPos - ZIP64_LOCATOR_SIZE;
+        if (locatorPos >= 0 && tail.getInt(locatorPos) == ZIP64_LOCATOR_SIG) {
+            final long zip64EndOffset = tail.getLong(locatorPos + 8);
+            final ByteBuffer zip64End = ByteBuffer.allocate(ZIP64_END_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            this.readFully(zip64End, zip64EndOffset);
+            if (zip64End.getInt(0) != ZIP64_END_HEADER_SIG) {
+                throw new ZipException("Invalid zip64 end of central directory in " + this.jarFile);
+            }
+            centralDirSize = zip64End.getLong(40);
+            centralDirOffset = zip64End.getLong(48);
+        }
+
+        if (centralDirSize > Integer.MAX_VALUE) {
+            throw new ZipException("Central directory too large in " + this.jarFile);
+        }
+
+        final ByteBuffer centralDir = ByteBuffer.allocate((int) centralDirSize).order(ByteOrder.LITTLE_ENDIAN);
+        this.readFully(centralDir, centralDirOffset);
+        centralDir.flip();
+        return centralDir;
+    }
+
+    private void readFully(final @NotNull ByteBuffer buffer, final long position) throws IOException {
+        long pos = position;
+        while (buffer.hasRemaining()) {
+            final int read = this.channel.read(buffer, pos);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of file in " + this.jarFile);
+            }
+            pos += read;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The key for jar roots is based on the SHA-256 hash of the jar file.
+     */
+    @Override
+    public @NotNull String contentKey() throws IOException {
+        return "jar-" + HypoModelUtil.sha256(this.jarFile);
+    }
+
+    @Override
+    public boolean isImmutable() {
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    /**
+     * Implementation of {@link ClassProviderRoot.FileDataReference} for entries of an
+     * {@link IndexedJarClassProviderRoot}.
+     */
+    private static final class IndexedFileDataReference implements FileDataReference {
+
+        private final @NotNull IndexedJarClassProviderRoot root;
+        private final int entry;
+
+        /**
+         * Constructor for {@link IndexedFileDataReference}.
+         *
+         * @param root The root which contains the referenced entry.
+         * @param entry The index of the entry in {@code root}.
+         */
+        IndexedFileDataReference(final @NotNull IndexedJarClassProviderRoot root, final int entry) {
+            this.root = root;
+            this.entry = entry;
+        }
+
+        @Override
+        public @NotNull String name() {
+            return this.root.names[this.entry];
+        }
+
+        @Override
+        public byte @Nullable [] readData() throws IOException {
+            return this.root.readEntry(this.entry);
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * <p>The size and checksum are read from the jar's central directory, so the entry itself is never read.
+         */
+        @Override
+        public long fingerprint() {
+            return HypoModelUtil.fingerprint(this.root.sizes[this.entry], this.root.crcs[this.entry]);
+        }
+    }
+}
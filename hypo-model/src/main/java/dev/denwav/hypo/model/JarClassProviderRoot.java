@@ -108,6 +108,21 @@ public final class JarClassProviderRoot implements ClassProviderRoot {
                     .map(p -> new PathFileDataReference(root.relativize(p).toString(), p))));
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The key for jar roots is based on the SHA-256 hash of the jar file.
+     */
+    @Override
+    public @NotNull String contentKey() throws IOException {
+        return "jar-" + HypoModelUtil.sha256(this.jarFile);
+    }
+
+    @Override
+    public boolean isImmutable() {
+        return true;
+    }
+
     @Override
     public void close() throws IOException {
         this.fileSystem.close();
@@ -21,6 +21,7 @@ package dev.denwav.hypo.model;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Map;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -55,4 +56,26 @@ final class PathFileDataReference implements ClassProviderRoot.FileDataReference
         }
         return Files.readAllBytes(this.path);
     }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>For paths in a zip file system the size and checksum are read from the zip entry, without reading the file.
+     */
+    @Override
+    public long fingerprint() throws IOException {
+        if (!this.path.getFileSystem().supportedFileAttributeViews().contains("zip")) {
+            return ClassProviderRoot.FileDataReference.super.fingerprint();
+        }
+        if (Files.notExists(this.path)) {
+            return 0;
+        }
+        final Map<String, Object> attributes = Files.readAttributes(this.path, "zip:size,crc");
+        final Object size = attributes.get("size");
+        final Object crc = attributes.get("crc");
+        if (!(size instanceof Long) || !(crc instanceof Long)) {
+            return ClassProviderRoot.FileDataReference.super.fingerprint();
+        }
+        return HypoModelUtil.fingerprint((Long) size, (Long) crc);
+    }
 }
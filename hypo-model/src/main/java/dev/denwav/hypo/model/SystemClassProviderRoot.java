@@ -23,8 +23,13 @@ import java.lang.module.ModuleFinder;
 import java.lang.module.ModuleReader;
 import java.lang.module.ModuleReference;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -37,6 +42,12 @@ import org.jetbrains.annotations.Nullable;
 /* package */ final class SystemClassProviderRoot implements ClassProviderRoot {
 
     private final @NotNull List<ModuleReader> readers;
+    /**
+     * Index of package names, in the internal JVM format, to the reader for the module which contains that package.
+     * A package can only belong to a single module in the system image, so class lookups only need to ask the one
+     * module which owns the class's package.
+     */
+    private final @NotNull HashMap<String, ModuleReader> packages;
 
     /**
      * Constructor for {@link SystemClassProviderRoot}. Use {@link ClassProviderRoot#ofJdk()} instead.
@@ -46,31 +57,61 @@ import org.jetbrains.annotations.Nullable;
     SystemClassProviderRoot() throws IOException {
         final Set<ModuleReference> refs = ModuleFinder.ofSystem().findAll();
         final ModuleReader[] readers = new ModuleReader[refs.size()];
+        this.packages = new HashMap<>();
         int index = 0;
         for (final ModuleReference ref : refs) {
-            readers[index++] = ref.open();
+            final ModuleReader reader = ref.open();
+            readers[index++] = reader;
+            for (final String packageName : ref.descriptor().packages()) {
+                this.packages.put(packageName.replace('.', '/'), reader);
+            }
         }
         this.readers = Arrays.asList(readers);
     }
 
     @Override
     public byte @Nullable [] getClassData(@NotNull String fileName) throws IOException {
+        final int lastSlash = fileName.lastIndexOf('/');
+        if (lastSlash != -1) {
+            final ModuleReader reader = this.packages.get(fileName.substring(0, lastSlash));
+            return reader != null ? read(reader, fileName) : null;
+        }
+
+        // Only files such as module-info.class live outside of a package, check every module for those
         for (final ModuleReader reader : this.readers) {
-            final ByteBuffer resource = reader.read(fileName).orElse(null);
-            if (resource == null) {
-                continue;
-            }
-            try {
-                final byte[] data = new byte[resource.remaining()];
-                resource.get(data);
+            final byte[] data = read(reader, fileName);
+            if (data != null) {
                 return data;
-            } finally {
-                reader.release(resource);
             }
         }
         return null;
     }
 
+    /**
+     * Read the given file from the given {@link ModuleReader}.
+     *
+     * <p>The contents of the buffer returned by the reader are always copied out before the buffer is released, as
+     * the reader may reuse or unmap the buffer, even when it is backed by an array.
+     *
+     * @param reader The {@link ModuleReader} to read from.
+     * @param fileName The name of the file to read.
+     * @return The contents of the file, or {@code null} if the module doesn't contain the file.
+     * @throws IOException If an IO error occurs while reading the file.
+     */
+    static byte @Nullable [] read(final @NotNull ModuleReader reader, final @NotNull String fileName) throws IOException {
+        final ByteBuffer resource = reader.read(fileName).orElse(null);
+        if (resource == null) {
+            return null;
+        }
+        try {
+            final byte[] data = new byte[resource.remaining()];
+            resource.get(data);
+            return data;
+        } finally {
+            reader.release(resource);
+        }
+    }
+
     @Override
     public @NotNull List<? extends ClassProviderRoot.FileDataReference> getAllClasses() throws IOException {
         List<ClassProviderRoot.FileDataReference> refs = null;
@@ -90,6 +131,31 @@ import org.jetbrains.annotations.Nullable;
         return refs == null ? Collections.emptyList() : refs;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The system image only changes along with the runtime itself, so the key for the system root is based on the
+     * identity of the current runtime and its module image file, rather than hashing every class file.
+     */
+    @Override
+    public @NotNull String contentKey() throws IOException {
+        final Path modules = Paths.get(System.getProperty("java.home"), "lib", "modules").toAbsolutePath();
+        final StringBuilder key = new StringBuilder()
+            .append(System.getProperty("java.vendor")).append('|')
+            .append(System.getProperty("java.runtime.version")).append('|')
+            .append(modules);
+        if (Files.isRegularFile(modules)) {
+            key.append('|').append(Files.size(modules))
+                .append('|').append(Files.getLastModifiedTime(modules).toMillis());
+        }
+        return "jdk-" + HypoModelUtil.sha256(key.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public boolean isImmutable() {
+        return true;
+    }
+
     @Override
     public void close() throws IOException {
         IOException thrown = null;
@@ -131,17 +197,7 @@ import org.jetbrains.annotations.Nullable;
 
         @Override
         public byte @Nullable [] readData() throws IOException {
-            final ByteBuffer resource = this.reader.read(this.name).orElse(null);
-            if (resource == null) {
-                return null;
-            }
-            try {
-                final byte[] data = new byte[resource.remaining()];
-                resource.get(data);
-                return data;
-            } finally {
-                this.reader.release(resource);
-            }
+            return read(this.reader, this.name);
         }
     }
 }
@@ -20,7 +20,9 @@ package dev.denwav.hypo.model.data;
 
 import com.google.errorprone.annotations.concurrent.LazyInit;
 import dev.denwav.hypo.model.ClassDataProvider;
+import dev.denwav.hypo.model.data.types.JvmType;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import org.jetbrains.annotations.NotNull;
@@ -30,6 +32,10 @@ import org.jetbrains.annotations.Nullable;
  * Base abstract implementation of {@link ClassData}. This class implements {@link HypoData} by extending
  * {@link AbstractHypoData} and implements methods used for hydration, as well as the standard {@link #equals(Object)},
  * {@link #hashCode()}, and {@link #toString()} methods to match the contract specified in {@link ClassData}.
+ *
+ * <p>Member lookups such as {@link #method(String, MethodDescriptor)} and {@link #fields(String)} use an index of the
+ * members of this class by name, which is created the first time it's needed. Classes with only a few members are
+ * searched directly instead.
  */
 public abstract class AbstractClassData extends AbstractHypoData implements ClassData {
 
@@ -43,8 +49,14 @@ public abstract class AbstractClassData extends AbstractHypoData implements Clas
     private boolean isContextClass = false;
     private boolean isRequireFullClasspath = false;
 
-    private final @NotNull Set<@NotNull ClassData> childClasses = new LinkedHashSet<>();
-    private final @NotNull Set<@NotNull ClassData> innerClasses = new LinkedHashSet<>();
+    private @NotNull Set<@NotNull ClassData> childClasses = new LinkedHashSet<>();
+    private @NotNull Set<@NotNull ClassData> innerClasses = new LinkedHashSet<>();
+
+    private volatile @Nullable Runnable dataStoredListener = null;
+    private volatile @Nullable SubtypeIndex.Node subtypeNode = null;
+    @LazyInit private @Nullable MemberIndex memberIndex = null;
+    private @Nullable SymbolTable symbolTable = null;
+    private int id = -1;
 
     /**
      * Default constructor.
@@ -86,6 +98,124 @@ public abstract class AbstractClassData extends AbstractHypoData implements Clas
         return this.innerClasses;
     }
 
+    @Override
+    public @NotNull List<@NotNull FieldData> fields(final @NotNull String name) {
+        final MemberIndex index = this.memberIndex();
+        return index != null ? index.fields(name) : ClassData.super.fields(name);
+    }
+
+    @Override
+    public @Nullable FieldData field(final @NotNull String name, final @NotNull JvmType type) {
+        final MemberIndex index = this.memberIndex();
+        return index != null ? index.field(name, type) : ClassData.super.field(name, type);
+    }
+
+    @Override
+    public @NotNull List<@NotNull MethodData> methods(final @NotNull String name) {
+        final MemberIndex index = this.memberIndex();
+        return index != null ? index.methods(name) : ClassData.super.methods(name);
+    }
+
+    @Override
+    public @Nullable MethodData method(final @NotNull String name, final @NotNull MethodDescriptor descriptor) {
+        final MemberIndex index = this.memberIndex();
+        return index != null ? index.method(name, descriptor) : ClassData.super.method(name, descriptor);
+    }
+
+    @Override
+    public @Nullable MethodData method(final @NotNull String name, final @NotNull String descriptor) {
+        final MemberIndex index = this.memberIndex();
+        return index != null ? index.method(name, descriptor) : ClassData.super.method(name, descriptor);
+    }
+
+    /**
+     * Returns the index of the members of this class, creating it if needed, or {@code null} if this class has too few
+     * members to be worth indexing. The index is immutable, so if multiple threads race to create it, each of them
+     * creates an equal index and it doesn't matter which is kept.
+     */
+    private @Nullable MemberIndex memberIndex() {
+        MemberIndex index = this.memberIndex;
+        if (index == null) {
+            final List<MethodData> methods = this.methods();
+            final List<FieldData> fields = this.fields();
+            if (methods.size() + fields.size() <= MemberIndex.THRESHOLD) {
+                return null;
+            }
+            index = new MemberIndex(methods, fields);
+            this.memberIndex = index;
+        }
+        return index;
+    }
+
+    @Override
+    public @Nullable SubtypeIndex.Node subtypeNode() {
+        return this.subtypeNode;
+    }
+
+    @Override
+    public void setSubtypeNode(final @Nullable SubtypeIndex.Node node) {
+        this.subtypeNode = node;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This also freezes every {@link #fields() field} and {@link #methods() method} of this class, and replaces
+     * {@link #childClasses()} and {@link #innerClasses()} with immutable copies. Frozen classes are never evicted from
+     * their provider's cache.
+     */
+    @Override
+    public void freeze() {
+        if (this.isFrozen()) {
+            return;
+        }
+        for (final FieldData field : this.fields()) {
+            field.freeze();
+        }
+        for (final MethodData method : this.methods()) {
+            method.freeze();
+        }
+        this.childClasses = FrozenSet.copyOf(this.childClasses);
+        this.innerClasses = FrozenSet.copyOf(this.innerClasses);
+        this.dataStored();
+        super.freeze();
+    }
+
+    @Override
+    public int id() {
+        return this.id;
+    }
+
+    @Override
+    public @Nullable SymbolTable symbolTable() {
+        return this.symbolTable;
+    }
+
+    @Override
+    public void setSymbolTable(final @NotNull SymbolTable table, final int id) {
+        this.symbolTable = table;
+        this.id = id;
+    }
+
+    /**
+     * Set the listener to run whenever hydration data is stored on this class or any of its members. This is used by
+     * providers which may evict classes from their cache, as classes which hold data must never be evicted. Only a
+     * single listener is supported, setting a new listener replaces the previous one.
+     *
+     * @param listener The listener to run when data is stored, or {@code null} to remove the current listener.
+     */
+    public void setDataStoredListener(final @Nullable Runnable listener) {
+        this.dataStoredListener = listener;
+    }
+
+    @Override
+    void dataStored() {
+        final Runnable listener = this.dataStoredListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
     /**
      * Return the {@link ClassDataProvider}, assuming it has already been set. This method will throw an exception if
      * it has not already been set.
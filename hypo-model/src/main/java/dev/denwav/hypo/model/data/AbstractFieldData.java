@@ -27,11 +27,42 @@ import java.util.Objects;
  */
 public abstract class AbstractFieldData extends AbstractHypoData implements FieldData {
 
+    private int id = -1;
+    private int hash = 0;
+
     /**
      * Default constructor.
      */
     public AbstractFieldData() {}
 
+    @Override
+    public int id() {
+        int id = this.id;
+        if (id == -1) {
+            id = SymbolTable.memberId(this);
+            this.id = id;
+        }
+        return id;
+    }
+
+    /**
+     * Set the ID of this member. Called by {@link SymbolTable} when it assigns the IDs of every member of the parent
+     * class at once.
+     *
+     * @param id The ID of this member.
+     */
+    void setId(final int id) {
+        this.id = id;
+    }
+
+    @Override
+    void dataStored() {
+        final ClassData parentClass = this.parentClass();
+        if (parentClass instanceof AbstractClassData) {
+            ((AbstractClassData) parentClass).dataStored();
+        }
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) return true;
@@ -44,7 +75,13 @@ public abstract class AbstractFieldData extends AbstractHypoData implements Fiel
 
     @Override
     public int hashCode() {
-        return Objects.hash(this.parentClass(), this.name(), this.fieldType());
+        // Everything the hash is computed from is immutable, so it's safe to compute it more than once if threads race
+        int hash = this.hash;
+        if (hash == 0) {
+            hash = Objects.hash(this.parentClass(), this.name(), this.fieldType());
+            this.hash = hash;
+        }
+        return hash;
     }
 
     @Override
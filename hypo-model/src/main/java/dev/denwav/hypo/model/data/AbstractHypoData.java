@@ -19,9 +19,8 @@
 package dev.denwav.hypo.model.data;
 
 import dev.denwav.hypo.model.HypoModelUtil;
-import java.util.Collections;
-import java.util.IdentityHashMap;
-import java.util.Map;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.Objects;
 import java.util.function.Supplier;
 import org.jetbrains.annotations.NotNull;
@@ -30,13 +29,40 @@ import org.jetbrains.annotations.Nullable;
 /**
  * Default implementation of {@link HypoData}. Classes which extend from this class will automatically fully implement
  * {@link HypoData}.
+ *
+ * <p>Data is stored in an array indexed by the {@link HypoKey#ordinal() ordinal} of each key, which is only allocated
+ * once data is first stored. Reads are a single volatile load and writes are a compare-and-set on the array element, no
+ * locks are taken except when the array needs to grow to fit a key created after the array was allocated.
+ *
+ * <p>Subclasses which hold additional mutable state should override {@link #freeze()} to make that state read-only as
+ * well, and then call {@code super.freeze()}.
  */
 public abstract class AbstractHypoData implements HypoData {
 
+    private static final VarHandle slotsHandle;
+    private static final VarHandle slotHandle = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    static {
+        try {
+            slotsHandle = MethodHandles.lookup().findVarHandle(AbstractHypoData.class, "slots", Object[].class);
+        } catch (final Throwable t) {
+            throw new AssertionError(t);
+        }
+    }
+
     /**
-     * Data store for this object. Must to synchronized as there is no non-locking concurrent identity hashmap.
+     * Placed in every slot of an array which has been replaced by a larger array, so concurrent reads and writes know
+     * to retry against the new array.
      */
-    private final @NotNull Map<HypoKey<?>, ?> hypoData = Collections.synchronizedMap(new IdentityHashMap<>());
+    private static final Object MOVED = new Object();
+
+    /**
+     * Data store for this object, indexed by {@link HypoKey#ordinal()}. {@code null} until data is first stored.
+     */
+    @SuppressWarnings("unused") // accessed through slotsHandle
+    private volatile Object @Nullable [] slots = null;
+
+    private volatile boolean frozen = false;
 
     /**
      * Default constructor.
@@ -45,28 +71,144 @@ public abstract class AbstractHypoData implements HypoData {
 
     @Override
     public <T> @Nullable T store(final @NotNull HypoKey<T> key, final @Nullable T t) {
+        this.checkNotFrozen();
+        final int ordinal = key.ordinal();
         if (t == null) {
-            this.hypoData.remove(key);
-        } else {
-            this.hypoData.put(key, HypoModelUtil.cast(t));
+            this.remove(ordinal);
+            return null;
+        }
+        while (true) {
+            final Object[] current = this.slots(ordinal);
+            final Object existing = slotHandle.getVolatile(current, ordinal);
+            if (existing != MOVED && slotHandle.compareAndSet(current, ordinal, existing, t)) {
+                break;
+            }
         }
+        this.dataStored();
         return t;
     }
 
+    /**
+     * Remove the value stored for the given ordinal, if there is one. This never allocates or grows the data array, a
+     * key which doesn't fit in it has no value to remove.
+     */
+    private void remove(final int ordinal) {
+        Object[] current = this.slots;
+        while (current != null && ordinal < current.length) {
+            final Object existing = slotHandle.getVolatile(current, ordinal);
+            if (existing != MOVED && slotHandle.compareAndSet(current, ordinal, existing, null)) {
+                return;
+            }
+            current = this.slots;
+        }
+    }
+
     @Override
     public <T> @NotNull T compute(final @NotNull HypoKey<T> key, final @NotNull Supplier<T> supplier) {
-        final Object o = this.hypoData.computeIfAbsent(key, k -> HypoModelUtil.cast(supplier.get()));
-        Objects.requireNonNull(o, "Result of supplier must not be null");
-        return HypoModelUtil.cast(o);
+        final T stored = this.get(key);
+        if (stored != null) {
+            return stored;
+        }
+        // Check before the data array is allocated, frozen objects are never changed
+        this.checkNotFrozen();
+
+        final int ordinal = key.ordinal();
+        final Object value = Objects.requireNonNull(supplier.get(), "Result of supplier must not be null");
+        while (true) {
+            final Object[] current = this.slots(ordinal);
+            final Object existing = slotHandle.getVolatile(current, ordinal);
+            if (existing == MOVED) {
+                continue;
+            }
+            if (existing != null) {
+                return HypoModelUtil.cast(existing);
+            }
+            if (slotHandle.compareAndSet(current, ordinal, null, value)) {
+                this.dataStored();
+                return HypoModelUtil.cast(value);
+            }
+        }
     }
 
     @Override
     public <T> @Nullable T get(final @NotNull HypoKey<T> key) {
-        return HypoModelUtil.cast(this.hypoData.get(key));
+        final int ordinal = key.ordinal();
+        Object[] current = this.slots;
+        while (current != null && ordinal < current.length) {
+            final Object value = slotHandle.getVolatile(current, ordinal);
+            if (value != MOVED) {
+                return HypoModelUtil.cast(value);
+            }
+            current = this.slots;
+        }
+        return null;
     }
 
+    /**
+     * Called whenever data is stored in this object through {@link #store(HypoKey, Object)} or
+     * {@link #compute(HypoKey, Supplier)}. The default implementation does nothing.
+     */
+    void dataStored() {}
+
     @Override
     public boolean contains(final @NotNull HypoKey<?> key) {
-        return this.hypoData.containsKey(key);
+        return this.get(key) != null;
+    }
+
+    @Override
+    public void freeze() {
+        this.frozen = true;
+    }
+
+    @Override
+    public boolean isFrozen() {
+        return this.frozen;
+    }
+
+    /**
+     * Throw an {@link IllegalStateException} if this object has been {@link #freeze() frozen}. Subclasses should call
+     * this before modifying any of their own state.
+     */
+    protected void checkNotFrozen() {
+        if (this.frozen) {
+            throw new IllegalStateException("Cannot modify frozen data: " + this);
+        }
+    }
+
+    /**
+     * Returns the current data array, allocating or growing it first if it can't hold the given ordinal.
+     */
+    private Object @NotNull [] slots(final int ordinal) {
+        final Object[] current = this.slots;
+        if (current != null && ordinal < current.length) {
+            return current;
+        }
+        if (current == null) {
+            final Object[] created = new Object[Math.max(ordinal + 1, HypoKey.count())];
+            final Object[] witness = (Object[]) slotsHandle.compareAndExchange(this, null, created);
+            if (witness == null) {
+                return created;
+            }
+            if (ordinal < witness.length) {
+                return witness;
+            }
+        }
+        return this.grow(ordinal);
+    }
+
+    private synchronized Object @NotNull [] grow(final int ordinal) {
+        // Only called once the array has been allocated, it's never set back to null
+        final Object[] current = Objects.requireNonNull(this.slots);
+        if (ordinal < current.length) {
+            return current;
+        }
+
+        // Seal every slot of the old array before publishing the new one, so no write to the old array is lost
+        final Object[] grown = new Object[Math.max(ordinal + 1, HypoKey.count())];
+        for (int i = 0; i < current.length; i++) {
+            grown[i] = slotHandle.getAndSet(current, i, MOVED);
+        }
+        this.slots = grown;
+        return grown;
     }
 }
@@ -33,7 +33,9 @@ import org.jetbrains.annotations.Nullable;
 public abstract class AbstractMethodData extends AbstractHypoData implements MethodData {
 
     private final @NotNull AtomicReference<@Nullable MethodData> superMethod = new AtomicReference<>(null);
-    private final @NotNull Set<MethodData> childMethods = new LinkedHashSet<>();
+    private @NotNull Set<MethodData> childMethods = new LinkedHashSet<>();
+    private int id = -1;
+    private int hash = 0;
 
     /**
      * Default constructor.
@@ -42,7 +44,10 @@ public abstract class AbstractMethodData extends AbstractHypoData implements Met
 
     @Override
     public void setSuperMethod(final @Nullable MethodData superMethod) {
-        this.superMethod.compareAndSet(null, superMethod);
+        this.checkNotFrozen();
+        if (this.superMethod.compareAndSet(null, superMethod) && superMethod != null) {
+            this.dataStored();
+        }
     }
 
     @Override
@@ -55,6 +60,48 @@ public abstract class AbstractMethodData extends AbstractHypoData implements Met
         return this.childMethods;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This also replaces {@link #childMethods()} with an immutable copy.
+     */
+    @Override
+    public void freeze() {
+        if (this.isFrozen()) {
+            return;
+        }
+        this.childMethods = FrozenSet.copyOf(this.childMethods);
+        super.freeze();
+    }
+
+    @Override
+    public int id() {
+        int id = this.id;
+        if (id == -1) {
+            id = SymbolTable.memberId(this);
+            this.id = id;
+        }
+        return id;
+    }
+
+    /**
+     * Set the ID of this member. Called by {@link SymbolTable} when it assigns the IDs of every member of the parent
+     * class at once.
+     *
+     * @param id The ID of this member.
+     */
+    void setId(final int id) {
+        this.id = id;
+    }
+
+    @Override
+    void dataStored() {
+        final ClassData parentClass = this.parentClass();
+        if (parentClass instanceof AbstractClassData) {
+            ((AbstractClassData) parentClass).dataStored();
+        }
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) return true;
@@ -67,7 +114,13 @@ public abstract class AbstractMethodData extends AbstractHypoData implements Met
 
     @Override
     public int hashCode() {
-        return Objects.hash(this.parentClass(), this.name(), this.descriptor());
+        // Everything the hash is computed from is immutable, so it's safe to compute it more than once if threads race
+        int hash = this.hash;
+        if (hash == 0) {
+            hash = Objects.hash(this.parentClass(), this.name(), this.descriptor());
+            this.hash = hash;
+        }
+        return hash;
     }
 
     @Override
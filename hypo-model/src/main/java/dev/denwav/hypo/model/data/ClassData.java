@@ -137,26 +137,17 @@ public interface ClassData extends HypoData {
      */
     @Deprecated
     default @NotNull ClassKind kind() {
-        final EnumSet<ClassKind> kinds = this.kinds();
-        for (final ClassKind kind : kinds) {
-            // specific kinds get preference
-            // otherwise we don't care
-            switch (kind) {
-                case CLASS:
-                case ABSTRACT_CLASS:
-                case INTERFACE:
-                    continue;
-                case ENUM:
-                    return ClassKind.ENUM;
-                case ANNOTATION:
-                    return ClassKind.ANNOTATION;
-                case RECORD:
-                    return ClassKind.RECORD;
-            }
-        }
-        if (kinds.contains(ClassKind.INTERFACE)) {
+        final int kinds = this.kindsMask();
+        // specific kinds get preference
+        if ((kinds & ClassKind.ENUM.mask()) != 0) {
+            return ClassKind.ENUM;
+        } else if ((kinds & ClassKind.ANNOTATION.mask()) != 0) {
+            return ClassKind.ANNOTATION;
+        } else if ((kinds & ClassKind.RECORD.mask()) != 0) {
+            return ClassKind.RECORD;
+        } else if ((kinds & ClassKind.INTERFACE.mask()) != 0) {
             return ClassKind.INTERFACE;
-        } else if (kinds.contains(ClassKind.ABSTRACT_CLASS)) {
+        } else if ((kinds & ClassKind.ABSTRACT_CLASS.mask()) != 0) {
             return ClassKind.ABSTRACT_CLASS;
         } else {
             return ClassKind.CLASS;
@@ -165,10 +156,39 @@ public interface ClassData extends HypoData {
 
     /**
      * Get all {@link ClassKind kinds} of class this class data represents.
+     *
+     * <p>Implementations may return the same set on every call, so the returned set must not be modified. Copy it
+     * first if a modifiable set is needed, or use {@link #kindsView()} for a set which can't be modified.
+     *
      * @return All kinds of class this class data represents.
      */
     @NotNull EnumSet<ClassKind> kinds();
 
+    /**
+     * Get all {@link ClassKind kinds} of class this class data represents as a mask of {@link ClassKind#mask() kind
+     * bits}. Unlike {@link #kinds()} this does not need a set at all, the {@link #is(ClassKind)} family of
+     * methods are implemented with it.
+     *
+     * <p>The default implementation computes the mask from {@link #kinds()}, implementations should override it if they
+     * can return the mask directly.
+     *
+     * @return The mask of all kinds of class this class data represents.
+     */
+    default int kindsMask() {
+        return ClassKind.maskOf(this.kinds());
+    }
+
+    /**
+     * Get an immutable view of all {@link ClassKind kinds} of class this class data represents. The views are shared
+     * between classes of the same kinds, so unlike {@link #kinds()} this does not allocate.
+     *
+     * @return An immutable set of all kinds of class this class data represents.
+     * @see ClassKind#setOf(int)
+     */
+    default @NotNull Set<ClassKind> kindsView() {
+        return ClassKind.setOf(this.kindsMask());
+    }
+
     /**
      * Returns {@code true} if this class data represents the given kind.
      * @param kind The {@link ClassKind} to test against this class data
@@ -179,7 +199,7 @@ public interface ClassData extends HypoData {
      * @see #isAll(EnumSet)
      */
     default boolean is(final @NotNull ClassKind kind) {
-        return this.kinds().contains(kind);
+        return (this.kindsMask() & kind.mask()) != 0;
     }
 
     /**
@@ -199,12 +219,7 @@ public interface ClassData extends HypoData {
      * @see #is(ClassKind)
      */
     default boolean isAny(final @NotNull ClassKind @NotNull ... kinds) {
-        for (final ClassKind kind : kinds) {
-            if (this.kinds().contains(kind)) {
-                return true;
-            }
-        }
-        return false;
+        return (this.kindsMask() & ClassKind.maskOf(kinds)) != 0;
     }
 
     /**
@@ -214,12 +229,7 @@ public interface ClassData extends HypoData {
      * @see #is(ClassKind)
      */
     default boolean isAny(final @NotNull EnumSet<ClassKind> kinds) {
-        for (final ClassKind kind : kinds) {
-            if (this.kinds().contains(kind)) {
-                return true;
-            }
-        }
-        return false;
+        return (this.kindsMask() & ClassKind.maskOf(kinds)) != 0;
     }
 
     /**
@@ -229,7 +239,8 @@ public interface ClassData extends HypoData {
      * @see #is(ClassKind)
      */
     default boolean isAll(final @NotNull ClassKind @NotNull ... kinds) {
-        return this.kinds().containsAll(Arrays.asList(kinds));
+        final int mask = ClassKind.maskOf(kinds);
+        return (this.kindsMask() & mask) == mask;
     }
 
     /**
@@ -239,7 +250,8 @@ public interface ClassData extends HypoData {
      * @see #is(ClassKind)
      */
     default boolean isAll(final @NotNull EnumSet<ClassKind> kinds) {
-        return this.kinds().containsAll(kinds);
+        final int mask = ClassKind.maskOf(kinds);
+        return (this.kindsMask() & mask) == mask;
     }
 
     /**
@@ -366,6 +378,11 @@ public interface ClassData extends HypoData {
         if (this.equals(that)) {
             return true;
         }
+        final SubtypeIndex.Node node = this.subtypeNode();
+        final SubtypeIndex.Node thatNode = that.subtypeNode();
+        if (node != null && thatNode != null && node.index() == thatNode.index()) {
+            return node.doesExtend(thatNode);
+        }
         try {
             final ClassData superClass = this.superClass();
             if (superClass != null) {
@@ -390,6 +407,11 @@ public interface ClassData extends HypoData {
         if (this.equals(that)) {
             return true;
         }
+        final SubtypeIndex.Node node = this.subtypeNode();
+        final SubtypeIndex.Node thatNode = that.subtypeNode();
+        if (node != null && thatNode != null && node.index() == thatNode.index()) {
+            return node.doesImplement(thatNode);
+        }
         try {
             for (final ClassData iface : this.interfaces()) {
                 if (iface != null) {
@@ -415,6 +437,11 @@ public interface ClassData extends HypoData {
         if (this.equals(that)) {
             return true;
         }
+        final SubtypeIndex.Node node = this.subtypeNode();
+        final SubtypeIndex.Node thatNode = that.subtypeNode();
+        if (node != null && thatNode != null && node.index() == thatNode.index()) {
+            return node.doesExtendOrImplement(thatNode);
+        }
         try {
             return this.allSuperClasses().anyMatch(s -> s.doesExtendOrImplement(that));
         } catch (final IOException ignored) {
@@ -524,6 +551,26 @@ public interface ClassData extends HypoData {
         return null;
     }
 
+    /**
+     * Get the method data this class data declares with the name and descriptor text given. Returns {@code null} if
+     * this class data does not declare a method with the given name and descriptor. This is the same as
+     * {@link #method(String, MethodDescriptor)}, but compares the {@link MethodData#descriptorText() descriptor text}
+     * instead, so callers which have the descriptor as a string don't need to parse it first.
+     *
+     * @param name The name of the method to find.
+     * @param descriptor The internal JVM text representation of the descriptor of the method to find.
+     * @return The method data this class declares with the given name and descriptor, or {@code null} if it can't be
+     *         found.
+     */
+    default @Nullable MethodData method(final @NotNull String name, final @NotNull String descriptor) {
+        for (final MethodData method : this.methods()) {
+            if (method.name().equals(name) && method.descriptorText().equals(descriptor)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
     // Hydration methods
 
     /**
@@ -541,4 +588,64 @@ public interface ClassData extends HypoData {
      * @return The list of classes which declare this class data as their outer class.
      */
     @NotNull Set<@NotNull ClassData> innerClasses();
+
+    /**
+     * Get the node of this class data in the {@link SubtypeIndex} it was last indexed in, if any. When both class datas
+     * have a node from the same index, {@link #doesExtend(ClassData)}, {@link #doesImplement(ClassData)} and
+     * {@link #doesExtendOrImplement(ClassData)} use the index instead of walking the class hierarchy. This method will
+     * always return {@code null} unless this class data has been hydrated.
+     *
+     * <p>The default implementation always returns {@code null}, so the class hierarchy is always walked.
+     *
+     * @return The node of this class data in a {@link SubtypeIndex}, or {@code null} if it hasn't been indexed.
+     */
+    default @Nullable SubtypeIndex.Node subtypeNode() {
+        return null;
+    }
+
+    /**
+     * Set the node of this class data in a {@link SubtypeIndex}. This method is called by
+     * {@link SubtypeIndex#build(Iterable)}, not by client code.
+     *
+     * <p>The default implementation does nothing.
+     *
+     * @param node The node of this class data, or {@code null} to stop using an index for this class data.
+     */
+    default void setSubtypeNode(final @Nullable SubtypeIndex.Node node) {}
+
+    /**
+     * Get the dense ID of this class data in the {@link #symbolTable() symbol table} of its context, or {@code -1} if
+     * it isn't part of a context.
+     *
+     * <p>The default implementation always returns {@code -1}.
+     *
+     * @return The ID of this class data, or {@code -1} if it doesn't have one.
+     * @see SymbolTable
+     */
+    default int id() {
+        return -1;
+    }
+
+    /**
+     * Get the {@link SymbolTable} of the context this class data is part of, or {@code null} if it isn't part of a
+     * context.
+     *
+     * <p>The default implementation always returns {@code null}.
+     *
+     * @return The symbol table of this class data's context, or {@code null} if it doesn't have one.
+     */
+    default @Nullable SymbolTable symbolTable() {
+        return null;
+    }
+
+    /**
+     * Set the {@link SymbolTable} this class data is registered in, and its ID in that table. This method is called by
+     * {@link SymbolTable#register(ClassData)}, not by client code.
+     *
+     * <p>The default implementation does nothing, so the class data keeps an ID of {@code -1}.
+     *
+     * @param table The symbol table this class data is registered in.
+     * @param id The ID of this class data in the table.
+     */
+    default void setSymbolTable(final @NotNull SymbolTable table, final int id) {}
 }
@@ -18,6 +18,9 @@
 
 package dev.denwav.hypo.model.data;
 
+import java.util.Set;
+import org.jetbrains.annotations.NotNull;
+
 /**
  * The category of a class. This does not include Java 9+ module classes, as those aren't currently handled by Hypo.
  */
@@ -46,4 +49,58 @@ public enum ClassKind {
      * Record class.
      */
     RECORD,
+    ;
+
+    private final int mask = 1 << this.ordinal();
+
+    /**
+     * Returns the bit of this kind in a kinds mask, as returned by {@link ClassData#kindsMask()}.
+     *
+     * @return The bit of this kind in a kinds mask.
+     */
+    public int mask() {
+        return this.mask;
+    }
+
+    /**
+     * Returns the mask of the given kinds.
+     *
+     * @param kinds The kinds to include in the mask.
+     * @return The mask of the given kinds.
+     * @see #mask()
+     */
+    public static int maskOf(final @NotNull Iterable<ClassKind> kinds) {
+        int mask = 0;
+        for (final ClassKind kind : kinds) {
+            mask |= kind.mask;
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the mask of the given kinds.
+     *
+     * @param kinds The kinds to include in the mask.
+     * @return The mask of the given kinds.
+     * @see #mask()
+     */
+    public static int maskOf(final @NotNull ClassKind @NotNull ... kinds) {
+        int mask = 0;
+        for (final ClassKind kind : kinds) {
+            mask |= kind.mask;
+        }
+        return mask;
+    }
+
+    /**
+     * Returns an immutable set of the kinds in the given mask. The returned sets are shared, so this method does not
+     * allocate.
+     *
+     * @param mask The mask of the kinds to include in the set.
+     * @return An immutable set of the kinds in the given mask.
+     * @see #mask()
+     */
+    public static @NotNull Set<ClassKind> setOf(final int mask) {
+        return ClassKindSet.of(mask);
+    }
 }
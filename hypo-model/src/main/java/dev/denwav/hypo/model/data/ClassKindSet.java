@@ -0,0 +1,104 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.model.data;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Immutable set of {@link ClassKind class kinds} backed by a {@link ClassKind#mask() bitmask}, returned by
+ * {@link ClassKind#setOf(int)}. There is a single shared instance for every possible mask, so getting the set for a mask
+ * never allocates. All modifying methods throw {@link UnsupportedOperationException}.
+ */
+final class ClassKindSet extends AbstractSet<ClassKind> {
+
+    private static final @NotNull ClassKind @NotNull [] KINDS = ClassKind.values();
+    private static final @NotNull ClassKindSet @NotNull [] SETS = new ClassKindSet[1 << KINDS.length];
+
+    static {
+        for (int mask = 0; mask < SETS.length; mask++) {
+            SETS[mask] = new ClassKindSet(mask);
+        }
+    }
+
+    private final int mask;
+
+    private ClassKindSet(final int mask) {
+        this.mask = mask;
+    }
+
+    /**
+     * Returns the shared set for the given mask.
+     *
+     * @param mask The mask of the kinds in the set.
+     * @return The set of the kinds in the given mask.
+     */
+    static @NotNull ClassKindSet of(final int mask) {
+        return SETS[mask & (SETS.length - 1)];
+    }
+
+    /**
+     * Returns the {@link ClassKind#mask() mask} of the kinds in this set.
+     *
+     * @return The mask of the kinds in this set.
+     */
+    int mask() {
+        return this.mask;
+    }
+
+    @Override
+    public boolean contains(final @Nullable Object o) {
+        return o instanceof ClassKind && (this.mask & ((ClassKind) o).mask()) != 0;
+    }
+
+    @Override
+    public int size() {
+        return Integer.bitCount(this.mask);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.mask == 0;
+    }
+
+    @Override
+    public @NotNull Iterator<ClassKind> iterator() {
+        return new Iterator<>() {
+            private int remaining = ClassKindSet.this.mask;
+
+            @Override
+            public boolean hasNext() {
+                return this.remaining != 0;
+            }
+
+            @Override
+            public @NotNull ClassKind next() {
+                if (this.remaining == 0) {
+                    throw new NoSuchElementException();
+                }
+                final int index = Integer.numberOfTrailingZeros(this.remaining);
+                this.remaining &= this.remaining - 1;
+                return KINDS[index];
+            }
+        };
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.model.data;
+
+import com.google.errorprone.annotations.concurrent.LazyInit;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Immutable {@link Set} backed by an array, used for the hydrated sets of {@link HypoData#freeze() frozen} objects.
+ * Iteration order is the same as the set it was copied from. All modifying methods throw
+ * {@link UnsupportedOperationException}.
+ *
+ * @param <E> The type of the elements of this set.
+ */
+final class FrozenSet<E> extends AbstractSet<E> {
+
+    /**
+     * Sets larger than this build a hashed copy of their elements the first time {@link #contains(Object)} is called,
+     * smaller sets are scanned.
+     */
+    private static final int SCAN_LIMIT = 8;
+
+    private final @NotNull Object @NotNull [] elements;
+    @LazyInit private @Nullable Set<Object> hashed = null;
+
+    private FrozenSet(final @NotNull Object @NotNull [] elements) {
+        this.elements = elements;
+    }
+
+    /**
+     * Create an immutable copy of the given set, or return an empty set if the given set is empty.
+     *
+     * @param set The set to copy.
+     * @param <E> The type of the elements of the set.
+     * @return An immutable copy of the given set.
+     */
+    static <E> @NotNull Set<E> copyOf(final @NotNull Set<E> set) {
+        if (set instanceof FrozenSet) {
+            return set;
+        }
+        if (set.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return new FrozenSet<>(set.toArray());
+    }
+
+    @Override
+    public int size() {
+        return this.elements.length;
+    }
+
+    @Override
+    public boolean contains(final @Nullable Object o) {
+        // Sets never contain null, and the hashed copy throws if asked for it
+        if (o == null) {
+            return false;
+        }
+        if (this.elements.length > SCAN_LIMIT) {
+            Set<Object> hashed = this.hashed;
+            if (hashed == null) {
+                // Set.copyOf only has final fields, so it's safe to publish without synchronization
+                hashed = Set.copyOf(Arrays.asList(this.elements));
+                this.hashed = hashed;
+            }
+            return hashed.contains(o);
+        }
+        for (final Object element : this.elements) {
+            if (element.equals(o)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public @NotNull Iterator<E> iterator() {
+        return new Iterator<>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return this.index < FrozenSet.this.elements.length;
+            }
+
+            @Override
+            public E next() {
+                if (this.index >= FrozenSet.this.elements.length) {
+                    throw new NoSuchElementException();
+                }
+                @SuppressWarnings("unchecked")
+                final E next = (E) FrozenSet.this.elements[this.index++];
+                return next;
+            }
+        };
+    }
+
+    @Override
+    public @NotNull Object @NotNull [] toArray() {
+        return this.elements.clone();
+    }
+}
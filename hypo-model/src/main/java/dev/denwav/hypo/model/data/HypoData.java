@@ -120,4 +120,28 @@ public interface HypoData {
      * @return {@code true} if this store contains a value for the given key, {@code false} if otherwise.
      */
     boolean contains(final @NotNull HypoKey<?> key);
+
+    /**
+     * Freeze this object, making it read-only. Any lazily computed values are computed and any data filled in by
+     * hydration is converted into immutable form, so later reads don't need any synchronization. After this method
+     * returns, {@link #store(HypoKey, Object)} will throw an {@link IllegalStateException}, as will
+     * {@link #compute(HypoKey, Supplier)} for keys which don't already have a value. Freezing cannot be undone.
+     *
+     * <p>This method is not thread safe, it must not be called concurrently with any other access to this object.
+     * Freezing an object which is already frozen does nothing.
+     *
+     * <p>The default implementation does nothing, implementations which don't support freezing stay mutable.
+     */
+    default void freeze() {}
+
+    /**
+     * Returns {@code true} if this object has been {@link #freeze() frozen}.
+     *
+     * <p>The default implementation always returns {@code false}.
+     *
+     * @return {@code true} if this object has been frozen.
+     */
+    default boolean isFrozen() {
+        return false;
+    }
 }
@@ -19,6 +19,7 @@
 package dev.denwav.hypo.model.data;
 
 import com.google.errorprone.annotations.Immutable;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
@@ -26,7 +27,8 @@ import org.jetbrains.annotations.NotNull;
  * Marker class for retrieving and setting arbitrary data on {@link HypoData} objects. All keys are stored and compared
  * by identity, so any key in use should be declared as a {@code static final} variable and referenced directly.
  *
- * <p>Key can be created using the {@link #create(String)} method.
+ * <p>Key can be created using the {@link #create(String)} method. Each key is assigned a dense ordinal when it is
+ * created, which {@link AbstractHypoData} uses as an index into its data array.
  *
  * @param <T> The type of the value associated with the key.
  */
@@ -34,10 +36,14 @@ import org.jetbrains.annotations.NotNull;
 @SuppressWarnings({"unused", "UnusedTypeParameter"}) // type param T is used externally
 public final class HypoKey<T> {
 
+    private static final AtomicInteger nextOrdinal = new AtomicInteger();
+
     private final @NotNull String name;
+    private final int ordinal;
 
     private HypoKey(final @NotNull String name) {
         this.name = name;
+        this.ordinal = nextOrdinal.getAndIncrement();
     }
 
     /**
@@ -62,6 +68,25 @@ public final class HypoKey<T> {
         return this.name;
     }
 
+    /**
+     * Returns the ordinal of this key, which is unique to this key and assigned in creation order starting from
+     * {@code 0}.
+     *
+     * @return The ordinal of this key.
+     */
+    int ordinal() {
+        return this.ordinal;
+    }
+
+    /**
+     * Returns the number of keys which have been created so far.
+     *
+     * @return The number of keys which have been created so far.
+     */
+    static int count() {
+        return nextOrdinal.get();
+    }
+
     @Override
     public String toString() {
         return "HypoKey[" + this.name + "]";
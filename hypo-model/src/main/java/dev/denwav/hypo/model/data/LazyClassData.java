@@ -18,9 +18,14 @@
 
 package dev.denwav.hypo.model.data;
 
+import dev.denwav.hypo.model.HypoModelUtil;
 import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -29,15 +34,13 @@ import org.jetbrains.annotations.Nullable;
  * of the original methods of {@link ClassData} are implemented in this class with a corresponding {@code compute}
  * abstract method to implement instead. The compute method will only be called a single time when it is first
  * requested, the value returned by each {@code compute} method will then be cached for any subsequent accesses to that
- * value.
+ * value. Values are computed while holding the lock on this object, and are read without locking once computed.
  *
  * <p>The purpose of this class is to improve the performance of methods which require parsing the class structure to build
  * new Hypo objects, such as the field and method access methods, or methods which load other classes. For flexibility
  * and completeness however, this class does implement all methods. Any methods which are not expensive to compute
  * (where the overhead of managing the lazy value may be even higher) can be overridden directly again, and the
  * {@code compute} variant ignored.
- *
- * @see LazyValue
  */
 public abstract class LazyClassData extends AbstractClassData {
 
@@ -159,101 +162,236 @@ public abstract class LazyClassData extends AbstractClassData {
      */
     public abstract @NotNull List<MethodData> computeMethods();
 
-    @SuppressWarnings("this-escape")
-    private final @NotNull LazyValue<String, ?> name = LazyValue.of(this::computeName);
+    /*
+     * Each value is computed at most once, under the lock of this object. A value's bit is set in `computed` only after
+     * the value itself is written, so reading the volatile `computed` field is enough to safely read the value without
+     * locking. Boolean values are stored as bits in `flags` rather than in separate fields. Once every value has been
+     * computed by freeze(), `allComputed` is set with release semantics and read with acquire semantics, so the values
+     * written before it are still visible to other threads while reads skip the full volatile read.
+     */
+
+    private static final int NAME = 1 << 0;
+    private static final int OUTER_CLASS = 1 << 1;
+    private static final int STATIC_INNER_CLASS = 1 << 2;
+    private static final int IS_FINAL = 1 << 3;
+    private static final int IS_SYNTHETIC = 1 << 4;
+    private static final int IS_SEALED = 1 << 5;
+    private static final int PERMITTED_CLASSES = 1 << 6;
+    private static final int RECORD_COMPONENTS = 1 << 7;
+    private static final int KINDS = 1 << 8;
+    private static final int VISIBILITY = 1 << 9;
+    private static final int SUPER_CLASS = 1 << 10;
+    private static final int INTERFACES = 1 << 11;
+    private static final int FIELDS = 1 << 12;
+    private static final int METHODS = 1 << 13;
+    private static final int ALL = (METHODS << 1) - 1;
+
+    private static final VarHandle computedHandle;
+    private static final VarHandle allComputedHandle;
+
+    static {
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            computedHandle = lookup.findVarHandle(LazyClassData.class, "computed", int.class);
+            allComputedHandle = lookup.findVarHandle(LazyClassData.class, "allComputed", boolean.class);
+        } catch (final Throwable t) {
+            throw new AssertionError(t);
+        }
+    }
+
+    @SuppressWarnings("unused") // written through computedHandle
+    private volatile int computed = 0;
+    @SuppressWarnings("unused") // accessed through allComputedHandle
+    private boolean allComputed = false;
+    private int flags = 0;
+
+    private @Nullable String name = null;
+    private @Nullable ClassData outerClass = null;
+    private @Nullable List<ClassData> permittedClasses = null;
+    private @Nullable List<FieldData> recordComponents = null;
+    private @Nullable EnumSet<ClassKind> kinds = null;
+    private int kindsMask = 0;
+    private @Nullable Visibility visibility = null;
+    private @Nullable ClassData superClass = null;
+    private @Nullable List<ClassData> interfaces = null;
+    private @Nullable List<FieldData> fields = null;
+    private @Nullable List<MethodData> methods = null;
+
     @Override
     public @NotNull String name() {
-        return this.name.getNotNull();
+        this.compute(NAME, c -> c.name = c.computeName());
+        return Objects.requireNonNull(this.name);
     }
 
-    @SuppressWarnings("this-escape")
-    private final @NotNull LazyValue<ClassData, IOException> outerClass = LazyValue.of(this::computeOuterClass);
     @Override
     public @Nullable ClassData outerClass() throws IOException {
-        return this.outerClass.getOrThrow();
+        this.compute(OUTER_CLASS, c -> c.outerClass = c.computeOuterClass());
+        return this.outerClass;
     }
 
-    @SuppressWarnings("this-escape")
-    private final LazyValue<Boolean, ?> staticInnerClass = LazyValue.of(this::computeStaticInnerClass);
     @Override
     public boolean isStaticInnerClass() {
-        return this.staticInnerClass.getNotNull();
+        return this.flag(STATIC_INNER_CLASS, LazyClassData::computeStaticInnerClass);
     }
 
-    @SuppressWarnings("this-escape")
-    private final LazyValue<Boolean, ?> isFinal = LazyValue.of(this::computeIsFinal);
     @Override
     public boolean isFinal() {
-        return this.isFinal.getNotNull();
+        return this.flag(IS_FINAL, LazyClassData::computeIsFinal);
     }
 
-    @SuppressWarnings("this-escape")
-    private final LazyValue<Boolean, ?> isSynthetic = LazyValue.of(this::computeIsSynthetic);
     @Override
     public boolean isSynthetic() {
-        return this.isSynthetic.getNotNull();
+        return this.flag(IS_SYNTHETIC, LazyClassData::computeIsSynthetic);
     }
 
-    @SuppressWarnings("this-escape")
-    private final LazyValue<Boolean, ?> isSealed = LazyValue.of(this::computeIsSealed);
     @Override
     public boolean isSealed() {
-        return this.isSealed.getNotNull();
+        return this.flag(IS_SEALED, LazyClassData::computeIsSealed);
     }
 
-    @SuppressWarnings("this-escape")
-    private final LazyValue<List<ClassData>, IOException> permittedClasses = LazyValue.of(this::computePermittedClasses);
     @Override
     public @Nullable List<ClassData> permittedClasses() throws IOException {
-        return this.permittedClasses.getOrThrow();
+        this.compute(PERMITTED_CLASSES, c -> c.permittedClasses = c.computePermittedClasses());
+        return this.permittedClasses;
     }
 
-    @SuppressWarnings("this-escape")
-    private final LazyValue<List<FieldData>, ?> recordComponents = LazyValue.of(this::computeRecordComponents);
     @Override
     public @Nullable List<@NotNull FieldData> recordComponents() {
-        return this.recordComponents.get();
+        this.compute(RECORD_COMPONENTS, c -> c.recordComponents = c.computeRecordComponents());
+        return this.recordComponents;
     }
 
-    @SuppressWarnings("this-escape")
-    private final @NotNull LazyValue<EnumSet<ClassKind>, ?> kinds = LazyValue.of(this::computeClassKinds);
     @Override
     public @NotNull EnumSet<ClassKind> kinds() {
-        return this.kinds.getNotNull();
+        this.compute(KINDS, c -> {
+            final EnumSet<ClassKind> kinds = c.computeClassKinds();
+            c.kinds = kinds;
+            c.kindsMask = ClassKind.maskOf(kinds);
+        });
+        return Objects.requireNonNull(this.kinds);
+    }
+
+    @Override
+    public int kindsMask() {
+        this.kinds();
+        return this.kindsMask;
     }
 
-    @SuppressWarnings("this-escape")
-    private final @NotNull LazyValue<@NotNull Visibility, ?> visibility = LazyValue.of(this::computeVisibility);
     @Override
     public @NotNull Visibility visibility() {
-        return this.visibility.getNotNull();
+        this.compute(VISIBILITY, c -> c.visibility = c.computeVisibility());
+        return Objects.requireNonNull(this.visibility);
     }
 
-    @SuppressWarnings("this-escape")
-    private final @NotNull LazyValue<ClassData, IOException> superClass = LazyValue.of(this::computeSuperClass);
     @Override
     public @Nullable ClassData superClass() throws IOException {
-        return this.superClass.getOrThrow();
+        this.compute(SUPER_CLASS, c -> c.superClass = c.computeSuperClass());
+        return this.superClass;
     }
 
-    @SuppressWarnings("this-escape")
-    private final @NotNull LazyValue<List<ClassData>, IOException> interfaces = LazyValue.of(this::computeInterfaces);
     @Override
     public @NotNull List<ClassData> interfaces() throws IOException {
-        return this.interfaces.getOrThrowNotNull();
+        this.compute(INTERFACES, c -> c.interfaces = c.computeInterfaces());
+        return Objects.requireNonNull(this.interfaces);
     }
 
-    @SuppressWarnings("this-escape")
-    private final @NotNull LazyValue<List<FieldData>, ?> fields = LazyValue.of(this::computeFields);
     @Override
     public @NotNull List<FieldData> fields() {
-        return this.fields.getNotNull();
+        this.compute(FIELDS, c -> c.fields = c.computeFields());
+        return Objects.requireNonNull(this.fields);
     }
 
-    @SuppressWarnings("this-escape")
-    private final @NotNull LazyValue<List<MethodData>, ?> methods = LazyValue.of(this::computeMethods);
     @Override
     public @NotNull List<MethodData> methods() {
-        return this.methods.getNotNull();
+        this.compute(METHODS, c -> c.methods = c.computeMethods());
+        return Objects.requireNonNull(this.methods);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This also computes every lazily computed value of this class. Values which fail to compute due to an
+     * {@link IOException} are left to be computed lazily, so the exception is still thrown to callers which request
+     * them.
+     */
+    @Override
+    public void freeze() {
+        if (this.isFrozen()) {
+            return;
+        }
+        this.name();
+        this.isStaticInnerClass();
+        this.isFinal();
+        this.isSynthetic();
+        this.isSealed();
+        this.recordComponents();
+        this.kinds();
+        this.visibility();
+        try {
+            this.outerClass();
+        } catch (final IOException ignored) {
+            // left uncomputed
+        }
+        try {
+            this.permittedClasses();
+        } catch (final IOException ignored) {
+            // left uncomputed
+        }
+        try {
+            this.superClass();
+        } catch (final IOException ignored) {
+            // left uncomputed
+        }
+        try {
+            this.interfaces();
+        } catch (final IOException ignored) {
+            // left uncomputed
+        }
+        // fields() and methods() are computed by super.freeze()
+        super.freeze();
+        allComputedHandle.setRelease(this, this.computed == ALL);
+    }
+
+    /**
+     * Compute the value for the given bit with {@code computation}, if it hasn't been computed yet. The computation
+     * receives this object, and must only write the fields holding the value. A computation which throws leaves the
+     * value uncomputed, so it runs again on the next request.
+     */
+    private <X extends Throwable> void compute(
+        final int bit,
+        final @NotNull HypoModelUtil.ThrowingConsumer<LazyClassData, X> computation
+    ) throws X {
+        if (this.isComputed(bit)) {
+            return;
+        }
+        synchronized (this) {
+            if (!this.isComputed(bit)) {
+                computation.acceptThrowing(this);
+                this.setComputed(bit);
+            }
+        }
+    }
+
+    /**
+     * Returns the boolean value for the given bit, which is stored in {@code flags}, computing it with
+     * {@code computation} first if needed.
+     */
+    private boolean flag(final int bit, final @NotNull Predicate<LazyClassData> computation) {
+        if (!this.isComputed(bit)) {
+            this.compute(bit, c -> {
+                if (computation.test(c)) {
+                    c.flags |= bit;
+                }
+            });
+        }
+        return (this.flags & bit) != 0;
+    }
+
+    private boolean isComputed(final int bit) {
+        return (boolean) allComputedHandle.getAcquire(this) || (this.computed & bit) != 0;
+    }
+
+    private void setComputed(final int bit) {
+        computedHandle.getAndBitwiseOr(this, bit);
     }
 }
@@ -18,10 +18,15 @@
 
 package dev.denwav.hypo.model.data;
 
+import com.google.errorprone.annotations.concurrent.LazyInit;
+import java.util.Objects;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
- * Base implementation of {@link MethodData} which lazily retrieves and caches the method descriptor.
+ * Base implementation of {@link MethodData} which lazily retrieves and caches the method descriptor. Unlike
+ * {@link LazyClassData}, {@link #computeDescriptor()} may be called more than once if multiple threads request the
+ * descriptor at the same time, so it must always return an equal value.
  */
 public abstract class LazyMethodData extends AbstractMethodData {
 
@@ -37,11 +42,30 @@ public abstract class LazyMethodData extends AbstractMethodData {
      */
     public abstract @NotNull MethodDescriptor computeDescriptor();
 
-    @SuppressWarnings("this-escape")
-    private final @NotNull LazyValue<MethodDescriptor, ?> descriptor = LazyValue.of(this::computeDescriptor);
+    /*
+     * Method descriptors are immutable, so they can be safely published without locking. If multiple threads race to
+     * compute the descriptor they each compute an equal value, and whichever is written last is kept.
+     */
+    @LazyInit private @Nullable MethodDescriptor descriptor = null;
 
     @Override
     public @NotNull MethodDescriptor descriptor() {
-        return this.descriptor.getNotNull();
+        MethodDescriptor desc = this.descriptor;
+        if (desc == null) {
+            desc = Objects.requireNonNull(this.computeDescriptor());
+            this.descriptor = desc;
+        }
+        return desc;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This also computes the descriptor of this method.
+     */
+    @Override
+    public void freeze() {
+        this.descriptor();
+        super.freeze();
     }
 }
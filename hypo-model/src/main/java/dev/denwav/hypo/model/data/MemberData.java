@@ -49,6 +49,19 @@ public interface MemberData extends HypoData {
      */
     @NotNull ClassData parentClass();
 
+    /**
+     * Get the dense ID of this member data in the {@link ClassData#symbolTable() symbol table} of its class, or
+     * {@code -1} if its class isn't part of a context.
+     *
+     * <p>The default implementation always returns {@code -1}.
+     *
+     * @return The ID of this member data, or {@code -1} if it doesn't have one.
+     * @see SymbolTable
+     */
+    default int id() {
+        return -1;
+    }
+
     /**
      * Returns {@code true} if this member data is {@code static}.
      *
@@ -0,0 +1,205 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.model.data;
+
+import dev.denwav.hypo.model.data.types.JvmType;
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Index of the declared {@link MethodData methods} and {@link FieldData fields} of a class by name, used by
+ * {@link AbstractClassData} for member lookups. Members with the same name are kept in declaration order, so field
+ * lookups which also match the type only compare against the few fields sharing a name, rather than every field of the
+ * class. Methods are also indexed by name and descriptor together, so a method lookup by descriptor is a single hash
+ * lookup.
+ *
+ * <p>All fields are final and never modified after construction, so an index can be safely shared between threads
+ * without synchronization.
+ */
+final class MemberIndex {
+
+    /**
+     * Classes with at most this many methods and fields are searched directly rather than indexed, as scanning a short
+     * list is as fast as a lookup and doesn't cost any memory.
+     */
+    static final int THRESHOLD = 8;
+
+    /**
+     * Values are either a single {@link MethodData} or a {@link MethodData MethodData[]} of all methods with the name.
+     */
+    private final @NotNull HashMap<String, Object> methods;
+    /**
+     * Every method keyed by its name and {@link MethodData#descriptorText() descriptor text}.
+     */
+    private final @NotNull HashMap<MethodKey, MethodData> methodsByDescriptor;
+    /**
+     * Values are either a single {@link FieldData} or a {@link FieldData FieldData[]} of all fields with the name.
+     */
+    private final @NotNull HashMap<String, Object> fields;
+
+    /**
+     * Create a new index of the given methods and fields.
+     *
+     * @param methods The declared methods of the class, in declaration order.
+     * @param fields The declared fields of the class, in declaration order.
+     */
+    MemberIndex(final @NotNull List<MethodData> methods, final @NotNull List<FieldData> fields) {
+        this.methods = new HashMap<>(capacity(methods.size()));
+        this.methodsByDescriptor = new HashMap<>(capacity(methods.size()));
+        for (final MethodData method : methods) {
+            this.methods.merge(method.name(), method, (existing, m) -> append(existing, m, MethodData.class));
+            this.methodsByDescriptor.putIfAbsent(new MethodKey(method.name(), method.descriptorText()), method);
+        }
+        this.fields = new HashMap<>(capacity(fields.size()));
+        for (final FieldData field : fields) {
+            this.fields.merge(field.name(), field, (existing, f) -> append(existing, f, FieldData.class));
+        }
+    }
+
+    private static int capacity(final int size) {
+        return (int) (size / 0.75f) + 1;
+    }
+
+    private static <T> @NotNull Object append(
+        final @NotNull Object existing,
+        final @NotNull Object member,
+        final @NotNull Class<T> type
+    ) {
+        final Object[] array;
+        if (type.isInstance(existing)) {
+            array = (Object[]) Array.newInstance(type, 2);
+            array[0] = existing;
+        } else {
+            final Object[] current = (Object[]) existing;
+            array = Arrays.copyOf(current, current.length + 1);
+        }
+        array[array.length - 1] = member;
+        return array;
+    }
+
+    /**
+     * Returns every method with the given name, in declaration order.
+     *
+     * @param name The name of the methods to find.
+     * @return Every method with the given name.
+     */
+    @NotNull List<@NotNull MethodData> methods(final @NotNull String name) {
+        return list(this.methods.get(name), MethodData.class);
+    }
+
+    /**
+     * Returns the method with the given name and descriptor, or {@code null} if there is none.
+     *
+     * @param name The name of the method to find.
+     * @param descriptor The descriptor of the method to find.
+     * @return The method with the given name and descriptor, or {@code null} if there is none.
+     */
+    @Nullable MethodData method(final @NotNull String name, final @NotNull MethodDescriptor descriptor) {
+        return this.method(name, descriptor.toInternalString());
+    }
+
+    /**
+     * Returns the method with the given name and descriptor text, or {@code null} if there is none.
+     *
+     * @param name The name of the method to find.
+     * @param descriptor The internal JVM text representation of the descriptor of the method to find.
+     * @return The method with the given name and descriptor, or {@code null} if there is none.
+     */
+    @Nullable MethodData method(final @NotNull String name, final @NotNull String descriptor) {
+        return this.methodsByDescriptor.get(new MethodKey(name, descriptor));
+    }
+
+    /**
+     * Returns every field with the given name, in declaration order.
+     *
+     * @param name The name of the fields to find.
+     * @return Every field with the given name.
+     */
+    @NotNull List<@NotNull FieldData> fields(final @NotNull String name) {
+        return list(this.fields.get(name), FieldData.class);
+    }
+
+    /**
+     * Returns the field with the given name and type, or {@code null} if there is none.
+     *
+     * @param name The name of the field to find.
+     * @param type The type of the field to find.
+     * @return The field with the given name and type, or {@code null} if there is none.
+     */
+    @Nullable FieldData field(final @NotNull String name, final @NotNull JvmType type) {
+        final Object value = this.fields.get(name);
+        if (value instanceof FieldData) {
+            final FieldData field = (FieldData) value;
+            return field.fieldType().equals(type) ? field : null;
+        } else if (value != null) {
+            for (final FieldData field : (FieldData[]) value) {
+                if (field.fieldType().equals(type)) {
+                    return field;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static <T> @NotNull List<@NotNull T> list(final @Nullable Object value, final @NotNull Class<T> type) {
+        if (value == null) {
+            return Collections.emptyList();
+        } else if (type.isInstance(value)) {
+            return Collections.singletonList(type.cast(value));
+        } else {
+            @SuppressWarnings("unchecked")
+            final T[] array = (T[]) value;
+            return Collections.unmodifiableList(Arrays.asList(array));
+        }
+    }
+
+    /**
+     * Key of a method by its name and descriptor text. The hash code is computed up front from the cached hash codes of
+     * both strings.
+     */
+    private static final class MethodKey {
+        private final @NotNull String name;
+        private final @NotNull String descriptor;
+        private final int hash;
+
+        MethodKey(final @NotNull String name, final @NotNull String descriptor) {
+            this.name = name;
+            this.descriptor = descriptor;
+            this.hash = 31 * name.hashCode() + descriptor.hashCode();
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (o == null || this.getClass() != o.getClass()) return false;
+            final MethodKey that = (MethodKey) o;
+            return this.hash == that.hash && this.name.equals(that.name) && this.descriptor.equals(that.descriptor);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+}
@@ -19,10 +19,12 @@
 package dev.denwav.hypo.model.data;
 
 import com.google.errorprone.annotations.Immutable;
+import com.google.errorprone.annotations.concurrent.LazyInit;
 import dev.denwav.hypo.model.data.types.ArrayType;
 import dev.denwav.hypo.model.data.types.ClassType;
 import dev.denwav.hypo.model.data.types.JvmType;
 import dev.denwav.hypo.model.data.types.PrimitiveType;
+import dev.denwav.hypo.model.data.types.TypeInterner;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -40,13 +42,24 @@ import org.jetbrains.annotations.Nullable;
  *     <li>The method parameter list</li>
  *     <li>The method return type</li>
  * </ol>
+ *
+ * <p>{@link #parseDescriptor(String)} returns a shared instance for each descriptor string, so the same descriptor
+ * used by many methods is only parsed and stored once.
  */
 @Immutable
 public final class MethodDescriptor {
 
+    private static final TypeInterner<String, MethodDescriptor> INTERNER = new TypeInterner<>();
+
     @SuppressWarnings("Immutable") // errorprone doesn't know that this is immutable
     private final @NotNull List<@NotNull JvmType> params;
     private final @NotNull JvmType returnType;
+    private final int hash;
+    /**
+     * The internal JVM text representation of this descriptor. Set by {@link #parseDescriptor(String)}, otherwise
+     * computed the first time it's requested.
+     */
+    @LazyInit private @Nullable String internalString;
 
     /**
      * Create a new descriptor for the given method parameter types and return type.
@@ -55,20 +68,38 @@ public final class MethodDescriptor {
      * @param returnType The method return type.
      */
     public MethodDescriptor(final @NotNull List<@NotNull JvmType> params, final @NotNull JvmType returnType) {
+        this(params, returnType, null);
+    }
+
+    private MethodDescriptor(
+        final @NotNull List<@NotNull JvmType> params,
+        final @NotNull JvmType returnType,
+        final @Nullable String internalString
+    ) {
         this.params = List.copyOf(params);
         this.returnType = returnType;
+        this.hash = Objects.hash(this.params, returnType);
+        this.internalString = internalString;
     }
 
     /**
-     * Parses the given method descriptor string into a new {@link MethodDescriptor}. The descriptor string must be a
+     * Parses the given method descriptor string into a {@link MethodDescriptor}. The descriptor string must be a
      * valid descriptor in the internal JVM format. Invalid descriptor strings will result in a
      * {@link IllegalArgumentException}.
      *
+     * <p>Descriptors are shared, so parsing an equal descriptor string again usually returns the same instance without
+     * parsing it again. Descriptors which are no longer used are dropped, so this isn't guaranteed, but the returned
+     * descriptors are always equal.
+     *
      * @param desc The method descriptor string to parse.
-     * @return The new {@link MethodDescriptor}.
+     * @return The {@link MethodDescriptor}.
      * @throws IllegalArgumentException If the given descriptor is not valid.
      */
     public static @NotNull MethodDescriptor parseDescriptor(final @NotNull String desc) {
+        return INTERNER.intern(desc, MethodDescriptor::parse);
+    }
+
+    private static @NotNull MethodDescriptor parse(final @NotNull String desc) {
         if (!desc.startsWith("(")) {
             throw new IllegalArgumentException("desc is invalid: Does not start with '(': " + desc);
         }
@@ -79,12 +110,13 @@ public final class MethodDescriptor {
         final JvmType[] ref = new JvmType[1];
 
         final int len = desc.length();
+        int end = -1;
         // starting at 1, skipping first '('
         for (int i = 1; i < len; i++) {
             i = parseType(ref, desc, i);
             final JvmType t = ref[0];
             if (t == null) {
-                parseType(ref, desc, i + 1);
+                end = parseType(ref, desc, i + 1);
                 returnType = ref[0];
                 break;
             }
@@ -95,7 +127,9 @@ public final class MethodDescriptor {
             throw new IllegalArgumentException("desc is invalid: Does not have a return type: " + desc);
         }
 
-        return new MethodDescriptor(params, returnType);
+        // The given string is only the internal form if parsing didn't ignore or normalize any of it
+        final boolean canonical = end == len - 1 && desc.indexOf('.') == -1;
+        return new MethodDescriptor(params, returnType, canonical ? desc : null);
     }
 
     private static int parseType(final @Nullable JvmType @NotNull [] ref, final @NotNull String desc, final int index) {
@@ -149,7 +183,7 @@ public final class MethodDescriptor {
                     throw new IllegalArgumentException("desc is invalid: Class type at index " + index +
                         " is not terminated: " + desc);
                 }
-                ref[0] = new ClassType(desc.substring(index, end + 1));
+                ref[0] = ClassType.of(desc.substring(index + 1, end));
                 return end;
             case '[':
                 final int len = desc.length();
@@ -170,7 +204,7 @@ public final class MethodDescriptor {
                     throw new IllegalArgumentException("desc is invalid: Array type at index " + index +
                         " is not terminated: " + desc);
                 }
-                ref[0] = new ArrayType(parsed, dim);
+                ref[0] = ArrayType.of(parsed, dim);
                 return newIndex;
             case ')':
                 ref[0] = null;
@@ -206,6 +240,11 @@ public final class MethodDescriptor {
      */
     @Contract(pure = true)
     public @NotNull String toInternalString() {
+        String internal = this.internalString;
+        if (internal != null) {
+            return internal;
+        }
+
         final StringBuilder sb = new StringBuilder();
         sb.append('(');
         for (final JvmType param : this.params) {
@@ -213,7 +252,9 @@ public final class MethodDescriptor {
         }
         sb.append(')');
         this.returnType.asInternalName(sb);
-        return sb.toString();
+        internal = sb.toString();
+        this.internalString = internal;
+        return internal;
     }
 
     @Override
@@ -221,12 +262,12 @@ public final class MethodDescriptor {
         if (this == o) return true;
         if (o == null || this.getClass() != o.getClass()) return false;
         final MethodDescriptor that = (MethodDescriptor) o;
-        return this.params.equals(that.params) && this.returnType.equals(that.returnType);
+        return this.hash == that.hash && this.params.equals(that.params) && this.returnType.equals(that.returnType);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(this.params, this.returnType);
+        return this.hash;
     }
 
     /**
@@ -0,0 +1,244 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.model.data;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Precomputed index of the class hierarchy of a set of classes, which answers
+ * {@link ClassData#doesExtend(ClassData)}, {@link ClassData#doesImplement(ClassData)} and
+ * {@link ClassData#doesExtendOrImplement(ClassData)} without walking the hierarchy.
+ *
+ * <p>{@link #build(Iterable)} indexes the given classes and all of their super types, and
+ * {@link ClassData#setSubtypeNode(Node) sets} the {@link Node node} of each of them. The {@link ClassData} methods use
+ * the index whenever both classes have a node from the same index, and walk the hierarchy as usual otherwise. Classes
+ * are identified by {@link ClassData#equals(Object) equality}, the same as when walking the hierarchy.
+ *
+ * <p>The super class and first interface chains are stored as arrays indexed by depth, so {@code doesExtend} and
+ * {@code doesImplement} are a single array access. {@code doesExtendOrImplement} is a binary search of the sorted IDs of
+ * every super type of the class.
+ *
+ * <p>The index itself only holds its size. The nodes reference the index, but not the classes, so the index doesn't
+ * keep any classes reachable.
+ */
+public final class SubtypeIndex {
+
+    private int size = 0;
+
+    private SubtypeIndex() {}
+
+    /**
+     * Build a new index of the given classes and all of their super types, and set the {@link Node node} of each of
+     * them. This method is not thread safe, none of the given classes may be queried concurrently while it runs.
+     *
+     * @param classes The classes to index.
+     * @return The new index.
+     */
+    public static @NotNull SubtypeIndex build(final @NotNull Iterable<? extends ClassData> classes) {
+        final Builder builder = new Builder(new SubtypeIndex());
+        for (final ClassData classData : classes) {
+            builder.node(classData);
+        }
+        builder.index.size = builder.nodes.size();
+        return builder.index;
+    }
+
+    /**
+     * Returns the number of distinct classes in this index.
+     *
+     * @return The number of distinct classes in this index.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * State used while building a {@link SubtypeIndex}, which is dropped once the index is built.
+     */
+    private static final class Builder {
+
+        private final @NotNull SubtypeIndex index;
+        private final @NotNull HashMap<ClassData, Node> nodes = new HashMap<>();
+        private final @NotNull HashSet<ClassData> building = new HashSet<>();
+
+        private Builder(final @NotNull SubtypeIndex index) {
+            this.index = index;
+        }
+
+        private @Nullable Node node(final @NotNull ClassData classData) {
+            Node node = this.nodes.get(classData);
+            if (node == null) {
+                if (!this.building.add(classData)) {
+                    // Circular hierarchy, the walk wouldn't terminate either
+                    return null;
+                }
+                node = this.createNode(classData);
+                this.nodes.put(classData, node);
+            }
+            classData.setSubtypeNode(node);
+            return node;
+        }
+
+        private @NotNull Node createNode(final @NotNull ClassData classData) {
+            // IO errors are handled the same as in the ClassData methods, the failing branch is treated as empty
+            Node superNode = null;
+            boolean superClassFailed = false;
+            try {
+                final ClassData superClass = classData.superClass();
+                if (superClass != null) {
+                    superNode = this.node(superClass);
+                }
+            } catch (final IOException ignored) {
+                superClassFailed = true;
+            }
+
+            Node interfaceNode = null;
+            int[] superTypes = new int[0];
+            int superTypesSize = 0;
+            try {
+                final List<ClassData> interfaces = classData.interfaces();
+                for (final ClassData iface : interfaces) {
+                    if (iface != null) {
+                        interfaceNode = this.node(iface);
+                        break;
+                    }
+                }
+
+                // doesExtendOrImplement only follows any super types if both the super class and interfaces can be read
+                if (!superClassFailed) {
+                    if (superNode != null) {
+                        superTypes = superNode.superTypes;
+                        superTypesSize = superTypes.length;
+                    }
+                    for (final ClassData iface : interfaces) {
+                        final Node node = iface == null ? null : this.node(iface);
+                        if (node == null) {
+                            continue;
+                        }
+                        if (superTypes.length < superTypesSize + node.superTypes.length) {
+                            superTypes = Arrays.copyOf(superTypes, superTypesSize + node.superTypes.length + 1);
+                        }
+                        System.arraycopy(node.superTypes, 0, superTypes, superTypesSize, node.superTypes.length);
+                        superTypesSize += node.superTypes.length;
+                    }
+                }
+            } catch (final IOException ignored) {
+                superTypesSize = 0;
+            }
+
+            // IDs are assigned after all super types, so this class always sorts last
+            final int id = this.nodes.size();
+            final int[] sorted = Arrays.copyOf(superTypes, superTypesSize + 1);
+            Arrays.sort(sorted, 0, superTypesSize);
+            int size = 0;
+            for (int i = 0; i < superTypesSize; i++) {
+                if (size == 0 || sorted[size - 1] != sorted[i]) {
+                    sorted[size++] = sorted[i];
+                }
+            }
+            sorted[size++] = id;
+
+            return new Node(
+                this.index,
+                id,
+                chain(superNode == null ? null : superNode.superClasses),
+                chain(interfaceNode == null ? null : interfaceNode.interfaces),
+                size == sorted.length ? sorted : Arrays.copyOf(sorted, size)
+            );
+        }
+
+        private static int @NotNull [] chain(final int @Nullable [] parentChain) {
+            // The last element is replaced with this node's ID once it is known
+            if (parentChain == null) {
+                return new int[1];
+            }
+            return Arrays.copyOf(parentChain, parentChain.length + 1);
+        }
+    }
+
+    /**
+     * A single class in a {@link SubtypeIndex}.
+     *
+     * @see ClassData#subtypeNode()
+     */
+    public static final class Node {
+
+        private final @NotNull SubtypeIndex index;
+        private final int id;
+        /**
+         * IDs of the super class chain, from the root down to this class. The ID at index {@code n} is the class at
+         * depth {@code n}.
+         */
+        private final int @NotNull [] superClasses;
+        /**
+         * IDs of the first interface chain, from the root down to this class, matching
+         * {@link ClassData#doesImplement(ClassData)}.
+         */
+        private final int @NotNull [] interfaces;
+        /**
+         * Sorted IDs of every class this class extends or implements, including itself.
+         */
+        private final int @NotNull [] superTypes;
+
+        private Node(
+            final @NotNull SubtypeIndex index,
+            final int id,
+            final int @NotNull [] superClasses,
+            final int @NotNull [] interfaces,
+            final int @NotNull [] superTypes
+        ) {
+            superClasses[superClasses.length - 1] = id;
+            interfaces[interfaces.length - 1] = id;
+            this.index = index;
+            this.id = id;
+            this.superClasses = superClasses;
+            this.interfaces = interfaces;
+            this.superTypes = superTypes;
+        }
+
+        /**
+         * Returns the {@link SubtypeIndex} this node is part of.
+         *
+         * @return The {@link SubtypeIndex} this node is part of.
+         */
+        public @NotNull SubtypeIndex index() {
+            return this.index;
+        }
+
+        boolean doesExtend(final @NotNull Node that) {
+            final int depth = that.superClasses.length - 1;
+            return depth < this.superClasses.length && this.superClasses[depth] == that.id;
+        }
+
+        boolean doesImplement(final @NotNull Node that) {
+            final int depth = that.interfaces.length - 1;
+            return depth < this.interfaces.length && this.interfaces[depth] == that.id;
+        }
+
+        boolean doesExtendOrImplement(final @NotNull Node that) {
+            return Arrays.binarySearch(this.superTypes, that.id) >= 0;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.model.data;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Table of dense {@code int} IDs for the classes and members of a single context. IDs start at {@code 0} and are
+ * assigned in the order classes are {@link #register(ClassData) registered}, so they can be used to index arrays and
+ * {@link java.util.BitSet bit sets} instead of hashing class and member names.
+ *
+ * <p>Class IDs are assigned by class name, so if a class is parsed again (for example after being evicted from its
+ * provider's cache) the new {@link ClassData} object gets the same ID. The table only stores class names, not the
+ * objects themselves, so it never keeps classes in memory. Use the provider to find the current object for an ID.
+ *
+ * <p>Each class reserves a contiguous range of member IDs the first time the {@link MemberData#id() ID} of one of its
+ * members is requested. Methods come first in declaration order, followed by fields in declaration order. The IDs of
+ * all members of the class are assigned in the same pass, so requesting the IDs of every member only walks the members
+ * of the class once. Member IDs are dense across all classes which have had member IDs requested.
+ *
+ * <p>This class is thread safe.
+ */
+public final class SymbolTable {
+
+    private final @NotNull ConcurrentHashMap<String, Integer> classIds = new ConcurrentHashMap<>();
+
+    private @NotNull String @NotNull [] classNames = new String[256];
+    private int @NotNull [] memberBases = filled(256);
+    private int classCount = 0;
+
+    /**
+     * Start of each reserved member range, in increasing order.
+     */
+    private int @NotNull [] rangeStarts = new int[256];
+    /**
+     * Class ID of each reserved member range, parallel to {@link #rangeStarts}.
+     */
+    private int @NotNull [] rangeClasses = new int[256];
+    private int rangeCount = 0;
+    private int memberCount = 0;
+
+    /**
+     * Create a new empty symbol table.
+     */
+    public SymbolTable() {}
+
+    private static int @NotNull [] filled(final int size) {
+        final int[] array = new int[size];
+        Arrays.fill(array, -1);
+        return array;
+    }
+
+    /**
+     * Assign the given class its ID in this table, and {@link ClassData#setSymbolTable(SymbolTable, int) set} it on the
+     * class. Classes with the same name are given the same ID.
+     *
+     * @param classData The class to register.
+     * @return The ID of the class.
+     */
+    public int register(final @NotNull ClassData classData) {
+        final String name = classData.name();
+        Integer id = this.classIds.get(name);
+        if (id == null) {
+            id = this.add(name);
+        }
+        classData.setSymbolTable(this, id);
+        return id;
+    }
+
+    private synchronized int add(final @NotNull String name) {
+        final Integer existing = this.classIds.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        final int id = this.classCount++;
+        if (id == this.classNames.length) {
+            this.classNames = Arrays.copyOf(this.classNames, id * 2);
+            final int[] bases = filled(id * 2);
+            System.arraycopy(this.memberBases, 0, bases, 0, id);
+            this.memberBases = bases;
+        }
+        this.classNames[id] = name;
+        this.classIds.put(name, id);
+        return id;
+    }
+
+    /**
+     * Returns the ID of the class with the given name, or {@code -1} if no class with the given name has been
+     * registered.
+     *
+     * @param className The name of the class, in the internal JVM format.
+     * @return The ID of the class, or {@code -1} if it hasn't been registered.
+     */
+    public int classId(final @NotNull String className) {
+        final Integer id = this.classIds.get(className);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Returns the name of the class with the given ID, or {@code null} if there is no class with the given ID.
+     *
+     * @param id The ID of the class.
+     * @return The name of the class with the given ID, or {@code null} if there is none.
+     */
+    public synchronized @Nullable String className(final int id) {
+        return id >= 0 && id < this.classCount ? this.classNames[id] : null;
+    }
+
+    /**
+     * Returns the number of classes registered in this table. Every class ID is less than this number.
+     *
+     * @return The number of classes registered in this table.
+     */
+    public synchronized int classCount() {
+        return this.classCount;
+    }
+
+    /**
+     * Returns the number of member IDs reserved in this table. Every member ID is less than this number.
+     *
+     * @return The number of member IDs reserved in this table.
+     */
+    public synchronized int memberCount() {
+        return this.memberCount;
+    }
+
+    /**
+     * Returns the ID of the class which declares the member with the given ID, or {@code -1} if there is no member with
+     * the given ID.
+     *
+     * @param memberId The ID of the member.
+     * @return The ID of the class which declares the member, or {@code -1} if there is none.
+     */
+    public synchronized int memberClassId(final int memberId) {
+        if (memberId < 0 || memberId >= this.memberCount) {
+            return -1;
+        }
+        int index = Arrays.binarySearch(this.rangeStarts, 0, this.rangeCount, memberId);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        return this.rangeClasses[index];
+    }
+
+    /**
+     * Returns the first member ID of the class with the given ID, or {@code -1} if the class hasn't reserved any member
+     * IDs yet.
+     *
+     * @param classId The ID of the class.
+     * @return The first member ID of the class, or {@code -1} if none have been reserved.
+     */
+    public synchronized int memberBase(final int classId) {
+        return classId >= 0 && classId < this.classCount ? this.memberBases[classId] : -1;
+    }
+
+    /**
+     * Returns the ID of the given member, reserving the member IDs of its class first if needed. The IDs of the other
+     * members of the class are {@link AbstractMethodData#setId(int) set} on them in the same pass, so they don't need
+     * to look up their own. Returns {@code -1} if the class of the member isn't registered in a symbol table, or
+     * doesn't declare the given member.
+     *
+     * @param member The member to get the ID of.
+     * @return The ID of the member, or {@code -1} if it doesn't have one.
+     */
+    static int memberId(final @NotNull MemberData member) {
+        final ClassData parentClass = member.parentClass();
+        final SymbolTable table = parentClass.symbolTable();
+        if (table == null || parentClass.id() < 0) {
+            return -1;
+        }
+
+        final List<MethodData> methods = parentClass.methods();
+        final List<FieldData> fields = parentClass.fields();
+        int id = table.reserveMembers(parentClass.id(), methods.size() + fields.size());
+        int result = -1;
+        for (final MethodData method : methods) {
+            if (method == member) {
+                result = id;
+            } else if (method instanceof AbstractMethodData) {
+                ((AbstractMethodData) method).setId(id);
+            }
+            id++;
+        }
+        for (final FieldData field : fields) {
+            if (field == member) {
+                result = id;
+            } else if (field instanceof AbstractFieldData) {
+                ((AbstractFieldData) field).setId(id);
+            }
+            id++;
+        }
+        return result;
+    }
+
+    private synchronized int reserveMembers(final int classId, final int count) {
+        final int existing = this.memberBases[classId];
+        if (existing != -1) {
+            return existing;
+        }
+        final int base = this.memberCount;
+        if (this.rangeCount == this.rangeStarts.length) {
+            this.rangeStarts = Arrays.copyOf(this.rangeStarts, this.rangeCount * 2);
+            this.rangeClasses = Arrays.copyOf(this.rangeClasses, this.rangeCount * 2);
+        }
+        this.rangeStarts[this.rangeCount] = base;
+        this.rangeClasses[this.rangeCount] = classId;
+        this.rangeCount++;
+        this.memberBases[classId] = base;
+        this.memberCount += count;
+        return base;
+    }
+}
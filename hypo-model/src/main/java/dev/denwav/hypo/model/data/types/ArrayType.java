@@ -34,13 +34,19 @@ import org.jetbrains.annotations.NotNull;
  *     </li>
  *     <li>The dimension of the array</li>
  * </ol>
+ *
+ * <p>Prefer {@link #of(JvmType, int)} over the constructor, which returns a shared instance for each array type so
+ * equal types are usually the same object.
  */
 @Immutable
 public final class ArrayType implements JvmType {
 
+    private static final TypeInterner<ArrayType, ArrayType> INTERNER = new TypeInterner<>();
+
     private final @NotNull JvmType baseType;
 
     private final int dimension;
+    private final int hash;
 
     /**
      * Create a new array type with the given base type and dimension.
@@ -49,6 +55,7 @@ public final class ArrayType implements JvmType {
      * @param dimension The dimension of this array type.
      * @throws IllegalArgumentException If the given {@code dimension <= 0} or the given {@code baseType} is an
      *                                  {@link ArrayType}
+     * @see #of(JvmType, int)
      */
     public ArrayType(final @NotNull JvmType baseType, final int dimension) {
         if (dimension <= 0) {
@@ -60,6 +67,22 @@ public final class ArrayType implements JvmType {
 
         this.baseType = baseType;
         this.dimension = dimension;
+        this.hash = Objects.hash(baseType, dimension);
+    }
+
+    /**
+     * Returns the shared array type with the given base type and dimension. Array types which are no longer used are
+     * dropped from the pool of shared instances, so this may not return the same instance for every call with the same
+     * arguments, but the returned types are always equal.
+     *
+     * @param baseType The base type of the array type.
+     * @param dimension The dimension of the array type.
+     * @return The shared array type with the given base type and dimension.
+     * @throws IllegalArgumentException If the given {@code dimension <= 0} or the given {@code baseType} is an
+     *                                  {@link ArrayType}
+     */
+    public static @NotNull ArrayType of(final @NotNull JvmType baseType, final int dimension) {
+        return INTERNER.intern(new ArrayType(baseType, dimension), t -> t);
     }
 
     /**
@@ -109,12 +132,14 @@ public final class ArrayType implements JvmType {
         if (this == o) return true;
         if (!(o instanceof ArrayType)) return false;
         final ArrayType arrayType = (ArrayType) o;
-        return this.dimension == arrayType.dimension && this.baseType.equals(arrayType.baseType);
+        return this.hash == arrayType.hash
+            && this.dimension == arrayType.dimension
+            && this.baseType.equals(arrayType.baseType);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(this.baseType, this.dimension);
+        return this.hash;
     }
 
     @Override
@@ -26,19 +26,41 @@ import org.jetbrains.annotations.Nullable;
 
 /**
  * A standard class or reference type.
+ *
+ * <p>Prefer {@link #of(String)} over the constructor, which returns a shared instance for each class name so equal
+ * types are usually the same object.
  */
 @Immutable
 public final class ClassType implements JvmType {
 
+    private static final TypeInterner<String, ClassType> INTERNER = new TypeInterner<>();
+
     private final @NotNull String className;
+    private final int hash;
 
     /**
      * Create a new class type from the given class name.
      *
      * @param className The name of the class this type represents.
+     * @see #of(String)
      */
     public ClassType(final @NotNull String className) {
         this.className = HypoModelUtil.normalizedClassName(className);
+        this.hash = Objects.hash(this.className);
+    }
+
+    /**
+     * Returns the shared class type for the given class name. The class name is normalized the same way as in
+     * {@link #ClassType(String) the constructor}. Class types which are no longer used are dropped from the pool of
+     * shared instances, so this may not return the same instance for every call with the same name, but the returned
+     * types are always equal.
+     *
+     * @param className The name of the class the type represents.
+     * @return The shared class type for the given class name.
+     */
+    public static @NotNull ClassType of(final @NotNull String className) {
+        // The normalized name is returned as-is by normalizedClassName(), so the new type references the key
+        return INTERNER.intern(HypoModelUtil.normalizedClassName(className), ClassType::new);
     }
 
     @Override
@@ -58,12 +80,28 @@ public final class ClassType implements JvmType {
      *         type.
      */
     public @Nullable PrimitiveType toPrimitiveType() {
-        for (final PrimitiveType value : PrimitiveType.values()) {
-            if (value.toWrapperType().equals(this)) {
-                return value;
-            }
+        switch (this.className) {
+            case "java/lang/Character":
+                return PrimitiveType.CHAR;
+            case "java/lang/Byte":
+                return PrimitiveType.BYTE;
+            case "java/lang/Short":
+                return PrimitiveType.SHORT;
+            case "java/lang/Integer":
+                return PrimitiveType.INT;
+            case "java/lang/Long":
+                return PrimitiveType.LONG;
+            case "java/lang/Float":
+                return PrimitiveType.FLOAT;
+            case "java/lang/Double":
+                return PrimitiveType.DOUBLE;
+            case "java/lang/Boolean":
+                return PrimitiveType.BOOLEAN;
+            case "java/lang/Void":
+                return PrimitiveType.VOID;
+            default:
+                return null;
         }
-        return null;
     }
 
     @Override
@@ -71,12 +109,12 @@ public final class ClassType implements JvmType {
         if (this == o) return true;
         if (!(o instanceof ClassType)) return false;
         final ClassType classType = (ClassType) o;
-        return this.className.equals(classType.className);
+        return this.hash == classType.hash && this.className.equals(classType.className);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(this.className);
+        return this.hash;
     }
 
     @Override
@@ -74,7 +74,7 @@ public enum PrimitiveType implements JvmType {
     ) {
         this.readableName = readableName;
         this.internalName = internalName;
-        this.wrapperType = new ClassType(wrapperType);
+        this.wrapperType = ClassType.of(wrapperType);
     }
 
     /**
@@ -105,12 +105,28 @@ public enum PrimitiveType implements JvmType {
      * @see #asInternalName()
      */
     public static @NotNull PrimitiveType fromChar(final char c) {
-        for (final PrimitiveType v : PrimitiveType.values()) {
-            if (v.internalName.charAt(0) == c) {
-                return v;
-            }
+        switch (c) {
+            case 'C':
+                return CHAR;
+            case 'B':
+                return BYTE;
+            case 'S':
+                return SHORT;
+            case 'I':
+                return INT;
+            case 'J':
+                return LONG;
+            case 'F':
+                return FLOAT;
+            case 'D':
+                return DOUBLE;
+            case 'Z':
+                return BOOLEAN;
+            case 'V':
+                return VOID;
+            default:
+                throw new IllegalStateException("Unknown type: " + c);
         }
-        throw new IllegalStateException("Unknown type: " + c);
     }
 
     @Override
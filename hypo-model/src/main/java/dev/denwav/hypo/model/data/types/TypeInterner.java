@@ -0,0 +1,170 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.model.data.types;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Thread safe pool of canonical instances of immutable model types, used by {@link ClassType#of(String)},
+ * {@link ArrayType#of(JvmType, int)} and {@link dev.denwav.hypo.model.data.MethodDescriptor#parseDescriptor(String)
+ * MethodDescriptor.parseDescriptor(String)}. Instances are only weakly held, so types which are no longer used anywhere
+ * else can be garbage collected. This class is not intended to be used outside of Hypo.
+ *
+ * <p>Every value must strongly reference the exact key instance it was created from, so the entry for a value stays in
+ * the pool for as long as the value is reachable. The pool is a {@link ConcurrentHashMap} of weak keys, so looking up
+ * an existing instance never locks. Only adding a new instance locks, and only the single bin of the map it goes into.
+ *
+ * @param <K> The type of the keys of this pool.
+ * @param <V> The type of the canonical instances in this pool.
+ */
+@ApiStatus.Internal
+public final class TypeInterner<K, V> {
+
+    private final @NotNull ConcurrentHashMap<Key, WeakReference<V>> map = new ConcurrentHashMap<>();
+    private final @NotNull ReferenceQueue<Object> queue = new ReferenceQueue<>();
+
+    /**
+     * Create a new empty pool.
+     */
+    public TypeInterner() {}
+
+    /**
+     * Returns the canonical instance for the given key, creating it with the given factory if there is none.
+     *
+     * @param key The key to find the canonical instance for.
+     * @param factory The factory to create the canonical instance, if needed. The result must strongly reference
+     *                {@code key}.
+     * @return The canonical instance for the given key.
+     */
+    public @NotNull V intern(final @NotNull K key, final @NotNull Function<? super K, ? extends V> factory) {
+        final WeakReference<V> ref = this.map.get(new LookupKey(key));
+        final V value = ref != null ? ref.get() : null;
+        if (value != null) {
+            return value;
+        }
+        return this.add(key, factory);
+    }
+
+    private @NotNull V add(final @NotNull K key, final @NotNull Function<? super K, ? extends V> factory) {
+        this.expungeStaleEntries();
+
+        final V value = factory.apply(key);
+        final WeakReference<V> ref = new WeakReference<>(value);
+        final WeakKey weakKey = new WeakKey(key, this.queue);
+        while (true) {
+            final WeakReference<V> existingRef = this.map.putIfAbsent(weakKey, ref);
+            if (existingRef == null) {
+                return value;
+            }
+            final V existing = existingRef.get();
+            if (existing != null) {
+                // Another thread added an instance first
+                return existing;
+            }
+            // The old instance was collected while its key is still reachable, replacing only the value would keep the
+            // old key, which the new value doesn't reference
+            this.map.remove(weakKey, existingRef);
+        }
+    }
+
+    /**
+     * Remove the entries of all keys which have been garbage collected. Cleared keys are only equal to themselves, so
+     * this removes exactly the entry each cleared key was added with.
+     */
+    private void expungeStaleEntries() {
+        Reference<?> ref;
+        while ((ref = this.queue.poll()) != null) {
+            this.map.remove((WeakKey) ref);
+        }
+    }
+
+    /**
+     * Common type of the keys of {@link #map}, so a {@link LookupKey} can find the entry of an equal {@link WeakKey}.
+     */
+    private interface Key {
+        @Nullable Object referent();
+
+        static boolean keyEquals(final @NotNull Key key, final @Nullable Object o) {
+            if (key == o) return true;
+            if (!(o instanceof Key)) return false;
+            final Object referent = key.referent();
+            return referent != null && referent.equals(((Key) o).referent());
+        }
+    }
+
+    /**
+     * Temporary strong key used to look up entries without adding them.
+     */
+    private static final class LookupKey implements Key {
+        private final @NotNull Object referent;
+
+        LookupKey(final @NotNull Object referent) {
+            this.referent = referent;
+        }
+
+        @Override
+        public @NotNull Object referent() {
+            return this.referent;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return Key.keyEquals(this, o);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.referent.hashCode();
+        }
+    }
+
+    /**
+     * Weak key of an entry in the map. The hash code is kept so the entry can still be found after the key is cleared.
+     */
+    private static final class WeakKey extends WeakReference<Object> implements Key {
+        private final int hash;
+
+        WeakKey(final @NotNull Object referent, final @NotNull ReferenceQueue<Object> queue) {
+            super(referent, queue);
+            this.hash = referent.hashCode();
+        }
+
+        @Override
+        public @Nullable Object referent() {
+            return this.get();
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return Key.keyEquals(this, o);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.model;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("IndexedJarClassProviderRoot Tests")
+public class IndexedJarClassProviderRootTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Test IndexedJarClassProviderRoot matches JarClassProviderRoot")
+    public void testMatchesZipFileSystem() throws IOException {
+        final Map<String, byte[]> files = new LinkedHashMap<>();
+        files.put("com/example/Stored.class", "stored class data".getBytes(StandardCharsets.UTF_8));
+        files.put("com/example/Deflated.class", "deflated class data ".repeat(100).getBytes(StandardCharsets.UTF_8));
+        files.put("com/example/Empty.class", new byte[0]);
+        files.put("META-INF/MANIFEST.MF", "Manifest-Version: 1.0\n".getBytes(StandardCharsets.UTF_8));
+
+        final Path jar = this.tempDir.resolve("test.jar");
+        try (
+            final OutputStream out = Files.newOutputStream(jar);
+            final ZipOutputStream zos = new ZipOutputStream(out)
+        ) {
+            zos.putNextEntry(new ZipEntry("com/example/"));
+            zos.closeEntry();
+            for (final Map.Entry<String, byte[]> file : files.entrySet()) {
+                final ZipEntry entry = new ZipEntry(file.getKey());
+                if (file.getKey().contains("Stored")) {
+                    final CRC32 crc = new CRC32();
+                    crc.update(file.getValue());
+                    entry.setMethod(ZipEntry.STORED);
+                    entry.setSize(file.getValue().length);
+                    entry.setCompressedSize(file.getValue().length);
+                    entry.setCrc(crc.getValue());
+                }
+                zos.putNextEntry(entry);
+                zos.write(file.getValue());
+                zos.closeEntry();
+            }
+        }
+
+        try (
+            final ClassProviderRoot expected = ClassProviderRoot.fromJar(jar);
+            final ClassProviderRoot actual = ClassProviderRoot.fromJarIndexed(jar)
+        ) {
+            final TreeSet<String> expectedNames = new TreeSet<>();
+            for (final ClassProviderRoot.FileDataReference ref : expected.getAllClasses()) {
+                expectedNames.add(ref.name());
+            }
+            final TreeSet<String> actualNames = new TreeSet<>();
+            for (final ClassProviderRoot.FileDataReference ref : actual.getAllClasses()) {
+                actualNames.add(ref.name());
+                Assertions.assertArrayEquals(files.get(ref.name()), ref.readData());
+            }
+            Assertions.assertEquals(expectedNames, actualNames);
+
+            for (final Map.Entry<String, byte[]> file : files.entrySet()) {
+                Assertions.assertArrayEquals(file.getValue(), actual.getClassData(file.getKey()));
+                Assertions.assertArrayEquals(expected.getClassData(file.getKey()), actual.getClassData(file.getKey()));
+            }
+            Assertions.assertNull(actual.getClassData("com/example/Missing.class"));
+            Assertions.assertNull(actual.getClassData("com/example/"));
+        }
+    }
+
+    @Test
+    @DisplayName("Test IndexedJarClassProviderRoot returns the last of duplicated entries like JarClassProviderRoot")
+    public void testDuplicateEntries() throws IOException {
+        // ZipOutputStream rejects duplicate names, so write two names of the same length and rename one afterwards
+        final Path jar = this.tempDir.resolve("duplicate.jar");
+        try (
+            final OutputStream out = Files.newOutputStream(jar);
+            final ZipOutputStream zos = new ZipOutputStream(out)
+        ) {
+            zos.putNextEntry(new ZipEntry("com/example/Dup.class"));
+            zos.write("first".getBytes(StandardCharsets.UTF_8));
+            zos.closeEntry();
+            zos.putNextEntry(new ZipEntry("com/example/Other.class"));
+            zos.write("other".getBytes(StandardCharsets.UTF_8));
+            zos.closeEntry();
+            zos.putNextEntry(new ZipEntry("com/example/XXX.class"));
+            zos.write("last".getBytes(StandardCharsets.UTF_8));
+            zos.closeEntry();
+        }
+        final byte[] data = Files.readAllBytes(jar);
+        final byte[] from = "com/example/XXX.class".getBytes(StandardCharsets.UTF_8);
+        final byte[] to = "com/example/Dup.class".getBytes(StandardCharsets.UTF_8);
+        int replaced = 0;
+        for (int i = 0; i <= data.length - from.length; i++) {
+            if (Arrays.equals(data, i, i + from.length, from, 0, from.length)) {
+                System.arraycopy(to, 0, data, i, to.length);
+                replaced++;
+            }
+        }
+        // Once in the local header and once in the central directory
+        Assertions.assertEquals(2, replaced);
+        Files.write(jar, data);
+
+        try (
+            final ClassProviderRoot expected = ClassProviderRoot.fromJar(jar);
+            final ClassProviderRoot actual = ClassProviderRoot.fromJarIndexed(jar)
+        ) {
+            Assertions.assertArrayEquals(
+                "last".getBytes(StandardCharsets.UTF_8),
+                expected.getClassData("com/example/Dup.class")
+            );
+            Assertions.assertArrayEquals(
+                expected.getClassData("com/example/Dup.class"),
+                actual.getClassData("com/example/Dup.class")
+            );
+
+            final ArrayList<String> actualNames = new ArrayList<>();
+            for (final ClassProviderRoot.FileDataReference ref : actual.getAllClasses()) {
+                actualNames.add(ref.name());
+                Assertions.assertArrayEquals(expected.getClassData(ref.name()), ref.readData());
+            }
+            Assertions.assertEquals(List.of("com/example/Other.class", "com/example/Dup.class"), actualNames);
+        }
+    }
+}
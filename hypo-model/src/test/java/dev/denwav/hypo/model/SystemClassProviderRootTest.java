@@ -0,0 +1,106 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.model;
+
+import java.io.IOException;
+import java.lang.module.ModuleReader;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("SystemClassProviderRoot Tests")
+public class SystemClassProviderRootTest {
+
+    private static final byte[] MAGIC = {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE};
+
+    @Test
+    @DisplayName("Test reading classes from the system image")
+    public void testReadJdkClass() throws IOException {
+        try (final ClassProviderRoot root = ClassProviderRoot.ofJdk()) {
+            final byte[] first = root.getClassData("java/lang/Object.class");
+            final byte[] second = root.getClassData("java/lang/Object.class");
+            Assertions.assertNotNull(first);
+            Assertions.assertNotNull(second);
+            Assertions.assertArrayEquals(MAGIC, Arrays.copyOf(first, MAGIC.length));
+            Assertions.assertArrayEquals(first, second);
+            Assertions.assertNotSame(first, second);
+            Assertions.assertNull(root.getClassData("does/not/Exist.class"));
+        }
+    }
+
+    @Test
+    @DisplayName("Test read data is copied before the buffer is released")
+    public void testReadCopiesBeforeRelease() throws IOException {
+        final byte[] contents = "class data".getBytes(StandardCharsets.UTF_8);
+        try (final ReusingModuleReader reader = new ReusingModuleReader(contents.clone())) {
+            final byte[] data = SystemClassProviderRoot.read(reader, "Test.class");
+            Assertions.assertNotNull(data);
+            Assertions.assertArrayEquals(contents, data);
+            Assertions.assertEquals(1, reader.releases);
+            Assertions.assertNull(SystemClassProviderRoot.read(reader, "Missing.class"));
+        }
+    }
+
+    /**
+     * {@link ModuleReader} which hands out a buffer wrapping a shared array, and clears that array when the buffer is
+     * released so it can be reused for the next read.
+     */
+    private static final class ReusingModuleReader implements ModuleReader {
+
+        private final byte[] buffer;
+        int releases = 0;
+
+        ReusingModuleReader(final byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public Optional<ByteBuffer> read(final String name) {
+            if (!name.equals("Test.class")) {
+                return Optional.empty();
+            }
+            return Optional.of(ByteBuffer.wrap(this.buffer));
+        }
+
+        @Override
+        public void release(final ByteBuffer bb) {
+            this.releases++;
+            Arrays.fill(this.buffer, (byte) 0);
+        }
+
+        @Override
+        public Optional<URI> find(final String name) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Stream<String> list() {
+            return Stream.empty();
+        }
+
+        @Override
+        public void close() {}
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.model.data;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("AbstractHypoData Tests")
+public class AbstractHypoDataTest {
+
+    private static final HypoKey<String> KEY = HypoKey.create("Test Key");
+
+    @Test
+    @DisplayName("Test storing and computing values")
+    public void testStore() {
+        final TestData data = new TestData();
+        Assertions.assertNull(data.get(KEY));
+        Assertions.assertFalse(data.contains(KEY));
+
+        Assertions.assertEquals("a", data.store(KEY, "a"));
+        Assertions.assertEquals("a", data.get(KEY));
+        Assertions.assertTrue(data.contains(KEY));
+        Assertions.assertEquals("a", data.compute(KEY, () -> "b"));
+        Assertions.assertEquals("c", data.store(KEY, "c"));
+        Assertions.assertEquals("c", data.get(KEY));
+        Assertions.assertEquals(2, data.stored);
+    }
+
+    @Test
+    @DisplayName("Test storing null removes the key")
+    public void testStoreNull() {
+        final TestData data = new TestData();
+        data.store(KEY, "a");
+        Assertions.assertNull(data.store(KEY, null));
+        Assertions.assertNull(data.get(KEY));
+        Assertions.assertFalse(data.contains(KEY));
+        Assertions.assertEquals(1, data.stored);
+
+        // Once removed, the key is computed again
+        Assertions.assertEquals("b", data.compute(KEY, () -> "b"));
+        Assertions.assertEquals("b", data.get(KEY));
+        Assertions.assertEquals(2, data.stored);
+
+        // Removing a key which was never stored does nothing
+        final TestData empty = new TestData();
+        Assertions.assertNull(empty.store(KEY, null));
+        Assertions.assertFalse(empty.contains(KEY));
+        Assertions.assertEquals(0, empty.stored);
+    }
+
+    @Test
+    @DisplayName("Test keys created after data was stored")
+    public void testLateKey() {
+        final TestData data = new TestData();
+        data.store(KEY, "a");
+
+        final HypoKey<String> lateKey = HypoKey.create("Late Test Key");
+        Assertions.assertNull(data.get(lateKey));
+        Assertions.assertNull(data.store(lateKey, null));
+        Assertions.assertFalse(data.contains(lateKey));
+
+        Assertions.assertEquals("b", data.store(lateKey, "b"));
+        Assertions.assertEquals("b", data.get(lateKey));
+        Assertions.assertEquals("a", data.get(KEY));
+        data.store(KEY, null);
+        Assertions.assertFalse(data.contains(KEY));
+        Assertions.assertEquals("b", data.get(lateKey));
+    }
+
+    @Test
+    @DisplayName("Test frozen data can be read but not changed")
+    public void testFrozen() {
+        final TestData data = new TestData();
+        final TestData empty = new TestData();
+        data.store(KEY, "a");
+        data.freeze();
+        empty.freeze();
+        Assertions.assertTrue(data.isFrozen());
+
+        Assertions.assertEquals("a", data.get(KEY));
+        Assertions.assertEquals("a", data.compute(KEY, () -> "b"));
+        Assertions.assertThrows(IllegalStateException.class, () -> data.store(KEY, "b"));
+        Assertions.assertThrows(IllegalStateException.class, () -> data.store(KEY, null));
+        Assertions.assertEquals("a", data.get(KEY));
+
+        final AtomicBoolean called = new AtomicBoolean(false);
+        Assertions.assertThrows(IllegalStateException.class, () -> empty.compute(KEY, () -> {
+            called.set(true);
+            return "b";
+        }));
+        Assertions.assertFalse(called.get());
+        Assertions.assertFalse(empty.contains(KEY));
+        Assertions.assertEquals(0, empty.stored);
+    }
+
+    private static final class TestData extends AbstractHypoData {
+
+        int stored = 0;
+
+        @Override
+        void dataStored() {
+            this.stored++;
+        }
+    }
+}
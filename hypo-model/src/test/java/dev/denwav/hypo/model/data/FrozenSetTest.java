@@ -0,0 +1,68 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.model.data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("FrozenSet Tests")
+public class FrozenSetTest {
+
+    @Test
+    @DisplayName("Test frozen sets keep the order and elements of the copied set")
+    public void testCopy() {
+        // Both sizes which are scanned and sizes which are hashed
+        for (final int size : new int[] { 1, 8, 9, 100 }) {
+            final LinkedHashSet<String> source = new LinkedHashSet<>();
+            for (int i = size; i > 0; i--) {
+                source.add("element" + i);
+            }
+            final Set<String> frozen = FrozenSet.copyOf(source);
+
+            Assertions.assertEquals(size, frozen.size());
+            Assertions.assertEquals(new ArrayList<>(source), new ArrayList<>(frozen));
+            Assertions.assertEquals(source, frozen);
+            for (final String element : source) {
+                Assertions.assertTrue(frozen.contains(element), element);
+            }
+            Assertions.assertFalse(frozen.contains("element0"));
+            Assertions.assertFalse(frozen.contains(1));
+            Assertions.assertFalse(frozen.contains(null));
+            Assertions.assertSame(frozen, FrozenSet.copyOf(frozen));
+
+            Assertions.assertThrows(UnsupportedOperationException.class, () -> frozen.add("element0"));
+            Assertions.assertThrows(UnsupportedOperationException.class, () -> frozen.remove("element1"));
+            Assertions.assertThrows(UnsupportedOperationException.class, frozen::clear);
+        }
+    }
+
+    @Test
+    @DisplayName("Test copying an empty set")
+    public void testEmpty() {
+        final Set<String> frozen = FrozenSet.copyOf(new LinkedHashSet<>());
+        Assertions.assertTrue(frozen.isEmpty());
+        Assertions.assertFalse(frozen.contains(null));
+        Assertions.assertEquals(List.of(), new ArrayList<>(frozen));
+    }
+}
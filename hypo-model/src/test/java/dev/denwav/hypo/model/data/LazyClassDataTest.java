@@ -0,0 +1,237 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.model.data;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("LazyClassData Tests")
+public class LazyClassDataTest {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 50;
+
+    @Test
+    @DisplayName("Test each value is computed exactly once when requested concurrently")
+    public void testComputedOnce() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                final TestClassData data = new TestClassData();
+                final CountDownLatch start = new CountDownLatch(1);
+                final ArrayList<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < THREADS; i++) {
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        requestAll(data);
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (final Future<?> future : futures) {
+                    future.get();
+                }
+
+                Assertions.assertEquals(14, data.counts.size());
+                for (final Map.Entry<String, AtomicInteger> entry : data.counts.entrySet()) {
+                    Assertions.assertEquals(1, entry.getValue().get(), entry.getKey());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Test computed values are returned without computing them again")
+    public void testValues() throws IOException {
+        final TestClassData data = new TestClassData();
+        for (int i = 0; i < 2; i++) {
+            Assertions.assertEquals("test/TestClass", data.name());
+            Assertions.assertNull(data.outerClass());
+            Assertions.assertFalse(data.isStaticInnerClass());
+            Assertions.assertTrue(data.isFinal());
+            Assertions.assertFalse(data.isSynthetic());
+            Assertions.assertTrue(data.isSealed());
+            Assertions.assertEquals(List.of(), data.permittedClasses());
+            Assertions.assertNull(data.recordComponents());
+            Assertions.assertEquals(EnumSet.of(ClassKind.CLASS), data.kinds());
+            Assertions.assertEquals(ClassKind.maskOf(EnumSet.of(ClassKind.CLASS)), data.kindsMask());
+            Assertions.assertEquals(Visibility.PUBLIC, data.visibility());
+            Assertions.assertNull(data.superClass());
+            Assertions.assertEquals(List.of(), data.interfaces());
+            Assertions.assertEquals(List.of(), data.fields());
+            Assertions.assertEquals(List.of(), data.methods());
+        }
+        for (final Map.Entry<String, AtomicInteger> entry : data.counts.entrySet()) {
+            Assertions.assertEquals(1, entry.getValue().get(), entry.getKey());
+        }
+    }
+
+    @Test
+    @DisplayName("Test a value which fails to compute is computed again on the next request")
+    public void testFailedComputation() throws IOException {
+        final TestClassData data = new TestClassData();
+        data.failSuperClass = true;
+        Assertions.assertThrows(IOException.class, data::superClass);
+        Assertions.assertThrows(IOException.class, data::superClass);
+        data.failSuperClass = false;
+        Assertions.assertNull(data.superClass());
+        Assertions.assertNull(data.superClass());
+        Assertions.assertEquals(3, data.counts.get("superClass").get());
+    }
+
+    private static void requestAll(final @NotNull TestClassData data) throws IOException {
+        data.name();
+        data.outerClass();
+        data.isStaticInnerClass();
+        data.isFinal();
+        data.isSynthetic();
+        data.isSealed();
+        data.permittedClasses();
+        data.recordComponents();
+        data.kindsMask();
+        data.visibility();
+        data.superClass();
+        data.interfaces();
+        data.fields();
+        data.methods();
+    }
+
+    /**
+     * {@link LazyClassData} which counts how many times each value is computed.
+     */
+    private static final class TestClassData extends LazyClassData {
+
+        final Map<String, AtomicInteger> counts = new ConcurrentHashMap<>();
+        boolean failSuperClass = false;
+
+        private void count(final @NotNull String value) {
+            this.counts.computeIfAbsent(value, k -> new AtomicInteger()).incrementAndGet();
+            // Give other threads a chance to request the same value while it's being computed
+            Thread.yield();
+        }
+
+        @Override
+        public @NotNull String computeName() {
+            this.count("name");
+            return "test/TestClass";
+        }
+
+        @Override
+        public @Nullable ClassData computeOuterClass() {
+            this.count("outerClass");
+            return null;
+        }
+
+        @Override
+        public boolean computeStaticInnerClass() {
+            this.count("staticInnerClass");
+            return false;
+        }
+
+        @Override
+        public boolean computeIsFinal() {
+            this.count("isFinal");
+            return true;
+        }
+
+        @Override
+        public boolean computeIsSynthetic() {
+            this.count("isSynthetic");
+            return false;
+        }
+
+        @Override
+        public boolean computeIsSealed() {
+            this.count("isSealed");
+            return true;
+        }
+
+        @Override
+        public @Nullable List<ClassData> computePermittedClasses() {
+            this.count("permittedClasses");
+            return List.of();
+        }
+
+        @Override
+        public @Nullable List<@NotNull FieldData> computeRecordComponents() {
+            this.count("recordComponents");
+            return null;
+        }
+
+        @Override
+        public @NotNull EnumSet<ClassKind> computeClassKinds() {
+            this.count("kinds");
+            return EnumSet.of(ClassKind.CLASS);
+        }
+
+        @Override
+        public @NotNull Visibility computeVisibility() {
+            this.count("visibility");
+            return Visibility.PUBLIC;
+        }
+
+        @Override
+        public @Nullable ClassData computeSuperClass() throws IOException {
+            this.count("superClass");
+            if (this.failSuperClass) {
+                throw new IOException("Failed to read super class");
+            }
+            return null;
+        }
+
+        @Override
+        public @NotNull List<ClassData> computeInterfaces() {
+            this.count("interfaces");
+            return List.of();
+        }
+
+        @Override
+        public @NotNull List<FieldData> computeFields() {
+            this.count("fields");
+            return List.of();
+        }
+
+        @Override
+        public @NotNull List<MethodData> computeMethods() {
+            this.count("methods");
+            return List.of();
+        }
+
+        @Override
+        public boolean isContextClass() {
+            return false;
+        }
+    }
+}
@@ -25,6 +25,10 @@ import dev.denwav.hypo.model.data.types.PrimitiveType;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -76,4 +80,47 @@ public class MethodDescriptorTest {
             }
         }
     }
+
+    @Test
+    @DisplayName("Test MethodDescriptor.parseDescriptor() returns one instance per descriptor across threads")
+    public void testParseConcurrent() throws Exception {
+        final int threads = 8;
+        final int descriptors = 2_000;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<MethodDescriptor[]>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    final MethodDescriptor[] result = new MethodDescriptor[descriptors];
+                    for (int i = 0; i < descriptors; i++) {
+                        result[i] = MethodDescriptor.parseDescriptor(descriptor(i));
+                    }
+                    return result;
+                }));
+            }
+            start.countDown();
+
+            final MethodDescriptor[] expected = futures.get(0).get();
+            for (final Future<MethodDescriptor[]> future : futures) {
+                final MethodDescriptor[] actual = future.get();
+                for (int i = 0; i < descriptors; i++) {
+                    Assertions.assertSame(expected[i], actual[i]);
+                }
+            }
+            for (int i = 0; i < descriptors; i++) {
+                Assertions.assertSame(expected[i], MethodDescriptor.parseDescriptor(descriptor(i)));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Build a new string each time, so every thread interns a different key instance.
+     */
+    private static String descriptor(final int i) {
+        return "(ILjava/lang/String;[J)Lconcurrent/Type" + i + ";";
+    }
 }
@@ -0,0 +1,18 @@
+package scenario14;
+
+public abstract class BaseClass<T extends CharSequence> implements Named<T> {
+
+    public void overloaded(int value) {}
+
+    public void overloaded(String value) {}
+
+    public void overloaded(Object value) {}
+
+    protected abstract T value(T input);
+
+    void packagePrivate() {}
+
+    private void privateMethod() {}
+
+    public static void staticMethod() {}
+}
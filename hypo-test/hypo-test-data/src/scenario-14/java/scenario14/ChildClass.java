@@ -0,0 +1,41 @@
+package scenario14;
+
+public class ChildClass extends BaseClass<String> implements Describable, Comparable<ChildClass> {
+
+    @Override
+    public String name() {
+        return "child";
+    }
+
+    @Override
+    public void overloaded(String value) {}
+
+    public void overloaded(long value) {}
+
+    @Override
+    protected String value(String input) {
+        return input;
+    }
+
+    @Override
+    public String describe() {
+        return Describable.super.describe();
+    }
+
+    @Override
+    public String id(int index) {
+        return Integer.toString(index);
+    }
+
+    @Override
+    public int compareTo(ChildClass o) {
+        return 0;
+    }
+
+    @Override
+    void packagePrivate() {}
+
+    private void privateMethod() {}
+
+    public static void staticMethod() {}
+}
@@ -0,0 +1,10 @@
+package scenario14;
+
+public interface Describable {
+
+    default String describe() {
+        return "describable";
+    }
+
+    String id(int index);
+}
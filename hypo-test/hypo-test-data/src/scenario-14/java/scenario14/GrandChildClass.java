@@ -0,0 +1,22 @@
+package scenario14;
+
+public class GrandChildClass extends ChildClass implements SpecialNamed {
+
+    @Override
+    public String name() {
+        return "grand child";
+    }
+
+    @Override
+    public void overloaded(Object value) {}
+
+    @Override
+    public String describe() {
+        return SpecialNamed.super.describe();
+    }
+
+    @Override
+    public String toString() {
+        return this.name();
+    }
+}
@@ -0,0 +1,10 @@
+package scenario14;
+
+public interface Named<T> {
+
+    T name();
+
+    default String describe() {
+        return "named";
+    }
+}
@@ -0,0 +1,14 @@
+package scenario14;
+
+public interface SpecialNamed extends Named<String>, Describable {
+
+    @Override
+    default String name() {
+        return "special";
+    }
+
+    @Override
+    default String describe() {
+        return Named.super.describe();
+    }
+}
@@ -0,0 +1,14 @@
+package scenario14.other;
+
+import scenario14.ChildClass;
+
+public class OtherPackageClass extends ChildClass {
+
+    // Does not override the package private method of a class in another package
+    void packagePrivate() {}
+
+    @Override
+    protected String value(String input) {
+        return input.trim();
+    }
+}
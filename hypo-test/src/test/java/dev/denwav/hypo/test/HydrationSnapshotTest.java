@@ -0,0 +1,482 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.test;
+
+import dev.denwav.hypo.asm.AsmClassDataProvider;
+import dev.denwav.hypo.asm.AsmConstructorData;
+import dev.denwav.hypo.asm.hydrate.SuperConstructorHydrator;
+import dev.denwav.hypo.core.HypoConfig;
+import dev.denwav.hypo.core.HypoContext;
+import dev.denwav.hypo.hydrate.DefaultHydrationManager;
+import dev.denwav.hypo.hydrate.HydrationProvider;
+import dev.denwav.hypo.hydrate.HydrationSnapshot;
+import dev.denwav.hypo.hydrate.generic.HypoHydration;
+import dev.denwav.hypo.mappings.ChangeRegistry;
+import dev.denwav.hypo.mappings.MappingsCompletionManager;
+import dev.denwav.hypo.mappings.contributors.ChangeContributor;
+import dev.denwav.hypo.model.ClassProviderRoot;
+import dev.denwav.hypo.model.data.ClassData;
+import dev.denwav.hypo.model.data.HypoKey;
+import dev.denwav.hypo.model.data.MethodData;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+import java.util.jar.JarEntry;
+import java.util.jar.JarInputStream;
+import java.util.jar.JarOutputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import org.cadixdev.lorenz.MappingSet;
+import org.cadixdev.lorenz.model.ClassMapping;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+
+import static dev.denwav.hypo.test.framework.TestScenarioBase.parseTsrg;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("[hydrate] Hydration snapshot and incremental hydration tests")
+public class HydrationSnapshotTest {
+
+    private static final String CHANGED_CLASS = "scenario06/GrandChildClass";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Test restoring a snapshot of unchanged classes matches a full hydration")
+    public void testRestoreUnchanged() throws IOException {
+        final Path jar = scenarioJar("scenario-06");
+        final Path file = this.writeSnapshot(jar);
+
+        final HydrationSnapshot snapshot = HydrationSnapshot.read(file);
+        assertNotNull(snapshot);
+        try (final HypoContext context = createContext(jar)) {
+            final RecordingHydrator recorder = new RecordingHydrator();
+            createManager(recorder).hydrate(context, snapshot);
+
+            assertEquals(Set.of(), recorder.hydrated);
+            assertEquals(Set.of(), context.getAffectedClasses());
+            assertEquals(fullHydration(jar), dump(context));
+        }
+    }
+
+    @Test
+    @DisplayName("Test restoring a snapshot only hydrates changed classes and their dependents again")
+    public void testRestoreChangedClass() throws IOException {
+        final Path jar = scenarioJar("scenario-06");
+        final Path file = this.writeSnapshot(jar);
+        final Path changedJar = this.changeClass(jar, CHANGED_CLASS);
+
+        final HydrationSnapshot snapshot = HydrationSnapshot.read(file);
+        assertNotNull(snapshot);
+        try (final HypoContext context = createContext(changedJar)) {
+            final RecordingHydrator recorder = new RecordingHydrator();
+            createManager(recorder).hydrate(context, snapshot);
+
+            assertEquals(Set.of(CHANGED_CLASS, "scenario06/GreatGrandChildClass"), recorder.hydrated);
+            assertEquals(fullHydration(changedJar), dump(context));
+        }
+    }
+
+    @Test
+    @DisplayName("Test invalid snapshot files are not read")
+    public void testInvalidSnapshot() throws IOException {
+        final Path jar = scenarioJar("scenario-06");
+        final Path file = this.writeSnapshot(jar);
+        final byte[] valid = Files.readAllBytes(file);
+
+        // Truncated
+        for (final int length : new int[] { 0, 4, valid.length / 2, valid.length - 1 }) {
+            assertNull(readSnapshot(file, Arrays.copyOf(valid, length)), "Truncated to " + length);
+        }
+        // Not a compressed snapshot at all
+        assertNull(readSnapshot(file, "not a snapshot".getBytes(StandardCharsets.UTF_8)));
+        // Wrong version
+        assertNull(readSnapshot(file, rewrite(valid, data -> {
+            final ByteBuffer buffer = ByteBuffer.wrap(data);
+            buffer.putInt(4, buffer.getInt(4) + 1);
+            return data;
+        })));
+        // Corrupt, the last vertex refers to a string which doesn't exist
+        assertNull(readSnapshot(file, rewrite(valid, data -> {
+            ByteBuffer.wrap(data).putInt(data.length - 4, Integer.MAX_VALUE);
+            return data;
+        })));
+        // Corrupt, a count larger than the rest of the file
+        assertNull(readSnapshot(file, rewrite(valid, data -> {
+            ByteBuffer.wrap(data).putInt(8, Integer.MAX_VALUE);
+            return data;
+        })));
+        // Trailing data
+        assertNull(readSnapshot(file, rewrite(valid, data -> Arrays.copyOf(data, data.length + 1))));
+
+        // Sanity check the unmodified data is still valid
+        assertNotNull(readSnapshot(file, rewrite(valid, UnaryOperator.identity())));
+    }
+
+    @Test
+    @DisplayName("Test incremental hydration with an invalid state file falls back to a full hydration")
+    public void testInvalidStateFile() throws IOException {
+        final Path jar = scenarioJar("scenario-06");
+        final Path file = this.writeSnapshot(jar);
+        final byte[] valid = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(valid, valid.length / 2));
+
+        try (final HypoContext context = createContext(jar)) {
+            final RecordingHydrator recorder = new RecordingHydrator();
+            createManager(recorder).hydrateIncremental(context, file);
+
+            assertEquals(allClasses(context), recorder.hydrated);
+            assertNull(context.getAffectedClasses());
+            assertEquals(fullHydration(jar), dump(context));
+        }
+
+        // The state file was replaced with a valid one
+        assertNotNull(HydrationSnapshot.read(file));
+    }
+
+    @Test
+    @DisplayName("Test restoring a snapshot keeps the method body setting of each provider")
+    public void testProviderSettings() throws IOException {
+        final Path jar = scenarioJar("scenario-06");
+        final Path file = this.writeSnapshot(jar);
+
+        final HydrationSnapshot snapshot = HydrationSnapshot.read(file);
+        assertNotNull(snapshot);
+        final AsmClassDataProvider first = AsmClassDataProvider.of(ClassProviderRoot.fromJar(jar));
+        final AsmClassDataProvider second = AsmClassDataProvider.of(ClassProviderRoot.fromJar(scenarioJar("scenario-01")));
+        second.setSkipMethodBodies(true);
+        try (
+            final HypoContext context = HypoContext.builder()
+                .withProviders(first, second)
+                .withContextProvider(AsmClassDataProvider.of(ClassProviderRoot.ofJdk()))
+                .build()
+        ) {
+            createManager(new RecordingHydrator()).hydrate(context, snapshot);
+
+            assertFalse(first.isSkipMethodBodies());
+            assertTrue(second.isSkipMethodBodies());
+        }
+    }
+
+    @Test
+    @DisplayName("Test restoring a snapshot into a context which skips method bodies matches a full hydration")
+    public void testRestoreSkipMethodBodies() throws IOException {
+        final Path jar = scenarioJar("scenario-06");
+        final Path changedJar = this.changeClass(jar, CHANGED_CLASS);
+        final Path file = this.writeSnapshot(jar);
+
+        final HydrationSnapshot snapshot = HydrationSnapshot.read(file);
+        assertNotNull(snapshot);
+        final AsmClassDataProvider provider = AsmClassDataProvider.of(ClassProviderRoot.fromJar(changedJar));
+        try (
+            final HypoContext context = HypoContext.builder()
+                .withProvider(provider)
+                .withContextProvider(AsmClassDataProvider.of(ClassProviderRoot.ofJdk()))
+                .withConfig(HypoConfig.builder().setSkipMethodBodies(true).build())
+                .build()
+        ) {
+            assertTrue(provider.isSkipMethodBodies());
+            final RecordingHydrator recorder = new RecordingHydrator();
+            createManager(recorder).hydrate(context, snapshot);
+
+            assertTrue(provider.isSkipMethodBodies());
+            assertEquals(Set.of(CHANGED_CLASS, "scenario06/GreatGrandChildClass"), recorder.hydrated);
+            assertEquals(fullHydration(changedJar), dump(context));
+        }
+    }
+
+    @Test
+    @DisplayName("Test incremental hydration only completes the mappings of affected classes")
+    public void testIncrementalMappings() throws IOException {
+        final Path jar = scenarioJar("scenario-01");
+        final Path stateFile = this.tempDir.resolve("state.snapshot");
+        final String parentClass = "scenario01/ParentClass";
+        final String changedClass = "scenario01/ChildClass02";
+        final MappingSet mappings = parseTsrg("""
+            scenario01/ParentClass scenario01/ParentClass
+                method ()V methodNew
+            scenario01/ChildClass02 scenario01/ChildClass02
+                method ()V methodNew
+            """);
+
+        // First run, there is no state to compare against so everything is completed
+        try (final HypoContext context = createContext(jar)) {
+            createManager(new RecordingHydrator()).hydrateIncremental(context, stateFile);
+            assertNull(context.getAffectedClasses());
+
+            final RecordingContributor recorder = new RecordingContributor();
+            completeAffectedMappings(context, mappings, recorder);
+            assertEquals(allClasses(context), recorder.completed);
+        }
+
+        // Nothing changed, so nothing is completed
+        try (final HypoContext context = createContext(jar)) {
+            createManager(new RecordingHydrator()).hydrateIncremental(context, stateFile);
+            assertEquals(Set.of(), context.getAffectedClasses());
+
+            final RecordingContributor recorder = new RecordingContributor();
+            completeAffectedMappings(context, mappings, recorder);
+            assertEquals(Set.of(), recorder.completed);
+        }
+
+        // Only the changed class and the super class holding its hierarchy data are completed, not its sibling
+        final Path changedJar = this.changeClass(jar, changedClass);
+        try (final HypoContext context = createContext(changedJar)) {
+            final RecordingHydrator hydrator = new RecordingHydrator();
+            createManager(hydrator).hydrateIncremental(context, stateFile);
+            assertEquals(Set.of(changedClass), hydrator.hydrated);
+            assertEquals(Set.of(parentClass, changedClass), context.getAffectedClasses());
+
+            final RecordingContributor recorder = new RecordingContributor();
+            completeAffectedMappings(context, mappings, recorder);
+            assertEquals(Set.of(parentClass, changedClass), recorder.completed);
+        }
+    }
+
+    private static @NotNull Path scenarioJar(final @NotNull String scenario) {
+        final String testData = System.getProperty(scenario);
+        assertNotNull(testData);
+        return Paths.get(testData);
+    }
+
+    private static @NotNull HypoContext createContext(final @NotNull Path jar) throws IOException {
+        return HypoContext.builder()
+            .withProvider(AsmClassDataProvider.of(ClassProviderRoot.fromJar(jar)))
+            .withContextProvider(AsmClassDataProvider.of(ClassProviderRoot.ofJdk()))
+            .build();
+    }
+
+    private static @NotNull DefaultHydrationManager createManager(final @NotNull RecordingHydrator recorder) {
+        final DefaultHydrationManager manager = new DefaultHydrationManager();
+        manager.register(recorder);
+        return manager;
+    }
+
+    private @NotNull Path writeSnapshot(final @NotNull Path jar) throws IOException {
+        final Path file = this.tempDir.resolve("hydration.snapshot");
+        try (final HypoContext context = createContext(jar)) {
+            final DefaultHydrationManager manager = createManager(new RecordingHydrator());
+            manager.hydrate(context);
+            manager.snapshot(context).write(file);
+        }
+        return file;
+    }
+
+    private static @NotNull String fullHydration(final @NotNull Path jar) throws IOException {
+        try (final HypoContext context = createContext(jar)) {
+            createManager(new RecordingHydrator()).hydrate(context);
+            return dump(context);
+        }
+    }
+
+    private static void completeAffectedMappings(
+        final @NotNull HypoContext context,
+        final @NotNull MappingSet mappings,
+        final @NotNull RecordingContributor recorder
+    ) {
+        MappingsCompletionManager.create(context).completeAffectedMappings(mappings, List.of(recorder));
+    }
+
+    private static @Nullable HydrationSnapshot readSnapshot(
+        final @NotNull Path file,
+        final byte @NotNull [] data
+    ) throws IOException {
+        Files.write(file, data);
+        return HydrationSnapshot.read(file);
+    }
+
+    /**
+     * Decompress the given snapshot file data, modify it, and compress it again.
+     */
+    private static byte @NotNull [] rewrite(
+        final byte @NotNull [] file,
+        final @NotNull UnaryOperator<byte[]> modify
+    ) throws IOException {
+        final byte[] data;
+        try (final InputStream in = new InflaterInputStream(new ByteArrayInputStream(file))) {
+            data = in.readAllBytes();
+        }
+        final ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (final OutputStream out = new DeflaterOutputStream(result)) {
+            out.write(modify.apply(data));
+        }
+        return result.toByteArray();
+    }
+
+    /**
+     * Copy the given jar, adding a field to the given class so its class file is different.
+     */
+    private @NotNull Path changeClass(final @NotNull Path jar, final @NotNull String className) throws IOException {
+        final Path result = this.tempDir.resolve("changed.jar");
+        try (
+            final JarInputStream in = new JarInputStream(Files.newInputStream(jar));
+            final JarOutputStream out = new JarOutputStream(Files.newOutputStream(result))
+        ) {
+            JarEntry entry;
+            while ((entry = in.getNextJarEntry()) != null) {
+                byte[] data = in.readAllBytes();
+                if (entry.getName().equals(className + ".class")) {
+                    final ClassReader reader = new ClassReader(data);
+                    final ClassWriter writer = new ClassWriter(reader, 0);
+                    reader.accept(writer, 0);
+                    writer.visitField(Opcodes.ACC_PRIVATE, "changed", "I", null, null).visitEnd();
+                    data = writer.toByteArray();
+                }
+                out.putNextEntry(new JarEntry(entry.getName()));
+                out.write(data);
+                out.closeEntry();
+            }
+        }
+        return result;
+    }
+
+    private static @NotNull Set<String> allClasses(final @NotNull HypoContext context) throws IOException {
+        final HashSet<String> result = new HashSet<>();
+        for (final ClassData classData : context.getProvider().allClasses()) {
+            result.add(classData.name());
+        }
+        return result;
+    }
+
+    /**
+     * Describe all of the hydrated data of the classes in the given context.
+     */
+    private static @NotNull String dump(final @NotNull HypoContext context) throws IOException {
+        final ArrayList<ClassData> classes = new ArrayList<>();
+        for (final ClassData classData : context.getProvider().allClasses()) {
+            classes.add(classData);
+        }
+        classes.sort(Comparator.comparing(ClassData::name));
+
+        final StringBuilder sb = new StringBuilder();
+        for (final ClassData classData : classes) {
+            sb.append(classData.name())
+                .append(" children=").append(sorted(classData.childClasses()))
+                .append(" inner=").append(sorted(classData.innerClasses()))
+                .append('\n');
+            final ArrayList<MethodData> methods = new ArrayList<>(classData.methods());
+            methods.sort(Comparator.comparing(m -> m.name() + m.descriptorText()));
+            for (final MethodData method : methods) {
+                sb.append("  ").append(method.name()).append(method.descriptorText())
+                    .append(" super=").append(method.superMethod())
+                    .append(" children=").append(sorted(method.childMethods()));
+                append(sb, method, HypoHydration.SUPER_CALL_TARGET);
+                append(sb, method, HypoHydration.SUPER_CALLER_SOURCES);
+                sb.append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void append(
+        final @NotNull StringBuilder sb,
+        final @NotNull MethodData method,
+        final @NotNull HypoKey<?> key
+    ) {
+        final Object value = method.get(key);
+        if (value != null) {
+            sb.append(' ').append(key).append('=').append(value instanceof Iterable<?> ? sorted((Iterable<?>) value) : value);
+        }
+    }
+
+    private static @NotNull List<String> sorted(final @NotNull Iterable<?> values) {
+        final ArrayList<String> result = new ArrayList<>();
+        for (final Object value : values) {
+            result.add(String.valueOf(value));
+        }
+        result.sort(null);
+        return result;
+    }
+
+    /**
+     * Runs {@link SuperConstructorHydrator} and records which classes it was run against.
+     */
+    private static final class RecordingHydrator implements HydrationProvider<AsmConstructorData> {
+
+        private final SuperConstructorHydrator delegate = SuperConstructorHydrator.create();
+        private final Set<String> hydrated = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public @NotNull Class<? extends AsmConstructorData> target() {
+            return this.delegate.target();
+        }
+
+        @Override
+        public void hydrate(final @NotNull AsmConstructorData data, final @NotNull HypoContext context) throws IOException {
+            this.hydrated.add(data.parentClass().name());
+            this.delegate.hydrate(data, context);
+        }
+
+        @Override
+        public List<HypoKey<?>> provides() {
+            return this.delegate.provides();
+        }
+    }
+
+    /**
+     * Records which classes mappings completion was run for.
+     */
+    private static final class RecordingContributor implements ChangeContributor {
+
+        private final Set<String> completed = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public void contribute(
+            final @Nullable ClassData currentClass,
+            final @Nullable ClassMapping<?, ?> classMapping,
+            final @NotNull HypoContext context,
+            final @NotNull ChangeRegistry registry
+        ) {
+            if (currentClass != null) {
+                this.completed.add(currentClass.name());
+            }
+        }
+
+        @Override
+        public @NotNull String name() {
+            return "RecordingContributor";
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.test;
+
+import dev.denwav.hypo.asm.AsmClassDataProvider;
+import dev.denwav.hypo.core.HypoContext;
+import dev.denwav.hypo.hydrate.DefaultClassDataHydrator;
+import dev.denwav.hypo.model.ClassProviderRoot;
+import dev.denwav.hypo.model.data.ClassData;
+import dev.denwav.hypo.model.data.MethodData;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("[hydrate] Method hierarchy hydration tests")
+public class MethodHierarchyTest {
+
+    private static final int SCENARIO_COUNT = 14;
+
+    @Test
+    @DisplayName("Test hydrated super and child methods match walking the class hierarchy")
+    public void testMatchesHierarchyWalk() throws IOException {
+        int overrides = 0;
+        for (int i = 1; i <= SCENARIO_COUNT; i++) {
+            final String scenario = String.format("scenario-%02d", i);
+            try (final HypoContext context = createContext(scenario)) {
+                final ArrayList<ClassData> classes = new ArrayList<>();
+                context.getProvider().allClasses().forEach(classes::add);
+
+                final HashMap<MethodData, MethodData> superMethods = new HashMap<>();
+                final HashMap<MethodData, Set<MethodData>> childMethods = new HashMap<>();
+                for (final ClassData classData : classes) {
+                    walkMethods(classData, superMethods, childMethods);
+                }
+
+                new DefaultClassDataHydrator().hydrate(context);
+
+                for (final ClassData classData : classes) {
+                    for (final MethodData method : classData.methods()) {
+                        assertEquals(superMethods.get(method), method.superMethod(), scenario + " " + method);
+                    }
+                }
+                for (final Map.Entry<MethodData, Set<MethodData>> entry : childMethods.entrySet()) {
+                    assertEquals(entry.getValue(), entry.getKey().childMethods(), scenario + " " + entry.getKey());
+                }
+                overrides += superMethods.size();
+            }
+        }
+        assertTrue(overrides > 0);
+    }
+
+    private static @NotNull HypoContext createContext(final @NotNull String scenario) throws IOException {
+        final String testData = System.getProperty(scenario);
+        assertNotNull(testData);
+        return HypoContext.builder()
+            .withProvider(AsmClassDataProvider.of(ClassProviderRoot.fromJar(Paths.get(testData))))
+            .withContextProvider(AsmClassDataProvider.of(ClassProviderRoot.ofJdk()))
+            .build();
+    }
+
+    /**
+     * Find the methods the methods of the given class override by checking every method of every super type, in the
+     * same order hydration originally checked them. Every overridden method is a child method of the method it
+     * overrides, and the first one found, as {@link MethodData#setSuperMethod(MethodData)} only keeps the first method it
+     * is given, is its super method.
+     */
+    private static void walkMethods(
+        final @NotNull ClassData classData,
+        final @NotNull Map<MethodData, MethodData> superMethods,
+        final @NotNull Map<MethodData, Set<MethodData>> childMethods
+    ) throws IOException {
+        for (final MethodData method : classData.methods()) {
+            if (!method.isConstructor()) {
+                classData.forEachSuperClass(p -> walkSuperMethods(method, p, superMethods, childMethods));
+            }
+        }
+    }
+
+    private static void walkSuperMethods(
+        final @NotNull MethodData baseMethod,
+        final @Nullable ClassData parentClass,
+        final @NotNull Map<MethodData, MethodData> superMethods,
+        final @NotNull Map<MethodData, Set<MethodData>> childMethods
+    ) throws IOException {
+        if (parentClass == null) {
+            return;
+        }
+        parentClass.forEachSuperClass(p -> walkSuperMethods(baseMethod, p, superMethods, childMethods));
+
+        for (final MethodData method : parentClass.methods()) {
+            if (method.isConstructor() || baseMethod.equals(method)) {
+                continue;
+            }
+            if (baseMethod.overrides(method)) {
+                superMethods.putIfAbsent(baseMethod, method);
+                childMethods.computeIfAbsent(method, k -> new HashSet<>()).add(baseMethod);
+            }
+        }
+    }
+}
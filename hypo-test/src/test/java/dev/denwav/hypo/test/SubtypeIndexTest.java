@@ -0,0 +1,153 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.test;
+
+import dev.denwav.hypo.asm.AsmClassDataProvider;
+import dev.denwav.hypo.core.HypoContext;
+import dev.denwav.hypo.model.ClassProviderRoot;
+import dev.denwav.hypo.model.data.ClassData;
+import dev.denwav.hypo.model.data.SubtypeIndex;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("[model] Subtype index tests")
+public class SubtypeIndexTest {
+
+    private static final int SCENARIO_COUNT = 14;
+
+    @Test
+    @DisplayName("Test the subtype index matches walking the class hierarchy")
+    public void testMatchesHierarchyWalk() throws IOException {
+        for (int i = 1; i <= SCENARIO_COUNT; i++) {
+            final String scenario = String.format("scenario-%02d", i);
+            try (final HypoContext context = createContext(scenario)) {
+                final List<ClassData> classes = withSuperTypes(context.getProvider().allClasses());
+                // No class has been indexed yet, so this walks the hierarchy
+                final List<String> expected = relations(classes);
+
+                final SubtypeIndex index = SubtypeIndex.build(classes);
+                assertEquals(classes.size(), index.size(), scenario);
+                for (final ClassData classData : classes) {
+                    final SubtypeIndex.Node node = classData.subtypeNode();
+                    assertNotNull(node, classData.name());
+                    assertSame(index, node.index());
+                }
+                assertEquals(expected, relations(classes), scenario);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test classes from different subtype indexes fall back to walking the class hierarchy")
+    public void testDifferentIndexes() throws IOException {
+        for (int i = 1; i <= SCENARIO_COUNT; i++) {
+            final String scenario = String.format("scenario-%02d", i);
+            try (final HypoContext context = createContext(scenario)) {
+                final List<ClassData> classes = withSuperTypes(context.getProvider().allClasses());
+                final List<String> expected = relations(classes);
+
+                final SubtypeIndex first = SubtypeIndex.build(classes);
+                // Index the last class again on its own, which moves it and its super types to the second index
+                final ClassData last = classes.get(classes.size() - 1);
+                final SubtypeIndex second = SubtypeIndex.build(List.of(last));
+                final SubtypeIndex.Node lastNode = last.subtypeNode();
+                assertNotNull(lastNode);
+                assertSame(second, lastNode.index());
+                assertNotSame(first, second);
+
+                assertEquals(expected, relations(classes), scenario);
+            }
+        }
+    }
+
+    private static @NotNull HypoContext createContext(final @NotNull String scenario) throws IOException {
+        final String testData = System.getProperty(scenario);
+        assertNotNull(testData);
+        return HypoContext.builder()
+            .withProvider(AsmClassDataProvider.of(ClassProviderRoot.fromJar(Paths.get(testData))))
+            .withContextProvider(AsmClassDataProvider.of(ClassProviderRoot.ofJdk()))
+            .build();
+    }
+
+    /**
+     * Returns the given classes and all of their super types, with super types before the classes that extend or
+     * implement them.
+     */
+    private static @NotNull List<ClassData> withSuperTypes(final @NotNull Iterable<ClassData> classes) throws IOException {
+        final ArrayList<ClassData> sorted = new ArrayList<>();
+        classes.forEach(sorted::add);
+        sorted.sort(Comparator.comparing(ClassData::name));
+
+        final LinkedHashSet<ClassData> result = new LinkedHashSet<>();
+        for (final ClassData classData : sorted) {
+            addWithSuperTypes(classData, result);
+        }
+        assertTrue(result.size() > sorted.size());
+        return new ArrayList<>(result);
+    }
+
+    private static void addWithSuperTypes(
+        final @NotNull ClassData classData,
+        final @NotNull Set<ClassData> result
+    ) throws IOException {
+        if (result.contains(classData)) {
+            return;
+        }
+        final ClassData superClass = classData.superClass();
+        if (superClass != null) {
+            addWithSuperTypes(superClass, result);
+        }
+        for (final ClassData iface : classData.interfaces()) {
+            addWithSuperTypes(iface, result);
+        }
+        result.add(classData);
+    }
+
+    /**
+     * Describe how every pair of the given classes relate to each other.
+     */
+    private static @NotNull List<String> relations(final @NotNull List<ClassData> classes) {
+        final ArrayList<String> result = new ArrayList<>();
+        for (final ClassData classData : classes) {
+            for (final ClassData that : classes) {
+                result.add(
+                    classData.name() + " -> " + that.name() + ": "
+                        + classData.doesExtend(that) + " "
+                        + classData.doesImplement(that) + " "
+                        + classData.doesExtendOrImplement(that)
+                );
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Hypo, an extensible and pluggable Java bytecode analytical model.
+ *
+ * Copyright (C) 2023  Kyle Wood (DenWav)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Lesser GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License only.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package dev.denwav.hypo.test.scenarios;
+
+import dev.denwav.hypo.model.data.ClassData;
+import dev.denwav.hypo.model.data.MethodData;
+import dev.denwav.hypo.test.framework.TestScenarioBase;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@DisplayName("[integration] Scenario 14 - Method override links with overloads, bridges, generics and default methods")
+public class Scenario14Test extends TestScenarioBase {
+
+    @Override
+    public @NotNull Env env() {
+        return new Env() {
+            @Override
+            public @NotNull String forContext() {
+                return "scenario-14";
+            }
+
+            @Override
+            public boolean includeJdk() {
+                return true;
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("Test super and child method links match overrides()")
+    void testLinksMatchOverrides() throws Exception {
+        final TreeSet<String> expectedSuper = new TreeSet<>();
+        final TreeSet<String> expectedChildren = new TreeSet<>();
+        final TreeSet<String> actualSuper = new TreeSet<>();
+        final TreeSet<String> actualChildren = new TreeSet<>();
+
+        final LinkedHashSet<ClassData> classes = new LinkedHashSet<>();
+        for (final ClassData classData : this.context().getProvider().allClasses()) {
+            for (final MethodData method : classData.methods()) {
+                if (method.isConstructor()) {
+                    continue;
+                }
+                final List<MethodData> overridden = overriddenMethods(method);
+                if (!overridden.isEmpty()) {
+                    expectedSuper.add(describe(method) + " -> " + describe(overridden.get(0)));
+                }
+                for (final MethodData superMethod : overridden) {
+                    expectedChildren.add(describe(superMethod) + " <- " + describe(method));
+                }
+                final MethodData superMethod = method.superMethod();
+                if (superMethod != null) {
+                    actualSuper.add(describe(method) + " -> " + describe(superMethod));
+                }
+            }
+            classes.add(classData);
+            classes.addAll(superClasses(classData));
+        }
+        for (final ClassData classData : classes) {
+            for (final MethodData method : classData.methods()) {
+                for (final MethodData childMethod : method.childMethods()) {
+                    actualChildren.add(describe(method) + " <- " + describe(childMethod));
+                }
+            }
+        }
+
+        assertEquals(String.join("\n", expectedSuper), String.join("\n", actualSuper));
+        assertEquals(String.join("\n", expectedChildren), String.join("\n", actualChildren));
+    }
+
+    @Test
+    @DisplayName("Test super method links of overloads, bridges and default methods")
+    void testSuperMethods() throws Exception {
+        final ClassData base = this.findClass("scenario14/BaseClass");
+        final ClassData child = this.findClass("scenario14/ChildClass");
+        final ClassData grandChild = this.findClass("scenario14/GrandChildClass");
+        final ClassData other = this.findClass("scenario14/other/OtherPackageClass");
+
+        // Overloads only link to the method with the same descriptor
+        assertSame(
+            findMethod(base, "overloaded", "(Ljava/lang/String;)V"),
+            findMethod(child, "overloaded", "(Ljava/lang/String;)V").superMethod()
+        );
+        assertNull(findMethod(child, "overloaded", "(J)V").superMethod());
+        assertSame(
+            findMethod(base, "overloaded", "(Ljava/lang/Object;)V"),
+            findMethod(grandChild, "overloaded", "(Ljava/lang/Object;)V").superMethod()
+        );
+
+        // Bridge methods link to the erased method, the real method only links to methods with its own descriptor
+        assertSame(
+            findMethod(base, "value", "(Ljava/lang/CharSequence;)Ljava/lang/CharSequence;"),
+            findMethod(child, "value", "(Ljava/lang/CharSequence;)Ljava/lang/CharSequence;").superMethod()
+        );
+        assertNull(findMethod(child, "value", "(Ljava/lang/String;)Ljava/lang/String;").superMethod());
+        assertSame(
+            findMethod(child, "value", "(Ljava/lang/String;)Ljava/lang/String;"),
+            findMethod(other, "value", "(Ljava/lang/String;)Ljava/lang/String;").superMethod()
+        );
+
+        // Default methods are overridden like any other interface method
+        final MethodData grandChildDescribe = findMethod(grandChild, "describe", "()Ljava/lang/String;");
+        final MethodData specialDescribe =
+            findMethod(this.findClass("scenario14/SpecialNamed"), "describe", "()Ljava/lang/String;");
+        assertNotNull(grandChildDescribe.superMethod());
+        assertEquals(Set.of(grandChildDescribe), specialDescribe.childMethods());
+        assertEquals(
+            Set.of(findMethod(child, "describe", "()Ljava/lang/String;"), specialDescribe, grandChildDescribe),
+            findMethod(this.findClass("scenario14/Describable"), "describe", "()Ljava/lang/String;").childMethods()
+        );
+
+        // Package private methods are only overridden from the same package, private and static methods never are
+        assertSame(findMethod(base, "packagePrivate", "()V"), findMethod(child, "packagePrivate", "()V").superMethod());
+        assertNull(findMethod(other, "packagePrivate", "()V").superMethod());
+        assertNull(findMethod(child, "privateMethod", "()V").superMethod());
+        assertNull(findMethod(child, "staticMethod", "()V").superMethod());
+    }
+
+    /**
+     * Find the methods the given method overrides by checking {@link MethodData#overrides(MethodData)} against every
+     * method of every super type, in the same depth first order hydration visits them, so the first result is the
+     * expected {@link MethodData#superMethod() super method}.
+     */
+    private static @NotNull List<MethodData> overriddenMethods(final @NotNull MethodData method) throws IOException {
+        final ArrayList<MethodData> result = new ArrayList<>();
+        method.parentClass().forEachSuperClass(superClass -> overriddenMethods(method, superClass, result));
+        return result;
+    }
+
+    private static void overriddenMethods(
+        final @NotNull MethodData method,
+        final @NotNull ClassData superClass,
+        final @NotNull List<MethodData> result
+    ) throws IOException {
+        superClass.forEachSuperClass(c -> overriddenMethods(method, c, result));
+        for (final MethodData superMethod : superClass.methods()) {
+            if (!superMethod.isConstructor() && !result.contains(superMethod) && method.overrides(superMethod)) {
+                result.add(superMethod);
+            }
+        }
+    }
+
+    private static @NotNull Set<ClassData> superClasses(final @NotNull ClassData classData) throws IOException {
+        final HashSet<ClassData> result = new HashSet<>();
+        final ArrayDeque<ClassData> queue = new ArrayDeque<>();
+        queue.add(classData);
+        ClassData next;
+        while ((next = queue.poll()) != null) {
+            next.forEachSuperClass(superClass -> {
+                if (result.add(superClass)) {
+                    queue.add(superClass);
+                }
+            });
+        }
+        return result;
+    }
+
+    private static @NotNull String describe(final @NotNull MethodData method) {
+        return method.parentClass().name() + "#" + method.name() + method.descriptorText();
+    }
+}